@@ -0,0 +1,116 @@
+package com.github.pooya1361.makerspace.benchmark;
+
+import com.github.pooya1361.makerspace.dto.response.ScheduledLessonResponseDTO;
+import com.github.pooya1361.makerspace.mapper.ScheduledLessonMapper;
+import com.github.pooya1361.makerspace.model.ProposedTimeSlot;
+import com.github.pooya1361.makerspace.model.ScheduledLesson;
+import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import com.github.pooya1361.makerspace.repository.LessonUserRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository.AvailableScheduledLesson;
+import com.github.pooya1361.makerspace.repository.SummaryRepository;
+import com.github.pooya1361.makerspace.service.AvailableLessonsFeed;
+import com.github.pooya1361.makerspace.service.SummaryService;
+import com.github.pooya1361.makerspace.service.SummarySnapshotCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SummaryService#getAvailableLessons} over a user with many pending lessons.
+ * The user's feed is built once in the setup, so the numbers cover the feed lookup, restoring its order on the
+ * fetched graph (an in-memory stub here) and DTO mapping. {@code reorderOnly} swaps in a no-op mapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvailableLessonsBenchmark {
+
+    @Param({"100", "1000"})
+    public int scheduledLessons;
+
+    @Param({"5"})
+    public int slotsPerLesson;
+
+    private AnnotationConfigApplicationContext context;
+    private SummaryService summaryService;
+    private SummaryService reorderOnlySummaryService;
+    private Authentication authentication;
+
+    @Setup
+    public void setUp() {
+        User student = BenchmarkFixtures.user(1L, UserType.NORMAL);
+        authentication = new UsernamePasswordAuthenticationToken(student, null, student.getAuthorities());
+
+        List<ScheduledLesson> lessons = new ArrayList<>(
+                BenchmarkFixtures.scheduledLessons(scheduledLessons, slotsPerLesson, 10));
+        // The graph fetch returns rows in no particular order
+        Collections.shuffle(lessons, new Random(7));
+        List<Long> lessonIds = lessons.stream().map(scheduledLesson -> scheduledLesson.getLesson().getId()).toList();
+        List<AvailableScheduledLesson> rows = lessons.stream()
+                .map(AvailableLessonsBenchmark::availableRow)
+                .toList();
+
+        LessonUserRepository lessonUserRepository = BenchmarkFixtures.stub(LessonUserRepository.class, Map.of(
+                "findPendingLessonIdsByUserEmail", args -> lessonIds));
+        ScheduledLessonRepository scheduledLessonRepository = BenchmarkFixtures.stub(ScheduledLessonRepository.class, Map.of(
+                "findAvailableByLessonIdIn", args -> rows,
+                "findWithDetailsByIdIn", args -> lessons));
+        AvailableLessonsFeed availableLessonsFeed = new AvailableLessonsFeed(lessonUserRepository, scheduledLessonRepository, 100);
+        SummarySnapshotCache summarySnapshotCache = new SummarySnapshotCache(
+                BenchmarkFixtures.stub(SummaryRepository.class, Map.of()));
+
+        context = new AnnotationConfigApplicationContext("com.github.pooya1361.makerspace.mapper");
+        ScheduledLessonMapper scheduledLessonMapper = context.getBean(ScheduledLessonMapper.class);
+        ScheduledLessonMapper noOpMapper = BenchmarkFixtures.stub(ScheduledLessonMapper.class, Map.of(
+                "toDtoList", args -> List.of()));
+
+        summaryService = new SummaryService(summarySnapshotCache, availableLessonsFeed, scheduledLessonRepository,
+                scheduledLessonMapper);
+        reorderOnlySummaryService = new SummaryService(summarySnapshotCache, availableLessonsFeed, scheduledLessonRepository,
+                noOpMapper);
+        // Measure the steady state: the user's feed is already built
+        summaryService.getAvailableLessons(authentication);
+    }
+
+    private static AvailableScheduledLesson availableRow(ScheduledLesson scheduledLesson) {
+        OffsetDateTime earliestStart = scheduledLesson.getProposedTimeSlots().stream()
+                .map(ProposedTimeSlot::getProposedStartTime)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        return new AvailableScheduledLesson() {
+            public Long getScheduledLessonId() { return scheduledLesson.getId(); }
+            public Long getLessonId() { return scheduledLesson.getLesson().getId(); }
+            public OffsetDateTime getEarliestStart() { return earliestStart; }
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ScheduledLessonResponseDTO> getAvailableLessons() {
+        return summaryService.getAvailableLessons(authentication);
+    }
+
+    @Benchmark
+    public List<ScheduledLessonResponseDTO> reorderOnly() {
+        return reorderOnlySummaryService.getAvailableLessons(authentication);
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.pooya1361.makerspace.benchmark;
+
+import com.github.pooya1361.makerspace.model.*;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import com.github.pooya1361.makerspace.repository.UserRepository;
+import com.github.pooya1361.makerspace.security.JwtService;
+import com.github.pooya1361.makerspace.security.TokenVersionCache;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Builds detached, in-memory object graphs shaped like the ones the services load from the database.
+ * A fixed seed keeps every benchmark run working on the same data.
+ */
+final class BenchmarkFixtures {
+
+    static final String JWT_SECRET = "GT1bzgCAbj3ToNPQIdxQvvJNkiZ2RU2xPpX4WH3jDuY=";
+
+    private static final OffsetDateTime BASE_TIME = OffsetDateTime.of(2025, 1, 6, 8, 0, 0, 0, ZoneOffset.UTC);
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtService jwtService(int claimsCacheSize, boolean stateless) {
+        // Every fixture user is on token version 0
+        UserRepository userRepository = stub(UserRepository.class,
+                Map.of("findTokenVersionById", args -> Optional.of(0L)));
+        JwtService service = new JwtService(new TokenVersionCache(userRepository, 30, 10_000), userRepository);
+        ReflectionTestUtils.setField(service, "secretKey", JWT_SECRET);
+        ReflectionTestUtils.setField(service, "accessExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(service, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(service, "refreshExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(service, "statelessAuthentication", stateless);
+        ReflectionTestUtils.setField(service, "claimsCacheMaxSize", claimsCacheSize);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+
+    /**
+     * Creates an in-memory implementation of a repository (or any other interface) that answers the given methods
+     * by name and rejects everything else, so benchmarks measure the service and not a mocking framework.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return answer.apply(args);
+        });
+    }
+
+    static User user(long id, UserType userType) {
+        return User.builder()
+                .id(id)
+                .email("user" + id + "@example.com")
+                .password("encodedPassword" + id)
+                .firstName("First" + id)
+                .lastName("Last" + id)
+                .userType(userType)
+                .build();
+    }
+
+    /**
+     * Creates scheduled lessons with their lesson/activity/workshop chain, instructor, proposed time slots and votes.
+     * Slot start times are shuffled so sorting by the earliest slot has real work to do.
+     */
+    static List<ScheduledLesson> scheduledLessons(int count, int slotsPerLesson, int votesPerSlot) {
+        Random random = new Random(42);
+        List<User> voters = new ArrayList<>();
+        for (int i = 0; i < Math.max(votesPerSlot, 1) * 4; i++) {
+            voters.add(user(10_000L + i, UserType.NORMAL));
+        }
+
+        // The back-reference stays empty: Lombok's hashCode would recurse through workshop <-> activity,
+        // which only works in the application because Hibernate's collection wrappers use identity hashCode
+        Workshop workshop = new Workshop(1L, "Wood workshop", "Benchmark workshop", 120.0, new ArrayList<>());
+        Activity activity = new Activity(1L, "Turning", "Benchmark activity", workshop);
+
+        long slotId = 1;
+        long voteId = 1;
+        List<ScheduledLesson> scheduledLessons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Lesson lesson = new Lesson((long) i + 1, "Lesson " + i, "Benchmark lesson " + i, activity);
+            ScheduledLesson scheduledLesson = new ScheduledLesson();
+            scheduledLesson.setId((long) i + 1);
+            scheduledLesson.setStartTime(Optional.empty());
+            scheduledLesson.setDurationInMinutes(90L);
+            scheduledLesson.setLesson(lesson);
+            scheduledLesson.setInstructor(user(1_000L + i % 20, UserType.INSTRUCTOR));
+
+            for (int s = 0; s < slotsPerLesson; s++) {
+                ProposedTimeSlot slot = new ProposedTimeSlot();
+                slot.setId(slotId++);
+                slot.setProposedStartTime(BASE_TIME.plusHours(random.nextInt(24 * 90)));
+                slot.setCreatedAt(BASE_TIME);
+                slot.setScheduledLesson(scheduledLesson);
+                for (int v = 0; v < votesPerSlot; v++) {
+                    Vote vote = new Vote();
+                    vote.setId(voteId++);
+                    vote.setProposedTimeSlot(slot);
+                    vote.setUser(voters.get(random.nextInt(voters.size())));
+                    slot.getVotes().add(vote);
+                }
+                scheduledLesson.getProposedTimeSlots().add(slot);
+            }
+            scheduledLessons.add(scheduledLesson);
+        }
+        return scheduledLessons;
+    }
+}
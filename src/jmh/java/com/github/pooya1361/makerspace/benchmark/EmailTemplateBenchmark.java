@@ -0,0 +1,67 @@
+package com.github.pooya1361.makerspace.benchmark;
+
+import com.github.pooya1361.makerspace.service.EmailTemplateRenderer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the HTML rendering cost per recipient of a new-slot notification sent to 10k interested users.
+ * {@code renderOncePerBatch} is what EmailService does: one template render per lesson, then the greeting is
+ * substituted per recipient. {@code renderPerRecipient} runs the (cached) template once per recipient instead.
+ * Scores are per recipient; building and sending the MIME message is not included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailTemplateBenchmark {
+
+    private static final int RECIPIENTS = 10_000;
+
+    private EmailTemplateRenderer renderer;
+    private List<String> recipientNames;
+
+    @Setup
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        renderer = new EmailTemplateRenderer(templateEngine, "http://localhost:3000");
+
+        recipientNames = new ArrayList<>(RECIPIENTS);
+        for (int i = 0; i < RECIPIENTS; i++) {
+            // Every tenth user has no first name and gets the default greeting
+            recipientNames.add(i % 10 == 0 ? null : "Student " + i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECIPIENTS)
+    public void renderOncePerBatch(Blackhole blackhole) {
+        EmailTemplateRenderer.BatchEmail email = renderer.renderNewScheduledLesson("Wood turning", 42L);
+        for (String recipientName : recipientNames) {
+            blackhole.consume(email.htmlFor(recipientName));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECIPIENTS)
+    public void renderPerRecipient(Blackhole blackhole) {
+        for (String recipientName : recipientNames) {
+            blackhole.consume(renderer.renderNewScheduledLesson("Wood turning", 42L).htmlFor(recipientName));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.pooya1361.makerspace.benchmark;
+
+import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import com.github.pooya1361.makerspace.security.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what the JWT filter spends per request: signature verification and claim parsing
+ * with and without the claims cache, and the two validation paths (database-backed and stateless).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private JwtService cachingService;
+    private JwtService uncachedService;
+    private JwtService statelessService;
+    private String token;
+    private Claims claims;
+    private UserDetails userDetails;
+
+    @Setup
+    public void setUp() {
+        cachingService = BenchmarkFixtures.jwtService(10_000, false);
+        uncachedService = BenchmarkFixtures.jwtService(0, false);
+        statelessService = BenchmarkFixtures.jwtService(10_000, true);
+
+        User user = BenchmarkFixtures.user(1L, UserType.ADMIN);
+        token = cachingService.generateToken(user);
+        claims = cachingService.extractAllClaims(token);
+        userDetails = new org.springframework.security.core.userdetails.User(
+                user.getEmail(), user.getPassword(), user.getAuthorities());
+    }
+
+    @Benchmark
+    public Claims parseUncached() {
+        return uncachedService.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public Claims parseCached() {
+        return cachingService.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public boolean validateAgainstUserDetails() {
+        return cachingService.isTokenValid(claims, userDetails);
+    }
+
+    @Benchmark
+    public UserDetails buildStatelessUserDetails() {
+        return statelessService.buildUserDetails(claims);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingService.generateToken(BenchmarkFixtures.user(1L, UserType.ADMIN));
+    }
+}
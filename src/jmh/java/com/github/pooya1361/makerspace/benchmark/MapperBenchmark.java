@@ -0,0 +1,68 @@
+package com.github.pooya1361.makerspace.benchmark;
+
+import com.github.pooya1361.makerspace.dto.response.ProposedTimeSlotResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.ScheduledLessonResponseDTO;
+import com.github.pooya1361.makerspace.mapper.ProposedTimeSlotMapper;
+import com.github.pooya1361.makerspace.mapper.ScheduledLessonMapper;
+import com.github.pooya1361.makerspace.model.ProposedTimeSlot;
+import com.github.pooya1361.makerspace.model.ScheduledLesson;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the MapStruct list mappings used by the scheduled-lesson and time-slot endpoints on large graphs.
+ * The generated mappers are wired by a minimal Spring context, exactly as in the application.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"100", "1000"})
+    public int scheduledLessons;
+
+    @Param({"5"})
+    public int slotsPerLesson;
+
+    @Param({"20"})
+    public int votesPerSlot;
+
+    private AnnotationConfigApplicationContext context;
+    private ScheduledLessonMapper scheduledLessonMapper;
+    private ProposedTimeSlotMapper proposedTimeSlotMapper;
+    private List<ScheduledLesson> lessons;
+    private List<ProposedTimeSlot> slots;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext("com.github.pooya1361.makerspace.mapper");
+        scheduledLessonMapper = context.getBean(ScheduledLessonMapper.class);
+        proposedTimeSlotMapper = context.getBean(ProposedTimeSlotMapper.class);
+
+        lessons = BenchmarkFixtures.scheduledLessons(scheduledLessons, slotsPerLesson, votesPerSlot);
+        slots = lessons.stream()
+                .flatMap(lesson -> lesson.getProposedTimeSlots().stream())
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ScheduledLessonResponseDTO> scheduledLessonToDtoList() {
+        return scheduledLessonMapper.toDtoList(lessons);
+    }
+
+    @Benchmark
+    public List<ProposedTimeSlotResponseDTO> proposedTimeSlotToDtoList() {
+        return proposedTimeSlotMapper.toDtoList(slots);
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.pooya1361.makerspace.benchmark;
+
+import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import com.github.pooya1361.makerspace.repository.UserRepository;
+import com.github.pooya1361.makerspace.security.UserDetailsServiceImpl;
+import com.github.pooya1361.makerspace.security.UserPrincipalCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures authority construction in {@link UserDetailsServiceImpl}: the precomputed role hierarchy lookup,
+ * and a full principal load served from the principal cache or rebuilt from a (stubbed) repository.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserDetailsBenchmark {
+
+    @Param({"NORMAL", "SUPERADMIN"})
+    public UserType userType;
+
+    private UserDetailsServiceImpl cachedService;
+    private UserDetailsServiceImpl uncachedService;
+    private String email;
+
+    @Setup
+    public void setUp() {
+        User user = BenchmarkFixtures.user(1L, userType);
+        email = user.getEmail();
+
+        UserRepository repository = BenchmarkFixtures.stub(UserRepository.class, Map.of(
+                "findByEmail", args -> user.getEmail().equals(args[0]) ? Optional.of(user) : Optional.empty()));
+
+        cachedService = new UserDetailsServiceImpl(repository, new UserPrincipalCache(300, 10_000));
+        cachedService.loadUserByUsername(email);
+        // A zero TTL disables the cache, so every call rebuilds the principal
+        uncachedService = new UserDetailsServiceImpl(repository, new UserPrincipalCache(0, 10_000));
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> authoritiesForUserType() {
+        return UserDetailsServiceImpl.getAuthorities(userType);
+    }
+
+    @Benchmark
+    public UserDetails loadUserFromCache() {
+        return cachedService.loadUserByUsername(email);
+    }
+
+    @Benchmark
+    public UserDetails loadUserFromRepository() {
+        return uncachedService.loadUserByUsername(email);
+    }
+}
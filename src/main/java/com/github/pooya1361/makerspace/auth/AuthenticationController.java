@@ -21,20 +21,29 @@ import com.github.pooya1361.makerspace.model.User;
 import com.github.pooya1361.makerspace.model.enums.UserType;
 import com.github.pooya1361.makerspace.repository.UserRepository;
 import com.github.pooya1361.makerspace.security.JwtService; // Your JwtService
+import com.github.pooya1361.makerspace.security.UserPrincipalCache;
+import com.github.pooya1361.makerspace.service.SummaryChangedEvent;
 
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor; // Make sure Lombok is imported
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.env.Environment;
 import org.springframework.beans.factory.annotation.Value;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
+@Slf4j
 public class AuthenticationController {
 
     private final AuthenticationManager authenticationManager;
@@ -42,6 +51,8 @@ public class AuthenticationController {
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final UserPrincipalCache userPrincipalCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${spring.profiles.active:}")
     private String activeProfile;
@@ -62,6 +73,8 @@ public class AuthenticationController {
                 .userType(UserType.NORMAL) // Assign a default role
                 .build();
         userRepository.save(user);
+        eventPublisher.publishEvent(new SummaryChangedEvent(User.class));
+        userPrincipalCache.evict(user.getEmail());
         return ResponseEntity.ok(AuthenticationResponse.builder().message("Registration successful").build());
     }
 
@@ -87,19 +100,16 @@ public class AuthenticationController {
 
         boolean isSecure = Objects.equals(activeProfile, "prod");
 
-        ResponseCookie cookieBuilder = ResponseCookie.from("accessToken", jwtToken)
-                .httpOnly(true)
-                .path("/")
-                .maxAge(7 * 24 * 60 * 60)
-                .secure(isSecure)
-                .sameSite(isSecure ? "None" : "Lax")
-                .domain(isSecure ? ".mahpeikar.se" : null)
-                .build();
+        ResponseCookie cookieBuilder = buildAccessTokenCookie(jwtToken, isSecure);
 
-        System.out.println("Cookie: " + cookieBuilder.toString());
-        System.out.println("isSecure: " + isSecure);
+        log.debug("auth.login user={} secureCookie={}", user.getEmail(), isSecure);
         response.addHeader("Set-Cookie", cookieBuilder.toString());
 
+        // In stateless mode access tokens are short-lived, so hand out a refresh token as well
+        if (jwtService.isStatelessAuthentication()) {
+            response.addHeader("Set-Cookie", buildRefreshTokenCookie(jwtService.generateRefreshToken(user), isSecure).toString());
+        }
+
         AuthenticationResponse loginResponse = new AuthenticationResponse();
         loginResponse.setUser(userMapper.toDto(user));
         loginResponse.setMessage("Login successful");
@@ -107,6 +117,69 @@ public class AuthenticationController {
         return ResponseEntity.ok(loginResponse);
     }
 
+    // Issues a new access token from the "refreshToken" cookie; the only place the stateless mode reads the user from the DB
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthenticationResponse> refresh(HttpServletRequest servletRequest, HttpServletResponse response) {
+        String refreshToken = servletRequest.getCookies() == null ? null : Arrays.stream(servletRequest.getCookies())
+                .filter(cookie -> "refreshToken".equals(cookie.getName()))
+                .map(Cookie::getValue)
+                .findFirst()
+                .orElse(null);
+        if (refreshToken == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(AuthenticationResponse.builder().message("Refresh token missing").build());
+        }
+
+        Claims claims;
+        try {
+            claims = jwtService.extractAllClaims(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(AuthenticationResponse.builder().message("Invalid refresh token").build());
+        }
+
+        // Access and other tokens are turned away before the users lookup
+        if (!jwtService.isRefreshToken(claims)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(AuthenticationResponse.builder().message("Invalid refresh token").build());
+        }
+        Optional<User> user = userRepository.findByEmail(claims.getSubject());
+        Number tokenVersion = claims.get(JwtService.TOKEN_VERSION_CLAIM, Number.class);
+        if (user.isEmpty() || tokenVersion == null || tokenVersion.longValue() != user.get().getTokenVersion()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(AuthenticationResponse.builder().message("Invalid refresh token").build());
+        }
+
+        String jwtToken = jwtService.generateToken(user.get());
+        boolean isSecure = Objects.equals(activeProfile, "prod");
+        response.addHeader("Set-Cookie", buildAccessTokenCookie(jwtToken, isSecure).toString());
+
+        AuthenticationResponse refreshResponse = new AuthenticationResponse();
+        refreshResponse.setUser(userMapper.toDto(user.get()));
+        refreshResponse.setMessage("Token refreshed");
+        refreshResponse.setToken(jwtToken);
+        return ResponseEntity.ok(refreshResponse);
+    }
+
+    // Lives as long as the token in it
+    private ResponseCookie buildAccessTokenCookie(String accessToken, boolean isSecure) {
+        return ResponseCookie.from("accessToken", accessToken)
+                .httpOnly(true)
+                .path("/")
+                .maxAge(jwtService.getAccessTokenExpiration() / 1000)
+                .secure(isSecure)
+                .sameSite(isSecure ? "None" : "Lax")
+                .domain(isSecure ? ".mahpeikar.se" : null)
+                .build();
+    }
+
+    private ResponseCookie buildRefreshTokenCookie(String refreshToken, boolean isSecure) {
+        return ResponseCookie.from("refreshToken", refreshToken)
+                .httpOnly(true)
+                .path("/api/auth/refresh")
+                .maxAge(jwtService.getRefreshExpiration() / 1000)
+                .secure(isSecure)
+                .sameSite(isSecure ? "None" : "Lax")
+                .domain(isSecure ? ".mahpeikar.se" : null)
+                .build();
+    }
+
     // Logout endpoint to clear the cookie
     @PostMapping("/logout")
     public ResponseEntity<String> logout(HttpServletResponse response, HttpServletRequest servletRequest) {
@@ -120,6 +193,16 @@ public class AuthenticationController {
                 .build();
 
         response.addHeader("Set-Cookie", cookie.toString());
+        if (jwtService.isStatelessAuthentication()) {
+            response.addHeader("Set-Cookie", ResponseCookie.from("refreshToken", "")
+                    .httpOnly(true)
+                    .secure(isSecure)
+                    .sameSite("None")
+                    .path("/api/auth/refresh")
+                    .maxAge(0)
+                    .build()
+                    .toString());
+        }
         SecurityContextHolder.clearContext();
 
         return ResponseEntity.ok("Logged out successfully");
@@ -18,6 +18,7 @@ public class CorsConfig {
                         .allowedOrigins("https://makerspace.mahpeikar.se")
                         .allowedMethods("GET", "POST", "PATCH", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
+                        .exposedHeaders("X-Total-Count", "X-Next-Cursor")
                         .allowCredentials(true)
                         .maxAge(3600);
             }
@@ -1,6 +1,12 @@
 package com.github.pooya1361.makerspace.config;
 
+import com.github.pooya1361.makerspace.service.ScheduleConflictException;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.ConstraintViolationException.ConstraintKind;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -9,38 +15,32 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Map;
 
 @ControllerAdvice
+@Slf4j
 public class GlobalExceptionHandler {
+    // SQLSTATE of a unique constraint violation, shared by PostgreSQL and H2
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    // Duplicate votes never get here: VoteService skips them in the database and returns the existing vote
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<?> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
-        String message = ex.getMessage();
-
-        // Check for unique constraint violation (common patterns)
-        if (message != null && (
-                message.contains("unique constraint") ||
-                        message.contains("Duplicate entry") ||
-                        message.contains("duplicate key") ||
-                        message.toLowerCase().contains("user_id") ||
-                        message.toLowerCase().contains("time_slot_id"))) {
-
+        if (isUniqueViolation(ex)) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
-                    "error", "Duplicate Vote",
-                    "message", "You have already voted for this time slot.",
+                    "error", "Duplicate Entry",
+                    "message", "A record with the same unique value already exists.",
                     "status", 409,
                     "timestamp", LocalDateTime.now()
             ));
         }
 
-        // Log the full exception to understand what's happening
-        System.err.println("DataIntegrityViolationException: " + ex.getMessage());
-        if (ex.getCause() != null) {
-            System.err.println("Cause: " + ex.getCause().getMessage());
-        }
+        log.warn("Data integrity violation", ex);
 
         // Generic data integrity violation
+        String message = ex.getMessage();
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
                 "error", "Data Integrity Violation",
                 "message", "Invalid data provided: " + (message != null ? message : "Unknown error"),
@@ -48,6 +48,28 @@ public class GlobalExceptionHandler {
                 "timestamp", LocalDateTime.now()
         ));
     }
+
+    @ExceptionHandler(ScheduleConflictException.class)
+    public ResponseEntity<?> handleScheduleConflict(ScheduleConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "error", "Schedule Conflict",
+                "message", ex.getMessage(),
+                "scheduledLessonIds", ex.getConflictingScheduledLessonIds(),
+                "status", 409,
+                "timestamp", LocalDateTime.now()
+        ));
+    }
+
+    @ExceptionHandler(PropertyReferenceException.class)
+    public ResponseEntity<?> handleInvalidSortProperty(PropertyReferenceException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                "error", "Invalid Sort Property",
+                "message", "Cannot sort by '" + ex.getPropertyName() + "'.",
+                "status", 400,
+                "timestamp", LocalDateTime.now()
+        ));
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<?> handleAccessDenied(AccessDeniedException ex) {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
@@ -77,4 +99,19 @@ public class GlobalExceptionHandler {
                 "timestamp", LocalDateTime.now()
         ));
     }
-}
\ No newline at end of file
+
+    private static boolean isUniqueViolation(DataIntegrityViolationException ex) {
+        if (ex instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getKind() == ConstraintKind.UNIQUE) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.pooya1361.makerspace.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.AnnotatedElement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Fails the startup when the database lacks an index the application relies on: every {@code @Index} and named
+ * {@code @UniqueConstraint} declared on an entity, and an index leading with each foreign key column. Indexes are
+ * matched by table and columns rather than by name, since databases created by {@code ddl-auto=update} named them
+ * differently.
+ */
+@Component
+@ConditionalOnProperty(name = "app.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class SchemaIndexVerifier implements SmartInitializingSingleton {
+
+    private final DataSource dataSource;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SchemaIndexVerifier(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    // Runs once every bean is created and before the web server accepts requests
+    @Override
+    public void afterSingletonsInstantiated() {
+        verify();
+    }
+
+    public void verify() {
+        List<ExpectedIndex> expected = expectedIndexes();
+        List<String> missing = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            Map<String, List<List<String>>> indexesByTable = new HashMap<>();
+            for (ExpectedIndex index : expected) {
+                List<List<String>> existing = indexesByTable.computeIfAbsent(index.table(), table -> indexes(connection, table));
+                if (existing.stream().noneMatch(columns -> startsWith(columns, index.columns()))) {
+                    missing.add(index.name() + " on " + index.table() + " " + index.columns());
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read the database indexes", e);
+        }
+
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing database indexes: " + String.join(", ", missing) +
+                    ". Add a migration under db/migration that creates them.");
+        }
+        log.info("schema.indexes.verified count={}", expected.size());
+    }
+
+    private List<ExpectedIndex> expectedIndexes() {
+        List<ExpectedIndex> expected = new ArrayList<>();
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            Table table = entity.getJavaType().getAnnotation(Table.class);
+            if (table == null) {
+                continue;
+            }
+            for (Index index : table.indexes()) {
+                expected.add(new ExpectedIndex(table.name(), index.name(), columns(index.columnList())));
+            }
+            for (UniqueConstraint constraint : table.uniqueConstraints()) {
+                if (!constraint.name().isEmpty()) {
+                    expected.add(new ExpectedIndex(table.name(), constraint.name(), lowerCase(List.of(constraint.columnNames()))));
+                }
+            }
+            for (Attribute<?, ?> attribute : entity.getAttributes()) {
+                if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.MANY_TO_ONE
+                        && attribute.getJavaMember() instanceof AnnotatedElement member) {
+                    JoinColumn joinColumn = member.getAnnotation(JoinColumn.class);
+                    if (joinColumn != null && !joinColumn.name().isEmpty()) {
+                        expected.add(new ExpectedIndex(table.name(), "foreign key " + attribute.getName(),
+                                List.of(joinColumn.name().toLowerCase(Locale.ROOT))));
+                    }
+                }
+            }
+        }
+        return expected;
+    }
+
+    // Column lists of the table's indexes, lower case and in index order
+    private static List<List<String>> indexes(Connection connection, String table) {
+        Map<String, SortedMap<Short, String>> columnsByIndex = new HashMap<>();
+        try {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+            try (ResultSet rows = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), name, false, true)) {
+                while (rows.next()) {
+                    String indexName = rows.getString("INDEX_NAME");
+                    String column = rows.getString("COLUMN_NAME");
+                    if (indexName == null || column == null) {
+                        continue;
+                    }
+                    columnsByIndex.computeIfAbsent(indexName, key -> new TreeMap<>())
+                            .put(rows.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read the indexes of " + table, e);
+        }
+        return columnsByIndex.values().stream().map(columns -> List.copyOf(columns.values())).toList();
+    }
+
+    private static boolean startsWith(List<String> columns, List<String> prefix) {
+        return columns.size() >= prefix.size() && columns.subList(0, prefix.size()).equals(prefix);
+    }
+
+    private static List<String> columns(String columnList) {
+        return lowerCase(Arrays.stream(columnList.split(",")).map(String::trim).toList());
+    }
+
+    private static List<String> lowerCase(List<String> columns) {
+        return columns.stream().map(column -> column.toLowerCase(Locale.ROOT)).toList();
+    }
+
+    private record ExpectedIndex(String table, String name, List<String> columns) {
+    }
+}
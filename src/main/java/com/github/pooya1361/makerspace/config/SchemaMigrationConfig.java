@@ -0,0 +1,27 @@
+package com.github.pooya1361.makerspace.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class SchemaMigrationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.schema.migrations.enabled", havingValue = "true")
+    SchemaMigrator schemaMigrator(DataSource dataSource,
+                                  @Value("${app.schema.migrations.location:classpath:db/migration}") String location,
+                                  @Value("${app.schema.migrations.baseline-version:1}") int baselineVersion) {
+        return new SchemaMigrator(dataSource, location, baselineVersion);
+    }
+
+    // Hibernate validates its mapping against the schema on startup, so the migrations have to run before it
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnSchemaMigrator() {
+        return new EntityManagerFactoryDependsOnPostProcessor(SchemaMigrator.class);
+    }
+}
@@ -0,0 +1,193 @@
+package com.github.pooya1361.makerspace.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the versioned SQL scripts {@code V<version>__<description>.sql} found at the configured location, in
+ * version order, each in its own transaction, and records them in the {@code schema_version} table.
+ * <p>
+ * A database that already has tables but no history (created by {@code ddl-auto=update}) is baselined: scripts up
+ * to the baseline version are recorded as applied without running them. An applied script whose content changed
+ * fails the startup, since the schema would no longer match it. Instances are not coordinated; when several start
+ * at once against a database with pending scripts, let one finish first.
+ */
+@Slf4j
+public class SchemaMigrator implements InitializingBean {
+
+    static final String HISTORY_TABLE = "schema_version";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private final DataSource dataSource;
+    private final String location;
+    private final int baselineVersion;
+
+    public SchemaMigrator(DataSource dataSource, String location, int baselineVersion) {
+        this.dataSource = dataSource;
+        this.location = location;
+        this.baselineVersion = baselineVersion;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        migrate();
+    }
+
+    /**
+     * @return The number of scripts run; 0 when the schema is up to date.
+     */
+    public int migrate() {
+        List<Migration> migrations = loadMigrations();
+        try (Connection connection = dataSource.getConnection()) {
+            if (!tableExists(connection, HISTORY_TABLE)) {
+                boolean existingSchema = hasTables(connection);
+                createHistoryTable(connection);
+                if (existingSchema) {
+                    baseline(connection, migrations);
+                }
+            }
+
+            Map<Integer, Long> applied = appliedChecksums(connection);
+            int count = 0;
+            for (Migration migration : migrations) {
+                Long checksum = applied.get(migration.version());
+                if (checksum == null) {
+                    apply(connection, migration);
+                    count++;
+                } else if (checksum != migration.checksum()) {
+                    throw new IllegalStateException("Migration " + migration.resource().getFilename() +
+                            " was changed after it was applied; add a new version instead");
+                }
+            }
+            log.info("schema.migrations.done applied={} version={}", count,
+                    migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version());
+            return count;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Schema migration failed", e);
+        }
+    }
+
+    private List<Migration> loadMigrations() {
+        Resource[] resources;
+        try {
+            resources = new PathMatchingResourcePatternResolver().getResources(location + "/V*__*.sql");
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot list migrations in " + location, e);
+        }
+
+        Map<Integer, Migration> byVersion = new TreeMap<>();
+        for (Resource resource : resources) {
+            Matcher matcher = SCRIPT_NAME.matcher(Objects.requireNonNull(resource.getFilename()));
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Unexpected migration name: " + resource.getFilename());
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            Migration migration = new Migration(version, matcher.group(2).replace('_', ' '), resource, checksum(resource));
+            if (byVersion.put(version, migration) != null) {
+                throw new IllegalStateException("Duplicate migration version " + version + " in " + location);
+            }
+        }
+        return new ArrayList<>(byVersion.values());
+    }
+
+    private void createHistoryTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table " + HISTORY_TABLE + " (" +
+                    "version integer not null primary key, " +
+                    "description varchar(200) not null, " +
+                    "checksum bigint not null, " +
+                    "baseline boolean not null, " +
+                    "installed_at timestamp(6) with time zone not null)");
+        }
+    }
+
+    private void baseline(Connection connection, List<Migration> migrations) throws SQLException {
+        for (Migration migration : migrations) {
+            if (migration.version() <= baselineVersion) {
+                record(connection, migration, true);
+            }
+        }
+        log.info("schema.migrations.baselined version={}", baselineVersion);
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        log.info("schema.migrations.apply version={} description=\"{}\"", migration.version(), migration.description());
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(migration.resource(), StandardCharsets.UTF_8));
+            record(connection, migration, false);
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void record(Connection connection, Migration migration, boolean baseline) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("insert into " + HISTORY_TABLE +
+                " (version, description, checksum, baseline, installed_at) values (?, ?, ?, ?, ?)")) {
+            statement.setInt(1, migration.version());
+            statement.setString(2, migration.description());
+            statement.setLong(3, migration.checksum());
+            statement.setBoolean(4, baseline);
+            statement.setObject(5, OffsetDateTime.now());
+            statement.executeUpdate();
+        }
+    }
+
+    private Map<Integer, Long> appliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("select version, checksum from " + HISTORY_TABLE)) {
+            while (rows.next()) {
+                applied.put(rows.getInt(1), rows.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), name, new String[]{"TABLE"})) {
+            return tables.next();
+        }
+    }
+
+    private static boolean hasTables(Connection connection) throws SQLException {
+        try (ResultSet tables = connection.getMetaData()
+                .getTables(connection.getCatalog(), connection.getSchema(), "%", new String[]{"TABLE"})) {
+            return tables.next();
+        }
+    }
+
+    private static long checksum(Resource resource) {
+        try {
+            CRC32 crc = new CRC32();
+            crc.update(resource.getContentAsByteArray());
+            return crc.getValue();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read migration " + resource.getFilename(), e);
+        }
+    }
+
+    private record Migration(int version, String description, Resource resource, long checksum) {
+    }
+}
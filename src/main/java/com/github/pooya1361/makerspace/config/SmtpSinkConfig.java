@@ -0,0 +1,110 @@
+package com.github.pooya1361.makerspace.config;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replaces the SMTP mail sender with an in-process sink for local runs and load tests (profile {@code smtp-sink}).
+ * Messages are fully built and serialized as they would be for SMTP, then dropped; nothing leaves the process.
+ */
+@Configuration
+@Profile("smtp-sink")
+@Slf4j
+public class SmtpSinkConfig {
+
+    @Bean
+    JavaMailSender javaMailSender(@Value("${app.email.sink.message-delay-ms:0}") long messageDelayMs) {
+        log.info("email.sink.enabled messageDelayMs={}", messageDelayMs);
+        return new SmtpSink(messageDelayMs);
+    }
+
+    /**
+     * Counts what would have been sent. An optional per-message delay stands in for the SMTP round trip.
+     */
+    public static class SmtpSink extends JavaMailSenderImpl {
+
+        private final long messageDelayMs;
+        private final AtomicLong deliveredMessages = new AtomicLong();
+        private final AtomicLong deliveredBytes = new AtomicLong();
+        private final AtomicLong sendCalls = new AtomicLong();
+
+        SmtpSink(long messageDelayMs) {
+            this.messageDelayMs = messageDelayMs;
+        }
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+            sendCalls.incrementAndGet();
+            Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+            for (MimeMessage message : mimeMessages) {
+                try {
+                    CountingOutputStream out = new CountingOutputStream();
+                    message.saveChanges();
+                    message.writeTo(out);
+                    pause();
+                    deliveredBytes.addAndGet(out.count);
+                    deliveredMessages.incrementAndGet();
+                } catch (MessagingException | IOException e) {
+                    failedMessages.put(message, e);
+                }
+            }
+            if (!failedMessages.isEmpty()) {
+                throw new MailSendException(failedMessages);
+            }
+        }
+
+        public long deliveredMessages() {
+            return deliveredMessages.get();
+        }
+
+        public long deliveredBytes() {
+            return deliveredBytes.get();
+        }
+
+        // One per batch: the number of SMTP connections a real server would have seen
+        public long sendCalls() {
+            return sendCalls.get();
+        }
+
+        private void pause() {
+            if (messageDelayMs <= 0) {
+                return;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(messageDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -9,7 +9,9 @@ import com.github.pooya1361.makerspace.service.ActivityService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -33,9 +35,10 @@ public class ActivityController {
     }
 
     @GetMapping()
-    public ResponseEntity<List<ActivityResponseDTO>> getActivities() {
-        List<ActivityResponseDTO> activities = activityService.getAllActivities();
-        return new ResponseEntity<>(activities, HttpStatus.OK);
+    public ResponseEntity<List<ActivityResponseDTO>> getActivities(@ParameterObject Pageable pageable,
+                                                                   @RequestParam(required = false) Long after) {
+        PageResponses.checkKeysetSort(pageable, after);
+        return PageResponses.ok(activityService.getActivities(pageable, after));
     }
 
     @PostMapping
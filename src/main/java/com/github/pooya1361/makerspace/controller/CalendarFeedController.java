@@ -0,0 +1,117 @@
+package com.github.pooya1361.makerspace.controller;
+
+import com.github.pooya1361.makerspace.dto.response.CalendarFeedTokenDTO;
+import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.repository.UserRepository;
+import com.github.pooya1361.makerspace.security.JwtService;
+import com.github.pooya1361.makerspace.service.CalendarFeedCache;
+import com.github.pooya1361.makerspace.service.CalendarFeedCache.CalendarFeed;
+import com.github.pooya1361.makerspace.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Calendar apps cannot send a bearer token or cookie, so the feeds are also readable with the caller's feed token in
+ * the URL (?token=), issued by GET /api/calendar/feed-token. A feed token opens the user's own feed and the workshop
+ * feeds. It stops working when POST /api/calendar/feed-token rotates it, or when the user's tokens are revoked.
+ */
+@RestController
+@RequestMapping("/api/calendar")
+@Tag(name = "Calendar feeds", description = "iCalendar feeds of scheduled lessons, for calendar app subscriptions")
+public class CalendarFeedController {
+
+    static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final CalendarFeedCache calendarFeedCache;
+    private final JwtService jwtService;
+    private final UserRepository userRepository;
+    private final UserService userService;
+
+    public CalendarFeedController(CalendarFeedCache calendarFeedCache, JwtService jwtService,
+                                  UserRepository userRepository, UserService userService) {
+        this.calendarFeedCache = calendarFeedCache;
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+        this.userService = userService;
+    }
+
+    @GetMapping("/feed-token")
+    @Operation(summary = "Get the caller's calendar feed token", description = "A token to append as ?token= to the feed URLs, for calendar apps that cannot log in. Rotating it or revoking the user's tokens revokes it.")
+    public ResponseEntity<CalendarFeedTokenDTO> getFeedToken(Authentication authentication) {
+        return ResponseEntity.ok(feedToken(currentUser(authentication)));
+    }
+
+    @PostMapping("/feed-token")
+    @Operation(summary = "Rotate the caller's calendar feed token", description = "Revokes the current feed token, e.g. after a feed URL leaked, and returns a new one. Login tokens stay valid.")
+    public ResponseEntity<CalendarFeedTokenDTO> rotateFeedToken(Authentication authentication) {
+        User user = userService.rotateCalendarFeedToken(currentUser(authentication).getId());
+        return ResponseEntity.ok(feedToken(user));
+    }
+
+    @GetMapping("/users/{id}.ics")
+    @Operation(summary = "Get a user's calendar feed", description = "The scheduled lessons the user teaches or is interested in, as iCalendar. Needs authentication or that user's feed token. Supports If-None-Match and If-Modified-Since.")
+    public ResponseEntity<byte[]> getUserFeed(@PathVariable Long id, @RequestParam(required = false) String token,
+                                              Authentication authentication) {
+        authorize(authentication, token, id);
+        return ics(calendarFeedCache.getUserFeed(id));
+    }
+
+    @GetMapping("/workshops/{id}.ics")
+    @Operation(summary = "Get a workshop's calendar feed", description = "The scheduled lessons held in the workshop, as iCalendar. Needs authentication or a feed token. Supports If-None-Match and If-Modified-Since.")
+    public ResponseEntity<byte[]> getWorkshopFeed(@PathVariable Long id, @RequestParam(required = false) String token,
+                                                  Authentication authentication) {
+        authorize(authentication, token, null);
+        return ics(calendarFeedCache.getWorkshopFeed(id));
+    }
+
+    private User currentUser(Authentication authentication) {
+        return userRepository.findByEmail(authentication.getName())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+    }
+
+    private CalendarFeedTokenDTO feedToken(User user) {
+        String token = jwtService.generateCalendarFeedToken(user);
+        return new CalendarFeedTokenDTO(token, "/api/calendar/users/" + user.getId() + ".ics?token=" + token);
+    }
+
+    // Authenticated callers read any feed, as before; a feed token only opens its own user's feed
+    private void authorize(Authentication authentication, String token, Long userId) {
+        if (authentication != null && authentication.isAuthenticated()) {
+            return;
+        }
+        if (token == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "A feed token or login is required");
+        }
+        Long tokenUserId = jwtService.verifyCalendarFeedToken(token)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or revoked feed token"));
+        if (userId != null && !userId.equals(tokenUserId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "The feed token belongs to another user");
+        }
+    }
+
+    // With the validators set, Spring answers a matching conditional GET with 304 and no body
+    private static ResponseEntity<byte[]> ics(Optional<CalendarFeed> feed) {
+        return feed.map(calendarFeed -> ResponseEntity.ok()
+                        .contentType(TEXT_CALENDAR)
+                        .eTag(calendarFeed.eTag())
+                        .lastModified(calendarFeed.lastModified())
+                        .cacheControl(CacheControl.noCache())
+                        .body(calendarFeed.body()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,5 +1,8 @@
 package com.github.pooya1361.makerspace.controller;
 
+import com.github.pooya1361.makerspace.security.JwtClaimsCache;
+import com.github.pooya1361.makerspace.security.JwtService;
+import com.github.pooya1361.makerspace.security.UserPrincipalCache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -14,6 +17,14 @@ import java.util.Map;
 @RequestMapping("/api/debug")
 public class DebugController {
 
+    private final JwtService jwtService;
+    private final UserPrincipalCache userPrincipalCache;
+
+    public DebugController(JwtService jwtService, UserPrincipalCache userPrincipalCache) {
+        this.jwtService = jwtService;
+        this.userPrincipalCache = userPrincipalCache;
+    }
+
     @GetMapping("/authorities")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> debugAuthorities(Authentication authentication) {
@@ -23,4 +34,25 @@ public class DebugController {
                 "principal", authentication.getPrincipal()
         ));
     }
+
+    @GetMapping("/jwt-cache")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<?> debugJwtCache() {
+        JwtClaimsCache claimsCache = jwtService.getClaimsCache();
+        return ResponseEntity.ok(Map.of(
+                "hits", claimsCache.getHits(),
+                "misses", claimsCache.getMisses(),
+                "size", claimsCache.size()
+        ));
+    }
+
+    @GetMapping("/principal-cache")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<?> debugPrincipalCache() {
+        return ResponseEntity.ok(Map.of(
+                "hits", userPrincipalCache.getHits(),
+                "misses", userPrincipalCache.getMisses(),
+                "size", userPrincipalCache.size()
+        ));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.github.pooya1361.makerspace.controller;
+
+import com.github.pooya1361.makerspace.service.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api")
+@Tag(name = "Exports", description = "Streaming NDJSON exports of whole collections, one JSON object per line")
+@PreAuthorize("hasAnyAuthority('ADMIN', 'SUPERADMIN')")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping(value = "/votes/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all votes", description = "Streams every vote as NDJSON.")
+    public ResponseEntity<StreamingResponseBody> exportVotes() {
+        return ndjson("votes.ndjson", exportService::exportVotes);
+    }
+
+    @GetMapping(value = "/lesson-users/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all lesson-users", description = "Streams every lesson-user (lesson interest) as NDJSON.")
+    public ResponseEntity<StreamingResponseBody> exportLessonUsers() {
+        return ndjson("lesson-users.ndjson", exportService::exportLessonUsers);
+    }
+
+    @GetMapping(value = "/users/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all users", description = "Streams every user as NDJSON.")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ndjson("users.ndjson", exportService::exportUsers);
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(String filename, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -12,7 +12,9 @@ import com.github.pooya1361.makerspace.service.LessonService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -38,10 +40,11 @@ public class LessonController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all lessons", description = "Retrieves a list of all lessons.")
-    public ResponseEntity<List<LessonResponseDTO>> getAllLessons() {
-        List<LessonResponseDTO> lessons = lessonService.getAllLessons();
-        return ResponseEntity.ok(lessons);
+    @Operation(summary = "Get all lessons", description = "Retrieves a page of lessons (page/size/sort, or after=<id> for keyset paging).")
+    public ResponseEntity<List<LessonResponseDTO>> getAllLessons(@ParameterObject Pageable pageable,
+                                                                 @RequestParam(required = false) Long after) {
+        PageResponses.checkKeysetSort(pageable, after);
+        return PageResponses.ok(lessonService.getLessons(pageable, after));
     }
 
     @GetMapping("/{id}")
@@ -10,6 +10,8 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -31,10 +33,11 @@ public class LessonUserController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all lessons-users", description = "Retrieves a list of all lessons-users.")
-    public ResponseEntity<List<LessonUserResponseDTO>> getAllLessonUsers() {
-        List<LessonUserResponseDTO> lessonUsers = lessonUserService.getAllLessonUsers();
-        return ResponseEntity.ok(lessonUsers);
+    @Operation(summary = "Get all lessons-users", description = "Retrieves a page of lessons-users (page/size/sort, or after=<id> for keyset paging).")
+    public ResponseEntity<List<LessonUserResponseDTO>> getAllLessonUsers(@ParameterObject Pageable pageable,
+                                                                         @RequestParam(required = false) Long after) {
+        PageResponses.checkKeysetSort(pageable, after);
+        return PageResponses.ok(lessonUserService.getLessonUsers(pageable, after));
     }
 
     @GetMapping("/{id}")
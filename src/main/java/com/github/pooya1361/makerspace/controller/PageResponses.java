@@ -0,0 +1,46 @@
+package com.github.pooya1361.makerspace.controller;
+
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Collection endpoints keep returning a plain JSON array; paging metadata travels in response headers
+ * so existing clients keep working.
+ */
+final class PageResponses {
+
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private PageResponses() {
+    }
+
+    /**
+     * Keyset pages (after=&lt;id&gt;) are always ordered by ascending id, which the cursor depends on; any other
+     * requested sort is rejected rather than silently ignored.
+     */
+    static void checkKeysetSort(Pageable pageable, Long after) {
+        Sort sort = pageable.getSort();
+        if (after != null && sort.isSorted() && !sort.equals(Sort.by(Sort.Direction.ASC, "id"))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "'sort' cannot be combined with 'after'; keyset pages are ordered by id");
+        }
+    }
+
+    static <T> ResponseEntity<List<T>> ok(PageResponseDTO<T> page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getTotalElements() != null) {
+            builder.header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalElements()));
+        }
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+        }
+        return builder.body(page.getContent());
+    }
+}
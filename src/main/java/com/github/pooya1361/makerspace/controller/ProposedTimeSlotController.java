@@ -7,6 +7,8 @@ import com.github.pooya1361.makerspace.service.ProposedTimeSlotService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -32,10 +34,11 @@ public class ProposedTimeSlotController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all proposed time slots", description = "Retrieves a list of all proposed time slots.")
-    public ResponseEntity<List<ProposedTimeSlotResponseDTO>> getAllProposedTimeSlots() {
-        List<ProposedTimeSlotResponseDTO> proposedTimeSlots = proposedTimeSlotService.getAllProposedTimeSlots();
-        return ResponseEntity.ok(proposedTimeSlots);
+    @Operation(summary = "Get all proposed time slots", description = "Retrieves a page of proposed time slots (page/size/sort, or after=<id> for keyset paging).")
+    public ResponseEntity<List<ProposedTimeSlotResponseDTO>> getAllProposedTimeSlots(@ParameterObject Pageable pageable,
+                                                                                     @RequestParam(required = false) Long after) {
+        PageResponses.checkKeysetSort(pageable, after);
+        return PageResponses.ok(proposedTimeSlotService.getProposedTimeSlots(pageable, after));
     }
 
     @GetMapping("/{id}")
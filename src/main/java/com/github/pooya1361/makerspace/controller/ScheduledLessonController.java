@@ -2,17 +2,34 @@
 package com.github.pooya1361.makerspace.controller;
 
 import com.github.pooya1361.makerspace.dto.create.ScheduledLessonCreateDTO;
+import com.github.pooya1361.makerspace.dto.create.SlotSelectionBatchDTO;
+import com.github.pooya1361.makerspace.dto.response.ScheduleConflictDTO;
 import com.github.pooya1361.makerspace.dto.response.ScheduledLessonResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.SlotScoreDTO;
+import com.github.pooya1361.makerspace.dto.response.SlotSelectionDTO;
+import com.github.pooya1361.makerspace.dto.response.VoteTallyDTO;
 import com.github.pooya1361.makerspace.model.ScheduledLesson;
 import com.github.pooya1361.makerspace.service.ScheduledLessonService;
+import com.github.pooya1361.makerspace.service.SlotSelectionService;
+import com.github.pooya1361.makerspace.service.VoteService;
+import com.github.pooya1361.makerspace.service.VoteTallyBroker;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/scheduled-lessons")
@@ -20,9 +37,18 @@ import java.util.List;
 public class ScheduledLessonController {
 
     private final ScheduledLessonService scheduledLessonService;
+    private final VoteService voteService;
+    private final VoteTallyBroker voteTallyBroker;
+    private final SlotSelectionService slotSelectionService;
 
-    public ScheduledLessonController(ScheduledLessonService scheduledLessonService) {
+    public ScheduledLessonController(ScheduledLessonService scheduledLessonService,
+                                     VoteService voteService,
+                                     VoteTallyBroker voteTallyBroker,
+                                     SlotSelectionService slotSelectionService) {
         this.scheduledLessonService = scheduledLessonService;
+        this.voteService = voteService;
+        this.voteTallyBroker = voteTallyBroker;
+        this.slotSelectionService = slotSelectionService;
     }
 
     @PostMapping
@@ -33,10 +59,29 @@ public class ScheduledLessonController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all scheduled lessons", description = "Retrieves a list of all scheduled lessons.")
-    public ResponseEntity<List<ScheduledLessonResponseDTO>> getAllScheduledLessons() {
-        List<ScheduledLessonResponseDTO> scheduledLessons = scheduledLessonService.getAllScheduledLessons();
-        return ResponseEntity.ok(scheduledLessons);
+    @Operation(summary = "Get all scheduled lessons",
+            description = "Retrieves a page of scheduled lessons (page/size/sort, or after=<id> for keyset paging), or with from/to (ISO-8601 date-times) every scheduled lesson starting in [from, to), ordered by start time.")
+    public ResponseEntity<List<ScheduledLessonResponseDTO>> getAllScheduledLessons(@ParameterObject Pageable pageable,
+                                                                                   @RequestParam(required = false) Long after,
+                                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
+        if (from != null || to != null) {
+            if (from == null || to == null || !to.isAfter(from)
+                    || Duration.between(from, to).compareTo(ScheduledLessonService.MAX_CALENDAR_RANGE) > 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A calendar range needs from and to, at most " +
+                        ScheduledLessonService.MAX_CALENDAR_RANGE.toDays() + " days apart");
+            }
+            return ResponseEntity.ok(scheduledLessonService.getScheduledLessonsBetween(from, to));
+        }
+        PageResponses.checkKeysetSort(pageable, after);
+        return PageResponses.ok(scheduledLessonService.getScheduledLessons(pageable, after));
+    }
+
+    @GetMapping("/conflicts")
+    @Operation(summary = "Get scheduling conflicts",
+            description = "Lists the upcoming lessons that double-book an instructor or put more lessons in a workshop at once than it can hold.")
+    public ResponseEntity<List<ScheduleConflictDTO>> getConflicts() {
+        return ResponseEntity.ok(scheduledLessonService.getConflicts());
     }
 
     @GetMapping("/{id}")
@@ -47,6 +92,47 @@ public class ScheduledLessonController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/vote-tallies")
+    @Operation(summary = "Get vote tallies of a scheduled lesson", description = "Returns the vote count of every proposed slot of the scheduled lesson.")
+    public ResponseEntity<List<VoteTallyDTO>> getVoteTallies(@PathVariable Long id) {
+        return ResponseEntity.ok(voteService.getVoteTallies(id));
+    }
+
+    @GetMapping(value = "/{id}/vote-tallies/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream vote tallies of a scheduled lesson",
+            description = "Server-Sent Events: a 'tally' event with the vote count of every proposed slot, then a 'vote-delta' event per vote cast (+1) or withdrawn (-1).")
+    public SseEmitter streamVoteTallies(@PathVariable Long id) {
+        return voteTallyBroker.subscribe(id);
+    }
+
+    @GetMapping("/{id}/slot-ranking")
+    @Operation(summary = "Rank the proposed slots of a scheduled lesson",
+            description = "Scores every proposed slot by votes, instructor availability and workshop capacity without booking any. Bookable slots come first, best first.")
+    public ResponseEntity<List<SlotScoreDTO>> getSlotRanking(@PathVariable Long id) {
+        return slotSelectionService.rankSlots(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/finalize")
+    @Operation(summary = "Finalize a scheduled lesson",
+            description = "Sets the start time to the proposed slot with the most votes that the instructor and the workshop can take.")
+    public ResponseEntity<SlotSelectionDTO> finalizeScheduledLesson(@PathVariable Long id) {
+        return ResponseEntity.ok(slotSelectionService.finalizeScheduledLesson(id));
+    }
+
+    @PostMapping("/finalize")
+    @Operation(summary = "Finalize scheduled lessons in one run",
+            description = "Finalizes the given scheduled lessons (up to 500), or every one awaiting a start time when none are given. Lessons booked by the run are taken into account for the rest.")
+    public ResponseEntity<List<SlotSelectionDTO>> finalizeScheduledLessons(@RequestBody(required = false) SlotSelectionBatchDTO batchDTO) {
+        List<Long> ids = batchDTO == null || batchDTO.getScheduledLessonIds() == null ? List.of() : batchDTO.getScheduledLessonIds();
+        if (ids.size() > SlotSelectionBatchDTO.MAX_SIZE || ids.stream().anyMatch(Objects::isNull)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch takes up to " + SlotSelectionBatchDTO.MAX_SIZE + " scheduled lesson IDs");
+        }
+        return ResponseEntity.ok(slotSelectionService.finalizeScheduledLessons(ids));
+    }
+
     @PatchMapping("/{id}")
     @Operation(summary = "Update a scheduled lesson", description = "Updates an existing scheduled lesson's information.")
     public ResponseEntity<ScheduledLessonResponseDTO> updateScheduledLesson(@PathVariable Long id, @Valid @RequestBody ScheduledLessonCreateDTO updateDTO) {
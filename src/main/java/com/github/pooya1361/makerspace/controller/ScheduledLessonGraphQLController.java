@@ -0,0 +1,57 @@
+package com.github.pooya1361.makerspace.controller;
+
+import com.github.pooya1361.makerspace.dto.response.ScheduledLessonResponseDTO;
+import com.github.pooya1361.makerspace.service.ScheduledLessonService;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.GraphQlExceptionHandler;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Controller;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@Controller
+public class ScheduledLessonGraphQLController {
+
+    private final ScheduledLessonService scheduledLessonService;
+
+    public ScheduledLessonGraphQLController(ScheduledLessonService scheduledLessonService) {
+        this.scheduledLessonService = scheduledLessonService;
+    }
+
+    // Query to get the scheduled lessons starting in [from, to), same as GET /api/scheduled-lessons?from=&to=
+    @QueryMapping
+    public List<ScheduledLessonResponseDTO> scheduledLessons(@Argument String from, @Argument String to) {
+        OffsetDateTime start = parse("from", from);
+        OffsetDateTime end = parse("to", to);
+        if (!end.isAfter(start) || Duration.between(start, end).compareTo(ScheduledLessonService.MAX_CALENDAR_RANGE) > 0) {
+            throw new IllegalArgumentException("A calendar range needs 'to' after 'from', at most " +
+                    ScheduledLessonService.MAX_CALENDAR_RANGE.toDays() + " days apart");
+        }
+        return scheduledLessonService.getScheduledLessonsBetween(start, end);
+    }
+
+    // Invalid arguments are the client's mistake; reported as BAD_REQUEST instead of INTERNAL_ERROR
+    @GraphQlExceptionHandler
+    public GraphQLError handleInvalidArgument(IllegalArgumentException ex, DataFetchingEnvironment environment) {
+        return GraphqlErrorBuilder.newError(environment)
+                .errorType(ErrorType.BAD_REQUEST)
+                .message(ex.getMessage())
+                .build();
+    }
+
+    private static OffsetDateTime parse(String name, String value) {
+        try {
+            return OffsetDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("'" + name + "' must be an ISO-8601 date-time with an offset, e.g. " +
+                    "2030-01-31T09:00:00Z");
+        }
+    }
+}
@@ -7,6 +7,8 @@ import com.github.pooya1361.makerspace.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -32,10 +34,11 @@ public class UserController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all users", description = "Retrieves a list of all registered users in the system.")
-    public ResponseEntity<List<UserResponseDTO>> getAllUsers() {
-        List<UserResponseDTO> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    @Operation(summary = "Get all users", description = "Retrieves a page of registered users in the system (page/size/sort, or after=<id> for keyset paging).")
+    public ResponseEntity<List<UserResponseDTO>> getAllUsers(@ParameterObject Pageable pageable,
+                                                             @RequestParam(required = false) Long after) {
+        PageResponses.checkKeysetSort(pageable, after);
+        return PageResponses.ok(userService.getUsers(pageable, after));
     }
 
     @GetMapping("/{id}")
@@ -1,15 +1,20 @@
 // src/main/java/com/github/pooya1361/makerspace/controller/VoteController.java
 package com.github.pooya1361.makerspace.controller;
 
+import com.github.pooya1361.makerspace.dto.create.VoteBatchCreateDTO;
 import com.github.pooya1361.makerspace.dto.create.VoteCreateDTO;
+import com.github.pooya1361.makerspace.dto.response.VoteBatchResponseDTO;
 import com.github.pooya1361.makerspace.dto.response.VoteResponseDTO;
 import com.github.pooya1361.makerspace.service.VoteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -25,17 +30,33 @@ public class VoteController {
     }
 
     @PostMapping
-    @Operation(summary = "Create a new vote", description = "Casts a new vote for a proposed time slot.")
+    @Operation(summary = "Create a new vote",
+            description = "Casts a vote for a proposed time slot. Returns 201 with the new vote, or 200 with the existing vote when the user already voted on the slot.")
     public ResponseEntity<VoteResponseDTO> createVote(@Valid @RequestBody VoteCreateDTO voteCreateDTO) {
-        VoteResponseDTO createdVote = voteService.createVote(voteCreateDTO);
-        return new ResponseEntity<>(createdVote, HttpStatus.CREATED);
+        VoteService.CastVote castVote = voteService.createVote(voteCreateDTO);
+        return new ResponseEntity<>(castVote.vote(), castVote.created() ? HttpStatus.CREATED : HttpStatus.OK);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Create votes in a batch",
+            description = "Casts a user's votes on several proposed time slots at once. Each slot is reported as CREATED, DUPLICATE or NOT_FOUND, and the updated tallies are returned.")
+    public ResponseEntity<VoteBatchResponseDTO> createVotes(@Valid @RequestBody VoteBatchCreateDTO batchDTO) {
+        // No bean validator is on the classpath, so the DTO constraints are checked here
+        List<Long> ids = batchDTO.getProposedTimeSlotIds();
+        if (batchDTO.getUserId() == null || ids == null || ids.isEmpty() || ids.size() > VoteBatchCreateDTO.MAX_SIZE
+                || ids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch needs a user ID and 1 to " + VoteBatchCreateDTO.MAX_SIZE + " proposed time slot IDs");
+        }
+        return ResponseEntity.ok(voteService.createVotes(batchDTO));
     }
 
     @GetMapping
-    @Operation(summary = "Get all votes", description = "Retrieves a list of all votes.")
-    public ResponseEntity<List<VoteResponseDTO>> getAllVotes() {
-        List<VoteResponseDTO> votes = voteService.getAllVotes();
-        return ResponseEntity.ok(votes);
+    @Operation(summary = "Get all votes", description = "Retrieves a page of votes (page/size/sort, or after=<id> for keyset paging).")
+    public ResponseEntity<List<VoteResponseDTO>> getAllVotes(@ParameterObject Pageable pageable,
+                                                             @RequestParam(required = false) Long after) {
+        PageResponses.checkKeysetSort(pageable, after);
+        return PageResponses.ok(voteService.getVotes(pageable, after));
     }
 
     @GetMapping("/{id}")
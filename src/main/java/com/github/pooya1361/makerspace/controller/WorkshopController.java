@@ -8,7 +8,9 @@ import com.github.pooya1361.makerspace.service.WorkshopService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -27,10 +29,11 @@ public class WorkshopController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all workshops", description = "Retrieves a list of all workshops in the system")
-    public ResponseEntity<List<WorkshopResponseDTO>> getWorkshops() {
-        List<WorkshopResponseDTO> workshops = workshopService.getAllWorkshops();
-        return ResponseEntity.ok(workshops);
+    @Operation(summary = "Get all workshops", description = "Retrieves a page of workshops in the system (page/size/sort, or after=<id> for keyset paging).")
+    public ResponseEntity<List<WorkshopResponseDTO>> getWorkshops(@ParameterObject Pageable pageable,
+                                                                  @RequestParam(required = false) Long after) {
+        PageResponses.checkKeysetSort(pageable, after);
+        return PageResponses.ok(workshopService.getWorkshops(pageable, after));
     }
 
 
@@ -5,6 +5,9 @@ import com.github.pooya1361.makerspace.dto.response.WorkshopResponseDTO;
 import com.github.pooya1361.makerspace.service.WorkshopService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.data.web.SpringDataWebProperties;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
@@ -19,15 +22,24 @@ public class WorkshopGraphQLController {
 
     private final WorkshopService workshopService;
 
+    // Same limits as the REST collection endpoints
+    private final SpringDataWebProperties.Pageable pageLimits;
+
     @Autowired
-    public WorkshopGraphQLController(WorkshopService workshopService) {
+    public WorkshopGraphQLController(WorkshopService workshopService, SpringDataWebProperties springDataWebProperties) {
         this.workshopService = workshopService;
+        this.pageLimits = springDataWebProperties.getPageable();
     }
 
-    // Query to get all workshops
+    // Query to get a page of workshops (offset page/size, or keyset paging with after = last seen id); the first page
+    // of the default size when neither page nor size is given
     @QueryMapping
-    public List<WorkshopResponseDTO> workshops() {
-        return workshopService.getAllWorkshops();
+    public List<WorkshopResponseDTO> workshops(@Argument Integer page, @Argument Integer size, @Argument Long after) {
+        int pageSize = size == null || size < 1
+                ? pageLimits.getDefaultPageSize()
+                : Math.min(size, pageLimits.getMaxPageSize());
+        Pageable pageable = PageRequest.of(page == null || page < 0 ? 0 : page, pageSize);
+        return workshopService.getWorkshops(pageable, after).getContent();
     }
 
     // Query to get a workshop by id
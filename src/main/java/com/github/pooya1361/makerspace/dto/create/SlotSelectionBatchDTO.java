@@ -0,0 +1,20 @@
+package com.github.pooya1361.makerspace.dto.create;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotSelectionBatchDTO {
+    public static final int MAX_SIZE = 500;
+
+    // When empty, every scheduled lesson that has proposed slots and no start time yet is finalized
+    @Size(max = MAX_SIZE, message = "At most 500 scheduled lessons can be finalized at once")
+    private List<@NotNull(message = "Scheduled Lesson ID cannot be null") Long> scheduledLessonIds;
+}
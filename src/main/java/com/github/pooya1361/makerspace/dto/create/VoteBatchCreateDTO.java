@@ -0,0 +1,23 @@
+package com.github.pooya1361.makerspace.dto.create;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteBatchCreateDTO {
+    public static final int MAX_SIZE = 100;
+
+    @NotNull(message = "User ID cannot be null")
+    private Long userId;
+    @NotEmpty(message = "At least one proposed time slot ID is required")
+    @Size(max = MAX_SIZE, message = "At most 100 proposed time slots can be voted on at once")
+    private List<@NotNull(message = "Proposed Time Slot ID cannot be null") Long> proposedTimeSlotIds;
+}
@@ -0,0 +1,15 @@
+package com.github.pooya1361.makerspace.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarFeedTokenDTO {
+    // Appended as ?token= to a feed URL; works for the user's own feed and every workshop feed
+    private String token;
+    // The path of the user's own feed with the token, ready to paste into a calendar app
+    private String userFeedPath;
+}
@@ -0,0 +1,21 @@
+package com.github.pooya1361.makerspace.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a collection endpoint.
+ * totalElements is only known for offset pages (page/size); nextCursor is only set for keyset pages (after=id)
+ * when more rows may follow.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponseDTO<T> {
+    private List<T> content;
+    private Long totalElements;
+    private Long nextCursor;
+}
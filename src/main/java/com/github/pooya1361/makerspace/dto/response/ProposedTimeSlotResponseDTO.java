@@ -19,5 +19,6 @@ public class ProposedTimeSlotResponseDTO {
     private Long id;
     private OffsetDateTime proposedStartTime;
     private ScheduledLessonSummaryDTO scheduledLesson;
+    private long voteCount;
     private List<VoteSummaryDTO> votes;
 }
@@ -0,0 +1,27 @@
+package com.github.pooya1361.makerspace.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleConflictDTO {
+    private ConflictKind kind;
+    // The instructor or the workshop that is overbooked, depending on the kind
+    private Long instructorId;
+    private Long workshopId;
+    private List<Long> scheduledLessonIds;
+    // When the lessons overlap
+    private OffsetDateTime from;
+    private OffsetDateTime to;
+
+    public enum ConflictKind {
+        INSTRUCTOR_DOUBLE_BOOKED,
+        WORKSHOP_OVER_CAPACITY
+    }
+}
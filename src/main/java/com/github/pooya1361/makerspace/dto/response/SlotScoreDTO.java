@@ -0,0 +1,27 @@
+package com.github.pooya1361.makerspace.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotScoreDTO {
+    private Long proposedTimeSlotId;
+    private OffsetDateTime proposedStartTime;
+    private long votes;
+    // Empty when the slot can be booked
+    private List<Conflict> conflicts;
+    // The bookings of the instructor that overlap the slot
+    private List<Long> conflictingScheduledLessonIds;
+
+    public enum Conflict {
+        IN_THE_PAST,
+        INSTRUCTOR_BUSY,
+        WORKSHOP_FULL
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.pooya1361.makerspace.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotSelectionDTO {
+    private Long scheduledLessonId;
+    private SelectionStatus status;
+    // The chosen slot and the start time it set, null unless SCHEDULED
+    private Long proposedTimeSlotId;
+    private OffsetDateTime startTime;
+    // Bookable slots first, best first; then the slots with conflicts
+    private List<SlotScoreDTO> slots;
+
+    public enum SelectionStatus {
+        SCHEDULED,
+        ALREADY_SCHEDULED,
+        NO_PROPOSED_SLOTS,
+        NO_AVAILABLE_SLOT,
+        NOT_FOUND
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.pooya1361.makerspace.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteBatchItemDTO {
+    private Long proposedTimeSlotId;
+    private Status status;
+    // The user's vote on the slot, whether it was created by this batch or already existed
+    private Long voteId;
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        NOT_FOUND
+    }
+}
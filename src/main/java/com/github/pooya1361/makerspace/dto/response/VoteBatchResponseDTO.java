@@ -0,0 +1,15 @@
+package com.github.pooya1361.makerspace.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteBatchResponseDTO {
+    private List<VoteBatchItemDTO> results;
+    private List<VoteTallyDTO> tallies;
+}
@@ -0,0 +1,15 @@
+package com.github.pooya1361.makerspace.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteDeltaDTO {
+    private Long proposedTimeSlotId;
+    private int delta;
+    // The slot's count once the change is applied, read after it committed; clients show this rather than adding delta
+    private long votes;
+}
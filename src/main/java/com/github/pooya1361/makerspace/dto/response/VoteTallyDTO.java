@@ -0,0 +1,13 @@
+package com.github.pooya1361.makerspace.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteTallyDTO {
+    private Long proposedTimeSlotId;
+    private long votes;
+}
@@ -17,5 +17,6 @@ import java.util.Set;
 public class ProposedTimeSlotSummaryDTO {
     private Long id;
     private OffsetDateTime proposedStartTime;
+    private long voteCount;
     private List<VoteSummaryDTO> votes;
 }
\ No newline at end of file
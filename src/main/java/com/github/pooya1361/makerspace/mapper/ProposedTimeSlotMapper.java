@@ -18,6 +18,13 @@ public interface ProposedTimeSlotMapper {
     ProposedTimeSlotResponseDTO toDto(ProposedTimeSlot proposedTimeSlot);
     Set<ProposedTimeSlotResponseDTO> toDtoSet(Set<ProposedTimeSlot> proposedTimeSlots); // For Set conversion
     List<ProposedTimeSlotResponseDTO> toDtoList(List<ProposedTimeSlot> proposedTimeSlots); // For List conversion
+
+    // Collection endpoints carry the maintained voteCount instead of every vote
+    @Named("toDtoWithoutVotes")
+    @Mapping(target = "votes", ignore = true)
+    ProposedTimeSlotResponseDTO toDtoWithoutVotes(ProposedTimeSlot proposedTimeSlot);
+    @IterableMapping(qualifiedByName = "toDtoWithoutVotes")
+    List<ProposedTimeSlotResponseDTO> toDtoListWithoutVotes(List<ProposedTimeSlot> proposedTimeSlots);
     @Named("toProposedTimeSlotSummaryDto")
     ProposedTimeSlotSummaryDTO toSummaryDto(ProposedTimeSlot proposedTimeSlot);
 
@@ -29,6 +36,7 @@ public interface ProposedTimeSlotMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "scheduledLesson", ignore = true) // Updated in service
     @Mapping(target = "votes", ignore = true) // Collection ignored
+    @Mapping(target = "voteCount", ignore = true) // Maintained by VoteService
     void updateProposedTimeSlotFromDto(ProposedTimeSlotCreateDTO updateDTO, @MappingTarget ProposedTimeSlot proposedTimeSlot);
 
     @Named("unwrapOptionalOffsetDateTime")
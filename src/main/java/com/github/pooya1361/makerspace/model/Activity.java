@@ -8,7 +8,7 @@ import lombok.NoArgsConstructor;
 import java.util.Optional;
 
 @Entity
-@Table(name = "activities")
+@Table(name = "activities", indexes = @Index(name = "idx_activities_workshop", columnList = "workshop_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,60 @@
+package com.github.pooya1361.makerspace.model;
+
+import com.github.pooya1361.makerspace.model.enums.EmailOutboxStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * An email waiting to be sent, written in the same transaction as the change it announces.
+ * The lesson fields are copied rather than referenced, so an outbox row outlives the slot or lesson it was about.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient_email", nullable = false)
+    private String recipientEmail;
+
+    @Column(name = "recipient_name")
+    private String recipientName;
+
+    @Column(name = "scheduled_lesson_id", nullable = false)
+    private Long scheduledLessonId;
+
+    @Column(name = "proposed_time_slot_id")
+    private Long proposedTimeSlotId;
+
+    @Column(name = "lesson_name")
+    private String lessonName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmailOutboxStatus status = EmailOutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Earliest time the dispatcher may (re)try; also the lease of a row being sent
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private OffsetDateTime sentAt;
+}
@@ -7,7 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "lessons")
+@Table(name = "lessons", indexes = @Index(name = "idx_lessons_activity", columnList = "activity_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
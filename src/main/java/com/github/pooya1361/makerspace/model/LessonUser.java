@@ -7,7 +7,10 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "lessons_users")
+@Table(name = "lessons_users", indexes = {
+        @Index(name = "idx_lessons_users_lesson", columnList = "lesson_id"),
+        @Index(name = "idx_lessons_users_user", columnList = "user_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -14,7 +15,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "proposed_time_slots")
+@Table(name = "proposed_time_slots", indexes = @Index(
+        name = "idx_proposed_time_slots_scheduled_lesson_created", columnList = "scheduled_lesson_id, created_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -38,6 +40,11 @@ public class ProposedTimeSlot {
     @EqualsAndHashCode.Exclude
     private Set<Vote> votes = new HashSet<>();
 
+    // Maintained by VoteService with atomic increments, so tallies never load the votes; never written from the entity
+    @Column(name = "vote_count", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private long voteCount;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @CreationTimestamp
     private OffsetDateTime createdAt;
@@ -14,7 +14,11 @@ import java.util.Set;
 import java.util.HashSet;
 
 @Entity
-@Table(name = "scheduled_lessons")
+@Table(name = "scheduled_lessons", indexes = {
+        @Index(name = "idx_scheduled_lessons_lesson_start", columnList = "lesson_id, start_time"),
+        @Index(name = "idx_scheduled_lessons_instructor", columnList = "instructor_id"),
+        @Index(name = "idx_scheduled_lessons_start", columnList = "start_time")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,6 +44,10 @@ public class ScheduledLesson {
     @JoinColumn(name="instructor_id")
     private User instructor;
 
+    // When interested users were last emailed about new slots; claimed by NotificationThrottle, never written from the entity
+    @Column(name = "last_notified_at", updatable = false)
+    private OffsetDateTime lastNotifiedAt;
+
     // This will hold the proposed time slots for voting for THIS specific lesson instance
     @OneToMany(mappedBy = "scheduledLesson", cascade = CascadeType.ALL, orphanRemoval = true)
     @EqualsAndHashCode.Exclude
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.github.pooya1361.makerspace.model.enums.UserType;
 import jakarta.persistence.*; // Use jakarta.persistence for Spring Boot 3+
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -39,6 +40,18 @@ public class User implements UserDetails {
     @Column(name = "user_type", nullable = false)
     private UserType userType = UserType.NORMAL;
 
+    // Embedded in issued tokens; incrementing it revokes all tokens issued before
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private long tokenVersion;
+
+    // Embedded in calendar feed tokens; incrementing it revokes the feed token alone
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "calendar_feed_token_version", nullable = false)
+    private long calendarFeedTokenVersion;
+
     @Override
     public String getUsername() {
         return email; // Spring Security uses this for the unique identifier
@@ -8,7 +8,9 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 @Entity
-@Table(name = "votes", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "time_slot_id"}))
+@Table(name = "votes",
+        uniqueConstraints = @UniqueConstraint(name = "uk_votes_user_time_slot", columnNames = {"user_id", "time_slot_id"}),
+        indexes = @Index(name = "idx_votes_time_slot", columnList = "time_slot_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,7 @@
+package com.github.pooya1361.makerspace.model.enums;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -1,6 +1,8 @@
 package com.github.pooya1361.makerspace.repository;
 
 import com.github.pooya1361.makerspace.model.Activity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -11,4 +13,11 @@ import java.util.List;
 public interface ActivityRepository extends JpaRepository<Activity, Long> {
     @EntityGraph(attributePaths = {"workshop"})
     List<Activity> findAll();
+
+    @EntityGraph(attributePaths = {"workshop"})
+    Page<Activity> findAll(Pageable pageable);
+
+    // Keyset page: rows after the given id, ordered and limited by the pageable
+    @EntityGraph(attributePaths = {"workshop"})
+    List<Activity> findByIdGreaterThan(Long id, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.github.pooya1361.makerspace.repository;
+
+import com.github.pooya1361.makerspace.model.EmailOutbox;
+import com.github.pooya1361.makerspace.model.enums.EmailOutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Queues the new-slot notification for every user interested in a lesson, in one statement whatever the
+     * audience size.
+     * @return The number of queued emails.
+     */
+    @Modifying
+    @Query("INSERT INTO EmailOutbox (recipientEmail, recipientName, scheduledLessonId, proposedTimeSlotId, " +
+            "lessonName, status, attempts, nextAttemptAt, createdAt) " +
+            "SELECT DISTINCT u.email, u.firstName, :scheduledLessonId, :proposedTimeSlotId, :lessonName, " +
+            ":status, 0, :now, :now " +
+            "FROM LessonUser lu JOIN lu.user u WHERE lu.lesson.id = :lessonId")
+    int enqueueForInterestedUsers(@Param("lessonId") Long lessonId,
+                                  @Param("scheduledLessonId") Long scheduledLessonId,
+                                  @Param("proposedTimeSlotId") Long proposedTimeSlotId,
+                                  @Param("lessonName") String lessonName,
+                                  @Param("status") EmailOutboxStatus status,
+                                  @Param("now") OffsetDateTime now);
+
+    // Rows locked by another dispatcher are skipped (lock timeout -2 is SKIP LOCKED), so instances never share work
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM EmailOutbox o WHERE o.status = :status AND o.nextAttemptAt <= :now ORDER BY o.id")
+    List<EmailOutbox> findDueForUpdate(@Param("status") EmailOutboxStatus status,
+                                       @Param("now") OffsetDateTime now,
+                                       Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox o SET o.attempts = o.attempts + 1, o.nextAttemptAt = :leaseUntil WHERE o.id IN :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("leaseUntil") OffsetDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox o SET o.status = :status, o.sentAt = :sentAt, o.lastError = NULL WHERE o.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids,
+                 @Param("status") EmailOutboxStatus status,
+                 @Param("sentAt") OffsetDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox o SET o.status = :status, o.nextAttemptAt = :nextAttemptAt, o.lastError = :lastError " +
+            "WHERE o.id = :id")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("status") EmailOutboxStatus status,
+                          @Param("nextAttemptAt") OffsetDateTime nextAttemptAt,
+                          @Param("lastError") String lastError);
+
+    long countByStatus(EmailOutboxStatus status);
+}
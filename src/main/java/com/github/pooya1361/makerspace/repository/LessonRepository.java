@@ -1,8 +1,20 @@
 package com.github.pooya1361.makerspace.repository;
 
 import com.github.pooya1361.makerspace.model.Lesson;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface LessonRepository extends JpaRepository<Lesson, Long> { }
\ No newline at end of file
+public interface LessonRepository extends JpaRepository<Lesson, Long> {
+    @EntityGraph(attributePaths = {"activity"})
+    Page<Lesson> findAll(Pageable pageable);
+
+    // Keyset page: rows after the given id, ordered and limited by the pageable
+    @EntityGraph(attributePaths = {"activity"})
+    List<Lesson> findByIdGreaterThan(Long id, Pageable pageable);
+}
\ No newline at end of file
@@ -2,12 +2,21 @@ package com.github.pooya1361.makerspace.repository;
 
 import com.github.pooya1361.makerspace.model.LessonUser;
 import com.github.pooya1361.makerspace.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface LessonUserRepository extends JpaRepository<LessonUser, Long> {
@@ -19,4 +28,29 @@ public interface LessonUserRepository extends JpaRepository<LessonUser, Long> {
      */
     @Query("SELECT lu.user FROM LessonUser lu WHERE lu.lesson.id = :lessonId")
     List<User> findUsersByLessonId(@Param("lessonId") Long lessonId);
+
+    // Lessons the user is interested in but has not acquired yet
+    @Query("SELECT DISTINCT lu.lesson.id FROM LessonUser lu WHERE lu.user.email = :email AND lu.acquired = false")
+    List<Long> findPendingLessonIdsByUserEmail(@Param("email") String email);
+
+    // Users interested in the lesson who have not acquired it yet
+    @Query("SELECT DISTINCT lu.user.id FROM LessonUser lu WHERE lu.lesson.id = :lessonId AND lu.acquired = false")
+    List<Long> findPendingUserIdsByLessonId(@Param("lessonId") Long lessonId);
+
+    @Query("SELECT COUNT(lu) > 0 FROM LessonUser lu " +
+            "WHERE lu.user.email = :email AND lu.lesson.id = :lessonId AND lu.acquired = false")
+    boolean existsPendingByUserEmailAndLessonId(@Param("email") String email, @Param("lessonId") Long lessonId);
+
+    @EntityGraph(attributePaths = {"lesson", "user"})
+    Page<LessonUser> findAll(Pageable pageable);
+
+    // Keyset page: rows after the given id, ordered and limited by the pageable
+    @EntityGraph(attributePaths = {"lesson", "user"})
+    List<LessonUser> findByIdGreaterThan(Long id, Pageable pageable);
+
+    // Forward-only read for the NDJSON export; lesson, activity, workshop and user come with each row
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT lu FROM LessonUser lu JOIN FETCH lu.lesson l LEFT JOIN FETCH l.activity a " +
+            "LEFT JOIN FETCH a.workshop JOIN FETCH lu.user ORDER BY lu.id")
+    Stream<LessonUser> streamAllForExport();
 }
\ No newline at end of file
@@ -3,31 +3,23 @@ package com.github.pooya1361.makerspace.repository;
 import com.github.pooya1361.makerspace.model.Lesson;
 import com.github.pooya1361.makerspace.model.ProposedTimeSlot;
 import com.github.pooya1361.makerspace.model.ScheduledLesson;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProposedTimeSlotRepository extends JpaRepository<ProposedTimeSlot, Long> {
-    @EntityGraph(attributePaths = {"scheduledLesson", "votes"})
+    @EntityGraph(attributePaths = {"scheduledLesson"})
     List<ProposedTimeSlot> findAll();
 
-    /**
-     * Check if any time slots were created recently for this scheduled lesson
-     */
-    @Query("SELECT COUNT(pts) > 0 FROM ProposedTimeSlot pts " +
-            "WHERE pts.scheduledLesson.id = :scheduledLessonId " +
-            "AND pts.createdAt >= :cutoffTime")
-    boolean existsByScheduledLessonIdAndCreatedAtAfter(
-            @Param("scheduledLessonId") Long scheduledLessonId,
-            @Param("cutoffTime") OffsetDateTime cutoffTime);
-
     /**
      * Find the most recent time slot for debugging
      */
@@ -37,4 +29,36 @@ public interface ProposedTimeSlotRepository extends JpaRepository<ProposedTimeSl
     List<ProposedTimeSlot> findByScheduledLessonIdOrderByCreatedAtDesc(
             @Param("scheduledLessonId") Long scheduledLessonId,
             Pageable pageable);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = {"scheduledLesson"})
+    Page<ProposedTimeSlot> findAll(Pageable pageable);
+
+    // Keyset page: rows after the given id, ordered and limited by the pageable
+    @EntityGraph(attributePaths = {"scheduledLesson"})
+    List<ProposedTimeSlot> findByIdGreaterThan(Long id, Pageable pageable);
+
+    interface VoteTally {
+        Long getProposedTimeSlotId();
+        long getVotes();
+    }
+
+    // Current vote count of every proposed slot of a scheduled lesson, read from the maintained counter
+    @Query("SELECT pts.id AS proposedTimeSlotId, pts.voteCount AS votes FROM ProposedTimeSlot pts " +
+            "WHERE pts.scheduledLesson.id = :scheduledLessonId " +
+            "ORDER BY pts.id")
+    List<VoteTally> findVoteTalliesByScheduledLessonId(@Param("scheduledLessonId") Long scheduledLessonId);
+
+    @Query("SELECT pts.id AS proposedTimeSlotId, pts.voteCount AS votes FROM ProposedTimeSlot pts " +
+            "WHERE pts.id IN :ids " +
+            "ORDER BY pts.id")
+    List<VoteTally> findVoteTalliesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Single-statement increment, so concurrent votes on the same slot cannot lose an update
+    @Modifying
+    @Query("UPDATE ProposedTimeSlot pts SET pts.voteCount = pts.voteCount + :delta WHERE pts.id = :id")
+    int adjustVoteCount(@Param("id") Long id, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE ProposedTimeSlot pts SET pts.voteCount = pts.voteCount + 1 WHERE pts.id IN :ids")
+    int incrementVoteCounts(@Param("ids") Collection<Long> ids);
+}
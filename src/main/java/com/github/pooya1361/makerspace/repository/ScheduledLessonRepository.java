@@ -1,19 +1,87 @@
 package com.github.pooya1361.makerspace.repository;
 
-import com.github.pooya1361.makerspace.model.Lesson;
 import com.github.pooya1361.makerspace.model.ScheduledLesson;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Fetch plans follow what ScheduledLessonMapper reads: lesson -> activity -> workshop and the instructor are
+ * joined in the main query, proposed time slots too where no pagination is involved. Votes and their users
+ * are loaded with Hibernate batch fetching (hibernate.default_batch_fetch_size), so mapping N scheduled
+ * lessons costs a constant number of queries instead of one per slot.
+ */
 @Repository
-public interface ScheduledLessonRepository extends JpaRepository<ScheduledLesson, Long> {
-    @EntityGraph(attributePaths = {"lesson", "instructor", "proposedTimeSlots"})
+public interface ScheduledLessonRepository extends JpaRepository<ScheduledLesson, Long>, ScheduledLessonRepositoryCustom {
+    @EntityGraph(attributePaths = {"lesson.activity.workshop", "instructor", "proposedTimeSlots"})
     List<ScheduledLesson> findAll();
 
-    List<ScheduledLesson> findByLessonIdInAndStartTimeIsNull(Collection<Long> lessonIds);
-}
\ No newline at end of file
+    @EntityGraph(attributePaths = {"lesson.activity.workshop", "instructor", "proposedTimeSlots"})
+    Optional<ScheduledLesson> findWithDetailsById(Long id);
+
+    @EntityGraph(attributePaths = {"lesson.activity.workshop", "instructor", "proposedTimeSlots"})
+    List<ScheduledLesson> findWithDetailsByIdIn(Collection<Long> ids);
+
+    /**
+     * A scheduled lesson that is still open for voting (no start time, at least one proposed slot).
+     */
+    interface AvailableScheduledLesson {
+        Long getScheduledLessonId();
+        Long getLessonId();
+        OffsetDateTime getEarliestStart();
+    }
+
+    @Query("SELECT sl.id AS scheduledLessonId, sl.lesson.id AS lessonId, MIN(pts.proposedStartTime) AS earliestStart " +
+            "FROM ScheduledLesson sl JOIN sl.proposedTimeSlots pts " +
+            "WHERE sl.startTime IS NULL AND sl.lesson.id IN :lessonIds " +
+            "GROUP BY sl.id, sl.lesson.id")
+    List<AvailableScheduledLesson> findAvailableByLessonIdIn(@Param("lessonIds") Collection<Long> lessonIds);
+
+    @Query("SELECT sl.id AS scheduledLessonId, sl.lesson.id AS lessonId, MIN(pts.proposedStartTime) AS earliestStart " +
+            "FROM ScheduledLesson sl JOIN sl.proposedTimeSlots pts " +
+            "WHERE sl.startTime IS NULL AND sl.id = :id " +
+            "GROUP BY sl.id, sl.lesson.id")
+    Optional<AvailableScheduledLesson> findAvailableById(@Param("id") Long id);
+
+    // Collections are not joined for pages (Hibernate would paginate in memory); they are batch fetched instead
+    @EntityGraph(attributePaths = {"lesson.activity.workshop", "instructor"})
+    Page<ScheduledLesson> findAll(Pageable pageable);
+
+    // Keyset page: rows after the given id, ordered and limited by the pageable
+    @EntityGraph(attributePaths = {"lesson.activity.workshop", "instructor"})
+    List<ScheduledLesson> findByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * Records a notification for the scheduled lesson unless one was recorded at or after the cutoff. A single-row
+     * update, so concurrent callers cannot both succeed.
+     * @return 1 when the notification was recorded, 0 when the lesson was notified recently (or does not exist).
+     */
+    @Modifying
+    @Query("UPDATE ScheduledLesson sl SET sl.lastNotifiedAt = :now " +
+            "WHERE sl.id = :id AND (sl.lastNotifiedAt IS NULL OR sl.lastNotifiedAt < :cutoff)")
+    int markNotifiedIfNotSince(@Param("id") Long id,
+                               @Param("now") OffsetDateTime now,
+                               @Param("cutoff") OffsetDateTime cutoff);
+
+    @Query("SELECT sl.lastNotifiedAt FROM ScheduledLesson sl WHERE sl.id = :id")
+    Optional<OffsetDateTime> findLastNotifiedAtById(@Param("id") Long id);
+
+    // Scheduled lessons that are still open for voting and have something to vote on, i.e. can be finalized
+    @Query("SELECT DISTINCT sl.id FROM ScheduledLesson sl JOIN sl.proposedTimeSlots pts " +
+            "WHERE sl.startTime IS NULL ORDER BY sl.id")
+    List<Long> findIdsAwaitingStartTime();
+
+    // How far back a booking can start and still overlap a given time
+    @Query("SELECT MAX(sl.durationInMinutes) FROM ScheduledLesson sl WHERE sl.startTime IS NOT NULL")
+    Optional<Long> findMaxBookedDurationInMinutes();
+}
@@ -0,0 +1,67 @@
+package com.github.pooya1361.makerspace.repository;
+
+import com.github.pooya1361.makerspace.model.ScheduledLesson;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ScheduledLessonRepositoryCustom {
+
+    /**
+     * A scheduled lesson with a start time, reduced to what conflict checks need.
+     * @param instructorId The instructor, or null when none is assigned.
+     * @param workshopId The workshop of the lesson's activity, or null when it has none.
+     * @param workshopSize The size of that workshop, or null when it has none.
+     */
+    record BookedLesson(Long scheduledLessonId, Long instructorId, Long workshopId, Double workshopSize,
+                        OffsetDateTime startTime, long durationInMinutes) {
+    }
+
+    /**
+     * A scheduled lesson with a start time, with what a calendar event shows.
+     * @param workshopId The workshop of the lesson's activity, or null when it has none; likewise its name.
+     * @param instructorId The instructor, or null when none is assigned; likewise their names.
+     */
+    record CalendarEvent(Long scheduledLessonId, Long lessonId, String lessonName, Long workshopId, String workshopName,
+                         Long instructorId, String instructorFirstName, String instructorLastName,
+                         OffsetDateTime startTime, long durationInMinutes) {
+    }
+
+    /**
+     * The scheduled lessons starting in [from, to), in one query without loading the entities.
+     */
+    List<BookedLesson> findBookedStartingBetween(OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * The scheduled lessons starting in [from, to), ordered by start time, with what ScheduledLessonMapper reads
+     * joined in. Uses the start_time index.
+     */
+    List<ScheduledLesson> findWithDetailsStartingBetween(OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Every scheduled lesson that has a start time.
+     */
+    List<BookedLesson> findAllBooked();
+
+    /**
+     * @return The scheduled lesson, or empty when it does not exist or has no start time.
+     */
+    Optional<BookedLesson> findBookedById(Long id);
+
+    /**
+     * The scheduled lessons with a start time held in a workshop, ordered by start time.
+     */
+    List<CalendarEvent> findCalendarEventsByWorkshopId(Long workshopId);
+
+    /**
+     * The scheduled lessons with a start time that a user teaches, or of a lesson the user is interested in and has
+     * not acquired, ordered by start time.
+     */
+    List<CalendarEvent> findCalendarEventsByUserId(Long userId);
+
+    /**
+     * @return The scheduled lesson, or empty when it does not exist or has no start time.
+     */
+    Optional<CalendarEvent> findCalendarEventById(Long id);
+}
@@ -0,0 +1,125 @@
+package com.github.pooya1361.makerspace.repository;
+
+import com.github.pooya1361.makerspace.model.ScheduledLesson;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+class ScheduledLessonRepositoryImpl implements ScheduledLessonRepositoryCustom {
+
+    private static final String SELECT_BOOKED =
+            "SELECT sl.id AS id, i.id AS instructorId, w.id AS workshopId, w.size AS workshopSize, " +
+            "sl.startTime AS startTime, sl.durationInMinutes AS duration " +
+            "FROM ScheduledLesson sl LEFT JOIN sl.instructor i LEFT JOIN sl.lesson l LEFT JOIN l.activity a " +
+            "LEFT JOIN a.workshop w ";
+
+    // startTime is mapped as Optional through a converter, so its parameters must be Optionals too. Spring Data
+    // unwraps Optional method arguments, which is why these queries live here and not in a @Query.
+    private static final String BOOKED_STARTING_BETWEEN = SELECT_BOOKED +
+            "WHERE sl.startTime >= :from AND sl.startTime < :to ORDER BY sl.startTime";
+    private static final String WITH_DETAILS_STARTING_BETWEEN =
+            "SELECT sl FROM ScheduledLesson sl LEFT JOIN FETCH sl.lesson l LEFT JOIN FETCH l.activity a " +
+            "LEFT JOIN FETCH a.workshop LEFT JOIN FETCH sl.instructor LEFT JOIN FETCH sl.proposedTimeSlots " +
+            "WHERE sl.startTime >= :from AND sl.startTime < :to ORDER BY sl.startTime, sl.id";
+    private static final String ALL_BOOKED = SELECT_BOOKED + "WHERE sl.startTime IS NOT NULL";
+    private static final String BOOKED_BY_ID = SELECT_BOOKED + "WHERE sl.id = :id AND sl.startTime IS NOT NULL";
+
+    private static final String SELECT_CALENDAR_EVENTS =
+            "SELECT sl.id AS id, l.id AS lessonId, l.name AS lessonName, w.id AS workshopId, w.name AS workshopName, " +
+            "i.id AS instructorId, i.firstName AS instructorFirstName, i.lastName AS instructorLastName, " +
+            "sl.startTime AS startTime, sl.durationInMinutes AS duration " +
+            "FROM ScheduledLesson sl LEFT JOIN sl.instructor i LEFT JOIN sl.lesson l LEFT JOIN l.activity a " +
+            "LEFT JOIN a.workshop w WHERE sl.startTime IS NOT NULL ";
+    private static final String CALENDAR_EVENTS_BY_WORKSHOP = SELECT_CALENDAR_EVENTS +
+            "AND w.id = :workshopId ORDER BY sl.startTime, sl.id";
+    private static final String CALENDAR_EVENTS_BY_USER = SELECT_CALENDAR_EVENTS +
+            "AND (i.id = :userId OR l.id IN (SELECT lu.lesson.id FROM LessonUser lu " +
+            "WHERE lu.user.id = :userId AND lu.acquired = false)) ORDER BY sl.startTime, sl.id";
+    private static final String CALENDAR_EVENT_BY_ID = SELECT_CALENDAR_EVENTS + "AND sl.id = :id";
+
+    private final EntityManager entityManager;
+
+    ScheduledLessonRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<BookedLesson> findBookedStartingBetween(OffsetDateTime from, OffsetDateTime to) {
+        return toBookedLessons(entityManager.createQuery(BOOKED_STARTING_BETWEEN, Tuple.class)
+                .setParameter("from", Optional.of(from))
+                .setParameter("to", Optional.of(to)));
+    }
+
+    @Override
+    public List<ScheduledLesson> findWithDetailsStartingBetween(OffsetDateTime from, OffsetDateTime to) {
+        return entityManager.createQuery(WITH_DETAILS_STARTING_BETWEEN, ScheduledLesson.class)
+                .setParameter("from", Optional.of(from))
+                .setParameter("to", Optional.of(to))
+                .getResultList();
+    }
+
+    @Override
+    public List<BookedLesson> findAllBooked() {
+        return toBookedLessons(entityManager.createQuery(ALL_BOOKED, Tuple.class));
+    }
+
+    @Override
+    public Optional<BookedLesson> findBookedById(Long id) {
+        return toBookedLessons(entityManager.createQuery(BOOKED_BY_ID, Tuple.class).setParameter("id", id))
+                .stream().findFirst();
+    }
+
+    @Override
+    public List<CalendarEvent> findCalendarEventsByWorkshopId(Long workshopId) {
+        return toCalendarEvents(entityManager.createQuery(CALENDAR_EVENTS_BY_WORKSHOP, Tuple.class)
+                .setParameter("workshopId", workshopId));
+    }
+
+    @Override
+    public List<CalendarEvent> findCalendarEventsByUserId(Long userId) {
+        return toCalendarEvents(entityManager.createQuery(CALENDAR_EVENTS_BY_USER, Tuple.class)
+                .setParameter("userId", userId));
+    }
+
+    @Override
+    public Optional<CalendarEvent> findCalendarEventById(Long id) {
+        return toCalendarEvents(entityManager.createQuery(CALENDAR_EVENT_BY_ID, Tuple.class).setParameter("id", id))
+                .stream().findFirst();
+    }
+
+    private static List<CalendarEvent> toCalendarEvents(TypedQuery<Tuple> query) {
+        return query.getResultList().stream()
+                .map(row -> new CalendarEvent(
+                        row.get("id", Long.class),
+                        row.get("lessonId", Long.class),
+                        row.get("lessonName", String.class),
+                        row.get("workshopId", Long.class),
+                        row.get("workshopName", String.class),
+                        row.get("instructorId", Long.class),
+                        row.get("instructorFirstName", String.class),
+                        row.get("instructorLastName", String.class),
+                        startTime(row.get("startTime")),
+                        row.get("duration", Long.class)))
+                .toList();
+    }
+
+    private static List<BookedLesson> toBookedLessons(TypedQuery<Tuple> query) {
+        return query.getResultList().stream()
+                .map(row -> new BookedLesson(
+                        row.get("id", Long.class),
+                        row.get("instructorId", Long.class),
+                        row.get("workshopId", Long.class),
+                        row.get("workshopSize", Double.class),
+                        startTime(row.get("startTime")),
+                        row.get("duration", Long.class)))
+                .toList();
+    }
+
+    private static OffsetDateTime startTime(Object value) {
+        return value instanceof Optional<?> optional ? (OffsetDateTime) optional.orElse(null) : (OffsetDateTime) value;
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.pooya1361.makerspace.repository;
+
+import com.github.pooya1361.makerspace.model.Workshop;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+/**
+ * Aggregate queries for the summary endpoint. Extends the bare {@link Repository} marker,
+ * so no CRUD methods are exposed.
+ */
+public interface SummaryRepository extends Repository<Workshop, Long> {
+
+    interface SummaryCounts {
+        long getTotalWorkshops();
+        long getTotalActivities();
+        long getTotalLessons();
+        long getTotalScheduledLessons();
+        long getTotalUsers();
+    }
+
+    // All five totals in one round trip instead of one count() query per table
+    @Query(value = """
+            SELECT (SELECT COUNT(*) FROM workshops) AS totalWorkshops,
+                   (SELECT COUNT(*) FROM activities) AS totalActivities,
+                   (SELECT COUNT(*) FROM lessons) AS totalLessons,
+                   (SELECT COUNT(*) FROM scheduled_lessons) AS totalScheduledLessons,
+                   (SELECT COUNT(*) FROM users) AS totalUsers
+            """, nativeQuery = true)
+    SummaryCounts countAll();
+}
@@ -2,12 +2,38 @@ package com.github.pooya1361.makerspace.repository;
 
 import com.github.pooya1361.makerspace.dto.response.UserResponseDTO;
 import com.github.pooya1361.makerspace.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository // Optional but good practice for clarity
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    // What access tokens are checked against, without loading the user
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
+
+    // What calendar feed tokens are checked against; feeds are polled rarely, so this is not cached
+    @Query("SELECT u.calendarFeedTokenVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findCalendarFeedTokenVersionById(@Param("id") Long id);
+
+    // Keyset page: rows after the given id, ordered and limited by the pageable
+    List<User> findByIdGreaterThan(Long id, Pageable pageable);
+
+    // Forward-only read for the NDJSON export
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAllForExport();
 }
\ No newline at end of file
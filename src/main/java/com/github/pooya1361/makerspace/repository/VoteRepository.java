@@ -2,8 +2,58 @@ package com.github.pooya1361.makerspace.repository;
 
 import com.github.pooya1361.makerspace.model.Lesson;
 import com.github.pooya1361.makerspace.model.Vote;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
-public interface VoteRepository extends JpaRepository<Vote, Long> { }
\ No newline at end of file
+public interface VoteRepository extends JpaRepository<Vote, Long>, VoteRepositoryCustom {
+    @EntityGraph(attributePaths = {"user", "proposedTimeSlot"})
+    Page<Vote> findAll(Pageable pageable);
+
+    // Keyset page: rows after the given id, ordered and limited by the pageable
+    @EntityGraph(attributePaths = {"user", "proposedTimeSlot"})
+    List<Vote> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user", "proposedTimeSlot"})
+    Optional<Vote> findByUserIdAndProposedTimeSlotId(Long userId, Long proposedTimeSlotId);
+
+    // Forward-only read for the NDJSON export; to-one associations come with each row
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT v FROM Vote v JOIN FETCH v.user JOIN FETCH v.proposedTimeSlot ORDER BY v.id")
+    Stream<Vote> streamAllForExport();
+
+    interface VoteTarget {
+        Long getProposedTimeSlotId();
+        Long getScheduledLessonId();
+    }
+
+    // What a vote counts towards, without loading the vote or its slot
+    @Query("SELECT v.proposedTimeSlot.id AS proposedTimeSlotId, v.proposedTimeSlot.scheduledLesson.id AS scheduledLessonId " +
+            "FROM Vote v WHERE v.id = :id")
+    Optional<VoteTarget> findTargetById(@Param("id") Long id);
+
+    interface UserVote {
+        Long getProposedTimeSlotId();
+        Long getVoteId();
+    }
+
+    @Query("SELECT v.proposedTimeSlot.id AS proposedTimeSlotId, v.id AS voteId FROM Vote v " +
+            "WHERE v.user.id = :userId AND v.proposedTimeSlot.id IN :proposedTimeSlotIds")
+    List<UserVote> findUserVotesOnSlots(@Param("userId") Long userId,
+                                        @Param("proposedTimeSlotIds") Collection<Long> proposedTimeSlotIds);
+}
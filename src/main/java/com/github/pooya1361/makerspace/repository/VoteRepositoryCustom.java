@@ -0,0 +1,24 @@
+package com.github.pooya1361.makerspace.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface VoteRepositoryCustom {
+
+    /**
+     * Inserts a vote of the user on the slot unless the user already voted on it. A duplicate, including one cast
+     * concurrently, is skipped by the database instead of failing the statement and the transaction.
+     * @param userId The voting user.
+     * @param proposedTimeSlotId The id of an existing proposed time slot.
+     * @return The id of the inserted vote, or empty when the user had already voted on the slot.
+     */
+    Optional<Long> insertIfAbsent(Long userId, Long proposedTimeSlotId);
+
+    /**
+     * Inserts a vote of the user on each slot in one JDBC batch, skipping slots the user already voted on.
+     * @param userId The voting user.
+     * @param proposedTimeSlotIds Distinct ids of existing proposed time slots.
+     * @return The ids of the slots a vote was inserted for.
+     */
+    List<Long> insertAllIfAbsent(Long userId, List<Long> proposedTimeSlotIds);
+}
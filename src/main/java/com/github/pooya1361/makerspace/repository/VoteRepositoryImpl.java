@@ -0,0 +1,92 @@
+package com.github.pooya1361.makerspace.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+class VoteRepositoryImpl implements VoteRepositoryCustom {
+
+    // Each statement reports a duplicate as an update count of 0 instead of a unique constraint violation, which
+    // would abort the transaction. Parameters: user id, slot id.
+    private static final String POSTGRESQL_INSERT_IF_ABSENT =
+            "INSERT INTO votes (user_id, time_slot_id) VALUES (?, ?) ON CONFLICT (user_id, time_slot_id) DO NOTHING";
+    private static final String H2_INSERT_IF_ABSENT =
+            "MERGE INTO votes v USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) s (user_id, time_slot_id) " +
+            "ON v.user_id = s.user_id AND v.time_slot_id = s.time_slot_id " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, time_slot_id) VALUES (s.user_id, s.time_slot_id)";
+    // Other databases: the guard still skips duplicates, but not one inserted concurrently
+    private static final String GENERIC_INSERT_IF_ABSENT =
+            "INSERT INTO votes (user_id, time_slot_id) " +
+            "SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM votes WHERE user_id = ? AND time_slot_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String insertIfAbsent;
+
+    VoteRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<Long> insertIfAbsent(Long userId, Long proposedTimeSlotId) {
+        String sql = insertIfAbsentSql();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int count = jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, new String[]{"id"});
+            bind(statement, sql, userId, proposedTimeSlotId);
+            return statement;
+        }, keyHolder);
+        if (count == 0) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(keyHolder.getKey()).map(Number::longValue);
+    }
+
+    @Override
+    public List<Long> insertAllIfAbsent(Long userId, List<Long> proposedTimeSlotIds) {
+        String sql = insertIfAbsentSql();
+        // Votes use identity ids, which Hibernate cannot batch; plain JDBC can
+        int[][] counts = jdbcTemplate.batchUpdate(sql, proposedTimeSlotIds, proposedTimeSlotIds.size(),
+                (statement, slotId) -> bind(statement, sql, userId, slotId));
+
+        List<Long> inserted = new ArrayList<>();
+        for (int i = 0; i < proposedTimeSlotIds.size(); i++) {
+            // Drivers that cannot report per-row counts return SUCCESS_NO_INFO (-2), which counts as inserted
+            if (counts[0][i] != 0) {
+                inserted.add(proposedTimeSlotIds.get(i));
+            }
+        }
+        return inserted;
+    }
+
+    private static void bind(PreparedStatement statement, String sql, Long userId, Long proposedTimeSlotId)
+            throws SQLException {
+        statement.setLong(1, userId);
+        statement.setLong(2, proposedTimeSlotId);
+        if (GENERIC_INSERT_IF_ABSENT.equals(sql)) {
+            statement.setLong(3, userId);
+            statement.setLong(4, proposedTimeSlotId);
+        }
+    }
+
+    private String insertIfAbsentSql() {
+        String sql = insertIfAbsent;
+        if (sql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            sql = switch (product == null ? "" : product) {
+                case "PostgreSQL" -> POSTGRESQL_INSERT_IF_ABSENT;
+                case "H2" -> H2_INSERT_IF_ABSENT;
+                default -> GENERIC_INSERT_IF_ABSENT;
+            };
+            insertIfAbsent = sql;
+        }
+        return sql;
+    }
+}
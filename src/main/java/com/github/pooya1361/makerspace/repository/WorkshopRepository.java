@@ -3,6 +3,7 @@ package com.github.pooya1361.makerspace.repository;
 import com.github.pooya1361.makerspace.model.ScheduledLesson;
 import com.github.pooya1361.makerspace.model.User;
 import com.github.pooya1361.makerspace.model.Workshop;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -13,4 +14,7 @@ import java.util.List;
 public interface WorkshopRepository extends JpaRepository<Workshop, Long> {
     @EntityGraph(attributePaths = {"activities"})
     List<Workshop> findAll();
+
+    // Keyset page: rows after the given id, ordered and limited by the pageable
+    List<Workshop> findByIdGreaterThan(Long id, Pageable pageable);
 }
\ No newline at end of file
@@ -2,20 +2,18 @@ package com.github.pooya1361.makerspace.security;
 
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 
-import org.springframework.http.ResponseEntity;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import jakarta.servlet.FilterChain;
@@ -23,15 +21,21 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor; 
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
 
+    // Fraction of requests whose authentication steps are logged at DEBUG level (1.0 = every request)
+    @Value("${app.logging.auth-debug-sample-rate:0.01}")
+    private double debugSampleRate;
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -40,30 +44,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final Claims claims;
         final String userEmail;
-
-        System.out.println("JWT Filter: Processing request for " + request.getRequestURI());
-
-        Cookie[] cookies = request.getCookies();
-        if (cookies == null) {
-            System.out.println("No cookies found in request.");
-        } else {
-            for (Cookie cookie : cookies) {
-                System.out.println("Cookie: " + cookie.getName() + " = " + cookie.getValue());
-            }
-        }
+        final boolean debug = isDebugSampled();
 
         // 1. Attempt to get JWT from Authorization header (for client-side JS or other clients)
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             jwt = authHeader.substring(7);
-            System.out.println("JWT Filter: Found JWT in Authorization header.");
+            if (debug) {
+                log.debug("auth.token.found source=header uri={}", request.getRequestURI());
+            }
         } else {
             // 2. If not in Authorization header, try to get it from a cookie
             jwt = getJwtFromCookie(request);
-            if (jwt != null) {
-                System.out.println("JWT Filter: Found JWT in 'accessToken' cookie.");
-            } else {
-                System.out.println("JWT Filter: No JWT found in Authorization header or 'accessToken' cookie.");
+            if (debug) {
+                log.debug("auth.token.{} source=cookie uri={}", jwt != null ? "found" : "missing", request.getRequestURI());
             }
         }
 
@@ -73,11 +68,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        // Extract user email from JWT
+        // Verify the JWT once and extract the user email from its claims
         try {
-            userEmail = jwtService.extractUserEmail(jwt);
+            claims = jwtService.extractAllClaims(jwt);
+            userEmail = claims != null ? claims.getSubject() : null;
         } catch (Exception e) {
-            System.err.println("JWT Filter: Error extracting username from JWT: " + e.getMessage());
+            if (debug) {
+                log.debug("auth.token.rejected reason={}", e.getClass().getSimpleName());
+            }
             // If token is invalid/malformed, clear context and proceed
             SecurityContextHolder.clearContext();
             filterChain.doFilter(request, response);
@@ -88,18 +86,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // If user email is found and no authentication is currently set in SecurityContext
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = null;
-            try {
-                userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            } catch (Exception e) {
-                System.err.println("JWT Filter: Error loading UserDetails for " + userEmail + ": " + e.getMessage());
-                SecurityContextHolder.clearContext();
-                filterChain.doFilter(request, response);
-                return;
+            boolean tokenValid;
+            if (jwtService.isStatelessAuthentication()) {
+                // Stateless mode: the verified claims carry everything needed, no database lookup
+                userDetails = jwtService.buildUserDetails(claims);
+                tokenValid = userDetails != null;
+            } else {
+                try {
+                    userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                } catch (Exception e) {
+                    if (debug) {
+                        log.debug("auth.user.load_failed user={} reason={}", userEmail, e.getClass().getSimpleName());
+                    }
+                    SecurityContextHolder.clearContext();
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+                tokenValid = jwtService.isTokenValid(claims, userDetails);
             }
 
-
             // Validate token and authenticate
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (tokenValid) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null, // Credentials are null for JWT authentication after validation
@@ -110,13 +117,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 );
                 // Set authentication in SecurityContext
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-                System.out.println("JWT Filter: Successfully authenticated user: " + userEmail);
+                if (debug) {
+                    log.debug("auth.success user={} stateless={}", userEmail, jwtService.isStatelessAuthentication());
+                }
             } else {
-                System.out.println("JWT Filter: Token is invalid for user: " + userEmail);
+                if (debug) {
+                    log.debug("auth.token.invalid user={}", userEmail);
+                }
                 SecurityContextHolder.clearContext(); // Clear context if token is invalid
             }
-        } else if (userEmail != null) {
-            System.out.println("JWT Filter: User email found, but authentication already exists in SecurityContext.");
         }
 
         filterChain.doFilter(request, response);
@@ -125,22 +134,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     // Helper method to extract JWT from "accessToken" cookie
     private String getJwtFromCookie(HttpServletRequest request) {
         if (request.getCookies() == null) {
-            System.out.println("JWT Filter: No cookies found in request.");
             return null;
         }
-        System.out.println("JWT Filter: Found " + request.getCookies().length + " cookies.");
         Optional<Cookie> accessTokenCookie = Arrays.stream(request.getCookies())
                 .filter(cookie -> "accessToken".equals(cookie.getName()))
                 .findFirst();
+        return accessTokenCookie.map(Cookie::getValue).orElse(null);
+    }
 
-        if (accessTokenCookie.isPresent()) {
-            System.out.println("JWT Filter: 'accessToken' cookie found. Value length: " + accessTokenCookie.get().getValue().length());
-            return accessTokenCookie.get().getValue();
-        } else {
-            System.out.println("JWT Filter: 'accessToken' cookie not found among available cookies.");
-            // Log all cookie names for debugging
-            Arrays.stream(request.getCookies()).forEach(c -> System.out.println("  - Cookie name: " + c.getName()));
-        }
-        return null;
+    // Debug events are sampled so that enabling DEBUG in production does not log every request
+    private boolean isDebugSampled() {
+        return log.isDebugEnabled()
+                && (debugSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < debugSampleRate);
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,29 @@
 package com.github.pooya1361.makerspace.security;
 
+import jakarta.annotation.PostConstruct;
+
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import com.github.pooya1361.makerspace.repository.UserRepository;
+import com.github.pooya1361.makerspace.service.UserChangedEvent;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -21,6 +32,14 @@ import io.jsonwebtoken.security.Keys;
 @Service
 public class JwtService {
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String USER_TYPE_CLAIM = "userType";
+    public static final String TOKEN_VERSION_CLAIM = "tv";
+    public static final String TOKEN_TYPE_CLAIM = "tokenType";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+    public static final String CALENDAR_FEED_TOKEN_TYPE = "calendar-feed";
+    public static final String CALENDAR_FEED_VERSION_CLAIM = "fv";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
@@ -30,6 +49,41 @@ public class JwtService {
     @Value("${jwt.refresh.expiration}")
     private long refreshExpiration;
 
+    // Lifetime of access tokens when stateless authentication is enabled (15 minutes by default)
+    @Value("${jwt.access.expiration:900000}")
+    private long accessExpiration;
+
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private int claimsCacheMaxSize;
+
+    @Value("${app.security.stateless-auth:false}")
+    private boolean statelessAuthentication;
+
+    private Key signingKey;
+    private JwtParser jwtParser;
+    private JwtClaimsCache claimsCache;
+
+    private final TokenVersionCache tokenVersionCache;
+    private final UserRepository userRepository;
+
+    public JwtService(TokenVersionCache tokenVersionCache, UserRepository userRepository) {
+        this.tokenVersionCache = tokenVersionCache;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Decodes the secret once and builds the parser and claims cache that are shared by all requests.
+     */
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+        signingKey = Keys.hmacShaKeyFor(keyBytes);
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        claimsCache = new JwtClaimsCache(claimsCacheMaxSize);
+    }
+
     /**
      * Extracts the user's email (subject) from the JWT.
      * @param token The JWT string.
@@ -53,25 +107,37 @@ public class JwtService {
 
     /**
      * Parses and extracts all claims from the JWT.
+     * Verified claims are cached until the token expires, so repeated requests with the same
+     * token skip signature verification and JSON parsing.
      * @param token The JWT string.
      * @return The Claims object.
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+    public Claims extractAllClaims(String token) {
+        Claims cached = claimsCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = jwtParser
                 .parseClaimsJws(token)
                 .getBody();
+        claimsCache.put(token, claims);
+        return claims;
     }
 
     /**
-     * Decodes the base64 secret key and returns a signing key.
+     * Returns the precomputed signing key.
      * @return The signing Key.
      */
     private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
+    }
+
+    /**
+     * Exposes the claims cache so its hit/miss counters can be inspected.
+     * @return The claims cache.
+     */
+    public JwtClaimsCache getClaimsCache() {
+        return claimsCache;
     }
 
     /**
@@ -81,7 +147,7 @@ public class JwtService {
      */
     public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("userType", user.getUserType().name());
+        claims.put(USER_TYPE_CLAIM, user.getUserType().name());
         return generateToken(claims, user);
     }
 
@@ -92,7 +158,7 @@ public class JwtService {
      * @return The generated JWT string.
      */
     public String generateToken(Map<String, Object> extraClaims, User user) {
-        return buildToken(extraClaims, user, jwtExpiration);
+        return buildToken(extraClaims, user, getAccessTokenExpiration());
     }
 
     /**
@@ -101,23 +167,65 @@ public class JwtService {
      * @return The generated refresh token string.
      */
     public String generateRefreshToken(User user) {
-        return buildToken(new HashMap<>(), user, refreshExpiration);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE);
+        return buildToken(claims, user, refreshExpiration);
+    }
+
+    /**
+     * Generates the token that lets calendar apps, which cannot send a bearer token or cookie, read the iCalendar
+     * feeds. Subscriptions are long-lived, so it does not expire. It carries the user's calendar feed token version,
+     * so rotating the feed token revokes it on its own; revoking the user's tokens revokes it too.
+     * @param user The User entity for whom the feed token is generated.
+     * @return The generated feed token string.
+     */
+    public String generateCalendarFeedToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(TOKEN_TYPE_CLAIM, CALENDAR_FEED_TOKEN_TYPE);
+        claims.put(CALENDAR_FEED_VERSION_CLAIM, user.getCalendarFeedTokenVersion());
+        return buildToken(claims, user, null);
+    }
+
+    /**
+     * Verifies a calendar feed token, including that neither it nor the user's tokens have been revoked.
+     * @param token The feed token string.
+     * @return The id of the user the token was issued to, or empty if the token is invalid, of another type or revoked.
+     */
+    public Optional<Long> verifyCalendarFeedToken(String token) {
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        Number feedVersion = claims.get(CALENDAR_FEED_VERSION_CLAIM, Number.class);
+        if (!CALENDAR_FEED_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class)) || userId == null
+                || feedVersion == null || !isTokenVersionCurrent(claims)) {
+            return Optional.empty();
+        }
+        return userRepository.findCalendarFeedTokenVersionById(userId.longValue())
+                .filter(currentVersion -> currentVersion == feedVersion.longValue())
+                .map(currentVersion -> userId.longValue());
     }
 
     /**
      * Builds the JWT token with specified claims, subject (email), and expiration.
      * @param extraClaims Additional claims.
      * @param user The User entity.
-     * @param expiration The expiration time for the token.
+     * @param expiration The lifetime of the token in milliseconds, or null for a token that does not expire.
      * @return The compact JWT string.
      */
-    private String buildToken(Map<String, Object> extraClaims, User user, long expiration) {
+    private String buildToken(Map<String, Object> extraClaims, User user, Long expiration) {
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(TOKEN_VERSION_CLAIM, user.getTokenVersion());
         return Jwts
                 .builder()
-                .setClaims(extraClaims)
+                .setClaims(claims)
                 .setSubject(user.getEmail()) // Using user.getEmail() as the subject
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .setExpiration(expiration != null ? new Date(System.currentTimeMillis() + expiration) : null)
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
@@ -129,25 +237,130 @@ public class JwtService {
      * @return True if the token is valid for the user, false otherwise.
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String userEmail = extractUserEmail(token); // Use extractUserEmail
-        return (userEmail.equals(userDetails.getUsername())) && !isTokenExpired(token); // userDetails.getUsername() is the email
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
     /**
-     * Checks if the JWT token has expired.
-     * @param token The JWT string.
-     * @return True if the token is expired, false otherwise.
+     * Validates already extracted claims against a specific user, without parsing the token again.
+     * @param claims The verified claims of the token.
+     * @param userDetails The UserDetails object to validate against.
+     * @return True if the claims belong to the user and have not expired, false otherwise.
      */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String userEmail = claims.getSubject();
+        return userEmail != null && userEmail.equals(userDetails.getUsername()) // userDetails.getUsername() is the email
+                && isAccessToken(claims)
+                && !isTokenExpired(claims)
+                && (userDetails instanceof VersionedUser user
+                        ? isTokenVersionCurrent(claims, user.getTokenVersion())
+                        : isTokenVersionCurrent(claims));
     }
 
     /**
-     * Extracts the expiration date from the JWT.
-     * @param token The JWT string.
-     * @return The expiration Date.
+     * Builds the principal from verified access token claims, without loading the user. Only the token version is
+     * checked against the database, through the short-lived TokenVersionCache.
+     * Used when stateless authentication is enabled.
+     * @param claims The verified claims of the token.
+     * @return The UserDetails, or null if the claims cannot be used as an access token.
+     */
+    public UserDetails buildUserDetails(Claims claims) {
+        final String userEmail = claims.getSubject();
+        if (userEmail == null || !isAccessToken(claims) || isTokenExpired(claims) || !isTokenVersionCurrent(claims)) {
+            return null;
+        }
+        String userType = claims.get(USER_TYPE_CLAIM, String.class);
+        List<GrantedAuthority> authorities = UserDetailsServiceImpl.getAuthorities(
+                userType != null ? UserType.valueOf(userType) : null);
+        return new org.springframework.security.core.userdetails.User(userEmail, "", authorities);
+    }
+
+    /**
+     * Checks whether the claims belong to an access token. Refresh and calendar feed tokens carry a token type and
+     * must never be accepted as one.
+     * @param claims The claims of the token.
+     * @return True if the token has no token type.
+     */
+    public boolean isAccessToken(Claims claims) {
+        return claims.get(TOKEN_TYPE_CLAIM, String.class) == null;
+    }
+
+    /**
+     * Checks whether the claims belong to a refresh token, which must never be accepted as an access token.
+     * @param claims The claims of the token.
+     * @return True if the token is a refresh token.
+     */
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class));
+    }
+
+    /**
+     * Checks the token version claim against the version persisted for the user.
+     * @param claims The claims of the token.
+     * @return True if the user still exists and the token has not been revoked.
+     */
+    public boolean isTokenVersionCurrent(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        if (userId == null) {
+            return false;
+        }
+        return tokenVersionCache.get(userId.longValue())
+                .map(currentVersion -> isTokenVersionCurrent(claims, currentVersion))
+                .orElse(false);
+    }
+
+    /**
+     * Checks the token version claim against a known current version.
+     * @param claims The claims of the token.
+     * @param currentVersion The token version persisted for the user.
+     * @return True if the token carries the current version.
+     */
+    public boolean isTokenVersionCurrent(Claims claims, long currentVersion) {
+        Number tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+        return tokenVersion != null && tokenVersion.longValue() == currentVersion;
+    }
+
+    /**
+     * Drops what this node knows about a user's token version, so the next request reads the persisted one.
+     * The token version itself is bumped (or the user deleted) in the database by UserService.
+     * @param userId The id of the user.
+     */
+    public void revokeTokens(Long userId) {
+        tokenVersionCache.evict(userId);
+    }
+
+    // Runs after the update or delete commits, so the reload cannot read the version being replaced
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        revokeTokens(event.userId());
+    }
+
+    /**
+     * @return True if the filter should authenticate requests from token claims alone.
+     */
+    public boolean isStatelessAuthentication() {
+        return statelessAuthentication;
+    }
+
+    /**
+     * @return The lifetime of the access tokens generateToken issues, in milliseconds.
+     */
+    public long getAccessTokenExpiration() {
+        return statelessAuthentication ? accessExpiration : jwtExpiration;
+    }
+
+    /**
+     * @return The lifetime of refresh tokens in milliseconds.
+     */
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
+    /**
+     * Checks if the JWT claims have expired.
+     * @param claims The claims of the token.
+     * @return True if the token is expired, false otherwise.
      */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 }
\ No newline at end of file
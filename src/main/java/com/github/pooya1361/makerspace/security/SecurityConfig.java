@@ -51,7 +51,11 @@ public class SecurityConfig {
                                 "/swagger-ui/**",
                                 "/swagger-ui.html"
                         ).permitAll()
+                        // Calendar apps cannot log in; CalendarFeedController checks the feed token in the URL
+                        .requestMatchers(HttpMethod.GET, "/api/calendar/users/*.ics", "/api/calendar/workshops/*.ics").permitAll()
                         .requestMatchers("/api/votes/**").authenticated()
+                        // Every user issues and rotates their own feed token
+                        .requestMatchers("/api/calendar/feed-token").authenticated()
                         .requestMatchers(HttpMethod.POST, "/api/**").hasAnyAuthority("ADMIN", "SUPERADMIN")
                         .requestMatchers(HttpMethod.PATCH, "/api/**").hasAnyAuthority("ADMIN", "SUPERADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/**").hasAnyAuthority("ADMIN", "SUPERADMIN")
@@ -0,0 +1,80 @@
+package com.github.pooya1361.makerspace.security;
+
+import com.github.pooya1361.makerspace.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The persisted token version of each user, read from the users table and kept for a short TTL, so stateless
+ * authentication can reject revoked access tokens without a query per request. A revocation on another node is
+ * seen here within the TTL; on this node the entry is evicted as soon as the change commits.
+ */
+@Component
+public class TokenVersionCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenVersionCache(UserRepository userRepository,
+                             @Value("${app.security.token-version-cache.ttl-seconds:30}") long ttlSeconds,
+                             @Value("${app.security.token-version-cache.max-size:10000}") int maxEntries) {
+        this(userRepository, ttlSeconds, maxEntries, Clock.systemUTC());
+    }
+
+    TokenVersionCache(UserRepository userRepository, long ttlSeconds, int maxEntries, Clock clock) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * @return The user's current token version, or empty when the user does not exist.
+     */
+    public Optional<Long> get(Long userId) {
+        long now = clock.millis();
+        Entry entry = entries.get(userId);
+        if (entry != null && entry.expiresAtMillis() > now) {
+            return Optional.ofNullable(entry.tokenVersion());
+        }
+        Optional<Long> tokenVersion = userRepository.findTokenVersionById(userId);
+        if (ttlMillis > 0 && maxEntries > 0) {
+            if (entries.size() >= maxEntries) {
+                evictExpired(now);
+            }
+            // Deleted users are cached too, so a revoked token does not cost a query per request
+            entries.put(userId, new Entry(tokenVersion.orElse(null), now + ttlMillis));
+        }
+        return tokenVersion;
+    }
+
+    public void evict(Long userId) {
+        if (userId != null) {
+            entries.remove(userId);
+        }
+    }
+
+    private void evictExpired(long now) {
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+
+        Iterator<Long> iterator = entries.keySet().iterator();
+        while (entries.size() >= maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record Entry(Long tokenVersion, long expiresAtMillis) {
+    }
+}
@@ -1,7 +1,9 @@
 package com.github.pooya1361.makerspace.security;
 
 import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.enums.UserType;
 import com.github.pooya1361.makerspace.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,45 +13,80 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
+@Slf4j
 public class UserDetailsServiceImpl implements UserDetailsService {
 
+    // Authority lists for each user type, built once since the role hierarchy never changes at runtime
+    private static final Map<UserType, List<GrantedAuthority>> AUTHORITIES_BY_USER_TYPE = buildAuthorityHierarchy();
+    private static final List<GrantedAuthority> DEFAULT_AUTHORITIES = List.of(new SimpleGrantedAuthority("NORMAL"));
+
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, UserPrincipalCache userPrincipalCache) {
         this.userRepository = userRepository;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        UserDetails cached = userPrincipalCache.get(email);
+        if (cached != null) {
+            return cached;
+        }
+
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
         // Convert user roles to Spring Security authorities
         Collection<GrantedAuthority> authorities = getUserAuthorities(user);
 
-        // Debug log - remove in production
-        System.out.println("Loading user: " + email + " with authorities: " + authorities);
+        log.debug("auth.user.loaded user={} authorities={}", email, authorities);
 
         // Return Spring Security's User object with authorities
-        return new org.springframework.security.core.userdetails.User(
+        VersionedUser userDetails = new VersionedUser(
+                user.getId(),
                 user.getEmail(),
                 user.getPassword(),
+                user.getTokenVersion(),
                 authorities
         );
+        userPrincipalCache.put(userDetails);
+        return userDetails;
     }
 
     private Collection<GrantedAuthority> getUserAuthorities(User user) {
-        List<GrantedAuthority> authorities = new ArrayList<>();
+        return getAuthorities(user.getUserType());
+    }
+
+    /**
+     * Returns the authorities granted to a user type, including all lower-level authorities.
+     * @param userType The user type, may be null.
+     * @return An immutable list of authorities.
+     */
+    public static List<GrantedAuthority> getAuthorities(UserType userType) {
+        if (userType == null) {
+            // Default authority if userType is null
+            return DEFAULT_AUTHORITIES;
+        }
+        return AUTHORITIES_BY_USER_TYPE.get(userType);
+    }
+
+    private static Map<UserType, List<GrantedAuthority>> buildAuthorityHierarchy() {
+        Map<UserType, List<GrantedAuthority>> hierarchy = new EnumMap<>(UserType.class);
+        for (UserType userType : UserType.values()) {
+            List<GrantedAuthority> authorities = new ArrayList<>();
 
-        if (user.getUserType() != null) {
             // Add the user's actual authority
-            authorities.add(new SimpleGrantedAuthority(user.getUserType().name()));
+            authorities.add(new SimpleGrantedAuthority(userType.name()));
 
             // Create hierarchy: higher roles get all lower-level authorities too
-            switch (user.getUserType()) {
+            switch (userType) {
                 case SUPERADMIN:
                     authorities.add(new SimpleGrantedAuthority("ADMIN"));
                     authorities.add(new SimpleGrantedAuthority("INSTRUCTOR"));
@@ -66,11 +103,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                     // NORMAL only gets NORMAL authority (already added above)
                     break;
             }
-        } else {
-            // Default authority if userType is null
-            authorities.add(new SimpleGrantedAuthority("NORMAL"));
+            hierarchy.put(userType, List.copyOf(authorities));
         }
-
-        return authorities;
+        return hierarchy;
     }
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package com.github.pooya1361.makerspace.security;
+
+import com.github.pooya1361.makerspace.service.UserChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory cache of authenticated principals (email -> credentials and precomputed authorities),
+ * so the JWT filter does not have to query the users table on every request.
+ * Entries live for a fixed TTL and are evicted explicitly whenever a user is created, updated or deleted. The token
+ * version cached with the principal is what access tokens are checked against, so a revocation on another node is
+ * seen here within the TTL.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public UserPrincipalCache(@Value("${app.security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                              @Value("${app.security.principal-cache.max-size:10000}") int maxEntries) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns a fresh principal built from the cached one, or null if the email is not cached.
+     * A new instance is returned on every call because Spring Security erases credentials on the
+     * principal after a successful login, which must not affect the cached copy.
+     * @param email The user's email.
+     * @return The principal or null.
+     */
+    public VersionedUser get(String email) {
+        Entry entry = entries.get(email);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            entries.remove(email, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new VersionedUser(entry.userId, entry.email, entry.password, entry.tokenVersion, entry.authorities);
+    }
+
+    /**
+     * Caches the principal of a user.
+     * @param user The principal to cache; its id is used to evict the entry when only the id is known.
+     */
+    public void put(VersionedUser user) {
+        if (ttlMillis <= 0 || maxEntries <= 0) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evictExpired();
+        }
+        entries.put(user.getUsername(), new Entry(
+                user.getUserId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.getTokenVersion(),
+                user.getAuthorities(),
+                System.currentTimeMillis() + ttlMillis
+        ));
+    }
+
+    /**
+     * Evicts the principal cached for the given email.
+     * @param email The user's email.
+     */
+    public void evict(String email) {
+        if (email != null) {
+            entries.remove(email);
+        }
+    }
+
+    /**
+     * Evicts the principal cached for the given user id.
+     * @param userId The user's id.
+     */
+    public void evictById(Long userId) {
+        if (userId != null) {
+            entries.values().removeIf(entry -> userId.equals(entry.userId));
+        }
+    }
+
+    // Runs after the update or delete commits, so a concurrent request cannot cache the old principal again
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.previousEmail());
+        evictById(event.userId());
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAtMillis <= now);
+
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() >= maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record Entry(Long userId,
+                         String email,
+                         String password,
+                         long tokenVersion,
+                         Collection<? extends GrantedAuthority> authorities,
+                         long expiresAtMillis) { }
+}
@@ -0,0 +1,27 @@
+package com.github.pooya1361.makerspace.security;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * The principal loaded from the users table, with the id and the token version the access token's claims are
+ * checked against.
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class VersionedUser extends User {
+
+    private final Long userId;
+    private final long tokenVersion;
+
+    public VersionedUser(Long userId, String email, String password, long tokenVersion,
+                         Collection<? extends GrantedAuthority> authorities) {
+        super(email, password, authorities);
+        this.userId = userId;
+        this.tokenVersion = tokenVersion;
+    }
+}
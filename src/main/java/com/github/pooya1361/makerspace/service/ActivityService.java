@@ -2,6 +2,7 @@ package com.github.pooya1361.makerspace.service;
 
 import com.github.pooya1361.makerspace.dto.create.ActivityCreateDTO;
 import com.github.pooya1361.makerspace.dto.response.ActivityResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
 import com.github.pooya1361.makerspace.dto.response.WorkshopResponseDTO;
 import com.github.pooya1361.makerspace.mapper.ActivityMapper;
 import com.github.pooya1361.makerspace.model.Activity;
@@ -9,6 +10,8 @@ import com.github.pooya1361.makerspace.model.Workshop;
 import com.github.pooya1361.makerspace.repository.ActivityRepository;
 import com.github.pooya1361.makerspace.repository.WorkshopRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,18 +24,30 @@ public class ActivityService {
     private final WorkshopRepository workshopRepository;
     private final ActivityRepository activityRepository;
     private final ActivityMapper activityMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ActivityService(WorkshopRepository workshopRepository,
-                           ActivityRepository activityRepository, ActivityMapper activityMapper) {
+                           ActivityRepository activityRepository, ActivityMapper activityMapper,
+                           ApplicationEventPublisher eventPublisher) {
         this.workshopRepository = workshopRepository;
         this.activityRepository = activityRepository;
         this.activityMapper = activityMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<ActivityResponseDTO> getAllActivities() {
         return activityMapper.toDtoList(activityRepository.findAll());
     }
 
+    @Transactional(readOnly = true)
+    public PageResponseDTO<ActivityResponseDTO> getActivities(Pageable pageable, Long after) {
+        if (after != null) {
+            List<Activity> rows = activityRepository.findByIdGreaterThan(after, Paging.keyset(pageable));
+            return Paging.ofKeyset(rows, pageable, Activity::getId, activityMapper::toDtoList);
+        }
+        return Paging.ofPage(activityRepository.findAll(Paging.offset(pageable)), activityMapper::toDtoList);
+    }
+
     @Transactional
     public ActivityResponseDTO createActivity(ActivityCreateDTO activityCreateDTO) {
         // Convert DTO to entity, setting relationships
@@ -46,6 +61,7 @@ public class ActivityService {
 
         // Save the activity
         Activity savedActivity = activityRepository.save(activity);
+        eventPublisher.publishEvent(new SummaryChangedEvent(Activity.class));
 
         // Convert saved entity to response DTO
         return activityMapper.toDto(savedActivity);
@@ -82,5 +98,6 @@ public class ActivityService {
         }
         // Consider cascading deletes or manual deletion of related Lessons here if not handled by JPA cascade
         activityRepository.deleteById(id);
+        eventPublisher.publishEvent(new SummaryChangedEvent(Activity.class));
     }
 }
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.repository.LessonUserRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository.AvailableScheduledLesson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user, precomputed list of the scheduled lessons shown on the student home page: open scheduled lessons
+ * (no start time, at least one proposed slot) of every lesson the user is interested in and has not acquired,
+ * ordered by their earliest proposed slot.
+ * <p>
+ * A user's feed is built on first access and then kept up to date incrementally: after a change commits, only the
+ * affected scheduled lesson or lesson interest is re-read and patched into the feeds that contain it.
+ * Reading a built feed is a single map lookup. A user's feed is dropped when the user is updated or deleted.
+ */
+@Component
+public class AvailableLessonsFeed {
+
+    private static final Comparator<Entry> FEED_ORDER =
+            Comparator.comparing(Entry::earliestStart).thenComparing(Entry::scheduledLessonId);
+
+    private final LessonUserRepository lessonUserRepository;
+    private final ScheduledLessonRepository scheduledLessonRepository;
+    private final int maxUsers;
+
+    private final Map<String, UserFeed> feeds = new ConcurrentHashMap<>();
+    // Reverse indexes to find the feeds a change touches; guarded by the instance lock like every feed mutation
+    private final Map<Long, Set<String>> followersByLesson = new HashMap<>();
+    private final Map<Long, Long> lessonIdByScheduledLesson = new HashMap<>();
+    // Bumped on every change, so a feed built concurrently with a change is not cached with stale content
+    private long version;
+
+    public AvailableLessonsFeed(LessonUserRepository lessonUserRepository,
+                                ScheduledLessonRepository scheduledLessonRepository,
+                                @Value("${app.summary.available-lessons-feed.max-users:10000}") int maxUsers) {
+        this.lessonUserRepository = lessonUserRepository;
+        this.scheduledLessonRepository = scheduledLessonRepository;
+        this.maxUsers = maxUsers;
+    }
+
+    /**
+     * Returns the ordered scheduled lesson ids of a user's feed, building the feed if it is not in memory yet.
+     * @param email The user's email.
+     * @return An immutable, ordered list of scheduled lesson ids.
+     */
+    public List<Long> getScheduledLessonIds(String email) {
+        UserFeed feed = feeds.get(email);
+        return feed != null ? feed.orderedIds : load(email);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void onScheduledLessonChanged(ScheduledLessonChangedEvent event) {
+        version++;
+        if (feeds.isEmpty()) {
+            return;
+        }
+        Long scheduledLessonId = event.scheduledLessonId();
+        Set<UserFeed> touched = new HashSet<>();
+
+        Long previousLessonId = lessonIdByScheduledLesson.remove(scheduledLessonId);
+        if (previousLessonId != null) {
+            for (UserFeed feed : followers(previousLessonId)) {
+                feed.entries.remove(scheduledLessonId);
+                touched.add(feed);
+            }
+        }
+
+        scheduledLessonRepository.findAvailableById(scheduledLessonId).ifPresent(row -> {
+            List<UserFeed> followers = followers(row.getLessonId());
+            if (!followers.isEmpty()) {
+                Entry entry = Entry.of(row);
+                lessonIdByScheduledLesson.put(scheduledLessonId, entry.lessonId());
+                for (UserFeed feed : followers) {
+                    feed.entries.put(scheduledLessonId, entry);
+                    touched.add(feed);
+                }
+            }
+        });
+
+        touched.forEach(UserFeed::reorder);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void onLessonInterestChanged(LessonInterestChangedEvent event) {
+        version++;
+        String email = event.userEmail();
+        Long lessonId = event.lessonId();
+        UserFeed feed = feeds.get(email);
+        if (feed == null) {
+            return;
+        }
+
+        // Re-read the interest instead of trusting the event, the user may have more than one row for the lesson
+        boolean pending = lessonUserRepository.existsPendingByUserEmailAndLessonId(email, lessonId);
+        if (pending && feed.lessonIds.add(lessonId)) {
+            followersByLesson.computeIfAbsent(lessonId, id -> new HashSet<>()).add(email);
+            for (AvailableScheduledLesson row : scheduledLessonRepository.findAvailableByLessonIdIn(List.of(lessonId))) {
+                Entry entry = Entry.of(row);
+                lessonIdByScheduledLesson.put(entry.scheduledLessonId(), lessonId);
+                feed.entries.put(entry.scheduledLessonId(), entry);
+            }
+        } else if (!pending && feed.lessonIds.remove(lessonId)) {
+            unfollow(lessonId, email);
+            feed.entries.values().removeIf(entry -> entry.lessonId().equals(lessonId));
+        } else {
+            return;
+        }
+        feed.reorder();
+    }
+
+    // Feeds are keyed by email: the feed under a changed or deleted user's old email would otherwise stay cached,
+    // and be served to whoever signs up with that email next
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUserChanged(UserChangedEvent event) {
+        version++;
+        evict(event.previousEmail());
+    }
+
+    public synchronized void evict(String email) {
+        UserFeed feed = feeds.remove(email);
+        if (feed != null) {
+            feed.lessonIds.forEach(lessonId -> unfollow(lessonId, email));
+        }
+    }
+
+    public int size() {
+        return feeds.size();
+    }
+
+    private List<Long> load(String email) {
+        long loadVersion;
+        synchronized (this) {
+            loadVersion = version;
+        }
+
+        Set<Long> lessonIds = new HashSet<>(lessonUserRepository.findPendingLessonIdsByUserEmail(email));
+        UserFeed feed = new UserFeed(lessonIds);
+        if (!lessonIds.isEmpty()) {
+            for (AvailableScheduledLesson row : scheduledLessonRepository.findAvailableByLessonIdIn(lessonIds)) {
+                Entry entry = Entry.of(row);
+                feed.entries.put(entry.scheduledLessonId(), entry);
+            }
+        }
+        feed.reorder();
+
+        synchronized (this) {
+            // A change committed while loading may be missing from what was read: serve it, but do not cache it
+            if (version == loadVersion && !feeds.containsKey(email)) {
+                if (feeds.size() >= maxUsers) {
+                    evict(feeds.keySet().iterator().next());
+                }
+                feeds.put(email, feed);
+                lessonIds.forEach(lessonId -> followersByLesson.computeIfAbsent(lessonId, id -> new HashSet<>()).add(email));
+                feed.entries.values().forEach(entry -> lessonIdByScheduledLesson.put(entry.scheduledLessonId(), entry.lessonId()));
+            }
+        }
+        return feed.orderedIds;
+    }
+
+    private List<UserFeed> followers(Long lessonId) {
+        Set<String> emails = followersByLesson.getOrDefault(lessonId, Set.of());
+        List<UserFeed> followers = new ArrayList<>(emails.size());
+        for (String email : emails) {
+            UserFeed feed = feeds.get(email);
+            if (feed != null) {
+                followers.add(feed);
+            }
+        }
+        return followers;
+    }
+
+    private void unfollow(Long lessonId, String email) {
+        Set<String> emails = followersByLesson.get(lessonId);
+        if (emails != null) {
+            emails.remove(email);
+            if (emails.isEmpty()) {
+                followersByLesson.remove(lessonId);
+            }
+        }
+    }
+
+    private record Entry(Long scheduledLessonId, Long lessonId, OffsetDateTime earliestStart) {
+        static Entry of(AvailableScheduledLesson row) {
+            return new Entry(row.getScheduledLessonId(), row.getLessonId(), row.getEarliestStart());
+        }
+    }
+
+    private static final class UserFeed {
+        private final Set<Long> lessonIds;
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private volatile List<Long> orderedIds = List.of();
+
+        private UserFeed(Set<Long> lessonIds) {
+            this.lessonIds = lessonIds;
+        }
+
+        private void reorder() {
+            orderedIds = entries.values().stream()
+                    .sorted(FEED_ORDER)
+                    .map(Entry::scheduledLessonId)
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepositoryCustom.BookedLesson;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The ids of the scheduled lessons starting in the next app.scheduling.calendar.day-index.days days (UTC), bucketed
+ * by day and ordered by start time within each day, so a calendar view within that window is answered from memory
+ * and loaded by primary key. Rebuilt at startup and on a fixed delay, which also moves the window forward, and
+ * updated from {@link ScheduledLessonChangedEvent} once a write commits.
+ * <p>
+ * The index is per node: a lesson created or moved on another node, or by a write that published no event, is
+ * missing from it until the next rebuild, so calendar views can lag by up to the rebuild interval. It is therefore
+ * off by default and meant for single-node deployments, or ones that accept that lag; when off, every range is
+ * read through the start_time index.
+ */
+@Component
+@Slf4j
+public class CalendarDayIndex {
+
+    private final ScheduledLessonRepository scheduledLessonRepository;
+    private final boolean enabled;
+    private final int days;
+    private final Clock clock;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<LocalDate, NavigableSet<Entry>> buckets = new HashMap<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    // [windowStart, windowEnd) in epoch seconds; empty until the first rebuild
+    private long windowStart;
+    private long windowEnd;
+
+    @Autowired
+    public CalendarDayIndex(ScheduledLessonRepository scheduledLessonRepository,
+                            @Value("${app.scheduling.calendar.day-index.enabled:false}") boolean enabled,
+                            @Value("${app.scheduling.calendar.day-index.days:90}") int days) {
+        this(scheduledLessonRepository, enabled, days, Clock.systemUTC());
+    }
+
+    CalendarDayIndex(ScheduledLessonRepository scheduledLessonRepository, boolean enabled, int days, Clock clock) {
+        this.scheduledLessonRepository = scheduledLessonRepository;
+        this.enabled = enabled;
+        this.days = days;
+        this.clock = clock;
+    }
+
+    /**
+     * @return The ids of the scheduled lessons starting in [from, to), ordered by start time, or empty when the range
+     * is not within the indexed window and the database has to be asked.
+     */
+    public Optional<List<Long>> findStartingBetween(OffsetDateTime from, OffsetDateTime to) {
+        long start = from.toEpochSecond();
+        long end = to.toEpochSecond();
+        lock.readLock().lock();
+        try {
+            if (start < windowStart || end > windowEnd) {
+                return Optional.empty();
+            }
+            List<Long> ids = new ArrayList<>();
+            for (LocalDate day = day(start); !day.isAfter(day(end)); day = day.plusDays(1)) {
+                NavigableSet<Entry> bucket = buckets.get(day);
+                if (bucket != null) {
+                    for (Entry entry : bucket.subSet(new Entry(start, Long.MIN_VALUE), true, new Entry(end, Long.MIN_VALUE), false)) {
+                        ids.add(entry.scheduledLessonId());
+                    }
+                }
+            }
+            return Optional.of(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.scheduling.calendar.day-index.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${app.scheduling.calendar.day-index.rebuild-interval-ms:3600000}")
+    public void refresh() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Keep the current window; ranges past it fall back to the database
+            log.warn("calendar-index.rebuild.failed reason={}", e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Reloads the window starting today. The write lock is held during the query, so an event applied meanwhile is
+     * not lost when the reloaded buckets replace the current ones.
+     */
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        OffsetDateTime from = LocalDate.now(clock).atStartOfDay().atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = from.plusDays(days);
+        lock.writeLock().lock();
+        try {
+            List<BookedLesson> booked = scheduledLessonRepository.findBookedStartingBetween(from, to);
+            buckets.clear();
+            entries.clear();
+            windowStart = from.toEpochSecond();
+            windowEnd = to.toEpochSecond();
+            booked.forEach(this::put);
+            log.info("calendar-index.rebuilt from={} days={} lessons={}", from.toLocalDate(), days, booked.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Runs after the write commits, so the reload sees the new start time or the deletion
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduledLessonChanged(ScheduledLessonChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Optional<BookedLesson> booked = scheduledLessonRepository.findBookedById(event.scheduledLessonId());
+        lock.writeLock().lock();
+        try {
+            remove(event.scheduledLessonId());
+            booked.ifPresent(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(BookedLesson booked) {
+        long start = booked.startTime().toEpochSecond();
+        if (start < windowStart || start >= windowEnd) {
+            return;
+        }
+        Entry entry = new Entry(start, booked.scheduledLessonId());
+        entries.put(entry.scheduledLessonId(), entry);
+        buckets.computeIfAbsent(day(start), key -> new TreeSet<>()).add(entry);
+    }
+
+    private void remove(Long scheduledLessonId) {
+        Entry entry = entries.remove(scheduledLessonId);
+        if (entry != null) {
+            buckets.get(day(entry.start())).remove(entry);
+        }
+    }
+
+    private static LocalDate day(long epochSecond) {
+        return LocalDate.ofEpochDay(Math.floorDiv(epochSecond, 86_400));
+    }
+
+    private record Entry(long start, long scheduledLessonId) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int byStart = Long.compare(start, other.start);
+            return byStart != 0 ? byStart : Long.compare(scheduledLessonId, other.scheduledLessonId);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.Workshop;
+import com.github.pooya1361.makerspace.repository.LessonUserRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepositoryCustom.CalendarEvent;
+import com.github.pooya1361.makerspace.repository.UserRepository;
+import com.github.pooya1361.makerspace.repository.WorkshopRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prebuilt iCalendar feeds of scheduled lessons: one per user (the lessons they teach, and those of the lessons they
+ * are interested in and have not acquired) and one per workshop. Calendar apps poll these often, so a feed is
+ * rendered once into a byte array with its ETag and Last-Modified, and serving it, or answering 304, is a map lookup.
+ * <p>
+ * A feed is built on first access. After a change commits, only the feeds that held the scheduled lesson or should
+ * hold it now are re-read, and only when its start time, instructor or other shown details actually changed.
+ * A re-read that finds the same events keeps the feed, ETag and Last-Modified as they were. Changes that publish no
+ * event (a renamed lesson or workshop, writes on other nodes) are picked up by a periodic refresh.
+ */
+@Component
+@Slf4j
+public class CalendarFeedCache {
+
+    /**
+     * @param eTag A strong validator derived from the body, quoted.
+     * @param lastModified When the feed content last changed, in whole seconds.
+     */
+    public record CalendarFeed(byte[] body, String eTag, Instant lastModified) {
+    }
+
+    private final ScheduledLessonRepository scheduledLessonRepository;
+    private final LessonUserRepository lessonUserRepository;
+    private final UserRepository userRepository;
+    private final WorkshopRepository workshopRepository;
+    private final int maxFeeds;
+    private final Clock clock;
+
+    private final Map<FeedKey, Built> feeds = new ConcurrentHashMap<>();
+    // Reverse indexes to find the feeds a change touches; guarded by the instance lock like every feed mutation
+    private final Map<Long, Set<FeedKey>> feedsByScheduledLesson = new HashMap<>();
+    private final Map<Long, CalendarEvent> eventsByScheduledLesson = new HashMap<>();
+    private final Map<String, Long> userIdsByEmail = new HashMap<>();
+    // Bumped on every change, so a feed built concurrently with a change is not cached with stale content
+    private long version;
+
+    @Autowired
+    public CalendarFeedCache(ScheduledLessonRepository scheduledLessonRepository,
+                             LessonUserRepository lessonUserRepository,
+                             UserRepository userRepository,
+                             WorkshopRepository workshopRepository,
+                             @Value("${app.calendar.feeds.max-feeds:10000}") int maxFeeds) {
+        this(scheduledLessonRepository, lessonUserRepository, userRepository, workshopRepository, maxFeeds,
+                Clock.systemUTC());
+    }
+
+    CalendarFeedCache(ScheduledLessonRepository scheduledLessonRepository, LessonUserRepository lessonUserRepository,
+                      UserRepository userRepository, WorkshopRepository workshopRepository, int maxFeeds, Clock clock) {
+        this.scheduledLessonRepository = scheduledLessonRepository;
+        this.lessonUserRepository = lessonUserRepository;
+        this.userRepository = userRepository;
+        this.workshopRepository = workshopRepository;
+        this.maxFeeds = maxFeeds;
+        this.clock = clock;
+    }
+
+    /**
+     * @return The user's feed, or empty when the user does not exist.
+     */
+    public Optional<CalendarFeed> getUserFeed(Long userId) {
+        return get(new FeedKey(FeedType.USER, userId));
+    }
+
+    /**
+     * @return The workshop's feed, or empty when the workshop does not exist.
+     */
+    public Optional<CalendarFeed> getWorkshopFeed(Long workshopId) {
+        return get(new FeedKey(FeedType.WORKSHOP, workshopId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void onScheduledLessonChanged(ScheduledLessonChangedEvent event) {
+        version++;
+        if (feeds.isEmpty()) {
+            return;
+        }
+        Long scheduledLessonId = event.scheduledLessonId();
+        Optional<CalendarEvent> current = scheduledLessonRepository.findCalendarEventById(scheduledLessonId);
+        CalendarEvent cached = eventsByScheduledLesson.get(scheduledLessonId);
+        if (current.isPresent() && current.get().equals(cached)) {
+            // E.g. a proposed time slot changed; nothing the feeds show did
+            return;
+        }
+
+        // The feeds that held it, and those that should hold it now
+        Set<FeedKey> affected = new HashSet<>(feedsByScheduledLesson.getOrDefault(scheduledLessonId, Set.of()));
+        current.ifPresent(row -> {
+            if (row.workshopId() != null) {
+                affected.add(new FeedKey(FeedType.WORKSHOP, row.workshopId()));
+            }
+            if (row.instructorId() != null) {
+                affected.add(new FeedKey(FeedType.USER, row.instructorId()));
+            }
+            if (!userIdsByEmail.isEmpty()) {
+                for (Long userId : lessonUserRepository.findPendingUserIdsByLessonId(row.lessonId())) {
+                    affected.add(new FeedKey(FeedType.USER, userId));
+                }
+            }
+        });
+        affected.forEach(this::regenerate);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void onLessonInterestChanged(LessonInterestChangedEvent event) {
+        version++;
+        Long userId = userIdsByEmail.get(event.userEmail());
+        if (userId != null) {
+            regenerate(new FeedKey(FeedType.USER, userId));
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.calendar.feeds.refresh-interval-ms:3600000}",
+            fixedDelayString = "${app.calendar.feeds.refresh-interval-ms:3600000}")
+    public void refresh() {
+        try {
+            for (FeedKey key : List.copyOf(feeds.keySet())) {
+                Built previous = feeds.get(key);
+                if (previous == null) {
+                    continue;
+                }
+                // Read without the lock, so listeners and cold loads are not held up for the whole pass
+                Optional<Built> built = build(key, previous);
+                synchronized (this) {
+                    // A listener that replaced the feed meanwhile read after this did; its version stays
+                    if (feeds.get(key) == previous) {
+                        uncache(key, previous);
+                        built.ifPresent(rebuilt -> cache(key, rebuilt));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the current feeds; events keep them up to date until the next refresh
+            log.warn("calendar-feeds.refresh.failed reason={}", e.getClass().getSimpleName());
+        }
+    }
+
+    public int size() {
+        return feeds.size();
+    }
+
+    private Optional<CalendarFeed> get(FeedKey key) {
+        Built built = feeds.get(key);
+        return built != null ? Optional.of(built.feed()) : load(key);
+    }
+
+    private Optional<CalendarFeed> load(FeedKey key) {
+        long loadVersion;
+        synchronized (this) {
+            loadVersion = version;
+        }
+
+        Optional<Built> built = build(key, null);
+        built.ifPresent(loaded -> {
+            synchronized (this) {
+                // A change committed while loading may be missing from what was read: serve it, but do not cache it
+                if (version == loadVersion && !feeds.containsKey(key)) {
+                    if (feeds.size() >= maxFeeds) {
+                        FeedKey evicted = feeds.keySet().iterator().next();
+                        uncache(evicted, feeds.get(evicted));
+                    }
+                    cache(key, loaded);
+                }
+            }
+        });
+        return built.map(Built::feed);
+    }
+
+    // Re-reads a cached feed; dropped when its user or workshop no longer exists
+    private void regenerate(FeedKey key) {
+        Built previous = feeds.get(key);
+        if (previous == null) {
+            return;
+        }
+        Optional<Built> built = build(key, previous);
+        uncache(key, previous);
+        built.ifPresent(rebuilt -> cache(key, rebuilt));
+    }
+
+    private Optional<Built> build(FeedKey key, Built previous) {
+        String name;
+        String email = null;
+        List<CalendarEvent> events;
+        if (key.type() == FeedType.USER) {
+            Optional<User> user = userRepository.findById(key.id());
+            if (user.isEmpty()) {
+                return Optional.empty();
+            }
+            name = "Makerspace lessons of " + ICalendarRenderer.fullName(user.get().getFirstName(), user.get().getLastName());
+            email = user.get().getEmail();
+            events = scheduledLessonRepository.findCalendarEventsByUserId(key.id());
+        } else {
+            Optional<Workshop> workshop = workshopRepository.findById(key.id());
+            if (workshop.isEmpty()) {
+                return Optional.empty();
+            }
+            name = "Makerspace " + workshop.get().getName();
+            events = scheduledLessonRepository.findCalendarEventsByWorkshopId(key.id());
+        }
+
+        if (previous != null && previous.name().equals(name) && previous.events().equals(events)) {
+            return Optional.of(new Built(previous.feed(), name, email, events));
+        }
+        Instant stamp = clock.instant().truncatedTo(ChronoUnit.SECONDS);
+        byte[] body = ICalendarRenderer.render(name, events, stamp);
+        return Optional.of(new Built(new CalendarFeed(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"", stamp),
+                name, email, events));
+    }
+
+    private void cache(FeedKey key, Built built) {
+        feeds.put(key, built);
+        for (CalendarEvent event : built.events()) {
+            feedsByScheduledLesson.computeIfAbsent(event.scheduledLessonId(), id -> new HashSet<>()).add(key);
+            eventsByScheduledLesson.put(event.scheduledLessonId(), event);
+        }
+        if (built.email() != null) {
+            userIdsByEmail.put(built.email(), key.id());
+        }
+    }
+
+    private void uncache(FeedKey key, Built built) {
+        feeds.remove(key);
+        for (CalendarEvent event : built.events()) {
+            Set<FeedKey> keys = feedsByScheduledLesson.get(event.scheduledLessonId());
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    feedsByScheduledLesson.remove(event.scheduledLessonId());
+                    eventsByScheduledLesson.remove(event.scheduledLessonId());
+                }
+            }
+        }
+        if (built.email() != null) {
+            userIdsByEmail.remove(built.email());
+        }
+    }
+
+    private enum FeedType {
+        USER, WORKSHOP
+    }
+
+    private record FeedKey(FeedType type, Long id) {
+    }
+
+    private record Built(CalendarFeed feed, String name, String email, List<CalendarEvent> events) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.model.EmailOutbox;
+import com.github.pooya1361.makerspace.model.enums.EmailOutboxStatus;
+import com.github.pooya1361.makerspace.repository.EmailOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the email outbox in the background.
+ * <p>
+ * Each batch is claimed in a short transaction (the rows' lease is pushed forward so a crashed dispatcher's batch
+ * is picked up again later), sent outside any transaction over one SMTP connection, and the outcome recorded in a
+ * second transaction. A failed email is retried with exponential backoff and marked {@code FAILED} once it has
+ * used up its attempts.
+ */
+@Component
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+
+    @Autowired
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository,
+                                 EmailService emailService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.email.outbox.batch-size:100}") int batchSize,
+                                 @Value("${app.email.outbox.max-attempts:5}") int maxAttempts,
+                                 @Value("${app.email.outbox.lease-ms:300000}") long leaseMs,
+                                 @Value("${app.email.outbox.retry-backoff-ms:30000}") long retryBackoffMs,
+                                 @Value("${app.email.outbox.max-retry-backoff-ms:3600000}") long maxRetryBackoffMs) {
+        this(emailOutboxRepository, emailService, new TransactionTemplate(transactionManager), Clock.systemUTC(),
+                batchSize, maxAttempts, Duration.ofMillis(leaseMs), Duration.ofMillis(retryBackoffMs),
+                Duration.ofMillis(maxRetryBackoffMs));
+    }
+
+    EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository, EmailService emailService,
+                          TransactionTemplate transactionTemplate, Clock clock, int batchSize, int maxAttempts,
+                          Duration lease, Duration retryBackoff, Duration maxRetryBackoff) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+    }
+
+    @Scheduled(initialDelayString = "${app.email.outbox.poll-interval-ms:1000}",
+            fixedDelayString = "${app.email.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        try {
+            // A full batch means more may be due; keep going until the backlog is drained
+            while (dispatchBatch() == batchSize) {
+                log.debug("email.outbox.batch.full size={}", batchSize);
+            }
+        } catch (RuntimeException e) {
+            // Claimed rows become due again once their lease runs out
+            log.warn("email.outbox.dispatch.failed reason={}", e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Claims, sends and settles one batch of due emails.
+     * @return The number of emails claimed.
+     */
+    int dispatchBatch() {
+        List<EmailOutbox> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        // Mirror the bulk claim on the rows, which are detached by now
+        batch.forEach(email -> email.setAttempts(email.getAttempts() + 1));
+
+        Map<Long, String> failures = emailService.sendNewScheduledLessonNotifications(batch);
+
+        transactionTemplate.executeWithoutResult(status -> settle(batch, failures));
+        log.info("email.outbox.batch sent={} failed={}", batch.size() - failures.size(), failures.size());
+        return batch.size();
+    }
+
+    private List<EmailOutbox> claimBatch() {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        List<EmailOutbox> batch = emailOutboxRepository.findDueForUpdate(
+                EmailOutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+        if (!batch.isEmpty()) {
+            emailOutboxRepository.claim(batch.stream().map(EmailOutbox::getId).toList(), now.plus(lease));
+        }
+        return batch;
+    }
+
+    private void settle(List<EmailOutbox> batch, Map<Long, String> failures) {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        List<Long> sent = batch.stream()
+                .map(EmailOutbox::getId)
+                .filter(id -> !failures.containsKey(id))
+                .toList();
+        if (!sent.isEmpty()) {
+            emailOutboxRepository.markSent(sent, EmailOutboxStatus.SENT, now);
+        }
+
+        for (EmailOutbox email : batch) {
+            if (!failures.containsKey(email.getId())) {
+                continue;
+            }
+            boolean exhausted = email.getAttempts() >= maxAttempts;
+            emailOutboxRepository.markAttemptFailed(email.getId(),
+                    exhausted ? EmailOutboxStatus.FAILED : EmailOutboxStatus.PENDING,
+                    now.plus(backoff(email.getAttempts())),
+                    truncate(failures.get(email.getId())));
+            if (exhausted) {
+                log.warn("email.outbox.failed id={} attempts={}", email.getId(), email.getAttempts());
+            }
+        }
+    }
+
+    // retryBackoff after the first attempt, doubling with each further attempt up to maxRetryBackoff
+    Duration backoff(int attempts) {
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 30));
+        return delay.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : delay;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return "unknown";
+        }
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -1,82 +1,95 @@
 package com.github.pooya1361.makerspace.service;
 
-import com.github.pooya1361.makerspace.model.ProposedTimeSlot;
-import com.github.pooya1361.makerspace.model.ScheduledLesson;
-import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.EmailOutbox;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Value;
+import org.thymeleaf.exceptions.TemplateEngineException;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
 public class EmailService {
 
     private final JavaMailSender mailSender;
+    private final EmailTemplateRenderer templateRenderer;
 
     @Value("${app.email.from:noreply@makerspace.com}")
     private String fromEmail;
 
-    @Value("${app.frontend.url:http://localhost:3000}")
-    private String frontendUrl;
-
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender, EmailTemplateRenderer templateRenderer) {
         this.mailSender = mailSender;
+        this.templateRenderer = templateRenderer;
     }
 
-    public void sendNewScheduledLessonNotification(User user, ScheduledLesson scheduledLesson, ProposedTimeSlot proposedTimeSlot) {
+    /**
+     * Sends a batch of new-slot notifications. All messages of the batch go out over a single SMTP connection.
+     * @param notifications The outbox entries to send.
+     * @return The ids of the entries that were not sent, with the reason. Empty when the whole batch went out.
+     */
+    public Map<Long, String> sendNewScheduledLessonNotifications(List<EmailOutbox> notifications) {
+        Map<Long, String> failures = new HashMap<>();
+        // A batch is usually one lesson's audience, so the template is rendered once and only the greeting differs
+        Map<TemplateKey, EmailTemplateRenderer.BatchEmail> rendered = new HashMap<>();
+        // MailSendException reports failed messages by instance
+        Map<MimeMessage, Long> messages = new IdentityHashMap<>();
+        for (EmailOutbox notification : notifications) {
+            try {
+                EmailTemplateRenderer.BatchEmail email = rendered.computeIfAbsent(
+                        new TemplateKey(notification.getScheduledLessonId(), notification.getLessonName()),
+                        key -> templateRenderer.renderNewScheduledLesson(key.lessonName(), key.scheduledLessonId()));
+                messages.put(createMessage(notification, email), notification.getId());
+            } catch (MessagingException | TemplateEngineException e) {
+                failures.put(notification.getId(), e.getMessage());
+            }
+        }
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                messages.values().forEach(id -> failures.put(id, e.getMessage()));
+            } else {
+                e.getFailedMessages().forEach((message, exception) -> {
+                    Long id = messages.get(message);
+                    if (id != null) {
+                        failures.put(id, exception.getMessage());
+                    }
+                });
+            }
+        } catch (MailException e) {
+            messages.values().forEach(id -> failures.put(id, e.getMessage()));
+        }
 
-            helper.setFrom(fromEmail);
-            helper.setTo(user.getEmail());
-            helper.setSubject("New lesson scheduled for " + scheduledLesson.getLesson().getName());
+        log.info("Sent {} of {} email notifications", notifications.size() - failures.size(), notifications.size());
+        return failures;
+    }
 
-            String emailContent = String.format("""
-                            <html>
-                            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333;">
-                                <div style="max-width: 600px;">
-                                    <h2 style="color: #2c3e50;">New Time Slot Proposed!</h2>
-                                   \s
-                                    <p>Hi %s,</p>
-                                   \s
-                                    <p>A lesson has been scheduled for <strong>%s</strong>.</p>
-                                   \s
-                                    <p>Please click on the link below and vote on the available time slots:</p>
-                                    <p style="text-align: center;">
-                                        <a href="%s/scheduled-lessons/%d"\s
-                                           style="background: #007bff; color: white; padding: 12px 25px;\s
-                                                  text-decoration: none; border-radius: 5px; display: inline-block;">
-                                           Vote on Time Slots
-                                        </a>
-                                    </p>
-                                   \s
-                                    <p>If you're no longer interested in this lesson, you can remove this lesson from your interested list\s
-                                       <a href="%s/lessons">here</a>.</p>
-                                   \s
-                                    <p>Best regards,<br>
-                                    <strong>Fake Makerspace Team (Pouya)</strong></p>
-                                </div>
-                            </body>
-                            </html>
-                            """,
-                    user.getFirstName() != null ? user.getFirstName() : "Student",
-                    scheduledLesson.getLesson().getName(),
-                    frontendUrl,
-                    scheduledLesson.getId(),
-                    frontendUrl
-            );
+    private MimeMessage createMessage(EmailOutbox notification, EmailTemplateRenderer.BatchEmail email)
+            throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
 
-            helper.setText(emailContent, true);
-            mailSender.send(message);
+        helper.setFrom(fromEmail);
+        helper.setTo(notification.getRecipientEmail());
+        helper.setSubject(email.subject());
+        helper.setText(email.htmlFor(notification.getRecipientName()), true);
+        return message;
+    }
 
-            log.info("Email sent to {} for time slot {}", user.getEmail(), proposedTimeSlot.getId());
-        } catch (MessagingException e) {
-            log.error("Failed to send email to {}: {}", user.getEmail(), e.getMessage());
-        }
+    private record TemplateKey(Long scheduledLessonId, String lessonName) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+package com.github.pooya1361.makerspace.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Renders notification emails from the Thymeleaf templates under {@code templates/email}.
+ * <p>
+ * The template engine parses each template once and caches it. A notification is rendered once per lesson with a
+ * marker in place of the recipient's name; each recipient then only costs a string concatenation, not a render.
+ */
+@Component
+public class EmailTemplateRenderer {
+
+    static final String NEW_SCHEDULED_LESSON_TEMPLATE = "email/new-scheduled-lesson";
+    private static final String DEFAULT_RECIPIENT_NAME = "Student";
+
+    private final ITemplateEngine templateEngine;
+    private final String frontendUrl;
+    // Random, so no lesson name can contain it
+    private final String recipientMarker = "recipient-" + UUID.randomUUID();
+
+    public EmailTemplateRenderer(ITemplateEngine templateEngine,
+                                 @Value("${app.frontend.url:http://localhost:3000}") String frontendUrl) {
+        this.templateEngine = templateEngine;
+        this.frontendUrl = frontendUrl;
+    }
+
+    /**
+     * Renders the notification about a new proposed time slot for everyone interested in a lesson.
+     * @param lessonName The name of the lesson.
+     * @param scheduledLessonId The scheduled lesson whose slots the recipients are asked to vote on.
+     * @return The rendered email, to be personalized per recipient.
+     */
+    public BatchEmail renderNewScheduledLesson(String lessonName, Long scheduledLessonId) {
+        Context context = new Context(Locale.ENGLISH);
+        context.setVariable("recipientName", recipientMarker);
+        context.setVariable("lessonName", lessonName);
+        context.setVariable("scheduledLessonId", scheduledLessonId);
+        context.setVariable("frontendUrl", frontendUrl);
+        String html = templateEngine.process(NEW_SCHEDULED_LESSON_TEMPLATE, context);
+
+        int marker = html.indexOf(recipientMarker);
+        if (marker < 0) {
+            throw new IllegalStateException("Template " + NEW_SCHEDULED_LESSON_TEMPLATE + " does not use recipientName");
+        }
+        return new BatchEmail("New lesson scheduled for " + lessonName,
+                html.substring(0, marker), html.substring(marker + recipientMarker.length()));
+    }
+
+    /**
+     * An email rendered for a whole batch, split around the recipient's name.
+     */
+    public record BatchEmail(String subject, String htmlBeforeName, String htmlAfterName) {
+
+        public String htmlFor(String recipientName) {
+            String name = recipientName != null && !recipientName.isBlank() ? recipientName : DEFAULT_RECIPIENT_NAME;
+            return htmlBeforeName + HtmlUtils.htmlEscape(name) + htmlAfterName;
+        }
+    }
+}
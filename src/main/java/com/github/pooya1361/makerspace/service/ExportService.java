@@ -0,0 +1,111 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.pooya1361.makerspace.mapper.LessonUserMapper;
+import com.github.pooya1361.makerspace.mapper.UserMapper;
+import com.github.pooya1361.makerspace.mapper.VoteMapper;
+import com.github.pooya1361.makerspace.model.LessonUser;
+import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.Vote;
+import com.github.pooya1361.makerspace.repository.LessonUserRepository;
+import com.github.pooya1361.makerspace.repository.UserRepository;
+import com.github.pooya1361.makerspace.repository.VoteRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes whole tables as NDJSON (one JSON object per line) for admin exports.
+ * Rows are read through a forward-only stream and mapped one at a time, and the persistence context is cleared
+ * regularly, so memory use does not grow with the size of the table.
+ */
+@Service
+@Slf4j
+public class ExportService {
+
+    // Rows written between persistence context clears; matches the fetch size of the export queries
+    static final int CLEAR_INTERVAL = 500;
+
+    private final VoteRepository voteRepository;
+    private final LessonUserRepository lessonUserRepository;
+    private final UserRepository userRepository;
+    private final VoteMapper voteMapper;
+    private final LessonUserMapper lessonUserMapper;
+    private final UserMapper userMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+
+    public ExportService(VoteRepository voteRepository,
+                         LessonUserRepository lessonUserRepository,
+                         UserRepository userRepository,
+                         VoteMapper voteMapper,
+                         LessonUserMapper lessonUserMapper,
+                         UserMapper userMapper,
+                         EntityManager entityManager,
+                         ObjectMapper objectMapper) {
+        this.voteRepository = voteRepository;
+        this.lessonUserRepository = lessonUserRepository;
+        this.userRepository = userRepository;
+        this.voteMapper = voteMapper;
+        this.lessonUserMapper = lessonUserMapper;
+        this.userMapper = userMapper;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        // The generator is flushed in chunks by the servlet output buffer, not after every row
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public long exportVotes(OutputStream out) throws IOException {
+        try (Stream<Vote> votes = voteRepository.streamAllForExport()) {
+            return writeNdjson(votes, voteMapper::toDto, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportLessonUsers(OutputStream out) throws IOException {
+        try (Stream<LessonUser> lessonUsers = lessonUserRepository.streamAllForExport()) {
+            return writeNdjson(lessonUsers, lessonUserMapper::toDto, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportUsers(OutputStream out) throws IOException {
+        try (Stream<User> users = userRepository.streamAllForExport()) {
+            return writeNdjson(users, userMapper::toDto, out);
+        }
+    }
+
+    private <E, D> long writeNdjson(Stream<E> rows, Function<E, D> mapper, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // The servlet container owns the response stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are separated explicitly below instead of Jackson's default space between root values
+            generator.setRootValueSeparator(null);
+
+            Iterator<E> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                rowWriter.writeValue(generator, mapper.apply(iterator.next()));
+                generator.writeRaw('\n');
+                if (++count % CLEAR_INTERVAL == 0) {
+                    // Drop the entities already written so the persistence context stays small
+                    entityManager.clear();
+                }
+            }
+        }
+        log.info("export.completed rows={}", count);
+        return count;
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepositoryCustom.CalendarEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes scheduled lessons as an iCalendar (RFC 5545) document: one VEVENT per lesson, times in UTC, CRLF line
+ * endings and lines folded at 75 octets.
+ */
+final class ICalendarRenderer {
+
+    private static final DateTimeFormatter UTC_DATE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private ICalendarRenderer() {
+    }
+
+    /**
+     * @param calendarName Shown by calendar apps as the name of the subscription.
+     * @param events The lessons, in the order they are written.
+     * @param stamp The DTSTAMP of every event: when the feed content last changed.
+     */
+    static byte[] render(String calendarName, List<CalendarEvent> events, Instant stamp) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 + events.size() * 256);
+        line(out, "BEGIN:VCALENDAR");
+        line(out, "VERSION:2.0");
+        line(out, "PRODID:-//makerspace//Scheduled lessons//EN");
+        line(out, "CALSCALE:GREGORIAN");
+        line(out, "X-WR-CALNAME:" + text(calendarName));
+        for (CalendarEvent event : events) {
+            Instant start = event.startTime().toInstant();
+            line(out, "BEGIN:VEVENT");
+            line(out, "UID:scheduled-lesson-" + event.scheduledLessonId() + "@makerspace");
+            line(out, "DTSTAMP:" + UTC_DATE_TIME.format(stamp));
+            line(out, "DTSTART:" + UTC_DATE_TIME.format(start));
+            line(out, "DTEND:" + UTC_DATE_TIME.format(start.plus(Duration.ofMinutes(event.durationInMinutes()))));
+            line(out, "SUMMARY:" + text(event.lessonName()));
+            if (event.workshopName() != null) {
+                line(out, "LOCATION:" + text(event.workshopName()));
+            }
+            if (event.instructorId() != null) {
+                line(out, "DESCRIPTION:" + text("Instructor: " +
+                        fullName(event.instructorFirstName(), event.instructorLastName())));
+            }
+            line(out, "END:VEVENT");
+        }
+        line(out, "END:VCALENDAR");
+        return out.toByteArray();
+    }
+
+    static String fullName(String firstName, String lastName) {
+        return ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim();
+    }
+
+    // TEXT values escape backslashes, semicolons, commas and line breaks
+    private static String text(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n")
+                .replace("\r", "");
+    }
+
+    // Folds after 75 octets with CRLF and a space, never inside a UTF-8 sequence
+    private static void line(ByteArrayOutputStream out, String content) {
+        int octets = 0;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            byte[] bytes = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8);
+            if (octets + bytes.length > MAX_LINE_OCTETS) {
+                out.writeBytes(new byte[]{'\r', '\n', ' '});
+                // The leading space counts towards the continuation line
+                octets = 1;
+            }
+            out.writeBytes(bytes);
+            octets += bytes.length;
+            i += Character.charCount(codePoint);
+        }
+        out.writeBytes(new byte[]{'\r', '\n'});
+    }
+}
@@ -0,0 +1,224 @@
+package com.github.pooya1361.makerspace.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Half-open intervals [start, end) keyed by a value, e.g. the bookings of one instructor keyed by scheduled lesson
+ * id. An AVL tree ordered by start and augmented with the largest end in each subtree, so finding the intervals
+ * that overlap a range costs O(log n + k) instead of a comparison with every interval. A value holds at most one
+ * interval; putting it again moves it. Not thread-safe.
+ */
+public class IntervalTree<T> {
+
+    private final Map<T, Node<T>> nodes = new HashMap<>();
+    private Node<T> root;
+    private long sequence;
+
+    public void put(T value, long start, long end) {
+        if (end < start) {
+            throw new IllegalArgumentException("Interval ends before it starts: [" + start + ", " + end + ")");
+        }
+        remove(value);
+        Node<T> node = new Node<>(value, start, end, sequence++);
+        root = insert(root, node);
+        nodes.put(value, node);
+    }
+
+    public boolean remove(T value) {
+        Node<T> node = nodes.remove(value);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node);
+        return true;
+    }
+
+    public boolean contains(T value) {
+        return nodes.containsKey(value);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return The values whose interval overlaps [start, end), ordered by interval start.
+     */
+    public List<T> overlapping(long start, long end) {
+        List<T> result = new ArrayList<>();
+        collect(root, start, end, result);
+        return result;
+    }
+
+    public boolean overlaps(long start, long end) {
+        return !overlapping(start, end).isEmpty();
+    }
+
+    /**
+     * The most intervals running at the same moment within [start, end), e.g. the lessons competing for room in a
+     * workshop during a booking. Unlike the number of overlapping intervals, two that overlap the range one after the
+     * other count once.
+     * @param excluded A value to leave out, such as the booking being moved, or null.
+     */
+    public int maxConcurrent(long start, long end, T excluded) {
+        List<long[]> changes = new ArrayList<>();
+        for (T value : overlapping(start, end)) {
+            if (value.equals(excluded)) {
+                continue;
+            }
+            Node<T> node = nodes.get(value);
+            changes.add(new long[]{Math.max(start, node.start), 1});
+            changes.add(new long[]{node.end, -1});
+        }
+        // At the same moment ends go first: half-open intervals that touch do not run at once
+        changes.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        int running = 0;
+        int max = 0;
+        for (long[] change : changes) {
+            running += (int) change[1];
+            max = Math.max(max, running);
+        }
+        return max;
+    }
+
+    private static <T> void collect(Node<T> node, long start, long end, List<T> result) {
+        // Nothing in this subtree ends after the range starts
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        collect(node.left, start, end, result);
+        if (node.start >= end) {
+            // This node and its right subtree start at or after the range ends
+            return;
+        }
+        if (node.end > start) {
+            result.add(node.value);
+        }
+        collect(node.right, start, end, result);
+    }
+
+    private static <T> Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private static <T> Node<T> delete(Node<T> node, Node<T> removed) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(removed, node);
+        if (comparison < 0) {
+            node.left = delete(node.left, removed);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, removed);
+        } else {
+            if (node.left == null || node.right == null) {
+                return node.left != null ? node.left : node.right;
+            }
+            // Replace the node with its in-order successor
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private static <T> Node<T> deleteMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    // Start first; the insertion sequence makes keys unique, so equal starts are allowed
+    private static int compare(Node<?> a, Node<?> b) {
+        int byStart = Long.compare(a.start, b.start);
+        return byStart != 0 ? byStart : Long.compare(a.sequence, b.sequence);
+    }
+
+    private static <T> Node<T> balance(Node<T> node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node<?> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node<T> {
+        private final T value;
+        private final long start;
+        private final long end;
+        private final long sequence;
+        private long maxEnd;
+        private int height = 1;
+        private Node<T> left;
+        private Node<T> right;
+
+        Node(T value, long start, long end, long sequence) {
+            this.value = value;
+            this.start = start;
+            this.end = end;
+            this.sequence = sequence;
+            this.maxEnd = end;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.pooya1361.makerspace.service;
+
+/**
+ * Published when a user's interest in a lesson is created, changed (e.g. marked as acquired) or removed.
+ * @param userEmail The email of the user.
+ * @param lessonId The id of the lesson.
+ */
+public record LessonInterestChangedEvent(String userEmail, Long lessonId) {
+}
@@ -3,12 +3,15 @@ package com.github.pooya1361.makerspace.service;
 
 import com.github.pooya1361.makerspace.dto.create.LessonCreateDTO;
 import com.github.pooya1361.makerspace.dto.response.LessonResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
 import com.github.pooya1361.makerspace.mapper.LessonMapper;
 import com.github.pooya1361.makerspace.model.Activity;
 import com.github.pooya1361.makerspace.model.Lesson;
 import com.github.pooya1361.makerspace.repository.ActivityRepository;
 import com.github.pooya1361.makerspace.repository.LessonRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,11 +24,14 @@ public class LessonService {
     private final LessonRepository lessonRepository;
     private final LessonMapper lessonMapper;
     private final ActivityRepository activityRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public LessonService(LessonRepository lessonRepository, LessonMapper lessonMapper, ActivityRepository activityRepository) {
+    public LessonService(LessonRepository lessonRepository, LessonMapper lessonMapper, ActivityRepository activityRepository,
+                         ApplicationEventPublisher eventPublisher) {
         this.lessonRepository = lessonRepository;
         this.lessonMapper = lessonMapper;
         this.activityRepository = activityRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -39,6 +45,7 @@ public class LessonService {
         }
 
         Lesson savedLesson = lessonRepository.save(lesson);
+        eventPublisher.publishEvent(new SummaryChangedEvent(Lesson.class));
         return lessonMapper.toDto(savedLesson);
     }
 
@@ -46,6 +53,15 @@ public class LessonService {
         return lessonMapper.toDtoList(lessonRepository.findAll());
     }
 
+    @Transactional(readOnly = true)
+    public PageResponseDTO<LessonResponseDTO> getLessons(Pageable pageable, Long after) {
+        if (after != null) {
+            List<Lesson> rows = lessonRepository.findByIdGreaterThan(after, Paging.keyset(pageable));
+            return Paging.ofKeyset(rows, pageable, Lesson::getId, lessonMapper::toDtoList);
+        }
+        return Paging.ofPage(lessonRepository.findAll(Paging.offset(pageable)), lessonMapper::toDtoList);
+    }
+
     public Optional<LessonResponseDTO> getLessonById(Long id) {
         return lessonRepository.findById(id)
                 .map(lessonMapper::toDto);
@@ -76,5 +92,6 @@ public class LessonService {
         }
         // Consider cascading deletes or manual deletion of related ScheduledLessons here
         lessonRepository.deleteById(id);
+        eventPublisher.publishEvent(new SummaryChangedEvent(Lesson.class));
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.github.pooya1361.makerspace.service;
 
 import com.github.pooya1361.makerspace.dto.create.LessonUserCreateDTO;
 import com.github.pooya1361.makerspace.dto.response.LessonUserResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
 import com.github.pooya1361.makerspace.mapper.LessonUserMapper;
 import com.github.pooya1361.makerspace.model.Activity;
 import com.github.pooya1361.makerspace.model.Lesson;
@@ -14,6 +15,8 @@ import com.github.pooya1361.makerspace.repository.LessonUserRepository;
 import com.github.pooya1361.makerspace.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +31,7 @@ public class LessonUserService {
     private final LessonUserRepository lessonUserRepository;
     private final UserRepository userRepository;
     private final LessonUserMapper lessonUserMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public LessonUserResponseDTO createLessonUser(LessonUserCreateDTO createDTO) {
@@ -46,6 +50,7 @@ public class LessonUserService {
         }
 
         LessonUser savedLessonUser = lessonUserRepository.save(lessonUser);
+        publishInterestChanged(savedLessonUser.getUser(), savedLessonUser.getLesson());
         return lessonUserMapper.toDto(savedLessonUser);
     }
 
@@ -53,6 +58,15 @@ public class LessonUserService {
         return lessonUserMapper.toDtoList(lessonUserRepository.findAll());
     }
 
+    @Transactional(readOnly = true)
+    public PageResponseDTO<LessonUserResponseDTO> getLessonUsers(Pageable pageable, Long after) {
+        if (after != null) {
+            List<LessonUser> rows = lessonUserRepository.findByIdGreaterThan(after, Paging.keyset(pageable));
+            return Paging.ofKeyset(rows, pageable, LessonUser::getId, lessonUserMapper::toDtoList);
+        }
+        return Paging.ofPage(lessonUserRepository.findAll(Paging.offset(pageable)), lessonUserMapper::toDtoList);
+    }
+
     public Optional<LessonUserResponseDTO> getLessonUserById(Long id) {
         return lessonUserRepository.findById(id)
                 .map(lessonUserMapper::toDto);
@@ -68,6 +82,8 @@ public class LessonUserService {
         LessonUser existingLessonUser = lessonUserRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("LessonUser not found with ID: " + id));
 
+        User previousUser = existingLessonUser.getUser();
+        Lesson previousLesson = existingLessonUser.getLesson();
         lessonUserMapper.updateLessonUserFromDto(updateDTO, existingLessonUser);
 
         existingLessonUser.setLesson(null);
@@ -84,15 +100,24 @@ public class LessonUserService {
         }
 
         LessonUser updatedLessonUser = lessonUserRepository.save(existingLessonUser);
+        // Both the previous and the new (user, lesson) pair may have gained or lost an available lesson
+        publishInterestChanged(previousUser, previousLesson);
+        publishInterestChanged(updatedLessonUser.getUser(), updatedLessonUser.getLesson());
         return lessonUserMapper.toDto(updatedLessonUser);
     }
 
     @Transactional
     public void deleteLessonUser(Long id) {
-        if (!lessonUserRepository.existsById(id)) {
-            throw new EntityNotFoundException("LessonUser not found with ID: " + id);
-        }
+        LessonUser lessonUser = lessonUserRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("LessonUser not found with ID: " + id));
         // Consider cascading deletes or manual deletion of related ScheduledLessonUsers here
-        lessonUserRepository.deleteById(id);
+        lessonUserRepository.delete(lessonUser);
+        publishInterestChanged(lessonUser.getUser(), lessonUser.getLesson());
+    }
+
+    private void publishInterestChanged(User user, Lesson lesson) {
+        if (user != null && lesson != null) {
+            eventPublisher.publishEvent(new LessonInterestChangedEvent(user.getEmail(), lesson.getId()));
+        }
     }
 }
\ No newline at end of file
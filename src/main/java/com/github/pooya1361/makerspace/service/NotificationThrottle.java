@@ -0,0 +1,102 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets the interested users of a scheduled lesson be emailed about new slots at most once per cooldown.
+ * <p>
+ * The scheduled lesson's {@code last_notified_at} column is the authority: a conditional single-row update claims
+ * the notification, so the check does not depend on how many slots the lesson has and concurrent creators cannot
+ * both notify. Lessons notified within the cooldown are also remembered in memory, which answers repeated slot
+ * creation without touching the database. A remembered time never lies ahead of the column, so the front cache
+ * can only skip notifications the database would refuse as well.
+ */
+@Component
+@Slf4j
+public class NotificationThrottle {
+
+    private final ScheduledLessonRepository scheduledLessonRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration cooldown;
+    private final int maxCachedLessons;
+    private final Clock clock;
+    private final Map<Long, OffsetDateTime> lastNotified = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NotificationThrottle(ScheduledLessonRepository scheduledLessonRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${app.email.notification-cooldown-minutes:30}") long cooldownMinutes,
+                                @Value("${app.email.notification-cooldown.cache-size:10000}") int maxCachedLessons) {
+        this(scheduledLessonRepository, eventPublisher, Duration.ofMinutes(cooldownMinutes), maxCachedLessons,
+                Clock.systemUTC());
+    }
+
+    NotificationThrottle(ScheduledLessonRepository scheduledLessonRepository, ApplicationEventPublisher eventPublisher,
+                         Duration cooldown, int maxCachedLessons, Clock clock) {
+        this.scheduledLessonRepository = scheduledLessonRepository;
+        this.eventPublisher = eventPublisher;
+        this.cooldown = cooldown;
+        this.maxCachedLessons = maxCachedLessons;
+        this.clock = clock;
+    }
+
+    /**
+     * Claims the right to notify the interested users of a scheduled lesson. Must run in the transaction that
+     * queues the notifications, so that a rollback releases the claim too.
+     * @param scheduledLessonId The id of the scheduled lesson that got a new proposed slot.
+     * @return Whether the caller should notify; false while the lesson is within its cooldown.
+     */
+    public boolean tryAcquire(Long scheduledLessonId) {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        OffsetDateTime cutoff = now.minus(cooldown);
+        OffsetDateTime cached = lastNotified.get(scheduledLessonId);
+        if (cached != null && !cached.isBefore(cutoff)) {
+            return false;
+        }
+
+        if (scheduledLessonRepository.markNotifiedIfNotSince(scheduledLessonId, now, cutoff) > 0) {
+            eventPublisher.publishEvent(new ScheduledLessonNotifiedEvent(scheduledLessonId, now));
+            return true;
+        }
+        // Notified recently, maybe by another instance: remember when, so the next slots skip the database
+        scheduledLessonRepository.findLastNotifiedAtById(scheduledLessonId)
+                .ifPresent(notifiedAt -> remember(scheduledLessonId, notifiedAt));
+        log.debug("Notification for scheduled lesson {} throttled", scheduledLessonId);
+        return false;
+    }
+
+    // Only after commit: a rolled back claim must not keep suppressing notifications
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduledLessonNotified(ScheduledLessonNotifiedEvent event) {
+        remember(event.scheduledLessonId(), event.notifiedAt());
+    }
+
+    int size() {
+        return lastNotified.size();
+    }
+
+    private void remember(Long scheduledLessonId, OffsetDateTime notifiedAt) {
+        lastNotified.merge(scheduledLessonId, notifiedAt, (previous, next) -> next.isAfter(previous) ? next : previous);
+        if (lastNotified.size() > maxCachedLessons) {
+            // Entries past the cooldown decide nothing any more
+            OffsetDateTime cutoff = OffsetDateTime.now(clock).minus(cooldown);
+            lastNotified.values().removeIf(at -> at.isBefore(cutoff));
+            if (lastNotified.size() > maxCachedLessons) {
+                // All still live: start over, the database answers for the dropped lessons
+                lastNotified.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Shared helpers for the paged getters of the services.
+ * Keyset pages are always ordered by id so that "after=<last id>" is stable while rows are inserted, and offset
+ * pages without a requested sort are ordered by id too, so that consecutive pages neither repeat nor skip rows.
+ * Requests are always paged: without page or size parameters the controllers get the configured default page size,
+ * and complete dumps are left to the streaming exports (ExportController).
+ */
+final class Paging {
+
+    private static final Sort BY_ID = Sort.by(Sort.Direction.ASC, "id");
+
+    private Paging() {
+    }
+
+    static Pageable offset(Pageable pageable) {
+        if (pageable.getSort().isSorted()) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), BY_ID);
+    }
+
+    static Pageable keyset(Pageable pageable) {
+        return PageRequest.of(0, pageable.getPageSize(), BY_ID);
+    }
+
+    static <E, D> PageResponseDTO<D> ofPage(Page<E> page, Function<List<E>, List<D>> mapper) {
+        return new PageResponseDTO<>(mapper.apply(page.getContent()), page.getTotalElements(), null);
+    }
+
+    static <E, D> PageResponseDTO<D> ofKeyset(List<E> rows, Pageable pageable,
+                                             Function<E, Long> idOf, Function<List<E>, List<D>> mapper) {
+        // A full page means there may be more rows; the last id becomes the cursor for the next request
+        Long nextCursor = !rows.isEmpty() && rows.size() >= pageable.getPageSize()
+                ? idOf.apply(rows.get(rows.size() - 1))
+                : null;
+        return new PageResponseDTO<>(mapper.apply(rows), null, nextCursor);
+    }
+}
@@ -2,17 +2,21 @@
 package com.github.pooya1361.makerspace.service;
 
 import com.github.pooya1361.makerspace.dto.create.ProposedTimeSlotCreateDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
 import com.github.pooya1361.makerspace.dto.response.ProposedTimeSlotResponseDTO;
 import com.github.pooya1361.makerspace.mapper.ProposedTimeSlotMapper;
+import com.github.pooya1361.makerspace.model.Lesson;
 import com.github.pooya1361.makerspace.model.ProposedTimeSlot;
 import com.github.pooya1361.makerspace.model.ScheduledLesson;
-import com.github.pooya1361.makerspace.model.User;
-import com.github.pooya1361.makerspace.repository.LessonUserRepository;
+import com.github.pooya1361.makerspace.model.enums.EmailOutboxStatus;
+import com.github.pooya1361.makerspace.repository.EmailOutboxRepository;
 import com.github.pooya1361.makerspace.repository.ProposedTimeSlotRepository;
 import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,21 +24,17 @@ import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.beans.factory.annotation.Value;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProposedTimeSlotService {
 
-    @Value("${app.email.notification-cooldown-minutes:30}")
-    private int notificationCooldownMinutes;
-
     private final ProposedTimeSlotRepository proposedTimeSlotRepository;
     private final ProposedTimeSlotMapper proposedTimeSlotMapper;
     private final ScheduledLessonRepository scheduledLessonRepository;
-    private final LessonUserRepository lessonUserRepository;
-    private final EmailService emailService;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final NotificationThrottle notificationThrottle;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ProposedTimeSlotResponseDTO createProposedTimeSlot(ProposedTimeSlotCreateDTO createDTO) {
@@ -42,9 +42,6 @@ public class ProposedTimeSlotService {
         ScheduledLesson scheduledLesson = scheduledLessonRepository.findById(createDTO.getScheduledLessonId())
                 .orElseThrow(() -> new EntityNotFoundException("ScheduledLesson not found with id: " + createDTO.getScheduledLessonId()));
 
-        // *** NEW: Check if we should send email notifications ***
-        boolean shouldSendNotification = shouldSendEmailNotification(scheduledLesson.getId());
-
         // Create the proposed time slot (same as before)
         ProposedTimeSlot proposedTimeSlot = new ProposedTimeSlot();
         proposedTimeSlot.setProposedStartTime(createDTO.getProposedStartTime());
@@ -53,51 +50,38 @@ public class ProposedTimeSlotService {
 
         // Save the proposed time slot
         ProposedTimeSlot savedProposedTimeSlot = proposedTimeSlotRepository.save(proposedTimeSlot);
+        eventPublisher.publishEvent(new ScheduledLessonChangedEvent(scheduledLesson.getId()));
 
-        // *** NEW: Only send emails if no recent notifications ***
-        System.out.println("shouldSendNotification: " + shouldSendNotification);
-        if (shouldSendNotification) {
+        // Anti-spam: interested users hear about new slots at most once per cooldown
+        if (notificationThrottle.tryAcquire(scheduledLesson.getId())) {
             sendEmailNotificationsToInterestedUsers(scheduledLesson, savedProposedTimeSlot);
         } else {
-            System.out.println("Skipping email notification - recent notification already sent for scheduled lesson {}" +
+            log.debug("Skipping email notification - recent notification already sent for scheduled lesson {}",
                     scheduledLesson.getId());
         }
 
         return proposedTimeSlotMapper.toDto(savedProposedTimeSlot);
     }
 
-    private boolean shouldSendEmailNotification(Long scheduledLessonId) {
-        OffsetDateTime cutoffTime = OffsetDateTime.now().minusMinutes(notificationCooldownMinutes);
-        boolean hasRecentTimeSlots = proposedTimeSlotRepository.existsByScheduledLessonIdAndCreatedAtAfter(
-                scheduledLessonId, cutoffTime);
-
-        log.debug("Notification check for lesson {}: hasRecentTimeSlots={}, cutoffTime={}",
-                scheduledLessonId, hasRecentTimeSlots, cutoffTime);
-
-        return !hasRecentTimeSlots; // Send email only if NO recent time slots
-    }
-
+    // Queued in this transaction and sent by EmailOutboxDispatcher after commit, so the request does not wait on SMTP
     private void sendEmailNotificationsToInterestedUsers(ScheduledLesson scheduledLesson, ProposedTimeSlot proposedTimeSlot) {
-        try {
-            List<User> interestedUsers = lessonUserRepository.findUsersByLessonId(scheduledLesson.getLesson().getId());
-
-            if (interestedUsers.isEmpty()) {
-                log.info("No interested users found for lesson {}", scheduledLesson.getLesson().getId());
-                return;
-            }
-
-            for (User user : interestedUsers) {
-                emailService.sendNewScheduledLessonNotification(user, scheduledLesson, proposedTimeSlot);
-            }
-
-            log.info("Sent email notifications to {} users for new proposed time slot", interestedUsers.size());
-        } catch (Exception e) {
-            log.error("Failed to send email notifications: {}", e.getMessage(), e);
-        }
+        Lesson lesson = scheduledLesson.getLesson();
+        int queued = emailOutboxRepository.enqueueForInterestedUsers(lesson.getId(), scheduledLesson.getId(),
+                proposedTimeSlot.getId(), lesson.getName(), EmailOutboxStatus.PENDING, OffsetDateTime.now());
+        log.info("Queued email notifications to {} users for new proposed time slot {}", queued, proposedTimeSlot.getId());
     }
 
     public List<ProposedTimeSlotResponseDTO> getAllProposedTimeSlots() {
-        return proposedTimeSlotMapper.toDtoList(proposedTimeSlotRepository.findAll());
+        return proposedTimeSlotMapper.toDtoListWithoutVotes(proposedTimeSlotRepository.findAll());
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponseDTO<ProposedTimeSlotResponseDTO> getProposedTimeSlots(Pageable pageable, Long after) {
+        if (after != null) {
+            List<ProposedTimeSlot> rows = proposedTimeSlotRepository.findByIdGreaterThan(after, Paging.keyset(pageable));
+            return Paging.ofKeyset(rows, pageable, ProposedTimeSlot::getId, proposedTimeSlotMapper::toDtoListWithoutVotes);
+        }
+        return Paging.ofPage(proposedTimeSlotRepository.findAll(Paging.offset(pageable)), proposedTimeSlotMapper::toDtoListWithoutVotes);
     }
 
     public Optional<ProposedTimeSlotResponseDTO> getProposedTimeSlotById(Long id) {
@@ -110,6 +94,8 @@ public class ProposedTimeSlotService {
         ProposedTimeSlot existingProposedTimeSlot = proposedTimeSlotRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("ProposedTimeSlot not found with ID: " + id));
 
+        Long previousScheduledLessonId = existingProposedTimeSlot.getScheduledLesson() != null
+                ? existingProposedTimeSlot.getScheduledLesson().getId() : null;
         proposedTimeSlotMapper.updateProposedTimeSlotFromDto(updateDTO, existingProposedTimeSlot);
 
         if (updateDTO.getScheduledLessonId() != null) {
@@ -119,15 +105,28 @@ public class ProposedTimeSlotService {
         }
 
         ProposedTimeSlot updatedProposedTimeSlot = proposedTimeSlotRepository.save(existingProposedTimeSlot);
+        publishScheduledLessonChanged(previousScheduledLessonId);
+        if (updatedProposedTimeSlot.getScheduledLesson() != null
+                && !updatedProposedTimeSlot.getScheduledLesson().getId().equals(previousScheduledLessonId)) {
+            publishScheduledLessonChanged(updatedProposedTimeSlot.getScheduledLesson().getId());
+        }
         return proposedTimeSlotMapper.toDto(updatedProposedTimeSlot);
     }
 
     @Transactional
     public void deleteProposedTimeSlot(Long id) {
-        if (!proposedTimeSlotRepository.existsById(id)) {
-            throw new EntityNotFoundException("ProposedTimeSlot not found with ID: " + id);
-        }
+        ProposedTimeSlot proposedTimeSlot = proposedTimeSlotRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("ProposedTimeSlot not found with ID: " + id));
         // Consider cascading deletes or manual deletion of related Votes here
-        proposedTimeSlotRepository.deleteById(id);
+        proposedTimeSlotRepository.delete(proposedTimeSlot);
+        if (proposedTimeSlot.getScheduledLesson() != null) {
+            publishScheduledLessonChanged(proposedTimeSlot.getScheduledLesson().getId());
+        }
+    }
+
+    private void publishScheduledLessonChanged(Long scheduledLessonId) {
+        if (scheduledLessonId != null) {
+            eventPublisher.publishEvent(new ScheduledLessonChangedEvent(scheduledLessonId));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.github.pooya1361.makerspace.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of the (user, slot) pairs voted on through this node recently, so a repeated vote (a double click,
+ * a retried request) can be answered with the existing vote without trying to insert it.
+ * <p>
+ * There are no false negatives for pairs added within the window, and false positives only cost the lookup of a
+ * vote that turns out not to exist; the database remains the authority. Entries age out by generation: when the
+ * current generation is older than the window or holds the expected number of pairs, it becomes the previous one
+ * and a new, empty generation starts, so a pair is remembered for between one and two windows.
+ */
+@Component
+public class RecentVoteFilter {
+
+    private final int expectedInsertions;
+    private final int bitCount;
+    private final int hashCount;
+    private final Duration window;
+    private final Clock clock;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    @Autowired
+    public RecentVoteFilter(@Value("${app.votes.recent-filter.expected-insertions:100000}") int expectedInsertions,
+                            @Value("${app.votes.recent-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                            @Value("${app.votes.recent-filter.window-seconds:600}") long windowSeconds) {
+        this(expectedInsertions, falsePositiveRate, Duration.ofSeconds(windowSeconds), Clock.systemUTC());
+    }
+
+    RecentVoteFilter(int expectedInsertions, double falsePositiveRate, Duration window, Clock clock) {
+        this.expectedInsertions = expectedInsertions;
+        // Standard sizing: m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hash functions
+        this.bitCount = (int) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.window = window;
+        this.clock = clock;
+        this.current = new Generation(bitCount, clock.instant());
+        this.previous = new Generation(bitCount, clock.instant());
+    }
+
+    public boolean mightContain(Long userId, Long proposedTimeSlotId) {
+        long hash = hash(userId, proposedTimeSlotId);
+        return current.mightContain(hash, hashCount) || previous.mightContain(hash, hashCount);
+    }
+
+    public void add(Long userId, Long proposedTimeSlotId) {
+        Generation generation = current;
+        Instant now = clock.instant();
+        if (generation.size() >= expectedInsertions || !generation.createdAt().plus(window).isAfter(now)) {
+            generation = rotate(generation, now);
+        }
+        generation.add(hash(userId, proposedTimeSlotId), hashCount);
+    }
+
+    private synchronized Generation rotate(Generation full, Instant now) {
+        // Another thread may have rotated already
+        if (current == full) {
+            previous = full;
+            current = new Generation(bitCount, now);
+        }
+        return current;
+    }
+
+    private static long hash(Long userId, Long proposedTimeSlotId) {
+        return mix(mix(userId) ^ proposedTimeSlotId);
+    }
+
+    // Finalizer of MurmurHash3 / SplitMix64: spreads sequential ids over all 64 bits
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static final class Generation {
+        private final AtomicLongArray words;
+        private final int bitCount;
+        private final Instant createdAt;
+        private final AtomicInteger size = new AtomicInteger();
+
+        Generation(int bitCount, Instant createdAt) {
+            this.words = new AtomicLongArray((bitCount + 63) / 64);
+            this.bitCount = bitCount;
+            this.createdAt = createdAt;
+        }
+
+        // Double hashing: the k bit positions are h1 + i * h2, taken from the two halves of the 64-bit hash
+        void add(long hash, int hashCount) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                long mask = 1L << bit;
+                words.getAndAccumulate(bit >>> 6, mask, (word, m) -> word | m);
+            }
+            size.incrementAndGet();
+        }
+
+        boolean mightContain(long hash, int hashCount) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int size() {
+            return size.get();
+        }
+
+        Instant createdAt() {
+            return createdAt;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.dto.response.ScheduleConflictDTO;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Thrown when a scheduled lesson would overlap another lesson of its instructor, or would put more lessons in its
+ * workshop at the same time than the workshop can hold.
+ */
+@Getter
+public class ScheduleConflictException extends RuntimeException {
+
+    private final ScheduleConflictDTO.ConflictKind kind;
+    private final List<Long> conflictingScheduledLessonIds;
+
+    public ScheduleConflictException(String message, ScheduleConflictDTO.ConflictKind kind,
+                                     List<Long> conflictingScheduledLessonIds) {
+        super(message);
+        this.kind = kind;
+        this.conflictingScheduledLessonIds = conflictingScheduledLessonIds;
+    }
+}
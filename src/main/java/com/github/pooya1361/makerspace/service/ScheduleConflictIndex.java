@@ -0,0 +1,289 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.dto.response.ScheduleConflictDTO;
+import com.github.pooya1361.makerspace.model.Workshop;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepositoryCustom.BookedLesson;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The booked scheduled lessons of every instructor and every workshop in interval trees, so a new or moved booking
+ * is checked for overlaps in O(log n) without loading the other lessons. Rebuilt from the database at startup and
+ * on a fixed delay, and updated from {@link ScheduledLessonChangedEvent} once a write commits.
+ * <p>
+ * The periodic rebuild catches what the events do not cover: writes on other nodes, and lessons moved to another
+ * workshop by editing their lesson or activity. Checks against the index are therefore advisory; two concurrent
+ * bookings can still both pass.
+ */
+@Component
+@Slf4j
+public class ScheduleConflictIndex {
+
+    private final ScheduledLessonRepository scheduledLessonRepository;
+    private final double squareMetersPerLesson;
+    private final Clock clock;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; replaced as a whole by a rebuild
+    private Index index = new Index();
+    // The lessons changed while a rebuild loads, with their reloaded bookings; guarded by lock, null between rebuilds
+    private Map<Long, Optional<BookedLesson>> changedDuringRebuild;
+    // One rebuild at a time, so the startup and periodic ones do not interleave their swaps
+    private final Lock rebuildLock = new ReentrantLock();
+
+    @Autowired
+    public ScheduleConflictIndex(ScheduledLessonRepository scheduledLessonRepository,
+                                 @Value("${app.scheduling.square-meters-per-lesson:25}") double squareMetersPerLesson) {
+        this(scheduledLessonRepository, squareMetersPerLesson, Clock.systemUTC());
+    }
+
+    ScheduleConflictIndex(ScheduledLessonRepository scheduledLessonRepository, double squareMetersPerLesson, Clock clock) {
+        this.scheduledLessonRepository = scheduledLessonRepository;
+        this.squareMetersPerLesson = squareMetersPerLesson;
+        this.clock = clock;
+    }
+
+    /**
+     * Lessons that can share the workshop at the same time: one per app.scheduling.square-meters-per-lesson of floor
+     * space, and at least one.
+     */
+    public int capacity(Workshop workshop) {
+        return capacity(workshop.getSize());
+    }
+
+    /**
+     * Checks that a booking fits next to the others.
+     * @param scheduledLessonId The scheduled lesson being moved, whose own booking is ignored, or null for a new one.
+     * @param instructorId The instructor, or null when none is assigned.
+     * @param workshop The workshop of the lesson, or null when it has none.
+     * @throws ScheduleConflictException When the instructor teaches another lesson at the time, or the workshop is full.
+     */
+    public void checkAvailable(Long scheduledLessonId, Long instructorId, Workshop workshop,
+                               OffsetDateTime startTime, long durationInMinutes) {
+        long start = startTime.toEpochSecond();
+        long end = start + Duration.ofMinutes(durationInMinutes).toSeconds();
+        List<Long> busyWith;
+        List<Long> sharing;
+        int concurrent;
+        lock.readLock().lock();
+        try {
+            busyWith = overlapping(index.instructors, instructorId, start, end, scheduledLessonId);
+            sharing = workshop == null ? List.of() : overlapping(index.workshops, workshop.getId(), start, end, scheduledLessonId);
+            IntervalTree<Long> workshopTree = workshop == null ? null : index.workshops.get(workshop.getId());
+            concurrent = workshopTree == null ? 0 : workshopTree.maxConcurrent(start, end, scheduledLessonId);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (!busyWith.isEmpty()) {
+            throw new ScheduleConflictException("Instructor " + instructorId + " already teaches scheduled lessons " +
+                    busyWith + " at that time", ScheduleConflictDTO.ConflictKind.INSTRUCTOR_DOUBLE_BOOKED, busyWith);
+        }
+        if (concurrent > 0 && concurrent >= capacity(workshop)) {
+            throw new ScheduleConflictException("Workshop " + workshop.getId() +
+                    " is full at that time with scheduled lessons " + sharing,
+                    ScheduleConflictDTO.ConflictKind.WORKSHOP_OVER_CAPACITY, sharing);
+        }
+    }
+
+    /**
+     * The instructors teaching overlapping lessons and the workshops holding more lessons than they can, among the
+     * lessons that have not ended yet.
+     */
+    public List<ScheduleConflictDTO> findConflicts() {
+        long now = clock.instant().getEpochSecond();
+        List<ScheduleConflictDTO> conflicts = new ArrayList<>();
+        Set<List<Long>> reported = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, Booking> bookings = index.bookings;
+            for (Booking booking : bookings.values()) {
+                if (booking.end() <= now) {
+                    continue;
+                }
+                if (booking.instructorId() != null) {
+                    // Each pair once, from its lower id
+                    IntervalTree<Long> tree = index.instructors.get(booking.instructorId());
+                    for (Long otherId : tree.overlapping(booking.start(), booking.end())) {
+                        if (otherId > booking.scheduledLessonId()) {
+                            Booking other = bookings.get(otherId);
+                            conflicts.add(new ScheduleConflictDTO(
+                                    ScheduleConflictDTO.ConflictKind.INSTRUCTOR_DOUBLE_BOOKED,
+                                    booking.instructorId(), null, List.of(booking.scheduledLessonId(), otherId),
+                                    time(Math.max(booking.start(), other.start())),
+                                    time(Math.min(booking.end(), other.end()))));
+                        }
+                    }
+                }
+                if (booking.workshopId() != null) {
+                    // The lessons running when this one starts; the most crowded moments are always lesson starts
+                    List<Long> running = new ArrayList<>(index.workshops.get(booking.workshopId())
+                            .overlapping(booking.start(), booking.start() + 1));
+                    Collections.sort(running);
+                    if (running.size() > capacity(booking.workshopSize()) && reported.add(running)) {
+                        long until = running.stream().mapToLong(id -> bookings.get(id).end()).min().orElseThrow();
+                        conflicts.add(new ScheduleConflictDTO(ScheduleConflictDTO.ConflictKind.WORKSHOP_OVER_CAPACITY,
+                                null, booking.workshopId(), running, time(booking.start()), time(until)));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        conflicts.sort(Comparator.comparing(ScheduleConflictDTO::getFrom)
+                .thenComparing(conflict -> conflict.getScheduledLessonIds().get(0)));
+        return conflicts;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.scheduling.conflict-index.rebuild-interval-ms:600000}",
+            fixedDelayString = "${app.scheduling.conflict-index.rebuild-interval-ms:600000}")
+    public void refresh() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Keep the current index; events keep it up to date until the next rebuild
+            log.warn("schedule-index.rebuild.failed reason={}", e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Reloads every booking. The query and the new trees run outside the lock, so checks keep answering from the
+     * current index meanwhile; events applied during the load are replayed onto the new index before it replaces
+     * the current one, so none is lost.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            Map<Long, Optional<BookedLesson>> changed = new HashMap<>();
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = changed;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Index rebuilt = new Index();
+            List<BookedLesson> booked = null;
+            try {
+                booked = scheduledLessonRepository.findAllBooked();
+                booked.forEach(rebuilt::put);
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (booked != null) {
+                        changed.forEach(rebuilt::replace);
+                        index = rebuilt;
+                    }
+                    changedDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            log.info("schedule-index.rebuilt bookings={} replayed={}", booked.size(), changed.size());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Runs after the write commits, so the reload sees the new start time, instructor or deletion
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduledLessonChanged(ScheduledLessonChangedEvent event) {
+        Optional<BookedLesson> booked = scheduledLessonRepository.findBookedById(event.scheduledLessonId());
+        lock.writeLock().lock();
+        try {
+            index.replace(event.scheduledLessonId(), booked);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(event.scheduledLessonId(), booked);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static List<Long> overlapping(Map<Long, IntervalTree<Long>> trees, Long key, long start, long end,
+                                          Long excludedId) {
+        IntervalTree<Long> tree = key == null ? null : trees.get(key);
+        if (tree == null) {
+            return List.of();
+        }
+        List<Long> overlapping = tree.overlapping(start, end);
+        overlapping.remove(excludedId);
+        return overlapping;
+    }
+
+    private int capacity(double workshopSize) {
+        return Math.max(1, (int) Math.floor(workshopSize / squareMetersPerLesson));
+    }
+
+    private static OffsetDateTime time(long epochSecond) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneOffset.UTC);
+    }
+
+    // The bookings and their trees; mutated only under the write lock once published
+    private static final class Index {
+        private final Map<Long, Booking> bookings = new HashMap<>();
+        private final Map<Long, IntervalTree<Long>> instructors = new HashMap<>();
+        private final Map<Long, IntervalTree<Long>> workshops = new HashMap<>();
+
+        private void replace(Long scheduledLessonId, Optional<BookedLesson> booked) {
+            remove(scheduledLessonId);
+            booked.ifPresent(this::put);
+        }
+
+        private void put(BookedLesson booked) {
+            long start = booked.startTime().toEpochSecond();
+            Booking booking = new Booking(booked.scheduledLessonId(), booked.instructorId(), booked.workshopId(),
+                    booked.workshopSize() == null ? 0 : booked.workshopSize(),
+                    start, start + Duration.ofMinutes(booked.durationInMinutes()).toSeconds());
+            bookings.put(booking.scheduledLessonId(), booking);
+            if (booking.instructorId() != null) {
+                instructors.computeIfAbsent(booking.instructorId(), key -> new IntervalTree<>())
+                        .put(booking.scheduledLessonId(), booking.start(), booking.end());
+            }
+            if (booking.workshopId() != null) {
+                workshops.computeIfAbsent(booking.workshopId(), key -> new IntervalTree<>())
+                        .put(booking.scheduledLessonId(), booking.start(), booking.end());
+            }
+        }
+
+        private void remove(Long scheduledLessonId) {
+            Booking booking = bookings.remove(scheduledLessonId);
+            if (booking == null) {
+                return;
+            }
+            if (booking.instructorId() != null) {
+                instructors.get(booking.instructorId()).remove(scheduledLessonId);
+            }
+            if (booking.workshopId() != null) {
+                workshops.get(booking.workshopId()).remove(scheduledLessonId);
+            }
+        }
+    }
+
+    private record Booking(Long scheduledLessonId, Long instructorId, Long workshopId, double workshopSize,
+                           long start, long end) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.pooya1361.makerspace.service;
+
+/**
+ * Published whenever something that decides whether (and when) a scheduled lesson shows up in the
+ * available-lessons feeds changes: the scheduled lesson itself (start time, lesson, deletion) or its proposed time slots.
+ * @param scheduledLessonId The id of the affected scheduled lesson.
+ */
+public record ScheduledLessonChangedEvent(Long scheduledLessonId) {
+}
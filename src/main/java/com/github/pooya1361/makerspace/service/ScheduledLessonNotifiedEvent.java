@@ -0,0 +1,11 @@
+package com.github.pooya1361.makerspace.service;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Published when the interested users of a scheduled lesson are notified about its new proposed time slots.
+ * @param scheduledLessonId The id of the notified scheduled lesson.
+ * @param notifiedAt The time recorded as the lesson's last notification.
+ */
+public record ScheduledLessonNotifiedEvent(Long scheduledLessonId, OffsetDateTime notifiedAt) {
+}
@@ -2,37 +2,60 @@
 package com.github.pooya1361.makerspace.service;
 
 import com.github.pooya1361.makerspace.dto.create.ScheduledLessonCreateDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.ScheduleConflictDTO;
 import com.github.pooya1361.makerspace.dto.response.ScheduledLessonResponseDTO;
 import com.github.pooya1361.makerspace.mapper.ScheduledLessonMapper;
+import com.github.pooya1361.makerspace.model.Activity;
 import com.github.pooya1361.makerspace.model.Lesson;
 import com.github.pooya1361.makerspace.model.ScheduledLesson;
 import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.Workshop;
 import com.github.pooya1361.makerspace.repository.LessonRepository;
 import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
 import com.github.pooya1361.makerspace.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class ScheduledLessonService {
 
+    // Longest range a calendar query can ask for, a month view with margins
+    public static final Duration MAX_CALENDAR_RANGE = Duration.ofDays(42);
+
     private final ScheduledLessonRepository scheduledLessonRepository;
     private final ScheduledLessonMapper scheduledLessonMapper;
     private final LessonRepository lessonRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduleConflictIndex scheduleConflictIndex;
+    private final CalendarDayIndex calendarDayIndex;
 
     public ScheduledLessonService(ScheduledLessonRepository scheduledLessonRepository,
                                   ScheduledLessonMapper scheduledLessonMapper,
                                   LessonRepository lessonRepository,
-                                  UserRepository userRepository) {
+                                  UserRepository userRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ScheduleConflictIndex scheduleConflictIndex,
+                                  CalendarDayIndex calendarDayIndex) {
         this.scheduledLessonRepository = scheduledLessonRepository;
         this.scheduledLessonMapper = scheduledLessonMapper;
         this.lessonRepository = lessonRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.scheduleConflictIndex = scheduleConflictIndex;
+        this.calendarDayIndex = calendarDayIndex;
     }
 
     @Transactional
@@ -45,16 +68,64 @@ public class ScheduledLessonService {
         ScheduledLesson scheduledLesson = scheduledLessonMapper.toEntity(createDTO);
         scheduledLesson.setLesson(lesson);
         scheduledLesson.setInstructor(instructor);
+        checkAvailable(scheduledLesson);
         ScheduledLesson savedScheduledLesson = scheduledLessonRepository.save(scheduledLesson);
+        eventPublisher.publishEvent(new SummaryChangedEvent(ScheduledLesson.class));
+        eventPublisher.publishEvent(new ScheduledLessonChangedEvent(savedScheduledLesson.getId()));
         return scheduledLessonMapper.toDto(savedScheduledLesson);
     }
 
+    @Transactional(readOnly = true)
     public List<ScheduledLessonResponseDTO> getAllScheduledLessons() {
         return scheduledLessonMapper.toDtoList(scheduledLessonRepository.findAll());
     }
 
+    @Transactional(readOnly = true)
+    public PageResponseDTO<ScheduledLessonResponseDTO> getScheduledLessons(Pageable pageable, Long after) {
+        if (after != null) {
+            List<ScheduledLesson> rows = scheduledLessonRepository.findByIdGreaterThan(after, Paging.keyset(pageable));
+            return Paging.ofKeyset(rows, pageable, ScheduledLesson::getId, scheduledLessonMapper::toDtoList);
+        }
+        return Paging.ofPage(scheduledLessonRepository.findAll(Paging.offset(pageable)), scheduledLessonMapper::toDtoList);
+    }
+
+    /**
+     * The scheduled lessons starting in [from, to), ordered by start time. When CalendarDayIndex is enabled, ranges
+     * within the next days are resolved by it and loaded by id; others use the start_time index.
+     * @param from Inclusive.
+     * @param to Exclusive, after from and at most MAX_CALENDAR_RANGE later.
+     */
+    @Transactional(readOnly = true)
+    public List<ScheduledLessonResponseDTO> getScheduledLessonsBetween(OffsetDateTime from, OffsetDateTime to) {
+        if (!to.isAfter(from) || Duration.between(from, to).compareTo(MAX_CALENDAR_RANGE) > 0) {
+            throw new IllegalArgumentException("The range must end after it starts and span at most " +
+                    MAX_CALENDAR_RANGE.toDays() + " days");
+        }
+        Optional<List<Long>> indexedIds = calendarDayIndex.findStartingBetween(from, to);
+        if (indexedIds.isEmpty()) {
+            return scheduledLessonMapper.toDtoList(scheduledLessonRepository.findWithDetailsStartingBetween(from, to));
+        }
+        if (indexedIds.get().isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = indexedIds.get();
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        List<ScheduledLesson> scheduledLessons = scheduledLessonRepository.findWithDetailsByIdIn(ids).stream()
+                // A lesson moved by a write the index has not seen yet
+                .filter(scheduledLesson -> scheduledLesson.getStartTime() != null && scheduledLesson.getStartTime()
+                        .filter(start -> !start.isBefore(from) && start.isBefore(to)).isPresent())
+                .sorted(Comparator.comparing(scheduledLesson -> positions.get(scheduledLesson.getId())))
+                .toList();
+        return scheduledLessonMapper.toDtoList(scheduledLessons);
+    }
+
+    @Transactional(readOnly = true)
     public Optional<ScheduledLessonResponseDTO> getScheduledLessonById(Long id) {
-        return scheduledLessonRepository.findById(id)
+        return scheduledLessonRepository.findWithDetailsById(id)
                 .map(scheduledLessonMapper::toDto);
     }
 
@@ -75,11 +146,19 @@ public class ScheduledLessonService {
                     .orElseThrow(() -> new EntityNotFoundException("Instructor not found with ID: " + updateDTO.getInstructorUserId()));
             existingScheduledLesson.setInstructor(newInstructor);
         }
+        checkAvailable(existingScheduledLesson);
 
         ScheduledLesson updatedScheduledLesson = scheduledLessonRepository.save(existingScheduledLesson);
+        // The start time or the lesson may have changed, both decide whether it is still in the available-lessons feeds
+        eventPublisher.publishEvent(new ScheduledLessonChangedEvent(id));
         return scheduledLessonMapper.toDto(updatedScheduledLesson);
     }
 
+    @Transactional(readOnly = true)
+    public List<ScheduleConflictDTO> getConflicts() {
+        return scheduleConflictIndex.findConflicts();
+    }
+
     @Transactional
     public void deleteScheduledLesson(Long id) {
         if (!scheduledLessonRepository.existsById(id)) {
@@ -87,5 +166,21 @@ public class ScheduledLessonService {
         }
         // Consider cascading deletes or manual deletion of related ProposedTimeSlots here
         scheduledLessonRepository.deleteById(id);
+        eventPublisher.publishEvent(new SummaryChangedEvent(ScheduledLesson.class));
+        eventPublisher.publishEvent(new ScheduledLessonChangedEvent(id));
+    }
+
+    // Rejects a start time at which the instructor is teaching or the workshop is full; the lesson's own booking,
+    // when it is being moved, does not count
+    private void checkAvailable(ScheduledLesson scheduledLesson) {
+        if (scheduledLesson.getStartTime() == null || scheduledLesson.getStartTime().isEmpty()
+                || scheduledLesson.getDurationInMinutes() == null) {
+            return;
+        }
+        Activity activity = scheduledLesson.getLesson().getActivity();
+        Workshop workshop = activity == null ? null : activity.getWorkshop();
+        User instructor = scheduledLesson.getInstructor();
+        scheduleConflictIndex.checkAvailable(scheduledLesson.getId(), instructor == null ? null : instructor.getId(),
+                workshop, scheduledLesson.getStartTime().get(), scheduledLesson.getDurationInMinutes());
     }
-}
\ No newline at end of file
+}
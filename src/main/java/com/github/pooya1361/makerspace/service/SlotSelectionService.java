@@ -0,0 +1,337 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.dto.response.ScheduleConflictDTO;
+import com.github.pooya1361.makerspace.dto.response.SlotScoreDTO;
+import com.github.pooya1361.makerspace.dto.response.SlotSelectionDTO;
+import com.github.pooya1361.makerspace.model.Activity;
+import com.github.pooya1361.makerspace.model.Lesson;
+import com.github.pooya1361.makerspace.model.ProposedTimeSlot;
+import com.github.pooya1361.makerspace.model.ScheduledLesson;
+import com.github.pooya1361.makerspace.model.Workshop;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepositoryCustom.BookedLesson;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Picks the start time of scheduled lessons from their proposed slots. A slot can be booked when it is in the future,
+ * the instructor has no other lesson overlapping it, and the workshop has room for another lesson at the time; among
+ * those the slot with the most votes wins, the earliest one on a tie.
+ * <p>
+ * Bookings are looked up in interval trees per instructor and per workshop, built from one query over the time span
+ * of all candidate slots, so a batch of N lessons with k slots each costs O(N k log B) checks against B bookings
+ * rather than comparing every slot with every booking. Lessons booked earlier in a batch are added to the trees, so
+ * they are respected by the later ones; the lessons with the most popular slot go first. The bookings are read from
+ * the database rather than from {@link ScheduleConflictIndex}, which can lag behind writes on other nodes.
+ * <p>
+ * The chosen slot still goes through {@link ScheduleConflictIndex#checkAvailable} before it is saved, like any other
+ * booking, and the next bookable slot is tried when it is rejected. Finalizations on a node run one at a time until
+ * they commit, so two of them cannot both take the last room in a workshop.
+ */
+@Service
+@Slf4j
+public class SlotSelectionService {
+
+    // Candidates are loaded with their slots and workshop in chunks of this many ids
+    private static final int LOAD_CHUNK_SIZE = 500;
+
+    // Bookable slots first, then the most votes, then the earliest
+    private static final Comparator<SlotScoreDTO> SLOT_ORDER =
+            Comparator.comparing((SlotScoreDTO slot) -> !slot.getConflicts().isEmpty())
+                    .thenComparing(Comparator.comparingLong(SlotScoreDTO::getVotes).reversed())
+                    .thenComparing(SlotScoreDTO::getProposedStartTime)
+                    .thenComparing(SlotScoreDTO::getProposedTimeSlotId);
+
+    private final ScheduledLessonRepository scheduledLessonRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduleConflictIndex scheduleConflictIndex;
+    private final Clock clock;
+    private final ReentrantLock finalizing = new ReentrantLock();
+
+    @Autowired
+    public SlotSelectionService(ScheduledLessonRepository scheduledLessonRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                ScheduleConflictIndex scheduleConflictIndex) {
+        this(scheduledLessonRepository, eventPublisher, scheduleConflictIndex, Clock.systemUTC());
+    }
+
+    SlotSelectionService(ScheduledLessonRepository scheduledLessonRepository,
+                         ApplicationEventPublisher eventPublisher,
+                         ScheduleConflictIndex scheduleConflictIndex,
+                         Clock clock) {
+        this.scheduledLessonRepository = scheduledLessonRepository;
+        this.eventPublisher = eventPublisher;
+        this.scheduleConflictIndex = scheduleConflictIndex;
+        this.clock = clock;
+    }
+
+    /**
+     * Scores the proposed slots of a scheduled lesson without booking any.
+     * @return The slots, bookable ones first and best first, or empty when the scheduled lesson does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<SlotScoreDTO>> rankSlots(Long scheduledLessonId) {
+        return scheduledLessonRepository.findWithDetailsById(scheduledLessonId)
+                .map(scheduledLesson -> {
+                    Bookings bookings = loadBookings(List.of(scheduledLesson));
+                    return rank(scheduledLesson, bookings);
+                });
+    }
+
+    /**
+     * Sets the start time of the scheduled lesson to its best bookable slot.
+     * @throws EntityNotFoundException When the scheduled lesson does not exist.
+     */
+    @Transactional
+    public SlotSelectionDTO finalizeScheduledLesson(Long scheduledLessonId) {
+        ScheduledLesson scheduledLesson = scheduledLessonRepository.findWithDetailsById(scheduledLessonId)
+                .orElseThrow(() -> new EntityNotFoundException("ScheduledLesson not found with ID: " + scheduledLessonId));
+        return oneAtATime(() -> select(List.of(scheduledLesson)).get(0));
+    }
+
+    /**
+     * Finalizes several scheduled lessons in one run, so they are checked against each other as well.
+     * @param scheduledLessonIds The scheduled lessons, or empty for every one that has proposed slots and no start
+     *                           time yet.
+     * @return One result per requested id, in request order.
+     */
+    @Transactional
+    public List<SlotSelectionDTO> finalizeScheduledLessons(List<Long> scheduledLessonIds) {
+        return oneAtATime(() -> finalizeAll(scheduledLessonIds));
+    }
+
+    private List<SlotSelectionDTO> finalizeAll(List<Long> scheduledLessonIds) {
+        long started = System.nanoTime();
+        List<Long> ids = scheduledLessonIds == null || scheduledLessonIds.isEmpty()
+                ? scheduledLessonRepository.findIdsAwaitingStartTime()
+                : scheduledLessonIds.stream().distinct().toList();
+
+        List<ScheduledLesson> scheduledLessons = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += LOAD_CHUNK_SIZE) {
+            scheduledLessons.addAll(scheduledLessonRepository.findWithDetailsByIdIn(
+                    ids.subList(from, Math.min(from + LOAD_CHUNK_SIZE, ids.size()))));
+        }
+
+        Map<Long, SlotSelectionDTO> resultsById = new HashMap<>();
+        for (SlotSelectionDTO result : select(scheduledLessons)) {
+            resultsById.put(result.getScheduledLessonId(), result);
+        }
+        List<SlotSelectionDTO> results = ids.stream()
+                .map(id -> resultsById.getOrDefault(id,
+                        new SlotSelectionDTO(id, SlotSelectionDTO.SelectionStatus.NOT_FOUND, null, null, List.of())))
+                .toList();
+
+        log.info("slot-selection.batch requested={} scheduled={} durationMs={}", ids.size(),
+                results.stream().filter(result -> result.getStatus() == SlotSelectionDTO.SelectionStatus.SCHEDULED).count(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+        return results;
+    }
+
+    // Holds the lock until the transaction completes: unlocked last, after the listeners that add the new bookings
+    // to the conflict index, so the next finalization sees them
+    private <T> T oneAtATime(Supplier<T> finalization) {
+        finalizing.lock();
+        boolean unlockOnCompletion = false;
+        try {
+            T result = finalization.get();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        finalizing.unlock();
+                    }
+                });
+                unlockOnCompletion = true;
+            }
+            return result;
+        } finally {
+            if (!unlockOnCompletion) {
+                finalizing.unlock();
+            }
+        }
+    }
+
+    private List<SlotSelectionDTO> select(List<ScheduledLesson> scheduledLessons) {
+        Bookings bookings = loadBookings(scheduledLessons);
+
+        List<ScheduledLesson> ordered = new ArrayList<>(scheduledLessons);
+        ordered.sort(Comparator.comparingLong(SlotSelectionService::topVotes).reversed()
+                .thenComparing(ScheduledLesson::getId));
+
+        List<SlotSelectionDTO> results = new ArrayList<>(ordered.size());
+        for (ScheduledLesson scheduledLesson : ordered) {
+            results.add(select(scheduledLesson, bookings));
+        }
+        return results;
+    }
+
+    private SlotSelectionDTO select(ScheduledLesson scheduledLesson, Bookings bookings) {
+        Long id = scheduledLesson.getId();
+        if (isScheduled(scheduledLesson)) {
+            return new SlotSelectionDTO(id, SlotSelectionDTO.SelectionStatus.ALREADY_SCHEDULED, null,
+                    scheduledLesson.getStartTime().get(), List.of());
+        }
+        if (scheduledLesson.getProposedTimeSlots().isEmpty()) {
+            return new SlotSelectionDTO(id, SlotSelectionDTO.SelectionStatus.NO_PROPOSED_SLOTS, null, null, List.of());
+        }
+
+        List<SlotScoreDTO> slots = rank(scheduledLesson, bookings);
+        for (SlotScoreDTO slot : slots) {
+            if (!slot.getConflicts().isEmpty()) {
+                break;
+            }
+            OffsetDateTime startTime = slot.getProposedStartTime();
+            try {
+                scheduleConflictIndex.checkAvailable(id, instructorId(scheduledLesson), workshop(scheduledLesson),
+                        startTime, scheduledLesson.getDurationInMinutes());
+            } catch (ScheduleConflictException e) {
+                // Booked since the bookings were read, e.g. through the API
+                reject(slot, e);
+                continue;
+            }
+
+            scheduledLesson.setStartTime(Optional.of(startTime));
+            scheduledLessonRepository.save(scheduledLesson);
+            bookings.add(id, instructorId(scheduledLesson), workshopId(scheduledLesson), startTime,
+                    scheduledLesson.getDurationInMinutes());
+            eventPublisher.publishEvent(new ScheduledLessonChangedEvent(id));
+            slots.sort(SLOT_ORDER);
+            return new SlotSelectionDTO(id, SlotSelectionDTO.SelectionStatus.SCHEDULED, slot.getProposedTimeSlotId(),
+                    startTime, slots);
+        }
+        slots.sort(SLOT_ORDER);
+        return new SlotSelectionDTO(id, SlotSelectionDTO.SelectionStatus.NO_AVAILABLE_SLOT, null, null, slots);
+    }
+
+    private static void reject(SlotScoreDTO slot, ScheduleConflictException e) {
+        if (e.getKind() == ScheduleConflictDTO.ConflictKind.INSTRUCTOR_DOUBLE_BOOKED) {
+            slot.getConflicts().add(SlotScoreDTO.Conflict.INSTRUCTOR_BUSY);
+            slot.setConflictingScheduledLessonIds(e.getConflictingScheduledLessonIds());
+        } else {
+            slot.getConflicts().add(SlotScoreDTO.Conflict.WORKSHOP_FULL);
+        }
+    }
+
+    private List<SlotScoreDTO> rank(ScheduledLesson scheduledLesson, Bookings bookings) {
+        long now = clock.instant().getEpochSecond();
+        Long instructorId = instructorId(scheduledLesson);
+        Workshop workshop = workshop(scheduledLesson);
+        int capacity = workshop == null ? Integer.MAX_VALUE : scheduleConflictIndex.capacity(workshop);
+        long duration = Duration.ofMinutes(scheduledLesson.getDurationInMinutes()).toSeconds();
+
+        List<SlotScoreDTO> slots = new ArrayList<>();
+        for (ProposedTimeSlot slot : scheduledLesson.getProposedTimeSlots()) {
+            long start = slot.getProposedStartTime().toEpochSecond();
+            long end = start + duration;
+            List<SlotScoreDTO.Conflict> conflicts = new ArrayList<>();
+            List<Long> busyWith = List.of();
+            if (start < now) {
+                conflicts.add(SlotScoreDTO.Conflict.IN_THE_PAST);
+            }
+            if (instructorId != null) {
+                busyWith = bookings.byInstructor(instructorId).overlapping(start, end);
+                if (!busyWith.isEmpty()) {
+                    conflicts.add(SlotScoreDTO.Conflict.INSTRUCTOR_BUSY);
+                }
+            }
+            // Only lessons running at the same moment compete for room, as in ScheduleConflictIndex.checkAvailable
+            if (workshop != null && bookings.byWorkshop(workshop.getId()).maxConcurrent(start, end, scheduledLesson.getId()) >= capacity) {
+                conflicts.add(SlotScoreDTO.Conflict.WORKSHOP_FULL);
+            }
+            slots.add(new SlotScoreDTO(slot.getId(), slot.getProposedStartTime(), slot.getVoteCount(), conflicts, busyWith));
+        }
+
+        slots.sort(SLOT_ORDER);
+        return slots;
+    }
+
+    // The bookings that can overlap any proposed slot of the lessons, i.e. that start before the last slot ends and
+    // no longer before the first slot starts than the longest booked lesson lasts
+    private Bookings loadBookings(List<ScheduledLesson> scheduledLessons) {
+        OffsetDateTime from = null;
+        OffsetDateTime to = null;
+        for (ScheduledLesson scheduledLesson : scheduledLessons) {
+            if (isScheduled(scheduledLesson)) {
+                continue;
+            }
+            for (ProposedTimeSlot slot : scheduledLesson.getProposedTimeSlots()) {
+                OffsetDateTime start = slot.getProposedStartTime();
+                OffsetDateTime end = start.plusMinutes(scheduledLesson.getDurationInMinutes());
+                from = from == null || start.isBefore(from) ? start : from;
+                to = to == null || end.isAfter(to) ? end : to;
+            }
+        }
+
+        Bookings bookings = new Bookings();
+        if (from == null) {
+            return bookings;
+        }
+        long longest = scheduledLessonRepository.findMaxBookedDurationInMinutes().orElse(0L);
+        for (BookedLesson booked : scheduledLessonRepository.findBookedStartingBetween(from.minusMinutes(longest), to)) {
+            bookings.add(booked.scheduledLessonId(), booked.instructorId(), booked.workshopId(), booked.startTime(),
+                    booked.durationInMinutes());
+        }
+        return bookings;
+    }
+
+    private static boolean isScheduled(ScheduledLesson scheduledLesson) {
+        return scheduledLesson.getStartTime() != null && scheduledLesson.getStartTime().isPresent();
+    }
+
+    private static long topVotes(ScheduledLesson scheduledLesson) {
+        return scheduledLesson.getProposedTimeSlots().stream().mapToLong(ProposedTimeSlot::getVoteCount).max().orElse(0);
+    }
+
+    private static Long instructorId(ScheduledLesson scheduledLesson) {
+        return scheduledLesson.getInstructor() == null ? null : scheduledLesson.getInstructor().getId();
+    }
+
+    private static Workshop workshop(ScheduledLesson scheduledLesson) {
+        Lesson lesson = scheduledLesson.getLesson();
+        Activity activity = lesson == null ? null : lesson.getActivity();
+        return activity == null ? null : activity.getWorkshop();
+    }
+
+    private static Long workshopId(ScheduledLesson scheduledLesson) {
+        Workshop workshop = workshop(scheduledLesson);
+        return workshop == null ? null : workshop.getId();
+    }
+
+    // Booked lessons by instructor and by workshop, keyed by scheduled lesson id, in epoch seconds
+    private static final class Bookings {
+        private final Map<Long, IntervalTree<Long>> instructors = new HashMap<>();
+        private final Map<Long, IntervalTree<Long>> workshops = new HashMap<>();
+
+        void add(Long scheduledLessonId, Long instructorId, Long workshopId, OffsetDateTime startTime, long durationInMinutes) {
+            long start = startTime.toEpochSecond();
+            long end = start + Duration.ofMinutes(durationInMinutes).toSeconds();
+            if (instructorId != null) {
+                instructors.computeIfAbsent(instructorId, key -> new IntervalTree<>()).put(scheduledLessonId, start, end);
+            }
+            if (workshopId != null) {
+                workshops.computeIfAbsent(workshopId, key -> new IntervalTree<>()).put(scheduledLessonId, start, end);
+            }
+        }
+
+        IntervalTree<Long> byInstructor(Long instructorId) {
+            return instructors.getOrDefault(instructorId, new IntervalTree<>());
+        }
+
+        IntervalTree<Long> byWorkshop(Long workshopId) {
+            return workshops.getOrDefault(workshopId, new IntervalTree<>());
+        }
+    }
+}
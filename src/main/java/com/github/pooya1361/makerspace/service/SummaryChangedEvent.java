@@ -0,0 +1,9 @@
+package com.github.pooya1361.makerspace.service;
+
+/**
+ * Published by the entity services whenever a workshop, activity, lesson, scheduled lesson or user
+ * is created or deleted, i.e. whenever one of the totals shown by the summary endpoint changes.
+ * @param entityType The type of the entity that was created or deleted.
+ */
+public record SummaryChangedEvent(Class<?> entityType) {
+}
@@ -4,68 +4,50 @@ package com.github.pooya1361.makerspace.service;
 import com.github.pooya1361.makerspace.dto.response.ScheduledLessonResponseDTO;
 import com.github.pooya1361.makerspace.dto.response.SummaryResponseDTO;
 import com.github.pooya1361.makerspace.mapper.ScheduledLessonMapper;
-import com.github.pooya1361.makerspace.model.ProposedTimeSlot;
 import com.github.pooya1361.makerspace.model.ScheduledLesson;
-import com.github.pooya1361.makerspace.model.User;
-import com.github.pooya1361.makerspace.repository.*;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
 
 import lombok.AllArgsConstructor;
-import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class SummaryService {
 
-    private final WorkshopRepository workshopRepository;
-    private final ActivityRepository activityRepository;
-    private final LessonRepository lessonRepository;
-    private final LessonUserRepository lessonUserRepository;
+    private final SummarySnapshotCache summarySnapshotCache;
+    private final AvailableLessonsFeed availableLessonsFeed;
     private final ScheduledLessonRepository scheduledLessonRepository;
     private final ScheduledLessonMapper scheduledLessonMapper;
-    private final UserRepository userRepository;
 
     public SummaryResponseDTO getOverallSummary() {
-        long totalWorkshops = workshopRepository.count();
-        long totalActivities = activityRepository.count();
-        long totalLessons = lessonRepository.count();
-        long totalScheduledLessons = scheduledLessonRepository.count();
-        long totalUsers = userRepository.count();
-
-        return new SummaryResponseDTO(totalWorkshops, totalActivities, totalLessons, totalScheduledLessons, totalUsers);
+        return summarySnapshotCache.get();
     }
 
+    @Transactional(readOnly = true)
     public List<ScheduledLessonResponseDTO> getAvailableLessons(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.INTERNAL_SERVER_ERROR,
-                        "User not found after authentication"
-                ));
-
-        Set<Long> lessonIds = lessonUserRepository.findByUserId(user.getId()).stream()
-                .filter(lessonUser -> !lessonUser.isAcquired())
-                .map(lessonUser -> lessonUser.getLesson().getId())
-                .collect(Collectors.toSet());
 
-        List<ScheduledLesson> scheduledLessons = scheduledLessonRepository
-                .findByLessonIdInAndStartTimeIsNull(lessonIds).stream()
-                .filter(item -> !item.getProposedTimeSlots().isEmpty())
-                .sorted(Comparator.comparing(sl ->
-                        sl.getProposedTimeSlots().stream()
-                                .map(ProposedTimeSlot::getProposedStartTime)
-                                .min(Comparator.naturalOrder())
-                                .orElse(OffsetDateTime.MAX) // if no proposed time
-                ))
+        // The precomputed feed holds the filtered ids, ordered by the earliest proposed slot
+        List<Long> orderedIds = availableLessonsFeed.getScheduledLessonIds(userDetails.getUsername());
+        if (orderedIds.isEmpty()) {
+            return List.of();
+        }
+
+        // One batch fetch of the graph, then restore the order of the id query
+        Map<Long, ScheduledLesson> byId = scheduledLessonRepository.findWithDetailsByIdIn(orderedIds).stream()
+                .collect(Collectors.toMap(ScheduledLesson::getId, Function.identity()));
+        List<ScheduledLesson> scheduledLessons = orderedIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .toList();
 
         return scheduledLessonMapper.toDtoList(scheduledLessons);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.dto.response.SummaryResponseDTO;
+import com.github.pooya1361.makerspace.repository.SummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the latest summary totals in memory, so the (frequently polled) summary endpoint does not hit the database.
+ * The snapshot is refreshed in the background on a fixed delay and invalidated as soon as a create or delete
+ * is committed; the first request after an invalidation reloads it with a single aggregate query.
+ */
+@Component
+@Slf4j
+public class SummarySnapshotCache {
+
+    private final SummaryRepository summaryRepository;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    // Bumped on every invalidation; a snapshot loaded under an older generation is stale
+    private final AtomicLong generation = new AtomicLong();
+
+    public SummarySnapshotCache(SummaryRepository summaryRepository) {
+        this.summaryRepository = summaryRepository;
+    }
+
+    public SummaryResponseDTO get() {
+        Snapshot current = snapshot.get();
+        if (current != null && current.generation() == generation.get()) {
+            return current.summary();
+        }
+        return load();
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    @Scheduled(initialDelayString = "${app.summary.refresh-interval-ms:30000}",
+            fixedDelayString = "${app.summary.refresh-interval-ms:30000}")
+    public void refresh() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshot; the next request or refresh tries again
+            log.warn("summary.refresh.failed reason={}", e.getClass().getSimpleName());
+        }
+    }
+
+    // Runs after the creating/deleting transaction commits, so a reload cannot observe the old totals
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSummaryChanged(SummaryChangedEvent event) {
+        invalidate();
+    }
+
+    private SummaryResponseDTO load() {
+        long loadGeneration = generation.get();
+        SummaryRepository.SummaryCounts counts = summaryRepository.countAll();
+        SummaryResponseDTO summary = new SummaryResponseDTO(
+                counts.getTotalWorkshops(),
+                counts.getTotalActivities(),
+                counts.getTotalLessons(),
+                counts.getTotalScheduledLessons(),
+                counts.getTotalUsers()
+        );
+        Snapshot loaded = new Snapshot(loadGeneration, summary);
+        // Never replace a snapshot with one loaded under an older generation
+        snapshot.accumulateAndGet(loaded, (current, candidate) ->
+                current == null || candidate.generation() >= current.generation() ? candidate : current);
+        return summary;
+    }
+
+    private record Snapshot(long generation, SummaryResponseDTO summary) {
+    }
+}
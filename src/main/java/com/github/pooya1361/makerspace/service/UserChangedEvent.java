@@ -0,0 +1,10 @@
+package com.github.pooya1361.makerspace.service;
+
+/**
+ * Published when a user is updated or deleted, so what is cached per user (principals, token versions, feeds keyed
+ * by email) can be dropped once the change commits.
+ * @param userId The id of the user.
+ * @param previousEmail The email the user had before the change, which caches may still be keyed by.
+ */
+public record UserChangedEvent(Long userId, String previousEmail) {
+}
@@ -2,16 +2,22 @@
 package com.github.pooya1361.makerspace.service;
 
 import com.github.pooya1361.makerspace.dto.create.UserCreateDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
 import com.github.pooya1361.makerspace.dto.response.UserResponseDTO;
 import com.github.pooya1361.makerspace.mapper.UserMapper;
 import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.enums.UserType;
 import com.github.pooya1361.makerspace.repository.UserRepository;
+import com.github.pooya1361.makerspace.security.UserPrincipalCache;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -20,17 +26,24 @@ public class UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final UserPrincipalCache userPrincipalCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserRepository userRepository, UserMapper userMapper, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, UserMapper userMapper, PasswordEncoder passwordEncoder,
+                       UserPrincipalCache userPrincipalCache, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
         this.passwordEncoder = passwordEncoder;
+        this.userPrincipalCache = userPrincipalCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
     public UserResponseDTO createUser(UserCreateDTO userCreateDTO) {
         User user = userMapper.toEntity(userCreateDTO);
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new SummaryChangedEvent(User.class));
+        userPrincipalCache.evict(savedUser.getEmail());
         return userMapper.toDto(savedUser);
     }
 
@@ -38,6 +51,15 @@ public class UserService {
         return userMapper.toDtoList(userRepository.findAll());
     }
 
+    @Transactional(readOnly = true)
+    public PageResponseDTO<UserResponseDTO> getUsers(Pageable pageable, Long after) {
+        if (after != null) {
+            List<User> rows = userRepository.findByIdGreaterThan(after, Paging.keyset(pageable));
+            return Paging.ofKeyset(rows, pageable, User::getId, userMapper::toDtoList);
+        }
+        return Paging.ofPage(userRepository.findAll(Paging.offset(pageable)), userMapper::toDtoList);
+    }
+
     public Optional<UserResponseDTO> getUserById(Long id) {
         return userRepository.findById(id)
                 .map(userMapper::toDto);
@@ -47,24 +69,53 @@ public class UserService {
     public UserResponseDTO updateUser(Long id, UserCreateDTO userUpdateDTO) {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + id));
+        String previousEmail = existingUser.getEmail();
+        UserType previousUserType = existingUser.getUserType();
 
         userMapper.updateUserFromDto(userUpdateDTO, existingUser);
 
         // Handle password encoding separately if password is being updated
-        if (userUpdateDTO.getPassword() != null && !userUpdateDTO.getPassword().trim().isEmpty()) {
+        boolean passwordChanged = userUpdateDTO.getPassword() != null && !userUpdateDTO.getPassword().trim().isEmpty();
+        if (passwordChanged) {
             existingUser.setPassword(passwordEncoder.encode(userUpdateDTO.getPassword()));
         }
 
+        // Tokens carry the email and user type, so they must be revoked when either (or the password) changes
+        boolean revokeTokens = passwordChanged
+                || !Objects.equals(previousEmail, existingUser.getEmail())
+                || previousUserType != existingUser.getUserType();
+        if (revokeTokens) {
+            existingUser.setTokenVersion(existingUser.getTokenVersion() + 1);
+        }
+
         User updatedUser = userRepository.save(existingUser);
+
+        // Email, password or user type may have changed: the cached principal and token version are dropped once
+        // this commits
+        eventPublisher.publishEvent(new UserChangedEvent(id, previousEmail));
         return userMapper.toDto(updatedUser);
     }
 
+    /**
+     * Revokes the user's calendar feed token and nothing else; their login tokens stay valid.
+     * @return The user with the new feed token version, to issue the next feed token for.
+     */
+    @Transactional
+    public User rotateCalendarFeedToken(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + id));
+        user.setCalendarFeedTokenVersion(user.getCalendarFeedTokenVersion() + 1);
+        return userRepository.save(user);
+    }
+
     @Transactional
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new EntityNotFoundException("User not found with ID: " + id);
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + id));
         // Consider cascading deletes or manual deletion of related data (taughtLessons, votes)
-        userRepository.deleteById(id);
+        userRepository.delete(user);
+        eventPublisher.publishEvent(new SummaryChangedEvent(User.class));
+        // Tokens of a deleted user are rejected once the token version lookup finds no user
+        eventPublisher.publishEvent(new UserChangedEvent(id, user.getEmail()));
     }
 }
\ No newline at end of file
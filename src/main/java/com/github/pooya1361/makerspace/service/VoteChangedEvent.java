@@ -0,0 +1,7 @@
+package com.github.pooya1361.makerspace.service;
+
+/**
+ * Published when a vote is cast (+1) or withdrawn (-1) on a proposed time slot.
+ */
+public record VoteChangedEvent(Long scheduledLessonId, Long proposedTimeSlotId, int delta) {
+}
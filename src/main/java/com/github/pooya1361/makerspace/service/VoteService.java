@@ -1,21 +1,35 @@
 // src/main/java/com/github/pooya1361/makerspace/service/VoteService.java
 package com.github.pooya1361.makerspace.service;
 
+import com.github.pooya1361.makerspace.dto.create.VoteBatchCreateDTO;
 import com.github.pooya1361.makerspace.dto.create.VoteCreateDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.VoteBatchItemDTO;
+import com.github.pooya1361.makerspace.dto.response.VoteBatchResponseDTO;
 import com.github.pooya1361.makerspace.dto.response.VoteResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.VoteTallyDTO;
 import com.github.pooya1361.makerspace.mapper.VoteMapper;
 import com.github.pooya1361.makerspace.model.ProposedTimeSlot;
 import com.github.pooya1361.makerspace.model.User;
 import com.github.pooya1361.makerspace.model.Vote;
 import com.github.pooya1361.makerspace.repository.ProposedTimeSlotRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
 import com.github.pooya1361.makerspace.repository.UserRepository;
 import com.github.pooya1361.makerspace.repository.VoteRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class VoteService {
@@ -23,43 +37,171 @@ public class VoteService {
     private final VoteRepository voteRepository;
     private final UserRepository userRepository;
     private final ProposedTimeSlotRepository proposedTimeSlotRepository;
+    private final ScheduledLessonRepository scheduledLessonRepository;
     private final VoteMapper voteMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RecentVoteFilter recentVoteFilter;
 
     public VoteService(VoteRepository voteRepository,
                        UserRepository userRepository,
                        ProposedTimeSlotRepository proposedTimeSlotRepository,
-                       VoteMapper voteMapper) {
+                       ScheduledLessonRepository scheduledLessonRepository,
+                       VoteMapper voteMapper,
+                       ApplicationEventPublisher eventPublisher,
+                       RecentVoteFilter recentVoteFilter) {
         this.voteRepository = voteRepository;
         this.userRepository = userRepository;
         this.proposedTimeSlotRepository = proposedTimeSlotRepository;
+        this.scheduledLessonRepository = scheduledLessonRepository;
         this.voteMapper = voteMapper;
+        this.eventPublisher = eventPublisher;
+        this.recentVoteFilter = recentVoteFilter;
     }
 
+    /**
+     * The outcome of casting a vote: the vote, and whether it was created by this call.
+     */
+    public record CastVote(VoteResponseDTO vote, boolean created) {
+    }
+
+    /**
+     * Casts the user's vote on a proposed slot. Idempotent: when the user already voted on the slot, the existing
+     * vote is returned and nothing changes.
+     * @param voteCreateDTO The voting user and the slot.
+     * @return The vote, and whether it is new.
+     */
     @Transactional
-    public VoteResponseDTO createVote(VoteCreateDTO voteCreateDTO) {
-        User user = userRepository.findById(voteCreateDTO.getUserId())
-                .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + voteCreateDTO.getUserId()));
+    public CastVote createVote(VoteCreateDTO voteCreateDTO) {
+        Long userId = voteCreateDTO.getUserId();
+        Long proposedTimeSlotId = voteCreateDTO.getProposedTimeSlotId();
+        if (recentVoteFilter.mightContain(userId, proposedTimeSlotId)) {
+            // Most likely a repeated click: answer with the vote already cast, without loading the user and slot
+            Optional<Vote> existingVote = voteRepository.findByUserIdAndProposedTimeSlotId(userId, proposedTimeSlotId);
+            if (existingVote.isPresent()) {
+                return new CastVote(voteMapper.toDto(existingVote.get()), false);
+            }
+        }
 
-        ProposedTimeSlot proposedTimeSlot = proposedTimeSlotRepository.findById(voteCreateDTO.getProposedTimeSlotId())
-                .orElseThrow(() -> new EntityNotFoundException("ProposedTimeSlot not found with ID: " + voteCreateDTO.getProposedTimeSlotId()));
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + userId));
 
-        // Check for duplicate vote (if a user can only vote once per time slot)
-        // You might need a custom query in VoteRepository for this:
-        // Optional<Vote> existingVote = voteRepository.findByUserAndProposedTimeSlot(user, proposedTimeSlot);
-        // if (existingVote.isPresent()) { throw new IllegalStateException("User already voted for this time slot"); }
+        ProposedTimeSlot proposedTimeSlot = proposedTimeSlotRepository.findById(proposedTimeSlotId)
+                .orElseThrow(() -> new EntityNotFoundException("ProposedTimeSlot not found with ID: " + proposedTimeSlotId));
 
-        Vote vote = voteMapper.toEntity(voteCreateDTO);
-        vote.setUser(user);
-        vote.setProposedTimeSlot(proposedTimeSlot);
+        Optional<Long> insertedId = voteRepository.insertIfAbsent(userId, proposedTimeSlotId);
+        recentVoteFilter.add(userId, proposedTimeSlotId);
+        if (insertedId.isEmpty()) {
+            Vote existingVote = voteRepository.findByUserIdAndProposedTimeSlotId(userId, proposedTimeSlotId)
+                    .orElseThrow(() -> new IllegalStateException("Vote of user " + userId + " on slot " +
+                            proposedTimeSlotId + " was skipped as a duplicate but cannot be found"));
+            return new CastVote(voteMapper.toDto(existingVote), false);
+        }
 
-        Vote savedVote = voteRepository.save(vote);
-        return voteMapper.toDto(savedVote);
+        proposedTimeSlotRepository.adjustVoteCount(proposedTimeSlotId, 1);
+        eventPublisher.publishEvent(new VoteChangedEvent(
+                proposedTimeSlot.getScheduledLesson().getId(), proposedTimeSlotId, 1));
+        return new CastVote(voteMapper.toDto(new Vote(insertedId.get(), proposedTimeSlot, user)), true);
+    }
+
+    /**
+     * Casts the user's votes on several proposed slots in one transaction. Slots that do not exist or that the user
+     * already voted on are reported per item instead of failing the batch.
+     * @param batchDTO The voting user and the slots to vote on.
+     * @return A result per requested slot, in request order, and the updated tallies of the existing slots.
+     */
+    @Transactional
+    public VoteBatchResponseDTO createVotes(VoteBatchCreateDTO batchDTO) {
+        Long userId = batchDTO.getUserId();
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found with ID: " + userId);
+        }
+
+        List<Long> requestedIds = batchDTO.getProposedTimeSlotIds().stream().distinct().toList();
+        Map<Long, ProposedTimeSlot> slots = proposedTimeSlotRepository.findAllById(requestedIds).stream()
+                .collect(Collectors.toMap(ProposedTimeSlot::getId, Function.identity()));
+        Set<Long> alreadyVoted = slots.isEmpty()
+                ? Set.of()
+                : voteRepository.findUserVotesOnSlots(userId, slots.keySet()).stream()
+                        .map(VoteRepository.UserVote::getProposedTimeSlotId)
+                        .collect(Collectors.toSet());
+
+        List<Long> toInsert = requestedIds.stream()
+                .filter(id -> slots.containsKey(id) && !alreadyVoted.contains(id))
+                .toList();
+        Set<Long> inserted = toInsert.isEmpty()
+                ? Set.of()
+                : new HashSet<>(voteRepository.insertAllIfAbsent(userId, toInsert));
+        if (!inserted.isEmpty()) {
+            proposedTimeSlotRepository.incrementVoteCounts(inserted);
+        }
+
+        Map<Long, Long> voteIds = slots.isEmpty()
+                ? Map.of()
+                : voteRepository.findUserVotesOnSlots(userId, slots.keySet()).stream()
+                        .collect(Collectors.toMap(VoteRepository.UserVote::getProposedTimeSlotId, VoteRepository.UserVote::getVoteId));
+        voteIds.keySet().forEach(id -> recentVoteFilter.add(userId, id));
+        List<VoteBatchItemDTO> results = new ArrayList<>(requestedIds.size());
+        for (Long id : requestedIds) {
+            VoteBatchItemDTO.Status status;
+            if (!slots.containsKey(id)) {
+                status = VoteBatchItemDTO.Status.NOT_FOUND;
+            } else if (inserted.contains(id)) {
+                status = VoteBatchItemDTO.Status.CREATED;
+            } else {
+                // Voted on before, or by a concurrent request between the check and the insert
+                status = VoteBatchItemDTO.Status.DUPLICATE;
+            }
+            results.add(new VoteBatchItemDTO(id, status, voteIds.get(id)));
+        }
+
+        for (Long id : inserted) {
+            ProposedTimeSlot slot = slots.get(id);
+            eventPublisher.publishEvent(new VoteChangedEvent(slot.getScheduledLesson().getId(), id, 1));
+        }
+
+        List<VoteTallyDTO> tallies = slots.isEmpty()
+                ? List.of()
+                : toTallyDtos(proposedTimeSlotRepository.findVoteTalliesByIdIn(slots.keySet()));
+        return new VoteBatchResponseDTO(results, tallies);
+    }
+
+    /**
+     * Returns the vote count of every proposed slot of a scheduled lesson, read from the maintained counters.
+     * @param scheduledLessonId The scheduled lesson whose slots are tallied.
+     * @return One tally per proposed slot, ordered by slot id.
+     */
+    @Transactional(readOnly = true)
+    public List<VoteTallyDTO> getVoteTallies(Long scheduledLessonId) {
+        if (!scheduledLessonRepository.existsById(scheduledLessonId)) {
+            throw new EntityNotFoundException("ScheduledLesson not found with ID: " + scheduledLessonId);
+        }
+        return toTallyDtos(proposedTimeSlotRepository.findVoteTalliesByScheduledLessonId(scheduledLessonId));
+    }
+
+    /**
+     * Returns the current vote count of a single proposed slot, read from its maintained counter.
+     * @param proposedTimeSlotId The proposed slot to tally.
+     * @return The tally, or empty when the slot no longer exists.
+     */
+    @Transactional(readOnly = true)
+    public Optional<VoteTallyDTO> getVoteTally(Long proposedTimeSlotId) {
+        return toTallyDtos(proposedTimeSlotRepository.findVoteTalliesByIdIn(List.of(proposedTimeSlotId)))
+                .stream().findFirst();
     }
 
     public List<VoteResponseDTO> getAllVotes() {
         return voteMapper.toDtoList(voteRepository.findAll());
     }
 
+    @Transactional(readOnly = true)
+    public PageResponseDTO<VoteResponseDTO> getVotes(Pageable pageable, Long after) {
+        if (after != null) {
+            List<Vote> rows = voteRepository.findByIdGreaterThan(after, Paging.keyset(pageable));
+            return Paging.ofKeyset(rows, pageable, Vote::getId, voteMapper::toDtoList);
+        }
+        return Paging.ofPage(voteRepository.findAll(Paging.offset(pageable)), voteMapper::toDtoList);
+    }
+
     public Optional<VoteResponseDTO> getVoteById(Long id) {
         return voteRepository.findById(id)
                 .map(voteMapper::toDto);
@@ -80,9 +222,17 @@ public class VoteService {
 
     @Transactional
     public void deleteVote(Long id) {
-        if (!voteRepository.existsById(id)) {
-            throw new EntityNotFoundException("Vote not found with ID: " + id);
-        }
+        VoteRepository.VoteTarget target = voteRepository.findTargetById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Vote not found with ID: " + id));
         voteRepository.deleteById(id);
+        proposedTimeSlotRepository.adjustVoteCount(target.getProposedTimeSlotId(), -1);
+        eventPublisher.publishEvent(new VoteChangedEvent(
+                target.getScheduledLessonId(), target.getProposedTimeSlotId(), -1));
+    }
+
+    private static List<VoteTallyDTO> toTallyDtos(List<ProposedTimeSlotRepository.VoteTally> rows) {
+        return rows.stream()
+                .map(row -> new VoteTallyDTO(row.getProposedTimeSlotId(), row.getVotes()))
+                .toList();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,261 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.dto.response.VoteDeltaDTO;
+import com.github.pooya1361.makerspace.dto.response.VoteTallyDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process fan-out of vote tallies to Server-Sent Events subscribers, one topic per scheduled lesson.
+ * <p>
+ * A subscriber first receives a {@value #TALLY_EVENT} event with the current count of every proposed slot, then a
+ * {@value #DELTA_EVENT} event for each vote cast or withdrawn once its transaction commits. Subscriptions are async
+ * requests, so an idle connection holds no servlet thread; events are written from virtual threads, so a slow
+ * client never holds up the committing request.
+ * <p>
+ * A vote that commits just before a subscription may be in its tally and still be followed by its delta. Each delta
+ * therefore carries the slot's count read after the change. The counts of a topic are read under one per-topic lock
+ * and queued to each subscriber in that order, so each event reflects at least what the one before it did and
+ * applying the latest count never counts a vote twice. Only the reads and the queueing happen under the lock; every
+ * subscriber has its own queue, written to its stream outside the lock.
+ */
+@Component
+@Slf4j
+public class VoteTallyBroker {
+
+    public static final String TALLY_EVENT = "tally";
+    public static final String DELTA_EVENT = "vote-delta";
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final VoteService voteService;
+    private final long timeoutMs;
+    private final Executor fanOut;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    // Serializes the count reads per topic; ReentrantLock rather than synchronized, as virtual threads block in it
+    private final Lock[] topicLocks = new Lock[LOCK_STRIPES];
+    // Votes committed per lock stripe, so a subscription can tell whether its tally went stale while it was read
+    private final AtomicLongArray topicChanges = new AtomicLongArray(LOCK_STRIPES);
+
+    @Autowired
+    public VoteTallyBroker(VoteService voteService,
+                           @Value("${app.votes.stream.timeout-ms:1800000}") long timeoutMs) {
+        this(voteService, timeoutMs, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    VoteTallyBroker(VoteService voteService, long timeoutMs, Executor fanOut) {
+        this.voteService = voteService;
+        this.timeoutMs = timeoutMs;
+        this.fanOut = fanOut;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            topicLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Opens a tally stream for a scheduled lesson. The stream ends after the configured timeout; EventSource
+     * clients reconnect on their own and get a fresh tally.
+     * @param scheduledLessonId The scheduled lesson whose proposed slots are followed.
+     * @return The emitter to return from the controller.
+     */
+    public SseEmitter subscribe(Long scheduledLessonId) {
+        int stripe = stripe(scheduledLessonId);
+        long changesBeforeRead = topicChanges.get(stripe);
+        // Read outside the topic lock; an unknown scheduled lesson fails here, before anything is registered
+        List<VoteTallyDTO> tally = voteService.getVoteTallies(scheduledLessonId);
+
+        Subscriber subscriber = new Subscriber(scheduledLessonId, new SseEmitter(timeoutMs));
+        subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+        subscriber.emitter.onTimeout(subscriber.emitter::complete);
+        subscriber.emitter.onError(e -> unsubscribe(subscriber));
+
+        boolean tallyCurrent;
+        Lock lock = topicLocks[stripe];
+        lock.lock();
+        try {
+            subscribers.computeIfAbsent(scheduledLessonId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+            // No vote committed since the read began, so every delta read from now on is read after the tally
+            tallyCurrent = topicChanges.get(stripe) == changesBeforeRead;
+            if (tallyCurrent) {
+                subscriber.start(tally);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!tallyCurrent) {
+            fanOut.execute(() -> startFromFreshTally(subscriber));
+        }
+        return subscriber.emitter;
+    }
+
+    // Runs after the vote's transaction commits, so subscribers never see a delta that is rolled back
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoteChanged(VoteChangedEvent event) {
+        // Counted even without subscribers, for a subscription whose tally is being read right now
+        topicChanges.incrementAndGet(stripe(event.scheduledLessonId()));
+        Set<Subscriber> topic = subscribers.get(event.scheduledLessonId());
+        if (topic == null || topic.isEmpty()) {
+            return;
+        }
+        fanOut.execute(() -> publish(event));
+    }
+
+    // Keeps proxies from closing idle streams and finds clients that went away without closing the connection
+    @Scheduled(fixedDelayString = "${app.votes.stream.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        subscribers.values().forEach(topic ->
+                topic.forEach(subscriber -> subscriber.enqueue(SseEmitter.event().comment("heartbeat"))));
+    }
+
+    private void publish(VoteChangedEvent event) {
+        Long scheduledLessonId = event.scheduledLessonId();
+        Lock lock = topicLocks[stripe(scheduledLessonId)];
+        lock.lock();
+        try {
+            Set<Subscriber> topic = subscribers.get(scheduledLessonId);
+            if (topic == null || topic.isEmpty()) {
+                return;
+            }
+            Optional<VoteTallyDTO> tally;
+            try {
+                tally = voteService.getVoteTally(event.proposedTimeSlotId());
+            } catch (RuntimeException e) {
+                // Without the current count the streams would drift; end them so clients reconnect to a fresh tally
+                log.warn("votes.stream.delta.failed scheduledLessonId={} reason={}", scheduledLessonId, e.getClass().getSimpleName());
+                List.copyOf(topic).forEach(subscriber -> {
+                    unsubscribe(subscriber);
+                    subscriber.emitter.complete();
+                });
+                return;
+            }
+            if (tally.isEmpty()) {
+                // The slot was deleted since; the scheduled lesson's next tally leaves it out
+                return;
+            }
+            VoteDeltaDTO delta = new VoteDeltaDTO(event.proposedTimeSlotId(), event.delta(), tally.get().getVotes());
+            // Subscribers still waiting for their tally get this vote in it, as that is read under this lock later
+            topic.stream()
+                    .filter(subscriber -> subscriber.started)
+                    .forEach(subscriber -> subscriber.enqueue(SseEmitter.event().name(DELTA_EVENT).data(delta)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Re-reads the tally of a subscription whose first read overlapped a vote, ordered with the topic's deltas
+    private void startFromFreshTally(Subscriber subscriber) {
+        Lock lock = topicLocks[stripe(subscriber.scheduledLessonId)];
+        lock.lock();
+        try {
+            Set<Subscriber> topic = subscribers.get(subscriber.scheduledLessonId);
+            if (topic == null || !topic.contains(subscriber)) {
+                return;
+            }
+            subscriber.start(voteService.getVoteTallies(subscriber.scheduledLessonId));
+        } catch (RuntimeException e) {
+            log.warn("votes.stream.tally.failed scheduledLessonId={} reason={}", subscriber.scheduledLessonId, e.getClass().getSimpleName());
+            unsubscribe(subscriber);
+            subscriber.emitter.complete();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int subscriberCount(Long scheduledLessonId) {
+        Set<Subscriber> topic = subscribers.get(scheduledLessonId);
+        return topic == null ? 0 : topic.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(topic -> topic.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    private int stripe(Long scheduledLessonId) {
+        return Math.floorMod(scheduledLessonId.hashCode(), LOCK_STRIPES);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.scheduledLessonId, (id, topic) -> {
+            topic.remove(subscriber);
+            return topic.isEmpty() ? null : topic;
+        });
+    }
+
+    /**
+     * One stream and the events queued for it. At most one fan-out task drains the queue at a time, so events
+     * reach the client in the order they were queued, however the fan-out tasks are scheduled.
+     */
+    private final class Subscriber {
+        private final Long scheduledLessonId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> outbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Set under the topic lock together with queueing the tally; deltas are queued only after it
+        private volatile boolean started;
+
+        private Subscriber(Long scheduledLessonId, SseEmitter emitter) {
+            this.scheduledLessonId = scheduledLessonId;
+            this.emitter = emitter;
+        }
+
+        private void start(List<VoteTallyDTO> tally) {
+            started = true;
+            enqueue(SseEmitter.event().name(TALLY_EVENT).data(tally));
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            outbox.add(event);
+            if (draining.compareAndSet(false, true)) {
+                fanOut.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while ((event = outbox.poll()) != null) {
+                    if (!send(event)) {
+                        outbox.clear();
+                    }
+                }
+                draining.set(false);
+                // An event queued after the last poll but before the flag was cleared found the drain still running
+            } while (!outbox.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // The client is gone or the stream already completed; the container cleans up the request
+                log.debug("votes.stream.send.failed scheduledLessonId={} reason={}", scheduledLessonId, e.getClass().getSimpleName());
+                unsubscribe(this);
+                return false;
+            }
+        }
+    }
+}
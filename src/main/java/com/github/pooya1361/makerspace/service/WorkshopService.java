@@ -1,6 +1,7 @@
 package com.github.pooya1361.makerspace.service;
 
 import com.github.pooya1361.makerspace.dto.create.WorkshopCreateDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
 import com.github.pooya1361.makerspace.dto.response.WorkshopResponseDTO;
 import com.github.pooya1361.makerspace.mapper.WorkshopMapper;
 import com.github.pooya1361.makerspace.model.Activity;
@@ -8,6 +9,8 @@ import com.github.pooya1361.makerspace.model.Workshop;
 import com.github.pooya1361.makerspace.repository.ActivityRepository;
 import com.github.pooya1361.makerspace.repository.WorkshopRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,19 +23,31 @@ public class WorkshopService {
     private final WorkshopRepository workshopRepository;
     private final WorkshopMapper workshopMapper;
     private final ActivityRepository activityRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public WorkshopService(WorkshopRepository workshopRepository,
                            WorkshopMapper workshopMapper,
-                           ActivityRepository activityRepository) {
+                           ActivityRepository activityRepository,
+                           ApplicationEventPublisher eventPublisher) {
         this.workshopRepository = workshopRepository;
         this.workshopMapper = workshopMapper;
         this.activityRepository = activityRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<WorkshopResponseDTO> getAllWorkshops() {
         return workshopMapper.toDtoList(workshopRepository.findAll());
     }
 
+    @Transactional(readOnly = true)
+    public PageResponseDTO<WorkshopResponseDTO> getWorkshops(Pageable pageable, Long after) {
+        if (after != null) {
+            List<Workshop> rows = workshopRepository.findByIdGreaterThan(after, Paging.keyset(pageable));
+            return Paging.ofKeyset(rows, pageable, Workshop::getId, workshopMapper::toDtoList);
+        }
+        return Paging.ofPage(workshopRepository.findAll(Paging.offset(pageable)), workshopMapper::toDtoList);
+    }
+
     public Optional<WorkshopResponseDTO> getWorkshopById(Long id) {
         return workshopRepository.findById(id)
                 .map(workshopMapper::toDto);
@@ -45,6 +60,7 @@ public class WorkshopService {
 
         // Save the workshop
         Workshop savedWorkshop = workshopRepository.save(workshop);
+        eventPublisher.publishEvent(new SummaryChangedEvent(Workshop.class));
 
         // Convert saved entity to response DTO
         return workshopMapper.toDto(savedWorkshop);
@@ -115,5 +131,6 @@ public class WorkshopService {
             throw new EntityNotFoundException("Workshop not found with ID: " + id);
         }
         workshopRepository.deleteById(id);
+        eventPublisher.publishEvent(new SummaryChangedEvent(Workshop.class));
     }
 }
\ No newline at end of file
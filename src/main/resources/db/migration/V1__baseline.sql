@@ -0,0 +1,82 @@
+-- Schema of the entities before any versioned script existed, as ddl-auto=update created it. Databases created
+-- then are baselined at this version (see SchemaMigrator) instead of running it, so it must not contain anything
+-- added since; later changes go in new versions. Portable between PostgreSQL and H2.
+
+create table workshops (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    description varchar(255),
+    size float(53) not null,
+    primary key (id),
+    constraint uk_workshops_name unique (name)
+);
+
+create table activities (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    description varchar(255),
+    workshop_id bigint,
+    primary key (id),
+    constraint uk_activities_name unique (name),
+    constraint fk_activities_workshop foreign key (workshop_id) references workshops
+);
+
+create table lessons (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    description varchar(255),
+    activity_id bigint,
+    primary key (id),
+    constraint fk_lessons_activity foreign key (activity_id) references activities
+);
+
+create table users (
+    id bigint generated by default as identity,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    first_name varchar(255),
+    last_name varchar(255),
+    user_type varchar(255) not null check (user_type in ('NORMAL','INSTRUCTOR','ADMIN','SUPERADMIN')),
+    primary key (id),
+    constraint uk_users_email unique (email)
+);
+
+create table lessons_users (
+    id bigint generated by default as identity,
+    lesson_id bigint not null,
+    user_id bigint not null,
+    acquired boolean not null,
+    primary key (id),
+    constraint fk_lessons_users_lesson foreign key (lesson_id) references lessons,
+    constraint fk_lessons_users_user foreign key (user_id) references users
+);
+
+create table scheduled_lessons (
+    id bigint generated by default as identity,
+    start_time timestamp(6) with time zone,
+    duration_in_minutes bigint not null,
+    lesson_id bigint not null,
+    instructor_id bigint,
+    primary key (id),
+    constraint fk_scheduled_lessons_lesson foreign key (lesson_id) references lessons,
+    constraint fk_scheduled_lessons_instructor foreign key (instructor_id) references users
+);
+
+create table proposed_time_slots (
+    id bigint generated by default as identity,
+    proposed_start_time timestamp(6) with time zone not null,
+    scheduled_lesson_id bigint not null,
+    created_at timestamp(6) with time zone not null,
+    primary key (id),
+    constraint fk_proposed_time_slots_scheduled_lesson foreign key (scheduled_lesson_id) references scheduled_lessons
+);
+
+create table votes (
+    id bigint generated by default as identity,
+    time_slot_id bigint not null,
+    user_id bigint not null,
+    primary key (id),
+    constraint uk_votes_user_time_slot unique (user_id, time_slot_id),
+    constraint fk_votes_time_slot foreign key (time_slot_id) references proposed_time_slots,
+    constraint fk_votes_user foreign key (user_id) references users
+);
@@ -0,0 +1,25 @@
+-- Added to the entities after the baseline. "if not exists" because ddl-auto=update may already have created them
+-- on databases baselined later.
+
+-- Bumped to revoke every token issued to the user before
+alter table users add column if not exists token_version bigint default 0 not null;
+
+-- When interested users were last emailed about new slots of the scheduled lesson
+alter table scheduled_lessons add column if not exists last_notified_at timestamp(6) with time zone;
+
+-- Emails written in the transaction of the change they announce, drained by EmailOutboxDispatcher
+create table if not exists email_outbox (
+    id bigint generated by default as identity,
+    recipient_email varchar(255) not null,
+    recipient_name varchar(255),
+    scheduled_lesson_id bigint not null,
+    proposed_time_slot_id bigint,
+    lesson_name varchar(255),
+    status varchar(255) not null check (status in ('PENDING','SENT','FAILED')),
+    attempts integer not null,
+    next_attempt_at timestamp(6) with time zone not null,
+    last_error varchar(500),
+    created_at timestamp(6) with time zone not null,
+    sent_at timestamp(6) with time zone,
+    primary key (id)
+);
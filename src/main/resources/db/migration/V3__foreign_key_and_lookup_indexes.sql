@@ -0,0 +1,25 @@
+-- Neither PostgreSQL nor H2 index foreign key columns on their own. Mirrors the @Index declarations on the
+-- entities, which SchemaIndexVerifier checks at startup. "if not exists" because ddl-auto=update may already have
+-- created some of them on baselined databases.
+
+-- lessons by activity, activities by workshop: catalogue joins and cascades
+create index if not exists idx_activities_workshop on activities (workshop_id);
+create index if not exists idx_lessons_activity on lessons (activity_id);
+
+-- LessonUserRepository.findByUserId / findUsersByLessonId and the outbox fan-out
+create index if not exists idx_lessons_users_lesson on lessons_users (lesson_id);
+create index if not exists idx_lessons_users_user on lessons_users (user_id);
+
+-- ScheduledLessonRepository.findAvailableByLessonIdIn (lesson_id in ... and start_time is null)
+create index if not exists idx_scheduled_lessons_lesson_start on scheduled_lessons (lesson_id, start_time);
+create index if not exists idx_scheduled_lessons_instructor on scheduled_lessons (instructor_id);
+
+-- Slots of a scheduled lesson, newest first
+create index if not exists idx_proposed_time_slots_scheduled_lesson_created
+    on proposed_time_slots (scheduled_lesson_id, created_at);
+
+-- Votes by slot (recount, cascades); votes by user are served by uk_votes_user_time_slot
+create index if not exists idx_votes_time_slot on votes (time_slot_id);
+
+-- EmailOutboxDispatcher polling for due rows
+create index if not exists idx_email_outbox_due on email_outbox (status, next_attempt_at);
@@ -0,0 +1,3 @@
+-- Calendar range queries (start_time >= ? and start_time < ?) across all lessons; the (lesson_id, start_time) index
+-- only helps within one lesson.
+create index if not exists idx_scheduled_lessons_start on scheduled_lessons (start_time);
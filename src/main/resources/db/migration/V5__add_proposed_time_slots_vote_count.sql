@@ -0,0 +1,3 @@
+-- The per-slot vote counter maintained by VoteService. Existing slots start at 0 until V6 recounts them.
+-- "if not exists" because ddl-auto=update may already have added it on databases baselined after the column existed.
+alter table proposed_time_slots add column if not exists vote_count bigint default 0 not null;
@@ -0,0 +1,4 @@
+-- proposed_time_slots.vote_count is maintained by VoteService; slots that existed before V5 added the column start
+-- at 0. Rebuild every counter from the votes table once.
+update proposed_time_slots pts
+set vote_count = (select count(*) from votes v where v.time_slot_id = pts.id);
@@ -0,0 +1,3 @@
+-- Bumped to revoke the user's calendar feed token without touching their login tokens.
+-- "if not exists" because ddl-auto=update may already have added it on databases baselined after the column existed.
+alter table users add column if not exists calendar_feed_token_version bigint default 0 not null;
@@ -0,0 +1,53 @@
+package com.github.pooya1361.makerspace.config;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Builds the schema from the migration scripts instead of the entity mapping, and checks that Hibernate accepts it
+ * and that every expected index is there.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "app.schema.migrations.enabled=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+@Import({SchemaMigrationConfig.class, SchemaIndexVerifier.class})
+class SchemaMigrationsTest {
+
+    @Autowired
+    private SchemaIndexVerifier schemaIndexVerifier;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void migrations_MatchEntityMappingAndIndexes() {
+        assertThatCode(() -> schemaIndexVerifier.verify()).doesNotThrowAnyException();
+    }
+
+    @Test
+    void verify_MissingIndex_FailsFast() {
+        // given: DDL is not rolled back with the test transaction, so the index is put back afterwards
+        entityManager.createNativeQuery("drop index idx_email_outbox_due").executeUpdate();
+
+        try {
+            // when & then
+            assertThatThrownBy(() -> schemaIndexVerifier.verify())
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("idx_email_outbox_due on email_outbox [status, next_attempt_at]");
+        } finally {
+            entityManager.createNativeQuery("create index idx_email_outbox_due on email_outbox (status, next_attempt_at)")
+                    .executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.pooya1361.makerspace.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SchemaMigratorTest {
+
+    @TempDir
+    Path migrations;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:" + UUID.randomUUID(), "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        Files.writeString(migrations.resolve("V1__create_things.sql"),
+                "create table things (id bigint not null primary key, owner_id bigint);");
+        Files.writeString(migrations.resolve("V2__index_owner.sql"),
+                "create index if not exists idx_things_owner on things (owner_id);");
+    }
+
+    @Test
+    void migrate_EmptyDatabase_AppliesScriptsInOrderOnce() {
+        // given
+        SchemaMigrator migrator = migrator();
+
+        // when
+        int first = migrator.migrate();
+        int second = migrator.migrate();
+
+        // then
+        assertThat(first).isEqualTo(2);
+        assertThat(second).isZero();
+        assertThat(jdbcTemplate.queryForList("select version from schema_version order by version", Integer.class))
+                .containsExactly(1, 2);
+    }
+
+    @Test
+    void migrate_ExistingSchemaWithoutHistory_BaselinesAndAppliesLaterScripts() {
+        // given: tables created by ddl-auto=update
+        jdbcTemplate.execute("create table things (id bigint not null primary key, owner_id bigint)");
+
+        // when
+        int applied = migrator().migrate();
+
+        // then
+        assertThat(applied).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("select baseline from schema_version order by version", Boolean.class))
+                .containsExactly(true, false);
+    }
+
+    @Test
+    void migrate_AppliedScriptChanged_FailsFast() throws IOException {
+        // given
+        migrator().migrate();
+        Files.writeString(migrations.resolve("V1__create_things.sql"),
+                "create table things (id bigint not null primary key, owner_id bigint, name varchar(50));");
+
+        // when & then
+        assertThatThrownBy(() -> migrator().migrate())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("V1__create_things.sql");
+    }
+
+    @Test
+    void migrate_FailingScript_RecordsNothing() throws IOException {
+        // given
+        Files.writeString(migrations.resolve("V3__broken.sql"), "create index idx_broken on missing_table (id);");
+
+        // when & then
+        assertThatThrownBy(() -> migrator().migrate()).isInstanceOf(RuntimeException.class);
+        assertThat(jdbcTemplate.queryForList("select version from schema_version order by version", Integer.class))
+                .containsExactly(1, 2);
+    }
+
+    @Test
+    void migrate_BundledScripts_CreateSchemaOnH2() {
+        // when
+        int applied = new SchemaMigrator(dataSource, "classpath:db/migration", 1).migrate();
+
+        // then
+        assertThat(applied).isGreaterThanOrEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from votes", Long.class)).isZero();
+    }
+
+    @Test
+    void migrate_BundledScriptsOnPreMigrationSchema_UpgradesToTheFreshSchema() {
+        // given: a database ddl-auto=update created before the first script, with a slot voted on twice
+        new ResourceDatabasePopulator(new ClassPathResource("db/pre-migration-schema.sql")).execute(dataSource);
+        jdbcTemplate.update("insert into users (id, email, password, user_type) values (1, 'a@example.com', 'x', 'NORMAL')");
+        jdbcTemplate.update("insert into users (id, email, password, user_type) values (2, 'b@example.com', 'x', 'NORMAL')");
+        jdbcTemplate.update("insert into lessons (id, name) values (1, 'Welding')");
+        jdbcTemplate.update("insert into scheduled_lessons (id, duration_in_minutes, lesson_id) values (1, 60, 1)");
+        jdbcTemplate.update("insert into proposed_time_slots (id, proposed_start_time, scheduled_lesson_id, created_at) " +
+                "values (1, current_timestamp, 1, current_timestamp)");
+        jdbcTemplate.update("insert into votes (id, time_slot_id, user_id) values (1, 1, 1), (2, 1, 2)");
+
+        // when
+        new SchemaMigrator(dataSource, "classpath:db/migration", 1).migrate();
+
+        // then: the same tables and columns as a database built by the scripts alone, and counters rebuilt
+        SingleConnectionDataSource fresh = new SingleConnectionDataSource("jdbc:h2:mem:" + UUID.randomUUID(), "sa", "", true);
+        new SchemaMigrator(fresh, "classpath:db/migration", 1).migrate();
+        assertThat(columns(jdbcTemplate)).isEqualTo(columns(new JdbcTemplate(fresh)));
+        assertThat(jdbcTemplate.queryForObject("select vote_count from proposed_time_slots where id = 1", Long.class))
+                .isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("select token_version from users", Long.class)).containsOnly(0L);
+        fresh.destroy();
+    }
+
+    private static List<String> columns(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForList("select table_name || '.' || column_name || ' ' || data_type || ' ' || " +
+                "is_nullable from information_schema.columns where table_schema = 'PUBLIC' and table_name <> " +
+                "'SCHEMA_VERSION' order by table_name, column_name", String.class);
+    }
+
+    private SchemaMigrator migrator() {
+        return new SchemaMigrator(dataSource, migrations.toUri().toString(), 1);
+    }
+}
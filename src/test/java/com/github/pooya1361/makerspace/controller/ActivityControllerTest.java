@@ -4,6 +4,7 @@ package com.github.pooya1361.makerspace.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.pooya1361.makerspace.dto.create.ActivityCreateDTO;
 import com.github.pooya1361.makerspace.dto.response.ActivityResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
 import com.github.pooya1361.makerspace.mapper.ActivityMapper;
 import com.github.pooya1361.makerspace.security.JwtService;
 import com.github.pooya1361.makerspace.service.ActivityService;
@@ -14,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -24,6 +26,7 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -77,7 +80,7 @@ class ActivityControllerTest {
     @WithMockUser
     void getActivities_Success() throws Exception {
         // given
-        when(activityService.getAllActivities()).thenReturn(activityList);
+        when(activityService.getActivities(any(Pageable.class), isNull())).thenReturn(new PageResponseDTO<>(activityList, null, null));
 
         // when & then
         mockMvc.perform(get("/api/activities"))
@@ -91,14 +94,14 @@ class ActivityControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].name").value("Second Activity"));
 
-        verify(activityService).getAllActivities();
+        verify(activityService).getActivities(any(Pageable.class), isNull());
     }
 
     @Test
     @WithMockUser
     void getActivities_EmptyList_Success() throws Exception {
         // given
-        when(activityService.getAllActivities()).thenReturn(Arrays.asList());
+        when(activityService.getActivities(any(Pageable.class), isNull())).thenReturn(new PageResponseDTO<>(Arrays.asList(), null, null));
 
         // when & then
         mockMvc.perform(get("/api/activities"))
@@ -107,7 +110,7 @@ class ActivityControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(0));
 
-        verify(activityService).getAllActivities();
+        verify(activityService).getActivities(any(Pageable.class), isNull());
     }
 
     // Note: Based on test results, your endpoints require authentication
@@ -470,7 +473,7 @@ class ActivityControllerTest {
     @WithMockUser
     void checkCorsHeaders_Success() throws Exception {
         // given
-        when(activityService.getAllActivities()).thenReturn(activityList);
+        when(activityService.getActivities(any(Pageable.class), isNull())).thenReturn(new PageResponseDTO<>(activityList, null, null));
 
         // when & then
         mockMvc.perform(get("/api/activities")
@@ -13,6 +13,7 @@ import com.github.pooya1361.makerspace.repository.UserRepository;
 import com.github.pooya1361.makerspace.security.JwtService;
 import com.github.pooya1361.makerspace.security.SecurityConfig;
 import com.github.pooya1361.makerspace.security.JwtAuthenticationFilter;
+import com.github.pooya1361.makerspace.security.UserPrincipalCache;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -42,8 +43,11 @@ import org.springframework.security.web.access.AccessDeniedHandler;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.security.test.context.support.WithMockUser; // Keep for other tests
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.http.Cookie;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -86,6 +90,9 @@ class AuthenticationControllerTest {
     @MockBean
     private UserMapper userMapper;
 
+    @MockBean
+    private UserPrincipalCache userPrincipalCache;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -159,6 +166,7 @@ class AuthenticationControllerTest {
             );
         });
         when(jwtService.generateToken(any(User.class))).thenReturn(testJwtToken);
+        when(jwtService.getAccessTokenExpiration()).thenReturn(900_000L);
     }
 
     @Test
@@ -176,6 +184,7 @@ class AuthenticationControllerTest {
         verify(userRepository).findByEmail(registerRequest.getEmail());
         verify(passwordEncoder).encode(registerRequest.getPassword());
         verify(userRepository).save(any(User.class));
+        verify(userPrincipalCache).evict(registerRequest.getEmail());
     }
 
     @Test
@@ -262,6 +271,52 @@ class AuthenticationControllerTest {
                 .andExpect(cookie().secure("accessToken", false));
     }
 
+    @Test
+    @DisplayName("POST /api/auth/refresh - Should return unauthorized when no refresh token cookie is sent")
+    void refresh_shouldReturnUnauthorizedWithoutRefreshToken() throws Exception {
+        mockMvc.perform(post("/api/auth/refresh")
+                        .with(csrf()))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message", is("Refresh token missing")));
+
+        verify(jwtService, never()).generateToken(any(User.class));
+    }
+
+    @Test
+    @DisplayName("POST /api/auth/refresh - Should issue an access token cookie that lives as long as the token")
+    void refresh_shouldSetAccessTokenCookieForAccessTokenLifetime() throws Exception {
+        Claims claims = Jwts.claims(Map.of(JwtService.TOKEN_VERSION_CLAIM, 0L));
+        claims.setSubject(testUser.getEmail());
+        when(jwtService.extractAllClaims("mock.refresh.token")).thenReturn(claims);
+        when(jwtService.isRefreshToken(claims)).thenReturn(true);
+        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .with(csrf())
+                        .cookie(new Cookie("refreshToken", "mock.refresh.token")))
+                .andExpect(status().isOk())
+                .andExpect(cookie().value("accessToken", testJwtToken))
+                .andExpect(cookie().maxAge("accessToken", 900));
+    }
+
+    @Test
+    @DisplayName("POST /api/auth/refresh - Should reject an access token without looking up the user")
+    void refresh_shouldRejectAccessTokenBeforeUserLookup() throws Exception {
+        Claims claims = Jwts.claims(Map.of(JwtService.TOKEN_VERSION_CLAIM, 0L));
+        claims.setSubject(testUser.getEmail());
+        when(jwtService.extractAllClaims(testJwtToken)).thenReturn(claims);
+        when(jwtService.isRefreshToken(claims)).thenReturn(false);
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .with(csrf())
+                        .cookie(new Cookie("refreshToken", testJwtToken)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message", is("Invalid refresh token")));
+
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(jwtService, never()).generateToken(any(User.class));
+    }
+
     @Test
     @WithMockUser(username = "test@example.com", authorities = "NORMAL")
     @DisplayName("GET /api/auth/me - Should return current user for authenticated request")
@@ -0,0 +1,199 @@
+package com.github.pooya1361.makerspace.controller;
+
+import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.repository.UserRepository;
+import com.github.pooya1361.makerspace.security.JwtService;
+import com.github.pooya1361.makerspace.security.SecurityConfig;
+import com.github.pooya1361.makerspace.security.UserDetailsServiceImpl;
+import com.github.pooya1361.makerspace.service.CalendarFeedCache;
+import com.github.pooya1361.makerspace.service.CalendarFeedCache.CalendarFeed;
+import com.github.pooya1361.makerspace.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CalendarFeedController.class)
+@Import(SecurityConfig.class)
+class CalendarFeedControllerTest {
+
+    private static final String BODY = "BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n";
+    private static final CalendarFeed FEED = new CalendarFeed(BODY.getBytes(StandardCharsets.UTF_8), "\"abc123\"",
+            Instant.parse("2029-12-01T08:00:00Z"));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CalendarFeedCache calendarFeedCache;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private UserService userService;
+
+    @Test
+    @WithMockUser
+    void getUserFeed_ReturnsCalendarWithValidators() throws Exception {
+        when(calendarFeedCache.getUserFeed(1L)).thenReturn(Optional.of(FEED));
+
+        mockMvc.perform(get("/api/calendar/users/1.ics"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.parseMediaType("text/calendar")))
+                .andExpect(header().string("ETag", "\"abc123\""))
+                .andExpect(header().string("Last-Modified", "Sat, 01 Dec 2029 08:00:00 GMT"))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    @WithMockUser
+    void getWorkshopFeed_MatchingIfNoneMatch_NotModified() throws Exception {
+        when(calendarFeedCache.getWorkshopFeed(5L)).thenReturn(Optional.of(FEED));
+
+        mockMvc.perform(get("/api/calendar/workshops/5.ics").header("If-None-Match", "\"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"abc123\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser
+    void getWorkshopFeed_NotModifiedSince_NotModified() throws Exception {
+        when(calendarFeedCache.getWorkshopFeed(5L)).thenReturn(Optional.of(FEED));
+
+        mockMvc.perform(get("/api/calendar/workshops/5.ics").header("If-Modified-Since", "Sat, 01 Dec 2029 08:00:00 GMT"))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/calendar/workshops/5.ics").header("If-None-Match", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    @WithMockUser
+    void getUserFeed_UnknownUser_NotFound() throws Exception {
+        when(calendarFeedCache.getUserFeed(9L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/calendar/users/9.ics"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getUserFeed_WithoutAuthentication_Unauthorized() throws Exception {
+        mockMvc.perform(get("/api/calendar/users/1.ics"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(calendarFeedCache);
+    }
+
+    @Test
+    void getUserFeed_WithOwnFeedToken_ReturnsCalendar() throws Exception {
+        when(jwtService.verifyCalendarFeedToken("feed-token-1")).thenReturn(Optional.of(1L));
+        when(calendarFeedCache.getUserFeed(1L)).thenReturn(Optional.of(FEED));
+
+        mockMvc.perform(get("/api/calendar/users/1.ics").param("token", "feed-token-1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void getUserFeed_WithAnotherUsersFeedToken_Forbidden() throws Exception {
+        when(jwtService.verifyCalendarFeedToken("feed-token-2")).thenReturn(Optional.of(2L));
+
+        mockMvc.perform(get("/api/calendar/users/1.ics").param("token", "feed-token-2"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(calendarFeedCache);
+    }
+
+    @Test
+    void getWorkshopFeed_WithFeedToken_ReturnsCalendar() throws Exception {
+        when(jwtService.verifyCalendarFeedToken("feed-token-2")).thenReturn(Optional.of(2L));
+        when(calendarFeedCache.getWorkshopFeed(5L)).thenReturn(Optional.of(FEED));
+
+        mockMvc.perform(get("/api/calendar/workshops/5.ics").param("token", "feed-token-2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void getWorkshopFeed_WithRevokedFeedToken_Unauthorized() throws Exception {
+        when(jwtService.verifyCalendarFeedToken("revoked")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/calendar/workshops/5.ics").param("token", "revoked"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(calendarFeedCache);
+    }
+
+    @Test
+    @WithMockUser(username = "anna@example.com")
+    void getFeedToken_ReturnsTokenAndOwnFeedPath() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("anna@example.com");
+        when(userRepository.findByEmail("anna@example.com")).thenReturn(Optional.of(user));
+        when(jwtService.generateCalendarFeedToken(user)).thenReturn("feed-token-1");
+
+        mockMvc.perform(get("/api/calendar/feed-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("feed-token-1"))
+                .andExpect(jsonPath("$.userFeedPath").value("/api/calendar/users/1.ics?token=feed-token-1"));
+    }
+
+    @Test
+    @WithMockUser(username = "anna@example.com")
+    void rotateFeedToken_ReturnsTokenForTheNewVersion() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("anna@example.com");
+        User rotated = new User();
+        rotated.setId(1L);
+        rotated.setEmail("anna@example.com");
+        rotated.setCalendarFeedTokenVersion(1L);
+        when(userRepository.findByEmail("anna@example.com")).thenReturn(Optional.of(user));
+        when(userService.rotateCalendarFeedToken(1L)).thenReturn(rotated);
+        when(jwtService.generateCalendarFeedToken(rotated)).thenReturn("feed-token-2");
+
+        mockMvc.perform(post("/api/calendar/feed-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("feed-token-2"))
+                .andExpect(jsonPath("$.userFeedPath").value("/api/calendar/users/1.ics?token=feed-token-2"));
+    }
+
+    @Test
+    void rotateFeedToken_WithoutAuthentication_Unauthorized() throws Exception {
+        mockMvc.perform(post("/api/calendar/feed-token"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(userService, jwtService);
+    }
+
+    @Test
+    void getFeedToken_WithoutAuthentication_Unauthorized() throws Exception {
+        mockMvc.perform(get("/api/calendar/feed-token"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(jwtService, userRepository);
+    }
+}
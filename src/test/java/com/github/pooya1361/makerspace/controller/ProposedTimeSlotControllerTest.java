@@ -3,6 +3,7 @@ package com.github.pooya1361.makerspace.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.pooya1361.makerspace.dto.create.ProposedTimeSlotCreateDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
 import com.github.pooya1361.makerspace.dto.response.ProposedTimeSlotResponseDTO;
 import com.github.pooya1361.makerspace.mapper.ProposedTimeSlotMapper;
 import com.github.pooya1361.makerspace.security.JwtService;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -23,6 +25,7 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -69,7 +72,7 @@ class ProposedTimeSlotControllerTest {
     @Test
     @WithMockUser
     void getAllProposedTimeSlots_Success() throws Exception {
-        when(proposedTimeSlotService.getAllProposedTimeSlots()).thenReturn(proposedTimeSlotList);
+        when(proposedTimeSlotService.getProposedTimeSlots(any(Pageable.class), isNull())).thenReturn(new PageResponseDTO<>(proposedTimeSlotList, null, null));
 
         mockMvc.perform(get("/api/proposed-time-slots"))
                 .andExpect(status().isOk())
@@ -77,7 +80,7 @@ class ProposedTimeSlotControllerTest {
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].id").value(1));
 
-        verify(proposedTimeSlotService).getAllProposedTimeSlots();
+        verify(proposedTimeSlotService).getProposedTimeSlots(any(Pageable.class), isNull());
     }
 
     @Test
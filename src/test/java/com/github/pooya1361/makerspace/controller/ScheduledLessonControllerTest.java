@@ -3,26 +3,42 @@ package com.github.pooya1361.makerspace.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.pooya1361.makerspace.dto.create.ScheduledLessonCreateDTO;
+import com.github.pooya1361.makerspace.dto.create.SlotSelectionBatchDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.ScheduleConflictDTO;
 import com.github.pooya1361.makerspace.dto.response.ScheduledLessonResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.SlotScoreDTO;
+import com.github.pooya1361.makerspace.dto.response.SlotSelectionDTO;
+import com.github.pooya1361.makerspace.dto.response.VoteTallyDTO;
 import com.github.pooya1361.makerspace.mapper.ScheduledLessonMapper;
 import com.github.pooya1361.makerspace.security.JwtService;
+import com.github.pooya1361.makerspace.service.ScheduleConflictException;
 import com.github.pooya1361.makerspace.service.ScheduledLessonService;
+import com.github.pooya1361.makerspace.service.SlotSelectionService;
+import com.github.pooya1361.makerspace.service.VoteService;
+import com.github.pooya1361.makerspace.service.VoteTallyBroker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -40,6 +56,15 @@ class ScheduledLessonControllerTest {
     @MockBean
     private ScheduledLessonMapper scheduledLessonMapper;
 
+    @MockBean
+    private VoteService voteService;
+
+    @MockBean
+    private VoteTallyBroker voteTallyBroker;
+
+    @MockBean
+    private SlotSelectionService slotSelectionService;
+
     @MockBean
     private JwtService jwtService;
 
@@ -72,7 +97,7 @@ class ScheduledLessonControllerTest {
     @Test
     @WithMockUser
     void getAllScheduledLessons_Success() throws Exception {
-        when(scheduledLessonService.getAllScheduledLessons()).thenReturn(scheduledLessonList);
+        when(scheduledLessonService.getScheduledLessons(any(Pageable.class), isNull())).thenReturn(new PageResponseDTO<>(scheduledLessonList, null, null));
 
         mockMvc.perform(get("/api/scheduled-lessons"))
                 .andExpect(status().isOk())
@@ -80,7 +105,7 @@ class ScheduledLessonControllerTest {
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].id").value(1));
 
-        verify(scheduledLessonService).getAllScheduledLessons();
+        verify(scheduledLessonService).getScheduledLessons(any(Pageable.class), isNull());
     }
 
     @Test
@@ -121,6 +146,66 @@ class ScheduledLessonControllerTest {
         verify(scheduledLessonService).createScheduledLesson(any(ScheduledLessonCreateDTO.class));
     }
 
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void createScheduledLesson_InstructorBusy_Conflict() throws Exception {
+        when(scheduledLessonService.createScheduledLesson(any(ScheduledLessonCreateDTO.class)))
+                .thenThrow(new ScheduleConflictException("Instructor 1 already teaches scheduled lessons [5] at that time",
+                        ScheduleConflictDTO.ConflictKind.INSTRUCTOR_DOUBLE_BOOKED, List.of(5L)));
+
+        mockMvc.perform(post("/api/scheduled-lessons")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(scheduledLessonCreateDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Schedule Conflict"))
+                .andExpect(jsonPath("$.scheduledLessonIds[0]").value(5));
+    }
+
+    @Test
+    @WithMockUser
+    void getAllScheduledLessons_WithRange_ReturnsCalendar() throws Exception {
+        OffsetDateTime from = OffsetDateTime.parse("2030-01-07T00:00:00Z");
+        when(scheduledLessonService.getScheduledLessonsBetween(from, from.plusDays(7))).thenReturn(scheduledLessonList);
+
+        mockMvc.perform(get("/api/scheduled-lessons")
+                        .param("from", "2030-01-07T00:00:00Z")
+                        .param("to", "2030-01-14T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        verify(scheduledLessonService, never()).getScheduledLessons(any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void getAllScheduledLessons_InvalidRange_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/scheduled-lessons").param("from", "2030-01-07T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/scheduled-lessons")
+                        .param("from", "2030-01-07T00:00:00Z")
+                        .param("to", "2030-03-07T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(scheduledLessonService);
+    }
+
+    @Test
+    @WithMockUser
+    void getConflicts_Success() throws Exception {
+        OffsetDateTime from = OffsetDateTime.parse("2030-01-01T10:00:00Z");
+        when(scheduledLessonService.getConflicts()).thenReturn(List.of(new ScheduleConflictDTO(
+                ScheduleConflictDTO.ConflictKind.INSTRUCTOR_DOUBLE_BOOKED, 7L, null, List.of(1L, 2L), from, from.plusHours(1))));
+
+        mockMvc.perform(get("/api/scheduled-lessons/conflicts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].kind").value("INSTRUCTOR_DOUBLE_BOOKED"))
+                .andExpect(jsonPath("$[0].instructorId").value(7))
+                .andExpect(jsonPath("$[0].scheduledLessonIds.length()").value(2));
+
+        verify(scheduledLessonService, never()).getScheduledLessonById(any());
+    }
+
     @Test
     @WithMockUser(authorities = "ADMIN")
     void createScheduledLesson_WithoutStartTime_Success() throws Exception {
@@ -172,4 +257,110 @@ class ScheduledLessonControllerTest {
 
         verify(scheduledLessonService).deleteScheduledLesson(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser
+    void getVoteTallies_Success() throws Exception {
+        when(voteService.getVoteTallies(1L)).thenReturn(List.of(new VoteTallyDTO(10L, 3L), new VoteTallyDTO(11L, 0L)));
+
+        mockMvc.perform(get("/api/scheduled-lessons/1/vote-tallies"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].proposedTimeSlotId").value(10))
+                .andExpect(jsonPath("$[0].votes").value(3));
+
+        verify(voteService).getVoteTallies(1L);
+    }
+
+    @Test
+    @WithMockUser
+    void streamVoteTallies_StartsEventStream() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(voteTallyBroker.subscribe(1L)).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/api/scheduled-lessons/1/vote-tallies/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name(VoteTallyBroker.DELTA_EVENT).data("{}"));
+
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(result.getResponse().getContentAsString()).contains("event:vote-delta");
+        verify(voteTallyBroker).subscribe(1L);
+    }
+
+    @Test
+    void streamVoteTallies_WithoutAuthentication_Unauthorized() throws Exception {
+        mockMvc.perform(get("/api/scheduled-lessons/1/vote-tallies/stream"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(voteTallyBroker);
+    }
+
+    @Test
+    @WithMockUser
+    void getSlotRanking_Success() throws Exception {
+        OffsetDateTime start = OffsetDateTime.parse("2030-01-01T10:00:00Z");
+        when(slotSelectionService.rankSlots(1L)).thenReturn(Optional.of(List.of(
+                new SlotScoreDTO(10L, start, 3L, List.of(), List.of()),
+                new SlotScoreDTO(11L, start.plusDays(1), 5L, List.of(SlotScoreDTO.Conflict.INSTRUCTOR_BUSY), List.of(7L)))));
+
+        mockMvc.perform(get("/api/scheduled-lessons/1/slot-ranking"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].proposedTimeSlotId").value(10))
+                .andExpect(jsonPath("$[1].conflicts[0]").value("INSTRUCTOR_BUSY"))
+                .andExpect(jsonPath("$[1].conflictingScheduledLessonIds[0]").value(7));
+    }
+
+    @Test
+    @WithMockUser
+    void getSlotRanking_NotFound() throws Exception {
+        when(slotSelectionService.rankSlots(99L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/scheduled-lessons/99/slot-ranking"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void finalizeScheduledLesson_Success() throws Exception {
+        OffsetDateTime start = OffsetDateTime.parse("2030-01-01T10:00:00Z");
+        when(slotSelectionService.finalizeScheduledLesson(1L)).thenReturn(
+                new SlotSelectionDTO(1L, SlotSelectionDTO.SelectionStatus.SCHEDULED, 10L, start, List.of()));
+
+        mockMvc.perform(post("/api/scheduled-lessons/1/finalize")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SCHEDULED"))
+                .andExpect(jsonPath("$.proposedTimeSlotId").value(10));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void finalizeScheduledLessons_WithoutBody_FinalizesAllAwaiting() throws Exception {
+        when(slotSelectionService.finalizeScheduledLessons(List.of())).thenReturn(List.of(
+                new SlotSelectionDTO(2L, SlotSelectionDTO.SelectionStatus.NO_AVAILABLE_SLOT, null, null, List.of())));
+
+        mockMvc.perform(post("/api/scheduled-lessons/finalize")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("NO_AVAILABLE_SLOT"));
+
+        verify(slotSelectionService).finalizeScheduledLessons(List.of());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void finalizeScheduledLessons_TooManyIds_BadRequest() throws Exception {
+        SlotSelectionBatchDTO batchDTO = new SlotSelectionBatchDTO(
+                LongStream.rangeClosed(1, SlotSelectionBatchDTO.MAX_SIZE + 1).boxed().toList());
+
+        mockMvc.perform(post("/api/scheduled-lessons/finalize")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchDTO)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(slotSelectionService);
+    }
+}
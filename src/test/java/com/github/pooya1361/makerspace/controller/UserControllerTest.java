@@ -3,6 +3,7 @@ package com.github.pooya1361.makerspace.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.pooya1361.makerspace.dto.create.UserCreateDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
 import com.github.pooya1361.makerspace.dto.response.UserResponseDTO;
 import com.github.pooya1361.makerspace.mapper.UserMapper;
 import com.github.pooya1361.makerspace.model.enums.UserType;
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -23,6 +25,7 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -79,7 +82,7 @@ class UserControllerTest {
     @Test
     @WithMockUser
     void getAllUsers_Success() throws Exception {
-        when(userService.getAllUsers()).thenReturn(userList);
+        when(userService.getUsers(any(Pageable.class), isNull())).thenReturn(new PageResponseDTO<>(userList, null, null));
 
         mockMvc.perform(get("/api/users"))
                 .andExpect(status().isOk())
@@ -87,7 +90,7 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].email").value("test@example.com"));
 
-        verify(userService).getAllUsers();
+        verify(userService).getUsers(any(Pageable.class), isNull());
     }
 
     @Test
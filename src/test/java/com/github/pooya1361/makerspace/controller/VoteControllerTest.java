@@ -2,8 +2,13 @@
 package com.github.pooya1361.makerspace.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.pooya1361.makerspace.dto.create.VoteBatchCreateDTO;
 import com.github.pooya1361.makerspace.dto.create.VoteCreateDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.VoteBatchItemDTO;
+import com.github.pooya1361.makerspace.dto.response.VoteBatchResponseDTO;
 import com.github.pooya1361.makerspace.dto.response.VoteResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.VoteTallyDTO;
 import com.github.pooya1361.makerspace.dto.summary.ProposedTimeSlotSummaryDTO;
 import com.github.pooya1361.makerspace.dto.summary.UserSummaryDTO;
 import com.github.pooya1361.makerspace.mapper.VoteMapper;
@@ -14,6 +19,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -24,6 +30,7 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -87,7 +94,7 @@ class VoteControllerTest {
     @Test
     @WithMockUser
     void getAllVotes_Success() throws Exception {
-        when(voteService.getAllVotes()).thenReturn(voteList);
+        when(voteService.getVotes(any(Pageable.class), isNull())).thenReturn(new PageResponseDTO<>(voteList, null, null));
 
         mockMvc.perform(get("/api/votes"))
                 .andExpect(status().isOk())
@@ -97,7 +104,72 @@ class VoteControllerTest {
                 .andExpect(jsonPath("$[0].user.id").value(1))
                 .andExpect(jsonPath("$[1].user.id").value(2));
 
-        verify(voteService).getAllVotes();
+        verify(voteService).getVotes(any(Pageable.class), isNull());
+    }
+
+    @Test
+    @WithMockUser
+    void getAllVotes_WithPageParams_PassesPageableAndSetsTotalHeader() throws Exception {
+        when(voteService.getVotes(any(Pageable.class), isNull())).thenReturn(new PageResponseDTO<>(List.of(voteResponseDTO), 7L, null));
+
+        mockMvc.perform(get("/api/votes").param("page", "2").param("size", "1").param("sort", "id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "7"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        verify(voteService).getVotes(argThat(pageable -> pageable.getPageNumber() == 2
+                && pageable.getPageSize() == 1
+                && pageable.getSort().getOrderFor("id").isDescending()), isNull());
+    }
+
+    @Test
+    @WithMockUser
+    void getAllVotes_WithoutPageParams_RequestsFirstDefaultSizePage() throws Exception {
+        when(voteService.getVotes(any(Pageable.class), isNull())).thenReturn(new PageResponseDTO<>(voteList, 2L, null));
+
+        mockMvc.perform(get("/api/votes").param("sort", "id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        verify(voteService).getVotes(argThat(pageable -> pageable.isPaged()
+                && pageable.getPageNumber() == 0
+                && pageable.getPageSize() == 500
+                && pageable.getSort().getOrderFor("id").isDescending()), isNull());
+    }
+
+    @Test
+    @WithMockUser
+    void getAllVotes_WithCursorAndOtherSort_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/votes").param("after", "10").param("sort", "id,desc"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(voteService);
+    }
+
+    @Test
+    @WithMockUser
+    void getAllVotes_WithSizeOnly_PagesAndCapsSize() throws Exception {
+        when(voteService.getVotes(any(Pageable.class), isNull())).thenReturn(new PageResponseDTO<>(voteList, 2L, null));
+
+        mockMvc.perform(get("/api/votes").param("size", "100000"))
+                .andExpect(status().isOk());
+
+        verify(voteService).getVotes(argThat(pageable -> pageable.isPaged()
+                && pageable.getPageNumber() == 0
+                && pageable.getPageSize() == 1000), isNull());
+    }
+
+    @Test
+    @WithMockUser
+    void getAllVotes_WithCursor_SetsNextCursorHeader() throws Exception {
+        when(voteService.getVotes(any(Pageable.class), eq(1L))).thenReturn(new PageResponseDTO<>(List.of(voteList.get(1)), null, 2L));
+
+        mockMvc.perform(get("/api/votes").param("after", "1").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "2"))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(jsonPath("$[0].id").value(2));
     }
 
     @Test
@@ -128,7 +200,7 @@ class VoteControllerTest {
     @Test
     @WithMockUser(authorities = "ADMIN")
     void createVote_Success() throws Exception {
-        when(voteService.createVote(any(VoteCreateDTO.class))).thenReturn(voteResponseDTO);
+        when(voteService.createVote(any(VoteCreateDTO.class))).thenReturn(new VoteService.CastVote(voteResponseDTO, true));
 
         mockMvc.perform(post("/api/votes")
                         .with(csrf())
@@ -141,6 +213,19 @@ class VoteControllerTest {
         verify(voteService).createVote(any(VoteCreateDTO.class));
     }
 
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void createVote_AlreadyVoted_ReturnsExistingVote() throws Exception {
+        when(voteService.createVote(any(VoteCreateDTO.class))).thenReturn(new VoteService.CastVote(voteResponseDTO, false));
+
+        mockMvc.perform(post("/api/votes")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(voteCreateDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
     @Test
     @WithMockUser(authorities = "ADMIN")
     void updateVote_Success() throws Exception {
@@ -168,4 +253,38 @@ class VoteControllerTest {
 
         verify(voteService).deleteVote(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser
+    void createVotes_ReturnsPerItemResultsAndTallies() throws Exception {
+        VoteBatchResponseDTO response = new VoteBatchResponseDTO(
+                List.of(new VoteBatchItemDTO(1L, VoteBatchItemDTO.Status.CREATED, 10L),
+                        new VoteBatchItemDTO(2L, VoteBatchItemDTO.Status.DUPLICATE, 11L)),
+                List.of(new VoteTallyDTO(1L, 4L), new VoteTallyDTO(2L, 2L)));
+        when(voteService.createVotes(any(VoteBatchCreateDTO.class))).thenReturn(response);
+
+        mockMvc.perform(post("/api/votes/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new VoteBatchCreateDTO(1L, List.of(1L, 2L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[1].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.results[1].voteId").value(11))
+                .andExpect(jsonPath("$.tallies[0].votes").value(4));
+
+        verify(voteService).createVotes(new VoteBatchCreateDTO(1L, List.of(1L, 2L)));
+    }
+
+    @Test
+    @WithMockUser
+    void createVotes_EmptyBatch_BadRequest() throws Exception {
+        mockMvc.perform(post("/api/votes/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new VoteBatchCreateDTO(1L, List.of()))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(voteService);
+    }
+}
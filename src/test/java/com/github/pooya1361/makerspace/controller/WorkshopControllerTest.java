@@ -3,6 +3,7 @@ package com.github.pooya1361.makerspace.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.pooya1361.makerspace.dto.create.WorkshopCreateDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
 import com.github.pooya1361.makerspace.dto.response.WorkshopResponseDTO;
 import com.github.pooya1361.makerspace.mapper.WorkshopMapper;
 import com.github.pooya1361.makerspace.security.JwtService;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -22,6 +24,7 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -70,7 +73,7 @@ class WorkshopControllerTest {
     @Test
     @WithMockUser
     void getAllWorkshops_Success() throws Exception {
-        when(workshopService.getAllWorkshops()).thenReturn(workshopList);
+        when(workshopService.getWorkshops(any(Pageable.class), isNull())).thenReturn(new PageResponseDTO<>(workshopList, null, null));
 
         mockMvc.perform(get("/api/workshops"))
                 .andExpect(status().isOk())
@@ -78,7 +81,7 @@ class WorkshopControllerTest {
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].name").value("Test Workshop"));
 
-        verify(workshopService).getAllWorkshops();
+        verify(workshopService).getWorkshops(any(Pageable.class), isNull());
     }
 
     @Test
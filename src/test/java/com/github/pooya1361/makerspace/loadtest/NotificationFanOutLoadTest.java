@@ -0,0 +1,168 @@
+package com.github.pooya1361.makerspace.loadtest;
+
+import com.github.pooya1361.makerspace.config.SmtpSinkConfig.SmtpSink;
+import com.github.pooya1361.makerspace.dto.create.ProposedTimeSlotCreateDTO;
+import com.github.pooya1361.makerspace.model.*;
+import com.github.pooya1361.makerspace.model.enums.EmailOutboxStatus;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import com.github.pooya1361.makerspace.repository.EmailOutboxRepository;
+import com.github.pooya1361.makerspace.service.ProposedTimeSlotService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test of the new-slot notification pipeline: slot creation queues one email per interested user,
+ * the outbox dispatcher sends them to the in-process SMTP sink. Reports the request time, throughput, the outbox
+ * depth sampled while draining, and the latency from queueing to sending.
+ * Tagged "load"; run with {@code mvn -Ploadtest test}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "app.email.from=noreply@example.com",
+        "app.email.outbox.poll-interval-ms=50",
+        "app.summary.refresh-interval-ms=3600000"
+})
+@ActiveProfiles({"docker", "smtp-sink"})
+@Tag("load")
+@Slf4j
+class NotificationFanOutLoadTest {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofMinutes(5);
+    private static final long SAMPLE_INTERVAL_MS = 20;
+    private static final int SEED_FLUSH_SIZE = 1_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProposedTimeSlotService proposedTimeSlotService;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private SmtpSink smtpSink;
+
+    @ParameterizedTest(name = "{0} interested users")
+    @ValueSource(ints = {1_000, 10_000})
+    void createProposedTimeSlot_DeliversToEveryInterestedUser(int audience) throws InterruptedException {
+        // given
+        Long scheduledLessonId = new TransactionTemplate(transactionManager).execute(status -> seedAudience(audience));
+        long sendCallsBefore = smtpSink.sendCalls();
+        long deliveredBefore = smtpSink.deliveredMessages();
+
+        ProposedTimeSlotCreateDTO createDTO = new ProposedTimeSlotCreateDTO();
+        createDTO.setScheduledLessonId(scheduledLessonId);
+        createDTO.setProposedStartTime(OffsetDateTime.of(2031, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC));
+
+        // when
+        long start = System.nanoTime();
+        proposedTimeSlotService.createProposedTimeSlot(createDTO);
+        Duration requestTime = Duration.ofNanos(System.nanoTime() - start);
+
+        long maxQueueDepth = 0;
+        long deadline = start + DRAIN_TIMEOUT.toNanos();
+        long pending;
+        // Pending rows include the batch being sent
+        while ((pending = emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING)) > 0) {
+            maxQueueDepth = Math.max(maxQueueDepth, pending);
+            assertThat(System.nanoTime()).as("outbox drained within %s", DRAIN_TIMEOUT).isLessThan(deadline);
+            Thread.sleep(SAMPLE_INTERVAL_MS);
+        }
+        Duration drainTime = Duration.ofNanos(System.nanoTime() - start);
+
+        // then
+        List<EmailOutbox> emails = emailOutboxRepository.findAll().stream()
+                .filter(email -> email.getScheduledLessonId().equals(scheduledLessonId))
+                .toList();
+        assertThat(emails).hasSize(audience)
+                .allSatisfy(email -> assertThat(email.getStatus()).isEqualTo(EmailOutboxStatus.SENT));
+        assertThat(smtpSink.deliveredMessages() - deliveredBefore).isEqualTo(audience);
+
+        List<Duration> latencies = emails.stream()
+                .map(email -> Duration.between(email.getCreatedAt(), email.getSentAt()))
+                .sorted()
+                .toList();
+        OffsetDateTime queuedAt = emails.get(0).getCreatedAt();
+        OffsetDateTime lastSentAt = emails.stream().map(EmailOutbox::getSentAt).max(Comparator.naturalOrder()).orElseThrow();
+        double sendingSeconds = Math.max(Duration.between(queuedAt, lastSentAt).toNanos(), 1) / 1e9;
+
+        log.info("notification.fanout audience={} request={}ms drained={}ms batches={} throughput={} msg/s " +
+                        "maxQueueDepth={} latency.p50={}ms latency.p95={}ms latency.max={}ms",
+                audience, requestTime.toMillis(), drainTime.toMillis(), smtpSink.sendCalls() - sendCallsBefore,
+                Math.round(audience / sendingSeconds), maxQueueDepth,
+                percentile(latencies, 50).toMillis(), percentile(latencies, 95).toMillis(),
+                latencies.get(latencies.size() - 1).toMillis());
+    }
+
+    private Long seedAudience(int audience) {
+        Workshop workshop = new Workshop();
+        workshop.setName("Load test workshop " + audience);
+        entityManager.persist(workshop);
+
+        Activity activity = new Activity();
+        activity.setName("Load test activity " + audience);
+        activity.setWorkshop(workshop);
+        entityManager.persist(activity);
+
+        Lesson lesson = new Lesson();
+        lesson.setName("Load test lesson " + audience);
+        lesson.setActivity(activity);
+        entityManager.persist(lesson);
+
+        ScheduledLesson scheduledLesson = new ScheduledLesson();
+        scheduledLesson.setLesson(lesson);
+        scheduledLesson.setDurationInMinutes(60L);
+        scheduledLesson.setStartTime(Optional.empty());
+        entityManager.persist(scheduledLesson);
+
+        for (int i = 0; i < audience; i++) {
+            User user = User.builder()
+                    .email("load" + audience + "-" + i + "@example.com")
+                    .password("password")
+                    .firstName("Student " + i)
+                    .userType(UserType.NORMAL)
+                    .build();
+            entityManager.persist(user);
+
+            LessonUser lessonUser = new LessonUser();
+            lessonUser.setLesson(lesson);
+            lessonUser.setUser(user);
+            entityManager.persist(lessonUser);
+
+            if ((i + 1) % SEED_FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                lesson = entityManager.getReference(Lesson.class, lesson.getId());
+            }
+        }
+        return scheduledLesson.getId();
+    }
+
+    private static Duration percentile(List<Duration> sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0));
+    }
+}
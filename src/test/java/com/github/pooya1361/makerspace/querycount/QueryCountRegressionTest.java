@@ -0,0 +1,388 @@
+package com.github.pooya1361.makerspace.querycount;
+
+import com.github.pooya1361.makerspace.dto.create.ProposedTimeSlotCreateDTO;
+import com.github.pooya1361.makerspace.dto.create.ScheduledLessonCreateDTO;
+import com.github.pooya1361.makerspace.dto.create.VoteBatchCreateDTO;
+import com.github.pooya1361.makerspace.dto.create.VoteCreateDTO;
+import com.github.pooya1361.makerspace.dto.create.WorkshopCreateDTO;
+import com.github.pooya1361.makerspace.model.ProposedTimeSlot;
+import com.github.pooya1361.makerspace.model.ScheduledLesson;
+import com.github.pooya1361.makerspace.model.enums.EmailOutboxStatus;
+import com.github.pooya1361.makerspace.repository.EmailOutboxRepository;
+import com.github.pooya1361.makerspace.service.AvailableLessonsFeed;
+import com.github.pooya1361.makerspace.service.CalendarFeedCache;
+import com.github.pooya1361.makerspace.service.ProposedTimeSlotService;
+import com.github.pooya1361.makerspace.service.ScheduledLessonService;
+import com.github.pooya1361.makerspace.service.SummaryService;
+import com.github.pooya1361.makerspace.service.SummarySnapshotCache;
+import com.github.pooya1361.makerspace.service.VoteService;
+import com.github.pooya1361.makerspace.service.WorkshopService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SQL statement budgets for the service methods and queries that map entity graphs.
+ * Budgets are the counts measured for the data set seeded by QueryCountTestSupport (collections are batch fetched
+ * 100 owners at a time). A failing test means a change added queries, usually an N+1; fix the fetch plan rather
+ * than raising the budget.
+ */
+class QueryCountRegressionTest extends QueryCountTestSupport {
+
+    @Autowired
+    private WorkshopService workshopService;
+
+    @Autowired
+    private ScheduledLessonService scheduledLessonService;
+
+    @Autowired
+    private ProposedTimeSlotService proposedTimeSlotService;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private SummaryService summaryService;
+
+    @Autowired
+    private SummarySnapshotCache summarySnapshotCache;
+
+    @Autowired
+    private AvailableLessonsFeed availableLessonsFeed;
+
+    @Autowired
+    private VoteService voteService;
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @Autowired
+    private CalendarFeedCache calendarFeedCache;
+
+    // ==================== WORKSHOP SERVICE ====================
+
+    @Test
+    void workshopService_getAllWorkshops() {
+        assertQueryCount("WorkshopService.getAllWorkshops", 1, () ->
+                assertThat(workshopService.getAllWorkshops()).hasSize(WORKSHOPS));
+    }
+
+    @Test
+    void workshopService_getWorkshops() {
+        assertQueryCount("WorkshopService.getWorkshops (offset)", 3, () ->
+                workshopService.getWorkshops(PageRequest.of(0, 5), null));
+        assertQueryCount("WorkshopService.getWorkshops (keyset)", 2, () ->
+                workshopService.getWorkshops(PageRequest.of(0, 5), 0L));
+    }
+
+    @Test
+    void workshopService_getWorkshopById() {
+        assertQueryCount("WorkshopService.getWorkshopById", 2, () ->
+                assertThat(workshopService.getWorkshopById(workshops.get(0).getId())).isPresent());
+    }
+
+    @Test
+    void workshopService_createWorkshop() {
+        WorkshopCreateDTO createDTO = new WorkshopCreateDTO();
+        createDTO.setName("New workshop");
+        createDTO.setSize(12);
+
+        assertQueryCount("WorkshopService.createWorkshop", 1, () -> workshopService.createWorkshop(createDTO));
+    }
+
+    @Test
+    void workshopService_updateWorkshop() {
+        WorkshopCreateDTO updateDTO = new WorkshopCreateDTO();
+        updateDTO.setName("Renamed workshop");
+        updateDTO.setSize(30);
+        updateDTO.setActivityIds(List.of(activities.get(0).getId(), activities.get(3).getId()));
+
+        assertQueryCount("WorkshopService.updateWorkshop", 9, () ->
+                workshopService.updateWorkshop(workshops.get(0).getId(), updateDTO));
+    }
+
+    // ==================== SCHEDULED LESSON SERVICE ====================
+
+    @Test
+    void scheduledLessonService_getScheduledLessonsBetween() {
+        OffsetDateTime from = scheduleFirstLessonsDaily(10);
+
+        // Past the day index window, so the range query answers
+        assertQueryCount("ScheduledLessonService.getScheduledLessonsBetween", 4, () ->
+                assertThat(scheduledLessonService.getScheduledLessonsBetween(from, from.plusDays(7))).hasSize(7));
+    }
+
+    @Test
+    void scheduledLessonService_getAllScheduledLessons() {
+        assertQueryCount("ScheduledLessonService.getAllScheduledLessons", 6, () ->
+                assertThat(scheduledLessonService.getAllScheduledLessons()).hasSize(scheduledLessons.size()));
+    }
+
+    @Test
+    void scheduledLessonService_getScheduledLessons() {
+        assertQueryCount("ScheduledLessonService.getScheduledLessons (offset)", 6, () ->
+                scheduledLessonService.getScheduledLessons(PageRequest.of(0, 20), null));
+        assertQueryCount("ScheduledLessonService.getScheduledLessons (keyset)", 5, () ->
+                scheduledLessonService.getScheduledLessons(PageRequest.of(0, 20), 0L));
+    }
+
+    @Test
+    void scheduledLessonService_getScheduledLessonById() {
+        assertQueryCount("ScheduledLessonService.getScheduledLessonById", 3, () ->
+                assertThat(scheduledLessonService.getScheduledLessonById(scheduledLessons.get(0).getId())).isPresent());
+    }
+
+    @Test
+    void scheduledLessonService_createScheduledLesson() {
+        ScheduledLessonCreateDTO createDTO = new ScheduledLessonCreateDTO();
+        createDTO.setLessonId(lessons.get(0).getId());
+        createDTO.setInstructorUserId(instructors.get(0).getId());
+        createDTO.setDurationInMinutes(60L);
+        createDTO.setStartTime(Optional.empty());
+
+        assertQueryCount("ScheduledLessonService.createScheduledLesson", 5, () ->
+                scheduledLessonService.createScheduledLesson(createDTO));
+    }
+
+    @Test
+    void scheduledLessonService_updateScheduledLesson() {
+        ScheduledLessonCreateDTO updateDTO = new ScheduledLessonCreateDTO();
+        updateDTO.setDurationInMinutes(120L);
+        updateDTO.setLessonId(lessons.get(1).getId());
+        updateDTO.setInstructorUserId(instructors.get(1).getId());
+
+        assertQueryCount("ScheduledLessonService.updateScheduledLesson", 9, () ->
+                scheduledLessonService.updateScheduledLesson(scheduledLessons.get(0).getId(), updateDTO));
+    }
+
+    @Test
+    void scheduledLessonService_deleteScheduledLesson() {
+        assertQueryCount("ScheduledLessonService.deleteScheduledLesson", 33, () ->
+                scheduledLessonService.deleteScheduledLesson(scheduledLessons.get(0).getId()));
+    }
+
+    // ==================== PROPOSED TIME SLOT SERVICE ====================
+
+    @Test
+    void proposedTimeSlotService_createProposedTimeSlot_QueuesNotifications() {
+        // A scheduled lesson that has never been notified, so the cooldown does not apply
+        ScheduledLesson scheduledLesson = new ScheduledLesson();
+        scheduledLesson.setLesson(lessons.get(0));
+        scheduledLesson.setInstructor(instructors.get(0));
+        scheduledLesson.setDurationInMinutes(60L);
+        scheduledLesson.setStartTime(Optional.empty());
+        entityManager.persist(scheduledLesson);
+
+        ProposedTimeSlotCreateDTO createDTO = new ProposedTimeSlotCreateDTO();
+        createDTO.setScheduledLessonId(scheduledLesson.getId());
+        createDTO.setProposedStartTime(OffsetDateTime.of(2031, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC));
+
+        // The outbox is filled by a single INSERT ... SELECT, whatever the number of interested users
+        assertQueryCount("ProposedTimeSlotService.createProposedTimeSlot", 8, () ->
+                proposedTimeSlotService.createProposedTimeSlot(createDTO));
+        assertThat(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING)).isEqualTo(1);
+    }
+
+    // ==================== SUMMARY SERVICE ====================
+
+    @Test
+    void summaryService_getOverallSummary_Reload() {
+        summarySnapshotCache.invalidate();
+
+        assertQueryCount("SummaryService.getOverallSummary (reload)", 1, () ->
+                assertThat(summaryService.getOverallSummary().getTotalWorkshops()).isEqualTo(WORKSHOPS));
+    }
+
+    @Test
+    void summaryService_getOverallSummary_Cached() {
+        summaryService.getOverallSummary();
+
+        assertQueryCount("SummaryService.getOverallSummary (cached)", 0, () ->
+                assertThat(summaryService.getOverallSummary().getTotalWorkshops()).isEqualTo(WORKSHOPS));
+    }
+
+    @Test
+    void summaryService_getAvailableLessons_BuildFeed() {
+        availableLessonsFeed.evict(students.get(0).getEmail());
+
+        assertQueryCount("SummaryService.getAvailableLessons (build feed)", 6, () ->
+                assertThat(summaryService.getAvailableLessons(studentAuthentication()))
+                        .hasSize(ACTIVITIES_PER_WORKSHOP * LESSONS_PER_ACTIVITY));
+    }
+
+    @Test
+    void summaryService_getAvailableLessons_FromFeed() {
+        summaryService.getAvailableLessons(studentAuthentication());
+
+        assertQueryCount("SummaryService.getAvailableLessons (from feed)", 4, () ->
+                assertThat(summaryService.getAvailableLessons(studentAuthentication()))
+                        .hasSize(ACTIVITIES_PER_WORKSHOP * LESSONS_PER_ACTIVITY));
+    }
+
+    private Authentication studentAuthentication() {
+        return new UsernamePasswordAuthenticationToken(
+                new User(students.get(0).getEmail(), "", Collections.emptyList()), null, Collections.emptyList());
+    }
+
+    // ==================== VOTE SERVICE ====================
+
+    @Test
+    void voteService_getAllVotes() {
+        assertQueryCount("VoteService.getAllVotes", 9, () ->
+                assertThat(voteService.getAllVotes()).hasSize(votes.size()));
+    }
+
+    @Test
+    void voteService_getVotes() {
+        assertQueryCount("VoteService.getVotes (offset)", 4, () ->
+                voteService.getVotes(PageRequest.of(0, 50), null));
+        assertQueryCount("VoteService.getVotes (keyset)", 2, () ->
+                voteService.getVotes(PageRequest.of(0, 50), 0L));
+    }
+
+    @Test
+    void voteService_getVoteById() {
+        assertQueryCount("VoteService.getVoteById", 5, () ->
+                assertThat(voteService.getVoteById(votes.get(0).getId())).isPresent());
+    }
+
+    @Test
+    void voteService_createVote() {
+        VoteCreateDTO createDTO = new VoteCreateDTO();
+        // The last student has not voted on the first slot
+        createDTO.setUserId(students.get(STUDENTS - 1).getId());
+        createDTO.setProposedTimeSlotId(proposedTimeSlots.get(0).getId());
+
+        // The insert itself is plain JDBC (INSERT ... ON CONFLICT / MERGE), not a Hibernate statement
+        assertQueryCount("VoteService.createVote", 6, () -> voteService.createVote(createDTO));
+    }
+
+    @Test
+    void voteService_createVote_Repeated() {
+        VoteCreateDTO createDTO = new VoteCreateDTO();
+        createDTO.setUserId(students.get(STUDENTS - 1).getId());
+        createDTO.setProposedTimeSlotId(proposedTimeSlots.get(1).getId());
+        voteService.createVote(createDTO);
+
+        // A double click is answered from the existing vote, without loading the user and slot or inserting
+        assertQueryCount("VoteService.createVote (repeated)", 3, () ->
+                assertThat(voteService.createVote(createDTO).created()).isFalse());
+    }
+
+    @Test
+    void voteService_createVotes() {
+        // The last student has not voted on any slot; the JDBC batch insert is not a Hibernate statement
+        VoteBatchCreateDTO batchDTO = new VoteBatchCreateDTO(students.get(STUDENTS - 1).getId(),
+                proposedTimeSlots.stream().limit(10).map(ProposedTimeSlot::getId).toList());
+
+        assertQueryCount("VoteService.createVotes", 6, () ->
+                assertThat(voteService.createVotes(batchDTO).getResults()).hasSize(10));
+    }
+
+    @Test
+    void voteService_updateVote() {
+        VoteCreateDTO updateDTO = new VoteCreateDTO();
+
+        assertQueryCount("VoteService.updateVote", 5, () ->
+                voteService.updateVote(votes.get(0).getId(), updateDTO));
+    }
+
+    @Test
+    void voteService_deleteVote() {
+        assertQueryCount("VoteService.deleteVote", 4, () -> voteService.deleteVote(votes.get(0).getId()));
+    }
+
+    // ==================== CALENDAR FEEDS ====================
+
+    @Test
+    void calendarFeedCache_getFeeds() {
+        scheduleFirstLessonsDaily(10);
+        Long studentId = students.get(17).getId();
+        Long workshopId = workshops.get(3).getId();
+
+        assertQueryCount("CalendarFeedCache.getUserFeed (build)", 2, () ->
+                assertThat(calendarFeedCache.getUserFeed(studentId)).isPresent());
+        assertQueryCount("CalendarFeedCache.getWorkshopFeed (build)", 2, () ->
+                assertThat(calendarFeedCache.getWorkshopFeed(workshopId)).isPresent());
+        assertQueryCount("CalendarFeedCache.getUserFeed (cached)", 0, () ->
+                assertThat(calendarFeedCache.getUserFeed(studentId)).isPresent());
+    }
+
+    // ==================== GRAPHQL ====================
+
+    @Test
+    void graphQl_workshopsQuery() {
+        String document = "{ workshops { id name size activities { id name } } }";
+
+        assertQueryCount("GraphQL workshops", 2, () -> {
+            ExecutionGraphQlResponse response = graphQlService
+                    .execute(new DefaultExecutionGraphQlRequest(document, null, null, null, "workshops", null))
+                    .block();
+            assertThat(response).isNotNull();
+            assertThat(response.getErrors()).isEmpty();
+            List<?> workshopList = response.field("workshops").getValue();
+            assertThat(workshopList).hasSize(WORKSHOPS);
+        });
+    }
+
+    @Test
+    void graphQl_scheduledLessonsQuery() {
+        OffsetDateTime from = scheduleFirstLessonsDaily(10);
+        String document = "{ scheduledLessons(from: \"" + from + "\", to: \"" + from.plusDays(7) + "\") " +
+                "{ id startTime durationInMinutes lesson { id name } instructor { id firstName lastName } } }";
+
+        assertQueryCount("GraphQL scheduledLessons", 4, () -> {
+            ExecutionGraphQlResponse response = graphQlService
+                    .execute(new DefaultExecutionGraphQlRequest(document, null, null, null, "scheduledLessons", null))
+                    .block();
+            assertThat(response).isNotNull();
+            assertThat(response.getErrors()).isEmpty();
+            List<Map<String, Object>> lessonList = response.field("scheduledLessons").getValue();
+            assertThat(lessonList).hasSize(7);
+            assertThat(lessonList.get(0).get("startTime")).isEqualTo(from.toString());
+        });
+    }
+
+    @Test
+    void graphQl_scheduledLessonsQuery_InvalidRange() {
+        String document = "{ scheduledLessons(from: \"next monday\", to: \"2031-03-10T00:00:00Z\") { id } }";
+
+        // Rejected as the client's mistake before any query
+        assertQueryCount("GraphQL scheduledLessons (invalid range)", 0, () -> {
+            ExecutionGraphQlResponse response = graphQlService
+                    .execute(new DefaultExecutionGraphQlRequest(document, null, null, null, "invalid", null))
+                    .block();
+            assertThat(response).isNotNull();
+            assertThat(response.getErrors()).singleElement().satisfies(error -> {
+                assertThat(error.getErrorType()).isEqualTo(ErrorType.BAD_REQUEST);
+                assertThat(error.getMessage()).contains("'from' must be an ISO-8601 date-time");
+            });
+        });
+    }
+
+    // Gives the first seeded scheduled lessons a start time each day from a date past the calendar day index window
+    private OffsetDateTime scheduleFirstLessonsDaily(int count) {
+        OffsetDateTime from = OffsetDateTime.of(2031, 3, 3, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < count; i++) {
+            entityManager.find(ScheduledLesson.class, scheduledLessons.get(i).getId())
+                    .setStartTime(Optional.of(from.plusDays(i)));
+        }
+        return from;
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.pooya1361.makerspace.querycount;
+
+import com.github.pooya1361.makerspace.model.*;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Base class for query-count regression tests. Boots the application on the H2 "docker" profile, seeds a
+ * realistic data set once, and counts the SQL statements Hibernate prepares while a piece of code runs.
+ * Every test runs in a transaction that is rolled back, so writes do not leak into other tests.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querycount;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.mail.username=test",
+        "spring.mail.password=test",
+        "app.email.from=noreply@example.com",
+        // Keep the background summary refresh and outbox dispatcher from issuing queries in the middle of a measurement
+        "app.summary.refresh-interval-ms=3600000",
+        "app.email.outbox.poll-interval-ms=3600000"
+})
+@ActiveProfiles("docker")
+@Transactional
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class QueryCountTestSupport {
+
+    protected static final int WORKSHOPS = 10;
+    protected static final int ACTIVITIES_PER_WORKSHOP = 3;
+    protected static final int LESSONS_PER_ACTIVITY = 2;
+    protected static final int STUDENTS = 200;
+    protected static final int INSTRUCTORS = 10;
+    protected static final int SLOTS_PER_SCHEDULED_LESSON = 4;
+    protected static final int VOTES_PER_SLOT = 5;
+
+    @PersistenceContext
+    protected EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    protected final List<Workshop> workshops = new ArrayList<>();
+    protected final List<Activity> activities = new ArrayList<>();
+    protected final List<Lesson> lessons = new ArrayList<>();
+    protected final List<User> students = new ArrayList<>();
+    protected final List<User> instructors = new ArrayList<>();
+    protected final List<ScheduledLesson> scheduledLessons = new ArrayList<>();
+    protected final List<ProposedTimeSlot> proposedTimeSlots = new ArrayList<>();
+    protected final List<Vote> votes = new ArrayList<>();
+
+    private Statistics statistics;
+
+    @BeforeAll
+    void seed() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        // Committed once; the per-test transactions only read it or roll their changes back
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> seedData());
+    }
+
+    private void seedData() {
+        for (int w = 0; w < WORKSHOPS; w++) {
+            Workshop workshop = new Workshop();
+            workshop.setName("Workshop " + w);
+            workshop.setSize(20 + w);
+            entityManager.persist(workshop);
+            workshops.add(workshop);
+
+            for (int a = 0; a < ACTIVITIES_PER_WORKSHOP; a++) {
+                Activity activity = new Activity();
+                activity.setName("Activity " + w + "-" + a);
+                activity.setWorkshop(workshop);
+                entityManager.persist(activity);
+                activities.add(activity);
+
+                for (int l = 0; l < LESSONS_PER_ACTIVITY; l++) {
+                    Lesson lesson = new Lesson();
+                    lesson.setName("Lesson " + w + "-" + a + "-" + l);
+                    lesson.setActivity(activity);
+                    entityManager.persist(lesson);
+                    lessons.add(lesson);
+                }
+            }
+        }
+
+        for (int i = 0; i < INSTRUCTORS; i++) {
+            instructors.add(persistUser("instructor" + i + "@example.com", UserType.INSTRUCTOR));
+        }
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(persistUser("student" + i + "@example.com", UserType.NORMAL));
+        }
+
+        // One open (unscheduled) lesson instance per lesson, each with proposed slots and votes
+        int voter = 0;
+        for (int i = 0; i < lessons.size(); i++) {
+            ScheduledLesson scheduledLesson = new ScheduledLesson();
+            scheduledLesson.setLesson(lessons.get(i));
+            scheduledLesson.setInstructor(instructors.get(i % INSTRUCTORS));
+            scheduledLesson.setDurationInMinutes(90L);
+            scheduledLesson.setStartTime(Optional.empty());
+            entityManager.persist(scheduledLesson);
+            scheduledLessons.add(scheduledLesson);
+
+            for (int s = 0; s < SLOTS_PER_SCHEDULED_LESSON; s++) {
+                ProposedTimeSlot slot = new ProposedTimeSlot();
+                slot.setScheduledLesson(scheduledLesson);
+                slot.setProposedStartTime(OffsetDateTime.of(2030, 1 + s, 1 + i % 28, 10, 0, 0, 0, ZoneOffset.UTC));
+                entityManager.persist(slot);
+                proposedTimeSlots.add(slot);
+
+                for (int v = 0; v < VOTES_PER_SLOT; v++) {
+                    Vote vote = new Vote();
+                    vote.setProposedTimeSlot(slot);
+                    vote.setUser(students.get(voter++ % STUDENTS));
+                    entityManager.persist(vote);
+                    votes.add(vote);
+                }
+            }
+        }
+
+        // The first student is interested in every lesson of the first workshop
+        for (int i = 0; i < ACTIVITIES_PER_WORKSHOP * LESSONS_PER_ACTIVITY; i++) {
+            LessonUser lessonUser = new LessonUser();
+            lessonUser.setLesson(lessons.get(i));
+            lessonUser.setUser(students.get(0));
+            entityManager.persist(lessonUser);
+        }
+    }
+
+    private User persistUser(String email, UserType userType) {
+        User user = User.builder()
+                .email(email)
+                .password("password")
+                .firstName("First")
+                .lastName("Last")
+                .userType(userType)
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+
+    /**
+     * Runs the action with an empty persistence context and fails when it needs more SQL statements than the
+     * budget. Pending writes are flushed so that they are counted too.
+     */
+    protected long assertQueryCount(String description, long budget, Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        action.run();
+        entityManager.flush();
+
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(statements)
+                .as("%s issued %d SQL statements, budget is %d", description, statements, budget)
+                .isLessThanOrEqualTo(budget);
+        return statements;
+    }
+}
@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
@@ -64,4 +66,26 @@ class ActivityRepositoryTest {
         assertThat(activities).extracting(Activity::getName)
                 .containsExactlyInAnyOrder("Activity 1", "Activity 2");
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenFindByIdGreaterThan_thenReturnNextKeysetPage() {
+        // given
+        Activity first = new Activity();
+        first.setName("First");
+        Activity second = new Activity();
+        second.setName("Second");
+        Activity third = new Activity();
+        third.setName("Third");
+        entityManager.persist(first);
+        entityManager.persist(second);
+        entityManager.persist(third);
+        entityManager.flush();
+
+        // when
+        List<Activity> page = activityRepository.findByIdGreaterThan(
+                first.getId(), PageRequest.of(0, 1, Sort.by("id")));
+
+        // then
+        assertThat(page).extracting(Activity::getName).containsExactly("Second");
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.pooya1361.makerspace.repository;
+
+import com.github.pooya1361.makerspace.model.*;
+import com.github.pooya1361.makerspace.model.enums.EmailOutboxStatus;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class EmailOutboxRepositoryTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2030, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    private Lesson lesson;
+
+    @BeforeEach
+    void setUp() {
+        Workshop workshop = new Workshop();
+        workshop.setName("Wood workshop");
+        entityManager.persist(workshop);
+
+        Activity activity = new Activity();
+        activity.setName("Turning");
+        activity.setWorkshop(workshop);
+        entityManager.persist(activity);
+
+        lesson = new Lesson();
+        lesson.setName("Bowls");
+        lesson.setActivity(activity);
+        entityManager.persist(lesson);
+    }
+
+    @Test
+    void enqueueForInterestedUsers_QueuesOneEmailPerInterestedUser() {
+        // given
+        interested(user("first@example.com", "Ada"), lesson);
+        interested(user("second@example.com", null), lesson);
+        Lesson otherLesson = new Lesson();
+        otherLesson.setName("Spoons");
+        otherLesson.setActivity(lesson.getActivity());
+        entityManager.persist(otherLesson);
+        interested(user("third@example.com", "Grace"), otherLesson);
+        entityManager.flush();
+
+        // when
+        int queued = emailOutboxRepository.enqueueForInterestedUsers(lesson.getId(), 10L, 20L, "Bowls",
+                EmailOutboxStatus.PENDING, NOW);
+        entityManager.clear();
+
+        // then
+        assertThat(queued).isEqualTo(2);
+        assertThat(emailOutboxRepository.findAll())
+                .extracting(EmailOutbox::getRecipientEmail, EmailOutbox::getRecipientName, EmailOutbox::getScheduledLessonId,
+                        EmailOutbox::getProposedTimeSlotId, EmailOutbox::getLessonName, EmailOutbox::getStatus,
+                        EmailOutbox::getAttempts)
+                .containsExactlyInAnyOrder(
+                        tuple("first@example.com", "Ada", 10L, 20L, "Bowls", EmailOutboxStatus.PENDING, 0),
+                        tuple("second@example.com", null, 10L, 20L, "Bowls", EmailOutboxStatus.PENDING, 0));
+    }
+
+    @Test
+    void findDueForUpdate_ReturnsPendingDueRowsInIdOrder() {
+        // given
+        EmailOutbox due = outbox(EmailOutboxStatus.PENDING, NOW.minusMinutes(1));
+        EmailOutbox dueNow = outbox(EmailOutboxStatus.PENDING, NOW);
+        outbox(EmailOutboxStatus.PENDING, NOW.plusMinutes(1));
+        outbox(EmailOutboxStatus.SENT, NOW.minusMinutes(1));
+        outbox(EmailOutboxStatus.FAILED, NOW.minusMinutes(1));
+        entityManager.flush();
+
+        // when
+        List<EmailOutbox> found = emailOutboxRepository.findDueForUpdate(EmailOutboxStatus.PENDING, NOW, PageRequest.of(0, 10));
+
+        // then
+        assertThat(found).extracting(EmailOutbox::getId).containsExactly(due.getId(), dueNow.getId());
+        assertThat(emailOutboxRepository.findDueForUpdate(EmailOutboxStatus.PENDING, NOW, PageRequest.of(0, 1)))
+                .extracting(EmailOutbox::getId).containsExactly(due.getId());
+    }
+
+    @Test
+    void claimAndSettle_UpdateAttemptsLeaseAndStatus() {
+        // given
+        EmailOutbox sent = outbox(EmailOutboxStatus.PENDING, NOW);
+        EmailOutbox failed = outbox(EmailOutboxStatus.PENDING, NOW);
+        entityManager.flush();
+
+        // when
+        emailOutboxRepository.claim(List.of(sent.getId(), failed.getId()), NOW.plusMinutes(5));
+        emailOutboxRepository.markSent(List.of(sent.getId()), EmailOutboxStatus.SENT, NOW);
+        emailOutboxRepository.markAttemptFailed(failed.getId(), EmailOutboxStatus.PENDING, NOW.plusSeconds(30), "timeout");
+        entityManager.clear();
+
+        // then
+        assertThat(emailOutboxRepository.findById(sent.getId())).hasValueSatisfying(email -> {
+            assertThat(email.getStatus()).isEqualTo(EmailOutboxStatus.SENT);
+            assertThat(email.getAttempts()).isEqualTo(1);
+            assertThat(email.getSentAt()).isNotNull();
+        });
+        assertThat(emailOutboxRepository.findById(failed.getId())).hasValueSatisfying(email -> {
+            assertThat(email.getStatus()).isEqualTo(EmailOutboxStatus.PENDING);
+            assertThat(email.getAttempts()).isEqualTo(1);
+            assertThat(email.getNextAttemptAt().toInstant()).isEqualTo(NOW.plusSeconds(30).toInstant());
+            assertThat(email.getLastError()).isEqualTo("timeout");
+        });
+        assertThat(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING)).isEqualTo(1);
+    }
+
+    private User user(String email, String firstName) {
+        return entityManager.persist(User.builder()
+                .email(email)
+                .password("password")
+                .firstName(firstName)
+                .userType(UserType.NORMAL)
+                .build());
+    }
+
+    private void interested(User user, Lesson lesson) {
+        LessonUser lessonUser = new LessonUser();
+        lessonUser.setUser(user);
+        lessonUser.setLesson(lesson);
+        entityManager.persist(lessonUser);
+    }
+
+    private EmailOutbox outbox(EmailOutboxStatus status, OffsetDateTime nextAttemptAt) {
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipientEmail("student@example.com");
+        email.setScheduledLessonId(10L);
+        email.setStatus(status);
+        email.setNextAttemptAt(nextAttemptAt);
+        email.setCreatedAt(NOW);
+        return entityManager.persist(email);
+    }
+}
@@ -0,0 +1,195 @@
+package com.github.pooya1361.makerspace.repository;
+
+import com.github.pooya1361.makerspace.model.*;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class ProposedTimeSlotRepositoryTest {
+
+    private static final OffsetDateTime BASE_TIME = OffsetDateTime.of(2030, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProposedTimeSlotRepository proposedTimeSlotRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Lesson lesson;
+
+    @BeforeEach
+    void setUp() {
+        Workshop workshop = new Workshop();
+        workshop.setName("Wood workshop");
+        entityManager.persist(workshop);
+
+        Activity activity = new Activity();
+        activity.setName("Turning");
+        activity.setWorkshop(workshop);
+        entityManager.persist(activity);
+
+        lesson = new Lesson();
+        lesson.setName("Bowls");
+        lesson.setActivity(activity);
+        entityManager.persist(lesson);
+    }
+
+    @Test
+    void adjustVoteCount_MaintainsTalliesWithoutTouchingVotes() {
+        // given
+        ScheduledLesson scheduledLesson = scheduledLesson();
+        ProposedTimeSlot popular = slot(scheduledLesson, 1);
+        ProposedTimeSlot empty = slot(scheduledLesson, 2);
+        ProposedTimeSlot otherLessonSlot = slot(scheduledLesson(), 1);
+        entityManager.flush();
+
+        // when
+        proposedTimeSlotRepository.adjustVoteCount(popular.getId(), 1);
+        proposedTimeSlotRepository.adjustVoteCount(popular.getId(), 1);
+        proposedTimeSlotRepository.adjustVoteCount(otherLessonSlot.getId(), 1);
+        entityManager.clear();
+
+        // then
+        assertThat(proposedTimeSlotRepository.findVoteTalliesByScheduledLessonId(scheduledLesson.getId()))
+                .extracting(ProposedTimeSlotRepository.VoteTally::getProposedTimeSlotId, ProposedTimeSlotRepository.VoteTally::getVotes)
+                .containsExactly(tuple(popular.getId(), 2L), tuple(empty.getId(), 0L));
+    }
+
+    @Test
+    void backfillMigration_RebuildsCountersFromVotes() {
+        // given
+        ScheduledLesson scheduledLesson = scheduledLesson();
+        ProposedTimeSlot popular = slot(scheduledLesson, 1);
+        ProposedTimeSlot empty = slot(scheduledLesson, 2);
+        vote(user("first@example.com"), popular);
+        vote(user("second@example.com"), popular);
+        entityManager.flush();
+        proposedTimeSlotRepository.adjustVoteCount(empty.getId(), 5);
+
+        // when
+        ScriptUtils.executeSqlScript(DataSourceUtils.getConnection(dataSource),
+                new ClassPathResource("db/migration/V6__backfill_vote_count.sql"));
+        entityManager.clear();
+
+        // then
+        assertThat(proposedTimeSlotRepository.findVoteTalliesByScheduledLessonId(scheduledLesson.getId()))
+                .extracting(ProposedTimeSlotRepository.VoteTally::getProposedTimeSlotId, ProposedTimeSlotRepository.VoteTally::getVotes)
+                .containsExactly(tuple(popular.getId(), 2L), tuple(empty.getId(), 0L));
+    }
+
+    @Test
+    void save_DoesNotOverwriteMaintainedCount() {
+        // given
+        ProposedTimeSlot slot = slot(scheduledLesson(), 1);
+        entityManager.flush();
+        proposedTimeSlotRepository.adjustVoteCount(slot.getId(), 3);
+
+        // when: the managed entity still holds the old count
+        slot.setProposedStartTime(BASE_TIME.plusDays(7));
+        entityManager.flush();
+        entityManager.clear();
+
+        // then
+        assertThat(proposedTimeSlotRepository.findById(slot.getId()))
+                .hasValueSatisfying(found -> assertThat(found.getVoteCount()).isEqualTo(3));
+    }
+
+    @Test
+    void findTargetById_ReturnsSlotAndScheduledLessonOfVote() {
+        // given
+        ScheduledLesson scheduledLesson = scheduledLesson();
+        ProposedTimeSlot slot = slot(scheduledLesson, 1);
+        Vote vote = vote(user("first@example.com"), slot);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        Optional<VoteRepository.VoteTarget> target = voteRepository.findTargetById(vote.getId());
+
+        // then
+        assertThat(target).hasValueSatisfying(found -> {
+            assertThat(found.getProposedTimeSlotId()).isEqualTo(slot.getId());
+            assertThat(found.getScheduledLessonId()).isEqualTo(scheduledLesson.getId());
+        });
+        assertThat(voteRepository.findTargetById(-1L)).isEmpty();
+    }
+
+    @Test
+    void insertAllIfAbsent_InsertsInOneBatchAndSkipsExistingVotes() {
+        // given
+        ScheduledLesson scheduledLesson = scheduledLesson();
+        ProposedTimeSlot voted = slot(scheduledLesson, 1);
+        ProposedTimeSlot fresh = slot(scheduledLesson, 2);
+        User user = user("first@example.com");
+        Vote existing = vote(user, voted);
+        entityManager.flush();
+
+        // when
+        List<Long> inserted = voteRepository.insertAllIfAbsent(user.getId(), List.of(voted.getId(), fresh.getId()));
+
+        // then
+        assertThat(inserted).containsExactly(fresh.getId());
+        assertThat(voteRepository.findUserVotesOnSlots(user.getId(), List.of(voted.getId(), fresh.getId())))
+                .extracting(VoteRepository.UserVote::getProposedTimeSlotId, VoteRepository.UserVote::getVoteId)
+                .contains(tuple(voted.getId(), existing.getId()))
+                .extracting(tuple -> tuple.toArray()[0])
+                .containsExactlyInAnyOrder(voted.getId(), fresh.getId());
+    }
+
+    private ScheduledLesson scheduledLesson() {
+        ScheduledLesson scheduledLesson = new ScheduledLesson();
+        scheduledLesson.setLesson(lesson);
+        scheduledLesson.setStartTime(Optional.empty());
+        scheduledLesson.setDurationInMinutes(60L);
+        return entityManager.persist(scheduledLesson);
+    }
+
+    private ProposedTimeSlot slot(ScheduledLesson scheduledLesson, int dayOffset) {
+        ProposedTimeSlot slot = new ProposedTimeSlot();
+        slot.setScheduledLesson(scheduledLesson);
+        slot.setProposedStartTime(BASE_TIME.plusDays(dayOffset));
+        return entityManager.persist(slot);
+    }
+
+    private User user(String email) {
+        return entityManager.persist(User.builder()
+                .email(email)
+                .password("password")
+                .userType(UserType.NORMAL)
+                .build());
+    }
+
+    private Vote vote(User user, ProposedTimeSlot slot) {
+        Vote vote = new Vote();
+        vote.setUser(user);
+        vote.setProposedTimeSlot(slot);
+        return entityManager.persist(vote);
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.pooya1361.makerspace.repository;
+
+import com.github.pooya1361.makerspace.dto.response.ScheduledLessonResponseDTO;
+import com.github.pooya1361.makerspace.mapper.ScheduledLessonMapper;
+import com.github.pooya1361.makerspace.model.*;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Maps whole scheduled lesson graphs (lesson -> activity -> workshop, instructor, slots -> votes -> user)
+ * and checks that the number of SQL statements does not grow with the number of scheduled lessons.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+@Import(ScheduledLessonQueryCountTest.MapperConfig.class)
+class ScheduledLessonQueryCountTest {
+
+    // Main query with the joined fetch plan, one batch for the votes and one for the voting users
+    private static final long MAX_QUERIES = 3;
+
+    @TestConfiguration
+    @ComponentScan(basePackageClasses = ScheduledLessonMapper.class)
+    static class MapperConfig {
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ScheduledLessonRepository scheduledLessonRepository;
+
+    @Autowired
+    private ScheduledLessonMapper scheduledLessonMapper;
+
+    private Statistics statistics;
+    private int seeded;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findAll_MappingFullGraph_UsesConstantNumberOfQueries() {
+        seed(3);
+        long fewLessons = countQueries(() -> scheduledLessonMapper.toDtoList(scheduledLessonRepository.findAll()));
+
+        seed(12);
+        List<ScheduledLessonResponseDTO> mapped = scheduledLessonMapper.toDtoList(scheduledLessonRepository.findAll());
+        long manyLessons = countQueries(() -> scheduledLessonMapper.toDtoList(scheduledLessonRepository.findAll()));
+
+        assertThat(mapped).hasSize(15);
+        assertThat(mapped.get(0).getProposedTimeSlots()).hasSize(3)
+                .allSatisfy(slot -> assertThat(slot.getVotes()).hasSize(2));
+        assertThat(mapped.get(0).getLesson().getActivity().getWorkshop()).isNotNull();
+        assertThat(fewLessons).isLessThanOrEqualTo(MAX_QUERIES);
+        assertThat(manyLessons).isEqualTo(fewLessons);
+    }
+
+    @Test
+    void findAllPaged_MappingFullGraph_UsesConstantNumberOfQueries() {
+        seed(4);
+        long smallPage = countQueries(() ->
+                scheduledLessonMapper.toDtoList(scheduledLessonRepository.findAll(PageRequest.of(0, 2)).getContent()));
+        long largePage = countQueries(() ->
+                scheduledLessonMapper.toDtoList(scheduledLessonRepository.findAll(PageRequest.of(0, 4)).getContent()));
+
+        // Page query, count query, then one batch each for slots, votes and voting users
+        assertThat(smallPage).isLessThanOrEqualTo(5);
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    @Test
+    void findWithDetailsById_MappingFullGraph_UsesConstantNumberOfQueries() {
+        seed(1);
+        Long id = scheduledLessonRepository.findAll().get(0).getId();
+        entityManager.clear();
+
+        long queries = countQueries(() -> scheduledLessonRepository.findWithDetailsById(id).map(scheduledLessonMapper::toDto));
+
+        assertThat(queries).isLessThanOrEqualTo(MAX_QUERIES);
+    }
+
+    private long countQueries(Supplier<?> action) {
+        entityManager.clear();
+        statistics.clear();
+        action.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Each scheduled lesson gets its own lesson, activity, workshop and instructor, 3 slots and 2 votes per slot
+    private void seed(int count) {
+        for (int i = 0; i < count; i++) {
+            int n = seeded++;
+            Workshop workshop = new Workshop();
+            workshop.setName("Workshop " + n);
+            workshop.setSize(20);
+            entityManager.persist(workshop);
+
+            Activity activity = new Activity();
+            activity.setName("Activity " + n);
+            activity.setWorkshop(workshop);
+            entityManager.persist(activity);
+
+            Lesson lesson = new Lesson();
+            lesson.setName("Lesson " + n);
+            lesson.setActivity(activity);
+            entityManager.persist(lesson);
+
+            User instructor = user("instructor" + n + "@example.com", UserType.INSTRUCTOR);
+
+            ScheduledLesson scheduledLesson = new ScheduledLesson();
+            scheduledLesson.setLesson(lesson);
+            scheduledLesson.setInstructor(instructor);
+            scheduledLesson.setDurationInMinutes(60L);
+            entityManager.persist(scheduledLesson);
+
+            for (int s = 0; s < 3; s++) {
+                ProposedTimeSlot slot = new ProposedTimeSlot();
+                slot.setScheduledLesson(scheduledLesson);
+                slot.setProposedStartTime(OffsetDateTime.of(2030, 1, 1 + s, 10, 0, 0, 0, ZoneOffset.UTC));
+                entityManager.persist(slot);
+
+                for (int v = 0; v < 2; v++) {
+                    Vote vote = new Vote();
+                    vote.setProposedTimeSlot(slot);
+                    vote.setUser(user("voter" + n + "-" + s + "-" + v + "@example.com", UserType.NORMAL));
+                    entityManager.persist(vote);
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private User user(String email, UserType userType) {
+        return entityManager.persist(User.builder()
+                .email(email)
+                .password("password")
+                .userType(userType)
+                .build());
+    }
+}
@@ -0,0 +1,311 @@
+package com.github.pooya1361.makerspace.repository;
+
+import com.github.pooya1361.makerspace.model.*;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class ScheduledLessonRepositoryTest {
+
+    private static final OffsetDateTime BASE_TIME = OffsetDateTime.of(2030, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ScheduledLessonRepository scheduledLessonRepository;
+
+    @Autowired
+    private LessonUserRepository lessonUserRepository;
+
+    private Activity activity;
+    private User student;
+    private User otherStudent;
+
+    @BeforeEach
+    void setUp() {
+        Workshop workshop = new Workshop();
+        workshop.setName("Wood workshop");
+        entityManager.persist(workshop);
+
+        activity = new Activity();
+        activity.setName("Turning");
+        activity.setWorkshop(workshop);
+        entityManager.persist(activity);
+
+        student = user("student@example.com");
+        otherStudent = user("other@example.com");
+    }
+
+    @Test
+    void findAvailableByLessonIdIn_ReturnsOpenScheduledLessonsWithEarliestSlot() {
+        // given
+        Lesson interested = lesson("Interested", student, false);
+        Lesson other = lesson("Other", otherStudent, false);
+
+        ScheduledLesson open = scheduledLesson(interested, null, 5, 2, 9);
+        scheduledLesson(interested, BASE_TIME, 0);   // already fixed
+        scheduledLesson(interested, null);           // no proposed slots
+        scheduledLesson(other, null, 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<ScheduledLessonRepository.AvailableScheduledLesson> rows =
+                scheduledLessonRepository.findAvailableByLessonIdIn(List.of(interested.getId()));
+
+        // then
+        assertThat(rows).singleElement().satisfies(row -> {
+            assertThat(row.getScheduledLessonId()).isEqualTo(open.getId());
+            assertThat(row.getLessonId()).isEqualTo(interested.getId());
+            assertThat(row.getEarliestStart()).isAtSameInstantAs(BASE_TIME.plusDays(2));
+        });
+    }
+
+    @Test
+    void findAvailableById_EmptyOnceStartTimeIsSet() {
+        // given
+        Lesson lesson = lesson("Interested", student, false);
+        ScheduledLesson open = scheduledLesson(lesson, null, 1);
+        ScheduledLesson fixed = scheduledLesson(lesson, BASE_TIME, 1);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when & then
+        assertThat(scheduledLessonRepository.findAvailableById(open.getId())).isPresent();
+        assertThat(scheduledLessonRepository.findAvailableById(fixed.getId())).isEmpty();
+    }
+
+    @Test
+    void pendingLessonQueries_IgnoreAcquiredLessonsAndOtherUsers() {
+        // given
+        Lesson interested = lesson("Interested", student, false);
+        Lesson acquired = lesson("Acquired", student, true);
+        lesson("Other", otherStudent, false);
+        entityManager.flush();
+
+        // when & then
+        assertThat(lessonUserRepository.findPendingLessonIdsByUserEmail("student@example.com"))
+                .containsExactly(interested.getId());
+        assertThat(lessonUserRepository.existsPendingByUserEmailAndLessonId("student@example.com", interested.getId()))
+                .isTrue();
+        assertThat(lessonUserRepository.existsPendingByUserEmailAndLessonId("student@example.com", acquired.getId()))
+                .isFalse();
+    }
+
+    @Test
+    void findWithDetailsByIdIn_LoadsRequestedLessonsWithSlots() {
+        // given
+        Lesson lesson = lesson("Interested", student, false);
+        ScheduledLesson first = scheduledLesson(lesson, null, 1, 2);
+        scheduledLesson(lesson, null, 3);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<ScheduledLesson> found = scheduledLessonRepository.findWithDetailsByIdIn(List.of(first.getId()));
+
+        // then
+        assertThat(found).hasSize(1);
+        assertThat(found.get(0).getProposedTimeSlots()).hasSize(2);
+        assertThat(found.get(0).getLesson().getActivity().getWorkshop().getName()).isEqualTo("Wood workshop");
+    }
+
+    @Test
+    void markNotifiedIfNotSince_ClaimsOncePerCooldown() {
+        // given
+        ScheduledLesson scheduledLesson = scheduledLesson(lesson("Interested", student, false), null, 1);
+        entityManager.flush();
+
+        // when & then: first notification, then one within the cooldown, then one after it
+        assertThat(scheduledLessonRepository.markNotifiedIfNotSince(scheduledLesson.getId(), BASE_TIME, BASE_TIME.minusMinutes(30)))
+                .isEqualTo(1);
+        assertThat(scheduledLessonRepository.markNotifiedIfNotSince(scheduledLesson.getId(), BASE_TIME.plusMinutes(10), BASE_TIME.minusMinutes(20)))
+                .isZero();
+        assertThat(scheduledLessonRepository.findLastNotifiedAtById(scheduledLesson.getId()))
+                .hasValueSatisfying(notifiedAt -> assertThat(notifiedAt).isAtSameInstantAs(BASE_TIME));
+        assertThat(scheduledLessonRepository.markNotifiedIfNotSince(scheduledLesson.getId(), BASE_TIME.plusMinutes(31), BASE_TIME.plusMinutes(1)))
+                .isEqualTo(1);
+        assertThat(scheduledLessonRepository.markNotifiedIfNotSince(-1L, BASE_TIME, BASE_TIME)).isZero();
+    }
+
+    @Test
+    void save_DoesNotOverwriteLastNotifiedAt() {
+        // given
+        ScheduledLesson scheduledLesson = scheduledLesson(lesson("Interested", student, false), null);
+        entityManager.flush();
+        scheduledLessonRepository.markNotifiedIfNotSince(scheduledLesson.getId(), BASE_TIME, BASE_TIME.minusMinutes(30));
+
+        // when: the managed entity still holds no notification time
+        scheduledLesson.setDurationInMinutes(90L);
+        entityManager.flush();
+        entityManager.clear();
+
+        // then
+        assertThat(scheduledLessonRepository.findLastNotifiedAtById(scheduledLesson.getId())).isPresent();
+    }
+
+    @Test
+    void findBookedStartingBetween_ReturnsLessonsStartingInRangeWithInstructorAndWorkshop() {
+        // given
+        Lesson lesson = lesson("Interested", student, false);
+        ScheduledLesson inRange = scheduledLesson(lesson, BASE_TIME.plusHours(1));
+        inRange.setInstructor(otherStudent);
+        scheduledLesson(lesson, BASE_TIME.plusDays(1));   // starts at the end of the range
+        scheduledLesson(lesson, null, 0);                  // not booked
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<ScheduledLessonRepositoryCustom.BookedLesson> booked =
+                scheduledLessonRepository.findBookedStartingBetween(BASE_TIME, BASE_TIME.plusDays(1));
+
+        // then
+        assertThat(booked).singleElement().satisfies(row -> {
+            assertThat(row.scheduledLessonId()).isEqualTo(inRange.getId());
+            assertThat(row.instructorId()).isEqualTo(otherStudent.getId());
+            assertThat(row.workshopId()).isEqualTo(activity.getWorkshop().getId());
+            assertThat(row.startTime()).isAtSameInstantAs(BASE_TIME.plusHours(1));
+            assertThat(row.durationInMinutes()).isEqualTo(60L);
+        });
+    }
+
+    @Test
+    void findWithDetailsStartingBetween_ReturnsRangeInStartOrderWithDetails() {
+        // given
+        Lesson lesson = lesson("Interested", student, false);
+        ScheduledLesson later = scheduledLesson(lesson, BASE_TIME.plusDays(3), 1);
+        ScheduledLesson earlier = scheduledLesson(lesson, BASE_TIME.plusDays(1));
+        scheduledLesson(lesson, BASE_TIME.plusDays(7));     // starts at the end of the range
+        scheduledLesson(lesson, null, 2);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<ScheduledLesson> found = scheduledLessonRepository.findWithDetailsStartingBetween(BASE_TIME, BASE_TIME.plusDays(7));
+
+        // then
+        assertThat(found).extracting(ScheduledLesson::getId).containsExactly(earlier.getId(), later.getId());
+        assertThat(found.get(1).getProposedTimeSlots()).hasSize(1);
+        assertThat(found.get(1).getLesson().getActivity().getWorkshop().getName()).isEqualTo("Wood workshop");
+    }
+
+    @Test
+    void findAllBookedAndFindBookedById_OnlyLessonsWithStartTime() {
+        // given
+        Lesson lesson = lesson("Interested", student, false);
+        ScheduledLesson booked = scheduledLesson(lesson, BASE_TIME);
+        ScheduledLesson open = scheduledLesson(lesson, null, 1);
+        activity.getWorkshop().setSize(60);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when & then
+        assertThat(scheduledLessonRepository.findAllBooked())
+                .extracting(ScheduledLessonRepositoryCustom.BookedLesson::scheduledLessonId)
+                .containsExactly(booked.getId());
+        assertThat(scheduledLessonRepository.findBookedById(booked.getId()))
+                .hasValueSatisfying(row -> assertThat(row.workshopSize()).isEqualTo(60.0));
+        assertThat(scheduledLessonRepository.findBookedById(open.getId())).isEmpty();
+    }
+
+    @Test
+    void findCalendarEvents_ByUserAndWorkshop_OnlyBookedLessonsInStartOrder() {
+        // given
+        Lesson interested = lesson("Interested", student, false);
+        Lesson acquired = lesson("Acquired", otherStudent, true);
+        ScheduledLesson later = scheduledLesson(interested, BASE_TIME.plusDays(2));
+        ScheduledLesson earlier = scheduledLesson(interested, BASE_TIME);
+        scheduledLesson(interested, null, 1);
+        ScheduledLesson taught = scheduledLesson(acquired, BASE_TIME.plusDays(1));
+        taught.setInstructor(student);
+        ScheduledLesson notTaught = scheduledLesson(acquired, BASE_TIME.plusDays(3));
+        entityManager.flush();
+        entityManager.clear();
+
+        // when & then
+        assertThat(scheduledLessonRepository.findCalendarEventsByUserId(student.getId()))
+                .extracting(ScheduledLessonRepositoryCustom.CalendarEvent::scheduledLessonId)
+                .containsExactly(earlier.getId(), taught.getId(), later.getId());
+        assertThat(scheduledLessonRepository.findCalendarEventsByUserId(otherStudent.getId())).isEmpty();
+        assertThat(scheduledLessonRepository.findCalendarEventsByWorkshopId(activity.getWorkshop().getId()))
+                .extracting(ScheduledLessonRepositoryCustom.CalendarEvent::scheduledLessonId)
+                .containsExactly(earlier.getId(), taught.getId(), later.getId(), notTaught.getId());
+        assertThat(scheduledLessonRepository.findCalendarEventById(taught.getId())).hasValueSatisfying(row -> {
+            assertThat(row.lessonName()).isEqualTo("Acquired");
+            assertThat(row.workshopName()).isEqualTo("Wood workshop");
+            assertThat(row.instructorId()).isEqualTo(student.getId());
+            assertThat(row.startTime()).isEqualTo(BASE_TIME.plusDays(1));
+        });
+        assertThat(lessonUserRepository.findPendingUserIdsByLessonId(interested.getId())).containsExactly(student.getId());
+        assertThat(lessonUserRepository.findPendingUserIdsByLessonId(acquired.getId())).isEmpty();
+    }
+
+    @Test
+    void findIdsAwaitingStartTime_ReturnsOpenLessonsWithSlotsOnce() {
+        // given
+        Lesson lesson = lesson("Interested", student, false);
+        ScheduledLesson open = scheduledLesson(lesson, null, 1, 2);
+        scheduledLesson(lesson, null);                     // nothing to choose from
+        scheduledLesson(lesson, BASE_TIME, 1);             // already booked
+        entityManager.flush();
+
+        // when & then
+        assertThat(scheduledLessonRepository.findIdsAwaitingStartTime()).containsExactly(open.getId());
+        assertThat(scheduledLessonRepository.findMaxBookedDurationInMinutes()).contains(60L);
+    }
+
+    private User user(String email) {
+        return entityManager.persist(User.builder()
+                .email(email)
+                .password("password")
+                .userType(UserType.NORMAL)
+                .build());
+    }
+
+    private Lesson lesson(String name, User user, boolean acquired) {
+        Lesson lesson = new Lesson();
+        lesson.setName(name);
+        lesson.setActivity(activity);
+        entityManager.persist(lesson);
+
+        LessonUser lessonUser = new LessonUser();
+        lessonUser.setLesson(lesson);
+        lessonUser.setUser(user);
+        lessonUser.setAcquired(acquired);
+        entityManager.persist(lessonUser);
+        return lesson;
+    }
+
+    // Creates a scheduled lesson with a proposed slot for each of the given day offsets from BASE_TIME
+    private ScheduledLesson scheduledLesson(Lesson lesson, OffsetDateTime startTime, int... slotDayOffsets) {
+        ScheduledLesson scheduledLesson = new ScheduledLesson();
+        scheduledLesson.setLesson(lesson);
+        scheduledLesson.setStartTime(Optional.ofNullable(startTime));
+        scheduledLesson.setDurationInMinutes(60L);
+        entityManager.persist(scheduledLesson);
+
+        for (int dayOffset : slotDayOffsets) {
+            ProposedTimeSlot slot = new ProposedTimeSlot();
+            slot.setScheduledLesson(scheduledLesson);
+            slot.setProposedStartTime(BASE_TIME.plusDays(dayOffset));
+            entityManager.persist(slot);
+        }
+        return scheduledLesson;
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.pooya1361.makerspace.repository;
+
+import com.github.pooya1361.makerspace.model.Activity;
+import com.github.pooya1361.makerspace.model.Lesson;
+import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.Workshop;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class SummaryRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SummaryRepository summaryRepository;
+
+    @Test
+    void countAll_ReturnsEveryTotalInOneRow() {
+        // given
+        Workshop workshop = new Workshop();
+        workshop.setName("Wood workshop");
+        entityManager.persist(workshop);
+
+        Activity activity = new Activity();
+        activity.setName("Turning");
+        activity.setWorkshop(workshop);
+        entityManager.persist(activity);
+
+        for (int i = 0; i < 2; i++) {
+            Lesson lesson = new Lesson();
+            lesson.setName("Lesson " + i);
+            lesson.setActivity(activity);
+            entityManager.persist(lesson);
+        }
+
+        entityManager.persist(User.builder()
+                .email("summary@example.com")
+                .password("pw")
+                .userType(UserType.NORMAL)
+                .build());
+        entityManager.flush();
+
+        // when
+        SummaryRepository.SummaryCounts counts = summaryRepository.countAll();
+
+        // then
+        assertThat(counts.getTotalWorkshops()).isEqualTo(1);
+        assertThat(counts.getTotalActivities()).isEqualTo(1);
+        assertThat(counts.getTotalLessons()).isEqualTo(2);
+        assertThat(counts.getTotalScheduledLessons()).isZero();
+        assertThat(counts.getTotalUsers()).isEqualTo(1);
+    }
+}
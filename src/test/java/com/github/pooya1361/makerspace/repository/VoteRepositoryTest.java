@@ -0,0 +1,107 @@
+package com.github.pooya1361.makerspace.repository;
+
+import com.github.pooya1361.makerspace.model.*;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class VoteRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    private User user;
+    private ProposedTimeSlot first;
+    private ProposedTimeSlot second;
+
+    @BeforeEach
+    void setUp() {
+        Lesson lesson = new Lesson();
+        lesson.setName("Bowls");
+        entityManager.persist(lesson);
+
+        ScheduledLesson scheduledLesson = new ScheduledLesson();
+        scheduledLesson.setLesson(lesson);
+        scheduledLesson.setDurationInMinutes(60L);
+        scheduledLesson.setStartTime(Optional.empty());
+        entityManager.persist(scheduledLesson);
+
+        user = User.builder()
+                .email("voter@example.com")
+                .password("password")
+                .userType(UserType.NORMAL)
+                .build();
+        entityManager.persist(user);
+
+        first = slot(scheduledLesson, 10);
+        second = slot(scheduledLesson, 11);
+        entityManager.flush();
+    }
+
+    @Test
+    void insertIfAbsent_NewVote_ReturnsGeneratedId() {
+        // when
+        Optional<Long> id = voteRepository.insertIfAbsent(user.getId(), first.getId());
+
+        // then
+        assertThat(id).isPresent();
+        assertThat(voteRepository.findByUserIdAndProposedTimeSlotId(user.getId(), first.getId()))
+                .map(Vote::getId)
+                .isEqualTo(id);
+    }
+
+    @Test
+    void insertIfAbsent_Duplicate_SkippedWithoutException() {
+        // given
+        Long id = voteRepository.insertIfAbsent(user.getId(), first.getId()).orElseThrow();
+
+        // when
+        Optional<Long> duplicate = voteRepository.insertIfAbsent(user.getId(), first.getId());
+
+        // then: the transaction is still usable
+        assertThat(duplicate).isEmpty();
+        assertThat(voteRepository.count()).isEqualTo(1);
+        assertThat(voteRepository.findByUserIdAndProposedTimeSlotId(user.getId(), first.getId()))
+                .map(Vote::getId)
+                .contains(id);
+    }
+
+    @Test
+    void insertAllIfAbsent_SkipsExistingVotes() {
+        // given
+        voteRepository.insertIfAbsent(user.getId(), first.getId());
+
+        // when
+        List<Long> inserted = voteRepository.insertAllIfAbsent(user.getId(), List.of(first.getId(), second.getId()));
+
+        // then
+        assertThat(inserted).containsExactly(second.getId());
+        assertThat(voteRepository.count()).isEqualTo(2);
+    }
+
+    private ProposedTimeSlot slot(ScheduledLesson scheduledLesson, int hour) {
+        ProposedTimeSlot slot = new ProposedTimeSlot();
+        slot.setScheduledLesson(scheduledLesson);
+        slot.setProposedStartTime(OffsetDateTime.of(2031, 1, 1, hour, 0, 0, 0, ZoneOffset.UTC));
+        entityManager.persist(slot);
+        return slot;
+    }
+}
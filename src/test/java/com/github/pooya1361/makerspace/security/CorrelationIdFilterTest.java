@@ -0,0 +1,48 @@
+package com.github.pooya1361.makerspace.security;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorrelationIdFilterTest {
+
+    private final CorrelationIdFilter filter = new CorrelationIdFilter();
+
+    @Test
+    void doFilter_ReusesValidIncomingRequestId() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/workshops");
+        request.addHeader(CorrelationIdFilter.CORRELATION_ID_HEADER, "abc-123");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> seenInChain = new AtomicReference<>();
+
+        filter.doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res) {
+                seenInChain.set(MDC.get(CorrelationIdFilter.CORRELATION_ID_MDC_KEY));
+            }
+        });
+
+        assertThat(seenInChain.get()).isEqualTo("abc-123");
+        assertThat(response.getHeader(CorrelationIdFilter.CORRELATION_ID_HEADER)).isEqualTo("abc-123");
+        assertThat(MDC.get(CorrelationIdFilter.CORRELATION_ID_MDC_KEY)).isNull();
+    }
+
+    @Test
+    void doFilter_GeneratesIdForMissingOrUnsafeHeader() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/workshops");
+        request.addHeader(CorrelationIdFilter.CORRELATION_ID_HEADER, "bad value\nwith newline");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getHeader(CorrelationIdFilter.CORRELATION_ID_HEADER))
+                .isNotBlank()
+                .doesNotContain("bad value");
+    }
+}
@@ -0,0 +1,256 @@
+package com.github.pooya1361.makerspace.security;
+
+import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import com.github.pooya1361.makerspace.repository.UserRepository;
+import com.github.pooya1361.makerspace.service.UserChangedEvent;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "GT1bzgCAbj3ToNPQIdxQvvJNkiZ2RU2xPpX4WH3jDuY=";
+
+    private final Map<Long, Long> persistedTokenVersions = new HashMap<>();
+    private final Map<Long, Long> persistedFeedTokenVersions = new HashMap<>();
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        persistedTokenVersions.put(1L, 0L);
+        persistedFeedTokenVersions.put(1L, 0L);
+        when(userRepository.findTokenVersionById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(persistedTokenVersions.get(invocation.<Long>getArgument(0))));
+        when(userRepository.findCalendarFeedTokenVersionById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(persistedFeedTokenVersions.get(invocation.<Long>getArgument(0))));
+        jwtService = createJwtService(60_000L, 10);
+
+        user = User.builder()
+                .id(1L)
+                .email("john.doe@example.com")
+                .password("encodedPassword123")
+                .userType(UserType.ADMIN)
+                .build();
+    }
+
+    private JwtService createJwtService(long expiration, int cacheSize) {
+        return createJwtService(expiration, cacheSize, false);
+    }
+
+    private JwtService createJwtService(long expiration, int cacheSize, boolean stateless) {
+        JwtService service = new JwtService(new TokenVersionCache(userRepository, 30, 100), userRepository);
+        ReflectionTestUtils.setField(service, "accessExpiration", expiration);
+        ReflectionTestUtils.setField(service, "statelessAuthentication", stateless);
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(service, "refreshExpiration", expiration);
+        ReflectionTestUtils.setField(service, "claimsCacheMaxSize", cacheSize);
+        service.init();
+        return service;
+    }
+
+    @Test
+    void extractAllClaims_ReturnsSubjectAndUserType() {
+        String token = jwtService.generateToken(user);
+
+        Claims claims = jwtService.extractAllClaims(token);
+
+        assertThat(claims.getSubject()).isEqualTo("john.doe@example.com");
+        assertThat(claims.get("userType", String.class)).isEqualTo("ADMIN");
+    }
+
+    @Test
+    void extractAllClaims_SecondCallIsServedFromCache() {
+        String token = jwtService.generateToken(user);
+
+        Claims first = jwtService.extractAllClaims(token);
+        Claims second = jwtService.extractAllClaims(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(jwtService.getClaimsCache().getMisses()).isEqualTo(1);
+        assertThat(jwtService.getClaimsCache().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void extractAllClaims_TamperedToken_ThrowsAndIsNotCached() {
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtService.extractAllClaims(tampered))
+                .isInstanceOf(SignatureException.class);
+        assertThat(jwtService.getClaimsCache().size()).isZero();
+    }
+
+    @Test
+    void extractAllClaims_ExpiredToken_Throws() {
+        JwtService expiringService = createJwtService(-1_000L, 10);
+        String token = expiringService.generateToken(user);
+
+        assertThatThrownBy(() -> expiringService.extractAllClaims(token))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void isTokenValid_MatchingUser_ReturnsTrue() {
+        String token = jwtService.generateToken(user);
+        UserDetails userDetails = new org.springframework.security.core.userdetails.User(
+                "john.doe@example.com", "encodedPassword123", Collections.emptyList());
+
+        assertThat(jwtService.isTokenValid(token, userDetails)).isTrue();
+    }
+
+    @Test
+    void isTokenValid_DifferentUser_ReturnsFalse() {
+        String token = jwtService.generateToken(user);
+        UserDetails otherUser = new org.springframework.security.core.userdetails.User(
+                "someone.else@example.com", "encodedPassword123", Collections.emptyList());
+
+        assertThat(jwtService.isTokenValid(token, otherUser)).isFalse();
+    }
+
+    @Test
+    void claimsCache_StaysWithinMaxSize() {
+        JwtService smallCacheService = createJwtService(60_000L, 2);
+
+        for (int i = 0; i < 5; i++) {
+            User other = User.builder()
+                    .email("user" + i + "@example.com")
+                    .password("pw")
+                    .userType(UserType.NORMAL)
+                    .build();
+            smallCacheService.extractAllClaims(smallCacheService.generateToken(other));
+        }
+
+        assertThat(smallCacheService.getClaimsCache().size()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void buildUserDetails_UsesUserTypeHierarchyFromClaims() {
+        JwtService statelessService = createJwtService(60_000L, 10, true);
+        String token = statelessService.generateToken(user);
+
+        UserDetails userDetails = statelessService.buildUserDetails(statelessService.extractAllClaims(token));
+
+        assertThat(userDetails).isNotNull();
+        assertThat(userDetails.getUsername()).isEqualTo("john.doe@example.com");
+        assertThat(userDetails.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ADMIN", "INSTRUCTOR", "NORMAL");
+    }
+
+    @Test
+    void buildUserDetails_RefreshToken_ReturnsNull() {
+        String refreshToken = jwtService.generateRefreshToken(user);
+
+        Claims claims = jwtService.extractAllClaims(refreshToken);
+
+        assertThat(jwtService.isRefreshToken(claims)).isTrue();
+        assertThat(jwtService.buildUserDetails(claims)).isNull();
+    }
+
+    @Test
+    void revokeTokens_RejectsTokensWithOlderVersion() {
+        String oldToken = jwtService.generateToken(user);
+        assertThat(jwtService.buildUserDetails(jwtService.extractAllClaims(oldToken))).isNotNull();
+
+        // The version is bumped in the database, e.g. by a password change
+        persistedTokenVersions.put(1L, 1L);
+        jwtService.onUserChanged(new UserChangedEvent(1L, "john.doe@example.com"));
+        user.setTokenVersion(1L);
+        String newToken = jwtService.generateToken(user);
+
+        assertThat(jwtService.buildUserDetails(jwtService.extractAllClaims(oldToken))).isNull();
+        assertThat(jwtService.buildUserDetails(jwtService.extractAllClaims(newToken))).isNotNull();
+    }
+
+    @Test
+    void buildUserDetails_RevokedOnAnotherNode_RejectedWithoutLocalRevocation() {
+        // A fresh node (or one restarted) only knows what the database says
+        persistedTokenVersions.put(1L, 2L);
+        user.setTokenVersion(1L);
+
+        String token = jwtService.generateToken(user);
+
+        assertThat(jwtService.buildUserDetails(jwtService.extractAllClaims(token))).isNull();
+    }
+
+    @Test
+    void buildUserDetails_DeletedUser_ReturnsNull() {
+        persistedTokenVersions.remove(1L);
+
+        String token = jwtService.generateToken(user);
+
+        assertThat(jwtService.buildUserDetails(jwtService.extractAllClaims(token))).isNull();
+    }
+
+    @Test
+    void isTokenValid_ChecksVersionCarriedByThePrincipal() {
+        String token = jwtService.generateToken(user);
+        VersionedUser current = new VersionedUser(1L, "john.doe@example.com", "", 0L, Collections.emptyList());
+        VersionedUser revoked = new VersionedUser(1L, "john.doe@example.com", "", 1L, Collections.emptyList());
+
+        assertThat(jwtService.isTokenValid(token, current)).isTrue();
+        assertThat(jwtService.isTokenValid(token, revoked)).isFalse();
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void calendarFeedToken_VerifiesToItsUserUntilRevoked() {
+        String feedToken = jwtService.generateCalendarFeedToken(user);
+
+        assertThat(jwtService.extractAllClaims(feedToken).getExpiration()).isNull();
+        assertThat(jwtService.verifyCalendarFeedToken(feedToken)).contains(1L);
+
+        persistedTokenVersions.put(1L, 1L);
+        jwtService.onUserChanged(new UserChangedEvent(1L, "john.doe@example.com"));
+
+        assertThat(jwtService.verifyCalendarFeedToken(feedToken)).isEmpty();
+    }
+
+    @Test
+    void calendarFeedToken_Rotated_RevokedWhileAccessTokensStayValid() {
+        String feedToken = jwtService.generateCalendarFeedToken(user);
+        String accessToken = jwtService.generateToken(user);
+
+        persistedFeedTokenVersions.put(1L, 1L);
+        user.setCalendarFeedTokenVersion(1L);
+
+        assertThat(jwtService.verifyCalendarFeedToken(feedToken)).isEmpty();
+        assertThat(jwtService.verifyCalendarFeedToken(jwtService.generateCalendarFeedToken(user))).contains(1L);
+        assertThat(jwtService.buildUserDetails(jwtService.extractAllClaims(accessToken))).isNotNull();
+    }
+
+    @Test
+    void calendarFeedToken_NeverAcceptedAsAccessToken() {
+        String feedToken = jwtService.generateCalendarFeedToken(user);
+        Claims claims = jwtService.extractAllClaims(feedToken);
+        VersionedUser principal = new VersionedUser(1L, "john.doe@example.com", "", 0L, Collections.emptyList());
+
+        assertThat(jwtService.isAccessToken(claims)).isFalse();
+        assertThat(jwtService.isTokenValid(claims, principal)).isFalse();
+        assertThat(jwtService.buildUserDetails(claims)).isNull();
+    }
+
+    @Test
+    void verifyCalendarFeedToken_AccessOrMalformedToken_Empty() {
+        assertThat(jwtService.verifyCalendarFeedToken(jwtService.generateToken(user))).isEmpty();
+        assertThat(jwtService.verifyCalendarFeedToken("not-a-token")).isEmpty();
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.pooya1361.makerspace.security;
+
+import com.github.pooya1361.makerspace.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionCacheTest {
+
+    private static final Instant NOW = Instant.parse("2030-01-01T10:00:00Z");
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private Clock clock;
+
+    private TokenVersionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TokenVersionCache(userRepository, 30, 100, clock);
+    }
+
+    @Test
+    void get_ServedFromMemoryWithinTtlThenReloaded() {
+        when(clock.millis()).thenReturn(NOW.toEpochMilli(), NOW.plusSeconds(29).toEpochMilli(),
+                NOW.plusSeconds(30).toEpochMilli());
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0L), Optional.of(1L));
+
+        assertThat(cache.get(1L)).contains(0L);
+        assertThat(cache.get(1L)).contains(0L);
+        assertThat(cache.get(1L)).contains(1L);
+        verify(userRepository, times(2)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void get_DeletedUserIsCachedAsMissing() {
+        when(clock.millis()).thenReturn(NOW.toEpochMilli());
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThat(cache.get(1L)).isEmpty();
+        assertThat(cache.get(1L)).isEmpty();
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void evict_NextLookupReadsTheDatabase() {
+        when(clock.millis()).thenReturn(NOW.toEpochMilli());
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0L), Optional.of(1L));
+
+        cache.get(1L);
+        cache.evict(1L);
+
+        assertThat(cache.get(1L)).contains(1L);
+    }
+}
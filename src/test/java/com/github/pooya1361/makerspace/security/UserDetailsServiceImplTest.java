@@ -0,0 +1,118 @@
+package com.github.pooya1361.makerspace.security;
+
+import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import com.github.pooya1361.makerspace.repository.UserRepository;
+import com.github.pooya1361.makerspace.service.UserChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserPrincipalCache userPrincipalCache;
+    private UserDetailsServiceImpl userDetailsService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userPrincipalCache = new UserPrincipalCache(300, 100);
+        userDetailsService = new UserDetailsServiceImpl(userRepository, userPrincipalCache);
+
+        user = User.builder()
+                .id(1L)
+                .email("admin@example.com")
+                .password("encodedPassword123")
+                .userType(UserType.ADMIN)
+                .build();
+    }
+
+    @Test
+    void loadUserByUsername_BuildsAuthorityHierarchy() {
+        when(userRepository.findByEmail("admin@example.com")).thenReturn(Optional.of(user));
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername("admin@example.com");
+
+        assertThat(userDetails.getUsername()).isEqualTo("admin@example.com");
+        assertThat(userDetails.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ADMIN", "INSTRUCTOR", "NORMAL");
+    }
+
+    @Test
+    void loadUserByUsername_SecondCallIsServedFromCache() {
+        when(userRepository.findByEmail("admin@example.com")).thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserByUsername("admin@example.com");
+        UserDetails cached = userDetailsService.loadUserByUsername("admin@example.com");
+
+        assertThat(cached.getPassword()).isEqualTo("encodedPassword123");
+        verify(userRepository, times(1)).findByEmail("admin@example.com");
+        assertThat(userPrincipalCache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void loadUserByUsername_AfterEviction_ReloadsFromRepository() {
+        when(userRepository.findByEmail("admin@example.com")).thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserByUsername("admin@example.com");
+        userPrincipalCache.evictById(1L);
+        userDetailsService.loadUserByUsername("admin@example.com");
+
+        verify(userRepository, times(2)).findByEmail("admin@example.com");
+    }
+
+    @Test
+    void loadUserByUsername_CachedPrincipalCarriesTokenVersionUntilUserChanges() {
+        user.setTokenVersion(3L);
+        when(userRepository.findByEmail("admin@example.com")).thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserByUsername("admin@example.com");
+        UserDetails cached = userDetailsService.loadUserByUsername("admin@example.com");
+        userPrincipalCache.onUserChanged(new UserChangedEvent(1L, "admin@example.com"));
+        user.setTokenVersion(4L);
+        UserDetails reloaded = userDetailsService.loadUserByUsername("admin@example.com");
+
+        assertThat(cached).isInstanceOfSatisfying(VersionedUser.class,
+                principal -> assertThat(principal.getTokenVersion()).isEqualTo(3L));
+        assertThat(reloaded).isInstanceOfSatisfying(VersionedUser.class,
+                principal -> assertThat(principal.getTokenVersion()).isEqualTo(4L));
+        verify(userRepository, times(2)).findByEmail("admin@example.com");
+    }
+
+    @Test
+    void loadUserByUsername_ErasedCredentialsDoNotLeakIntoCache() {
+        when(userRepository.findByEmail("admin@example.com")).thenReturn(Optional.of(user));
+
+        UserDetails first = userDetailsService.loadUserByUsername("admin@example.com");
+        ((org.springframework.security.core.userdetails.User) first).eraseCredentials();
+        UserDetails second = userDetailsService.loadUserByUsername("admin@example.com");
+        ((org.springframework.security.core.userdetails.User) second).eraseCredentials();
+
+        assertThat(userDetailsService.loadUserByUsername("admin@example.com").getPassword())
+                .isEqualTo("encodedPassword123");
+    }
+
+    @Test
+    void loadUserByUsername_UnknownEmail_Throws() {
+        when(userRepository.findByEmail("missing@example.com")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("missing@example.com"))
+                .isInstanceOf(UsernameNotFoundException.class)
+                .hasMessage("User not found with email: missing@example.com");
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.repository.LessonUserRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository.AvailableScheduledLesson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailableLessonsFeedTest {
+
+    private static final String EMAIL = "student@example.com";
+    private static final OffsetDateTime BASE_TIME = OffsetDateTime.of(2030, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private LessonUserRepository lessonUserRepository;
+
+    @Mock
+    private ScheduledLessonRepository scheduledLessonRepository;
+
+    private AvailableLessonsFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new AvailableLessonsFeed(lessonUserRepository, scheduledLessonRepository, 100);
+        lenient().when(lessonUserRepository.findPendingLessonIdsByUserEmail(EMAIL)).thenReturn(List.of(1L, 2L));
+        lenient().when(scheduledLessonRepository.findAvailableByLessonIdIn(anyCollection())).thenReturn(List.of(
+                row(10L, 1L, 5),
+                row(20L, 2L, 1),
+                row(30L, 1L, 3)));
+    }
+
+    @Test
+    void getScheduledLessonIds_BuildsOrderedFeedOnceAndServesFromMemory() {
+        List<Long> first = feed.getScheduledLessonIds(EMAIL);
+        List<Long> second = feed.getScheduledLessonIds(EMAIL);
+
+        assertThat(first).containsExactly(20L, 30L, 10L);
+        assertThat(second).isSameAs(first);
+        verify(lessonUserRepository, times(1)).findPendingLessonIdsByUserEmail(EMAIL);
+    }
+
+    @Test
+    void onScheduledLessonChanged_NewEarlierSlotMovesLessonUp() {
+        feed.getScheduledLessonIds(EMAIL);
+        when(scheduledLessonRepository.findAvailableById(10L)).thenReturn(Optional.of(row(10L, 1L, 0)));
+
+        feed.onScheduledLessonChanged(new ScheduledLessonChangedEvent(10L));
+
+        assertThat(feed.getScheduledLessonIds(EMAIL)).containsExactly(10L, 20L, 30L);
+    }
+
+    @Test
+    void onScheduledLessonChanged_StartTimeSetRemovesLesson() {
+        feed.getScheduledLessonIds(EMAIL);
+        when(scheduledLessonRepository.findAvailableById(30L)).thenReturn(Optional.empty());
+
+        feed.onScheduledLessonChanged(new ScheduledLessonChangedEvent(30L));
+
+        assertThat(feed.getScheduledLessonIds(EMAIL)).containsExactly(20L, 10L);
+    }
+
+    @Test
+    void onScheduledLessonChanged_NoFeedsLoaded_DoesNotQuery() {
+        feed.onScheduledLessonChanged(new ScheduledLessonChangedEvent(10L));
+
+        verify(scheduledLessonRepository, never()).findAvailableById(any());
+    }
+
+    @Test
+    void onLessonInterestChanged_AcquiredLessonIsRemoved() {
+        feed.getScheduledLessonIds(EMAIL);
+        when(lessonUserRepository.existsPendingByUserEmailAndLessonId(EMAIL, 1L)).thenReturn(false);
+
+        feed.onLessonInterestChanged(new LessonInterestChangedEvent(EMAIL, 1L));
+
+        assertThat(feed.getScheduledLessonIds(EMAIL)).containsExactly(20L);
+    }
+
+    @Test
+    void onLessonInterestChanged_NewInterestAddsItsScheduledLessons() {
+        feed.getScheduledLessonIds(EMAIL);
+        when(lessonUserRepository.existsPendingByUserEmailAndLessonId(EMAIL, 3L)).thenReturn(true);
+        when(scheduledLessonRepository.findAvailableByLessonIdIn(List.of(3L))).thenReturn(List.of(row(40L, 3L, 2)));
+
+        feed.onLessonInterestChanged(new LessonInterestChangedEvent(EMAIL, 3L));
+
+        assertThat(feed.getScheduledLessonIds(EMAIL)).containsExactly(20L, 40L, 30L, 10L);
+
+        // The new lesson is followed from now on, so its slot changes reach the feed too
+        when(scheduledLessonRepository.findAvailableById(40L)).thenReturn(Optional.empty());
+        feed.onScheduledLessonChanged(new ScheduledLessonChangedEvent(40L));
+        assertThat(feed.getScheduledLessonIds(EMAIL)).containsExactly(20L, 30L, 10L);
+    }
+
+    @Test
+    void evict_DropsFeedSoNextReadRebuildsIt() {
+        feed.getScheduledLessonIds(EMAIL);
+
+        feed.evict(EMAIL);
+        feed.getScheduledLessonIds(EMAIL);
+
+        assertThat(feed.size()).isEqualTo(1);
+        verify(lessonUserRepository, times(2)).findPendingLessonIdsByUserEmail(EMAIL);
+    }
+
+    @Test
+    void onUserChanged_DropsFeedOfPreviousEmail() {
+        feed.getScheduledLessonIds(EMAIL);
+
+        feed.onUserChanged(new UserChangedEvent(5L, EMAIL));
+
+        assertThat(feed.size()).isZero();
+        // Nothing is followed any more, so lesson changes no longer touch the dropped feed
+        feed.onScheduledLessonChanged(new ScheduledLessonChangedEvent(10L));
+        verify(scheduledLessonRepository, never()).findAvailableById(any());
+    }
+
+    private static AvailableScheduledLesson row(Long scheduledLessonId, Long lessonId, int dayOffset) {
+        return new AvailableScheduledLesson() {
+            public Long getScheduledLessonId() { return scheduledLessonId; }
+            public Long getLessonId() { return lessonId; }
+            public OffsetDateTime getEarliestStart() { return BASE_TIME.plusDays(dayOffset); }
+        };
+    }
+}
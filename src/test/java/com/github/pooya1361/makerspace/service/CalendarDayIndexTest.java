@@ -0,0 +1,102 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepositoryCustom.BookedLesson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CalendarDayIndexTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2030, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime TODAY = NOW.withHour(0);
+
+    @Mock
+    private ScheduledLessonRepository scheduledLessonRepository;
+
+    private CalendarDayIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CalendarDayIndex(scheduledLessonRepository, true, 90, Clock.fixed(NOW.toInstant(), ZoneOffset.UTC));
+    }
+
+    @Test
+    void findStartingBetween_WithinWindow_ReturnsIdsInStartOrder() {
+        // given
+        rebuildWith(booked(1L, TODAY.plusDays(3).plusHours(18)), booked(2L, TODAY.plusDays(2).plusHours(9)),
+                booked(3L, TODAY.plusDays(3).plusHours(9)), booked(4L, TODAY.plusDays(8)));
+
+        // when & then: a week, from midnight to midnight
+        assertThat(index.findStartingBetween(TODAY.plusDays(1), TODAY.plusDays(8))).contains(List.of(2L, 3L, 1L));
+        assertThat(index.findStartingBetween(TODAY.plusDays(3).plusHours(9), TODAY.plusDays(3).plusHours(18)))
+                .contains(List.of(3L));
+        assertThat(index.findStartingBetween(TODAY.plusDays(20), TODAY.plusDays(27))).contains(List.of());
+    }
+
+    @Test
+    void findStartingBetween_OutsideWindow_LeftToTheDatabase() {
+        // given
+        rebuildWith();
+
+        // when & then
+        assertThat(index.findStartingBetween(TODAY.minusDays(1), TODAY.plusDays(6))).isEmpty();
+        assertThat(index.findStartingBetween(TODAY.plusDays(85), TODAY.plusDays(92))).isEmpty();
+    }
+
+    @Test
+    void onScheduledLessonChanged_MovesOrDropsTheLesson() {
+        // given
+        rebuildWith(booked(1L, TODAY.plusDays(2)));
+        when(scheduledLessonRepository.findBookedById(1L)).thenReturn(Optional.of(booked(1L, TODAY.plusDays(5))));
+
+        // when
+        index.onScheduledLessonChanged(new ScheduledLessonChangedEvent(1L));
+
+        // then
+        assertThat(index.findStartingBetween(TODAY, TODAY.plusDays(4))).contains(List.of());
+        assertThat(index.findStartingBetween(TODAY.plusDays(4), TODAY.plusDays(6))).contains(List.of(1L));
+
+        // when: deleted, or its start time cleared
+        when(scheduledLessonRepository.findBookedById(1L)).thenReturn(Optional.empty());
+        index.onScheduledLessonChanged(new ScheduledLessonChangedEvent(1L));
+
+        // then
+        assertThat(index.findStartingBetween(TODAY, TODAY.plusDays(7))).contains(List.of());
+    }
+
+    @Test
+    void disabled_NeverLoadsAndAnswersNothing() {
+        // given
+        index = new CalendarDayIndex(scheduledLessonRepository, false, 90, Clock.fixed(NOW.toInstant(), ZoneOffset.UTC));
+
+        // when
+        index.rebuild();
+        index.onScheduledLessonChanged(new ScheduledLessonChangedEvent(1L));
+
+        // then
+        assertThat(index.findStartingBetween(TODAY, TODAY.plusDays(7))).isEmpty();
+        verifyNoInteractions(scheduledLessonRepository);
+    }
+
+    private void rebuildWith(BookedLesson... booked) {
+        when(scheduledLessonRepository.findBookedStartingBetween(TODAY, TODAY.plusDays(90))).thenReturn(List.of(booked));
+        index.rebuild();
+    }
+
+    private static BookedLesson booked(Long id, OffsetDateTime start) {
+        return new BookedLesson(id, null, null, null, start, 60L);
+    }
+}
@@ -0,0 +1,278 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.Workshop;
+import com.github.pooya1361.makerspace.repository.LessonUserRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepositoryCustom.CalendarEvent;
+import com.github.pooya1361.makerspace.repository.UserRepository;
+import com.github.pooya1361.makerspace.repository.WorkshopRepository;
+import com.github.pooya1361.makerspace.service.CalendarFeedCache.CalendarFeed;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CalendarFeedCacheTest {
+
+    private static final OffsetDateTime BASE_TIME = OffsetDateTime.of(2030, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+    private static final Instant FIRST_BUILD = Instant.parse("2029-12-01T08:00:00.250Z");
+    private static final Instant LATER = Instant.parse("2029-12-02T09:30:00Z");
+
+    @Mock
+    private ScheduledLessonRepository scheduledLessonRepository;
+
+    @Mock
+    private LessonUserRepository lessonUserRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private WorkshopRepository workshopRepository;
+
+    @Mock
+    private Clock clock;
+
+    private CalendarFeedCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CalendarFeedCache(scheduledLessonRepository, lessonUserRepository, userRepository,
+                workshopRepository, 100, clock);
+        lenient().when(clock.instant()).thenReturn(FIRST_BUILD, LATER);
+        lenient().when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L, "anna@example.com")));
+        lenient().when(userRepository.findById(2L)).thenReturn(Optional.of(user(2L, "bo@example.com")));
+        lenient().when(workshopRepository.findById(5L)).thenReturn(Optional.of(workshop(5L)));
+        lenient().when(workshopRepository.findById(6L)).thenReturn(Optional.of(workshop(6L)));
+    }
+
+    @Test
+    void getUserFeed_RendersOnceAndServesFromMemory() {
+        // given
+        when(scheduledLessonRepository.findCalendarEventsByUserId(1L)).thenReturn(List.of(event(10L, 0, 1L)));
+
+        // when
+        CalendarFeed first = cache.getUserFeed(1L).orElseThrow();
+        CalendarFeed second = cache.getUserFeed(1L).orElseThrow();
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(first.lastModified()).isEqualTo(Instant.parse("2029-12-01T08:00:00Z"));
+        assertThat(first.eTag()).startsWith("\"").endsWith("\"");
+        assertThat(new String(first.body(), StandardCharsets.UTF_8)).isEqualTo(String.join("\r\n",
+                "BEGIN:VCALENDAR",
+                "VERSION:2.0",
+                "PRODID:-//makerspace//Scheduled lessons//EN",
+                "CALSCALE:GREGORIAN",
+                "X-WR-CALNAME:Makerspace lessons of Anna Smith",
+                "BEGIN:VEVENT",
+                "UID:scheduled-lesson-10@makerspace",
+                "DTSTAMP:20291201T080000Z",
+                "DTSTART:20300101T100000Z",
+                "DTEND:20300101T113000Z",
+                "SUMMARY:Lathe\\, basics\\; part 10",
+                "LOCATION:Wood workshop",
+                "DESCRIPTION:Instructor: Anna Smith",
+                "END:VEVENT",
+                "END:VCALENDAR",
+                ""));
+        verify(scheduledLessonRepository, times(1)).findCalendarEventsByUserId(1L);
+    }
+
+    @Test
+    void getUserFeed_FoldsLongLinesAt75Octets() {
+        // given
+        CalendarEvent longName = new CalendarEvent(10L, 100L, "Très long ".repeat(20), null, null, null, null, null,
+                BASE_TIME, 60L);
+        when(scheduledLessonRepository.findCalendarEventsByUserId(1L)).thenReturn(List.of(longName));
+
+        // when
+        String body = new String(cache.getUserFeed(1L).orElseThrow().body(), StandardCharsets.UTF_8);
+
+        // then
+        for (String line : body.split("\r\n")) {
+            assertThat(line.getBytes(StandardCharsets.UTF_8).length).isLessThanOrEqualTo(75);
+        }
+        assertThat(body.replace("\r\n ", "")).contains("SUMMARY:" + "Très long ".repeat(20) + "\r\n");
+    }
+
+    @Test
+    void getFeed_UnknownUserOrWorkshop_Empty() {
+        when(userRepository.findById(9L)).thenReturn(Optional.empty());
+        when(workshopRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertThat(cache.getUserFeed(9L)).isEmpty();
+        assertThat(cache.getWorkshopFeed(9L)).isEmpty();
+        assertThat(cache.size()).isZero();
+        verifyNoInteractions(scheduledLessonRepository);
+    }
+
+    @Test
+    void onScheduledLessonChanged_StartTimeMoved_RegeneratesOnlyTheFeedsHoldingIt() {
+        // given
+        when(scheduledLessonRepository.findCalendarEventsByUserId(1L)).thenReturn(List.of(event(10L, 0, 1L)));
+        when(scheduledLessonRepository.findCalendarEventsByWorkshopId(5L)).thenReturn(List.of(event(10L, 0, 1L)));
+        when(scheduledLessonRepository.findCalendarEventsByWorkshopId(6L)).thenReturn(List.of());
+        CalendarFeed userFeed = cache.getUserFeed(1L).orElseThrow();
+        CalendarFeed otherWorkshopFeed = cache.getWorkshopFeed(6L).orElseThrow();
+        cache.getWorkshopFeed(5L);
+
+        CalendarEvent moved = event(10L, 2, 1L);
+        when(scheduledLessonRepository.findCalendarEventById(10L)).thenReturn(Optional.of(moved));
+        when(lessonUserRepository.findPendingUserIdsByLessonId(100L)).thenReturn(List.of());
+        when(scheduledLessonRepository.findCalendarEventsByUserId(1L)).thenReturn(List.of(moved));
+        when(scheduledLessonRepository.findCalendarEventsByWorkshopId(5L)).thenReturn(List.of(moved));
+
+        // when
+        cache.onScheduledLessonChanged(new ScheduledLessonChangedEvent(10L));
+
+        // then
+        CalendarFeed regenerated = cache.getUserFeed(1L).orElseThrow();
+        assertThat(regenerated.eTag()).isNotEqualTo(userFeed.eTag());
+        assertThat(regenerated.lastModified()).isEqualTo(LATER);
+        assertThat(new String(regenerated.body(), StandardCharsets.UTF_8)).contains("DTSTART:20300103T100000Z");
+        assertThat(cache.getWorkshopFeed(6L)).containsSame(otherWorkshopFeed);
+        verify(scheduledLessonRepository, times(2)).findCalendarEventsByWorkshopId(5L);
+        verify(scheduledLessonRepository, times(1)).findCalendarEventsByWorkshopId(6L);
+    }
+
+    @Test
+    void onScheduledLessonChanged_NothingShownChanged_KeepsFeeds() {
+        // given: a proposed time slot was added to a lesson that already has a start time
+        when(scheduledLessonRepository.findCalendarEventsByUserId(1L)).thenReturn(List.of(event(10L, 0, 1L)));
+        CalendarFeed userFeed = cache.getUserFeed(1L).orElseThrow();
+        when(scheduledLessonRepository.findCalendarEventById(10L)).thenReturn(Optional.of(event(10L, 0, 1L)));
+
+        // when
+        cache.onScheduledLessonChanged(new ScheduledLessonChangedEvent(10L));
+
+        // then
+        assertThat(cache.getUserFeed(1L)).containsSame(userFeed);
+        verify(scheduledLessonRepository, times(1)).findCalendarEventsByUserId(1L);
+        verifyNoInteractions(lessonUserRepository);
+    }
+
+    @Test
+    void onScheduledLessonChanged_InstructorChanged_MovesLessonBetweenUserFeeds() {
+        // given
+        when(scheduledLessonRepository.findCalendarEventsByUserId(1L)).thenReturn(List.of(event(10L, 0, 1L)));
+        when(scheduledLessonRepository.findCalendarEventsByUserId(2L)).thenReturn(List.of());
+        cache.getUserFeed(1L);
+        cache.getUserFeed(2L);
+
+        CalendarEvent reassigned = event(10L, 0, 2L);
+        when(scheduledLessonRepository.findCalendarEventById(10L)).thenReturn(Optional.of(reassigned));
+        when(lessonUserRepository.findPendingUserIdsByLessonId(100L)).thenReturn(List.of());
+        when(scheduledLessonRepository.findCalendarEventsByUserId(1L)).thenReturn(List.of());
+        when(scheduledLessonRepository.findCalendarEventsByUserId(2L)).thenReturn(List.of(reassigned));
+
+        // when
+        cache.onScheduledLessonChanged(new ScheduledLessonChangedEvent(10L));
+
+        // then
+        assertThat(new String(cache.getUserFeed(1L).orElseThrow().body(), StandardCharsets.UTF_8)).doesNotContain("VEVENT");
+        assertThat(new String(cache.getUserFeed(2L).orElseThrow().body(), StandardCharsets.UTF_8))
+                .contains("UID:scheduled-lesson-10@makerspace");
+    }
+
+    @Test
+    void onLessonInterestChanged_RegeneratesThatUsersFeed() {
+        // given
+        when(scheduledLessonRepository.findCalendarEventsByUserId(1L)).thenReturn(List.of());
+        cache.getUserFeed(1L);
+        when(scheduledLessonRepository.findCalendarEventsByUserId(1L)).thenReturn(List.of(event(10L, 0, null)));
+
+        // when
+        cache.onLessonInterestChanged(new LessonInterestChangedEvent("anna@example.com", 100L));
+        cache.onLessonInterestChanged(new LessonInterestChangedEvent("someone@example.com", 100L));
+
+        // then
+        assertThat(new String(cache.getUserFeed(1L).orElseThrow().body(), StandardCharsets.UTF_8))
+                .contains("UID:scheduled-lesson-10@makerspace");
+        verify(scheduledLessonRepository, times(2)).findCalendarEventsByUserId(1L);
+    }
+
+    @Test
+    void refresh_SameContent_KeepsETagAndLastModified() {
+        // given
+        when(scheduledLessonRepository.findCalendarEventsByWorkshopId(5L)).thenReturn(List.of(event(10L, 0, 1L)));
+        CalendarFeed feed = cache.getWorkshopFeed(5L).orElseThrow();
+
+        // when
+        cache.refresh();
+
+        // then
+        assertThat(cache.getWorkshopFeed(5L)).containsSame(feed);
+        verify(scheduledLessonRepository, times(2)).findCalendarEventsByWorkshopId(5L);
+    }
+
+    @Test
+    void refresh_FeedRegeneratedWhileReading_KeepsNewerFeed() {
+        // given
+        when(scheduledLessonRepository.findCalendarEventsByWorkshopId(5L)).thenReturn(List.of(event(10L, 0, 1L)));
+        cache.getWorkshopFeed(5L);
+        CalendarEvent moved = event(10L, 2, 1L);
+        when(scheduledLessonRepository.findCalendarEventById(10L)).thenReturn(Optional.of(moved));
+        // The refresh reads the old start time, then the move commits and its listener runs before the refresh swaps
+        when(scheduledLessonRepository.findCalendarEventsByWorkshopId(5L)).thenAnswer(invocation -> {
+            doReturn(List.of(moved)).when(scheduledLessonRepository).findCalendarEventsByWorkshopId(5L);
+            cache.onScheduledLessonChanged(new ScheduledLessonChangedEvent(10L));
+            return List.of(event(10L, 0, 1L));
+        });
+
+        // when
+        cache.refresh();
+
+        // then
+        assertThat(new String(cache.getWorkshopFeed(5L).orElseThrow().body(), StandardCharsets.UTF_8))
+                .contains("DTSTART:20300103T100000Z");
+    }
+
+    @Test
+    void refresh_DeletedWorkshop_DropsItsFeed() {
+        when(scheduledLessonRepository.findCalendarEventsByWorkshopId(5L)).thenReturn(List.of());
+        cache.getWorkshopFeed(5L);
+        when(workshopRepository.findById(5L)).thenReturn(Optional.empty());
+
+        cache.refresh();
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getWorkshopFeed(5L)).isEmpty();
+    }
+
+    private static CalendarEvent event(Long scheduledLessonId, int dayOffset, Long instructorId) {
+        return new CalendarEvent(scheduledLessonId, 100L, "Lathe, basics; part " + scheduledLessonId, 5L,
+                "Wood workshop", instructorId, instructorId == null ? null : "Anna",
+                instructorId == null ? null : "Smith", BASE_TIME.plusDays(dayOffset), 90L);
+    }
+
+    private static User user(Long id, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setFirstName("Anna");
+        user.setLastName("Smith");
+        return user;
+    }
+
+    private static Workshop workshop(Long id) {
+        Workshop workshop = new Workshop();
+        workshop.setId(id);
+        workshop.setName("Wood workshop");
+        return workshop;
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.model.EmailOutbox;
+import com.github.pooya1361.makerspace.model.enums.EmailOutboxStatus;
+import com.github.pooya1361.makerspace.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxDispatcherTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2030, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new EmailOutboxDispatcher(emailOutboxRepository, emailService,
+                new TransactionTemplate(transactionManager), Clock.fixed(NOW.toInstant(), ZoneOffset.UTC),
+                2, 3, Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void dispatchBatch_ClaimsSendsAndMarksSent() {
+        // given
+        EmailOutbox first = email(1L, 0);
+        EmailOutbox second = email(2L, 0);
+        givenDue(List.of(first, second));
+        when(emailService.sendNewScheduledLessonNotifications(List.of(first, second))).thenReturn(Map.of());
+
+        // when
+        int claimed = dispatcher.dispatchBatch();
+
+        // then
+        assertThat(claimed).isEqualTo(2);
+        verify(emailOutboxRepository).claim(List.of(1L, 2L), NOW.plusMinutes(5));
+        verify(emailOutboxRepository).markSent(List.of(1L, 2L), EmailOutboxStatus.SENT, NOW);
+        verify(emailOutboxRepository, never()).markAttemptFailed(any(), any(), any(), any());
+    }
+
+    @Test
+    void dispatchBatch_FailedEmail_IsRetriedWithBackoff() {
+        // given
+        EmailOutbox sent = email(1L, 0);
+        EmailOutbox failed = email(2L, 1);
+        givenDue(List.of(sent, failed));
+        when(emailService.sendNewScheduledLessonNotifications(anyList())).thenReturn(Map.of(2L, "550 mailbox unavailable"));
+
+        // when
+        dispatcher.dispatchBatch();
+
+        // then: second attempt, so twice the base backoff
+        verify(emailOutboxRepository).markSent(List.of(1L), EmailOutboxStatus.SENT, NOW);
+        verify(emailOutboxRepository).markAttemptFailed(2L, EmailOutboxStatus.PENDING, NOW.plusSeconds(60),
+                "550 mailbox unavailable");
+    }
+
+    @Test
+    void dispatchBatch_LastAttemptFails_MarksFailed() {
+        // given
+        EmailOutbox failed = email(1L, 2);
+        givenDue(List.of(failed));
+        when(emailService.sendNewScheduledLessonNotifications(anyList())).thenReturn(Map.of(1L, "connection refused"));
+
+        // when
+        dispatcher.dispatchBatch();
+
+        // then
+        verify(emailOutboxRepository, never()).markSent(anyList(), any(), any());
+        verify(emailOutboxRepository).markAttemptFailed(eq(1L), eq(EmailOutboxStatus.FAILED), any(), eq("connection refused"));
+    }
+
+    @Test
+    void dispatchBatch_NothingDue_SendsNothing() {
+        givenDue(List.of());
+
+        assertThat(dispatcher.dispatchBatch()).isZero();
+
+        verifyNoInteractions(emailService);
+        verify(emailOutboxRepository, never()).claim(anyList(), any());
+    }
+
+    @Test
+    void dispatch_DrainsFullBatchesUntilBacklogIsEmpty() {
+        // given: a full batch, then a partial one
+        when(emailOutboxRepository.findDueForUpdate(eq(EmailOutboxStatus.PENDING), eq(NOW), any(Pageable.class)))
+                .thenReturn(List.of(email(1L, 0), email(2L, 0)))
+                .thenReturn(List.of(email(3L, 0)));
+        when(emailService.sendNewScheduledLessonNotifications(anyList())).thenReturn(Map.of());
+
+        // when
+        dispatcher.dispatch();
+
+        // then
+        verify(emailService, times(2)).sendNewScheduledLessonNotifications(anyList());
+        verify(emailOutboxRepository).markSent(List.of(3L), EmailOutboxStatus.SENT, NOW);
+    }
+
+    @Test
+    void backoff_DoublesPerAttemptUpToTheCap() {
+        assertThat(dispatcher.backoff(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(dispatcher.backoff(2)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(dispatcher.backoff(3)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(dispatcher.backoff(40)).isEqualTo(Duration.ofMinutes(1));
+    }
+
+    private void givenDue(List<EmailOutbox> due) {
+        when(emailOutboxRepository.findDueForUpdate(eq(EmailOutboxStatus.PENDING), eq(NOW), any(Pageable.class)))
+                .thenReturn(due);
+    }
+
+    private static EmailOutbox email(Long id, int attempts) {
+        EmailOutbox email = new EmailOutbox();
+        email.setId(id);
+        email.setRecipientEmail("user" + id + "@example.com");
+        email.setScheduledLessonId(10L);
+        email.setLessonName("Bowls");
+        email.setAttempts(attempts);
+        email.setNextAttemptAt(NOW);
+        return email;
+    }
+}
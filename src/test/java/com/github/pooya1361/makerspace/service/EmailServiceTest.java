@@ -0,0 +1,107 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.model.EmailOutbox;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailServiceTest {
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        emailService = new EmailService(mailSender,
+                new EmailTemplateRenderer(EmailTemplateRendererTest.templateEngine(), "http://localhost:3000"));
+        ReflectionTestUtils.setField(emailService, "fromEmail", "noreply@example.com");
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+    }
+
+    @Test
+    void sendNewScheduledLessonNotifications_SendsWholeBatchInOneCall() throws Exception {
+        // when
+        Map<Long, String> failures = emailService.sendNewScheduledLessonNotifications(
+                List.of(notification(1L, "first@example.com"), notification(2L, "second@example.com")));
+
+        // then
+        ArgumentCaptor<MimeMessage[]> sent = ArgumentCaptor.forClass(MimeMessage[].class);
+        verify(mailSender).send(sent.capture());
+        assertThat(failures).isEmpty();
+        assertThat(sent.getValue()).hasSize(2);
+        assertThat(sent.getValue())
+                .extracting(EmailServiceTest::recipient)
+                .containsExactlyInAnyOrder("first@example.com", "second@example.com");
+        assertThat(sent.getValue()[0].getSubject()).isEqualTo("New lesson scheduled for Bowls");
+    }
+
+    @Test
+    void sendNewScheduledLessonNotifications_ReportsOnlyRejectedMessages() {
+        // given
+        doAnswer(invocation -> {
+            for (Object argument : invocation.getArguments()) {
+                MimeMessage message = (MimeMessage) argument;
+                if (recipient(message).equals("second@example.com")) {
+                    throw new MailSendException(Map.of(message, new RuntimeException("550 mailbox unavailable")));
+                }
+            }
+            return null;
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        // when
+        Map<Long, String> failures = emailService.sendNewScheduledLessonNotifications(
+                List.of(notification(1L, "first@example.com"), notification(2L, "second@example.com")));
+
+        // then
+        assertThat(failures).containsExactly(Map.entry(2L, "550 mailbox unavailable"));
+    }
+
+    @Test
+    void sendNewScheduledLessonNotifications_ConnectionFails_ReportsWholeBatch() {
+        // given
+        doThrow(new MailAuthenticationException("535 authentication failed"))
+                .when(mailSender).send(any(MimeMessage[].class));
+
+        // when
+        Map<Long, String> failures = emailService.sendNewScheduledLessonNotifications(
+                List.of(notification(1L, "first@example.com"), notification(2L, "second@example.com")));
+
+        // then
+        assertThat(failures).containsOnlyKeys(1L, 2L);
+    }
+
+    private static String recipient(MimeMessage message) throws Exception {
+        return ((InternetAddress) message.getAllRecipients()[0]).getAddress();
+    }
+
+    private static EmailOutbox notification(Long id, String recipientEmail) {
+        EmailOutbox notification = new EmailOutbox();
+        notification.setId(id);
+        notification.setRecipientEmail(recipientEmail);
+        notification.setRecipientName("Ada");
+        notification.setScheduledLessonId(10L);
+        notification.setLessonName("Bowls");
+        return notification;
+    }
+}
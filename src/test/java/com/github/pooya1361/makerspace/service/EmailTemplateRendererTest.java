@@ -0,0 +1,55 @@
+package com.github.pooya1361.makerspace.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailTemplateRendererTest {
+
+    private EmailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = new EmailTemplateRenderer(templateEngine(), "https://makerspace.example.com");
+    }
+
+    @Test
+    void renderNewScheduledLesson_RendersLessonPartOnce() {
+        // when
+        EmailTemplateRenderer.BatchEmail email = renderer.renderNewScheduledLesson("Bowls & Spoons", 42L);
+
+        // then
+        assertThat(email.subject()).isEqualTo("New lesson scheduled for Bowls & Spoons");
+        assertThat(email.htmlFor("Ada"))
+                .contains("<p>Hi Ada,</p>")
+                .contains("<strong>Bowls &amp; Spoons</strong>")
+                .contains("href=\"https://makerspace.example.com/scheduled-lessons/42\"")
+                .contains("href=\"https://makerspace.example.com/lessons\"")
+                .doesNotContain("recipient-");
+    }
+
+    @Test
+    void htmlFor_EscapesNameAndFallsBackToDefault() {
+        EmailTemplateRenderer.BatchEmail email = renderer.renderNewScheduledLesson("Bowls", 42L);
+
+        assertThat(email.htmlFor("<b>Ada</b>")).contains("<p>Hi &lt;b&gt;Ada&lt;/b&gt;,</p>");
+        assertThat(email.htmlFor(null)).contains("<p>Hi Student,</p>");
+        assertThat(email.htmlFor(" ")).contains("<p>Hi Student,</p>");
+    }
+
+    // Resolves the templates the way the auto-configured engine does
+    static SpringTemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        return templateEngine;
+    }
+}
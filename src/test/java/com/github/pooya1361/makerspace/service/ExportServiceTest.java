@@ -0,0 +1,119 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.pooya1361.makerspace.dto.response.UserResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.VoteResponseDTO;
+import com.github.pooya1361.makerspace.mapper.LessonUserMapper;
+import com.github.pooya1361.makerspace.mapper.UserMapper;
+import com.github.pooya1361.makerspace.mapper.VoteMapper;
+import com.github.pooya1361.makerspace.model.User;
+import com.github.pooya1361.makerspace.model.Vote;
+import com.github.pooya1361.makerspace.model.enums.UserType;
+import com.github.pooya1361.makerspace.repository.LessonUserRepository;
+import com.github.pooya1361.makerspace.repository.UserRepository;
+import com.github.pooya1361.makerspace.repository.VoteRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private VoteRepository voteRepository;
+
+    @Mock
+    private LessonUserRepository lessonUserRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private VoteMapper voteMapper;
+
+    @Mock
+    private LessonUserMapper lessonUserMapper;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportService(voteRepository, lessonUserRepository, userRepository,
+                voteMapper, lessonUserMapper, userMapper, entityManager, new ObjectMapper());
+    }
+
+    @Test
+    void exportUsers_WritesOneJsonObjectPerLine() throws Exception {
+        // given
+        User alice = User.builder().id(1L).email("alice@example.com").userType(UserType.NORMAL).build();
+        User bob = User.builder().id(2L).email("bob@example.com").userType(UserType.ADMIN).build();
+        AtomicBoolean streamClosed = new AtomicBoolean();
+        when(userRepository.streamAllForExport()).thenReturn(Stream.of(alice, bob).onClose(() -> streamClosed.set(true)));
+        when(userMapper.toDto(alice)).thenReturn(new UserResponseDTO(1L, "Alice", "A", "alice@example.com", UserType.NORMAL));
+        when(userMapper.toDto(bob)).thenReturn(new UserResponseDTO(2L, "Bob", "B", "bob@example.com", UserType.ADMIN));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        long count = exportService.exportUsers(out);
+
+        // then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":1,").contains("\"email\":\"alice@example.com\"");
+        assertThat(lines[1]).startsWith("{\"id\":2,").contains("\"userType\":\"ADMIN\"");
+        assertThat(streamClosed).isTrue();
+        verify(entityManager, never()).clear();
+    }
+
+    @Test
+    void exportVotes_ClearsPersistenceContextEveryInterval() throws Exception {
+        // given
+        int rows = ExportService.CLEAR_INTERVAL * 2 + 1;
+        when(voteRepository.streamAllForExport()).thenReturn(IntStream.range(0, rows).mapToObj(i -> new Vote()));
+        when(voteMapper.toDto(any(Vote.class))).thenReturn(new VoteResponseDTO());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        long count = exportService.exportVotes(out);
+
+        // then
+        assertThat(count).isEqualTo(rows);
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).hasSize(rows);
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void exportLessonUsers_EmptyTable_WritesNothing() throws Exception {
+        // given
+        when(lessonUserRepository.streamAllForExport()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        long count = exportService.exportLessonUsers(out);
+
+        // then
+        assertThat(count).isZero();
+        assertThat(out.size()).isZero();
+        verifyNoInteractions(lessonUserMapper);
+    }
+}
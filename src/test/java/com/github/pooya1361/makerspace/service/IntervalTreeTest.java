@@ -0,0 +1,112 @@
+package com.github.pooya1361.makerspace.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IntervalTreeTest {
+
+    @Test
+    void overlapping_HalfOpenIntervals_TouchingEndsDoNotOverlap() {
+        // given
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.put("morning", 9, 12);
+        tree.put("noon", 12, 13);
+        tree.put("day", 8, 17);
+
+        // when & then
+        assertThat(tree.overlapping(11, 12)).containsExactly("day", "morning");
+        assertThat(tree.overlapping(12, 14)).containsExactly("day", "noon");
+        assertThat(tree.overlapping(17, 20)).isEmpty();
+        assertThat(tree.overlaps(0, 8)).isFalse();
+    }
+
+    @Test
+    void put_ExistingValue_MovesItsInterval() {
+        // given
+        IntervalTree<Long> tree = new IntervalTree<>();
+        tree.put(1L, 10, 20);
+
+        // when
+        tree.put(1L, 30, 40);
+
+        // then
+        assertThat(tree.size()).isEqualTo(1);
+        assertThat(tree.overlapping(10, 20)).isEmpty();
+        assertThat(tree.overlapping(35, 36)).containsExactly(1L);
+    }
+
+    @Test
+    void remove_DropsOnlyThatValue() {
+        // given
+        IntervalTree<Long> tree = new IntervalTree<>();
+        tree.put(1L, 10, 20);
+        tree.put(2L, 10, 20);
+
+        // when & then
+        assertThat(tree.remove(1L)).isTrue();
+        assertThat(tree.remove(1L)).isFalse();
+        assertThat(tree.contains(2L)).isTrue();
+        assertThat(tree.overlapping(15, 16)).containsExactly(2L);
+    }
+
+    @Test
+    void maxConcurrent_IntervalsOneAfterTheOther_CountOnce() {
+        // given: "morning" and "afternoon" both overlap the day, but never at the same moment
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.put("morning", 9, 12);
+        tree.put("afternoon", 12, 15);
+        tree.put("lunch", 11, 13);
+
+        // when & then
+        assertThat(tree.maxConcurrent(8, 17, null)).isEqualTo(2);
+        assertThat(tree.maxConcurrent(8, 17, "lunch")).isEqualTo(1);
+        assertThat(tree.maxConcurrent(13, 14, null)).isEqualTo(1);
+        assertThat(tree.maxConcurrent(15, 17, null)).isZero();
+    }
+
+    @Test
+    void put_EndBeforeStart_Rejected() {
+        assertThatThrownBy(() -> new IntervalTree<Long>().put(1L, 20, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void overlapping_RandomIntervals_MatchesPairwiseComparison() {
+        // given: puts, moves and removals, checked against a plain list
+        Random random = new Random(42);
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        long[][] intervals = new long[500][];
+        for (int i = 0; i < 5000; i++) {
+            int value = random.nextInt(intervals.length);
+            if (random.nextInt(4) == 0) {
+                tree.remove(value);
+                intervals[value] = null;
+            } else {
+                long start = random.nextInt(10_000);
+                long end = start + random.nextInt(300);
+                tree.put(value, start, end);
+                intervals[value] = new long[]{start, end};
+            }
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            long start = random.nextInt(10_000);
+            long end = start + random.nextInt(500);
+            List<Integer> expected = new ArrayList<>();
+            for (int value = 0; value < intervals.length; value++) {
+                if (intervals[value] != null && intervals[value][0] < end && intervals[value][1] > start) {
+                    expected.add(value);
+                }
+            }
+
+            // when & then
+            assertThat(tree.overlapping(start, end)).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationThrottleTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2030, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+    private static final Duration COOLDOWN = Duration.ofMinutes(30);
+
+    @Mock
+    private ScheduledLessonRepository scheduledLessonRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private MutableClock clock;
+    private NotificationThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW.toInstant());
+        throttle = new NotificationThrottle(scheduledLessonRepository, eventPublisher, COOLDOWN, 2, clock);
+    }
+
+    @Test
+    void tryAcquire_ClaimsInDatabaseAndPublishesEvent() {
+        // given
+        when(scheduledLessonRepository.markNotifiedIfNotSince(1L, NOW, NOW.minus(COOLDOWN))).thenReturn(1);
+
+        // when & then
+        assertThat(throttle.tryAcquire(1L)).isTrue();
+        verify(eventPublisher).publishEvent(new ScheduledLessonNotifiedEvent(1L, NOW));
+    }
+
+    @Test
+    void tryAcquire_WithinCooldownAfterCommit_AnsweredFromMemory() {
+        // given: notified and committed
+        throttle.onScheduledLessonNotified(new ScheduledLessonNotifiedEvent(1L, NOW));
+        clock.advance(Duration.ofMinutes(10));
+
+        // when & then
+        assertThat(throttle.tryAcquire(1L)).isFalse();
+        verifyNoInteractions(scheduledLessonRepository);
+    }
+
+    @Test
+    void tryAcquire_AfterCooldown_AsksDatabaseAgain() {
+        // given
+        throttle.onScheduledLessonNotified(new ScheduledLessonNotifiedEvent(1L, NOW));
+        clock.advance(COOLDOWN.plusSeconds(1));
+        when(scheduledLessonRepository.markNotifiedIfNotSince(anyLong(), any(), any())).thenReturn(1);
+
+        // when & then
+        assertThat(throttle.tryAcquire(1L)).isTrue();
+    }
+
+    @Test
+    void tryAcquire_NotifiedElsewhere_RemembersDatabaseTime() {
+        // given: another instance notified five minutes ago
+        when(scheduledLessonRepository.markNotifiedIfNotSince(anyLong(), any(), any())).thenReturn(0);
+        when(scheduledLessonRepository.findLastNotifiedAtById(1L)).thenReturn(Optional.of(NOW.minusMinutes(5)));
+
+        // when
+        boolean first = throttle.tryAcquire(1L);
+        boolean second = throttle.tryAcquire(1L);
+
+        // then
+        assertThat(first).isFalse();
+        assertThat(second).isFalse();
+        verify(scheduledLessonRepository, times(1)).markNotifiedIfNotSince(anyLong(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void onScheduledLessonNotified_BoundedByDroppingExpiredEntries() {
+        // given
+        throttle.onScheduledLessonNotified(new ScheduledLessonNotifiedEvent(1L, NOW.minusHours(1)));
+        throttle.onScheduledLessonNotified(new ScheduledLessonNotifiedEvent(2L, NOW));
+
+        // when
+        throttle.onScheduledLessonNotified(new ScheduledLessonNotifiedEvent(3L, NOW));
+
+        // then
+        assertThat(throttle.size()).isEqualTo(2);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -7,8 +7,8 @@ import com.github.pooya1361.makerspace.mapper.ProposedTimeSlotMapper;
 import com.github.pooya1361.makerspace.model.Lesson;
 import com.github.pooya1361.makerspace.model.ProposedTimeSlot;
 import com.github.pooya1361.makerspace.model.ScheduledLesson;
-import com.github.pooya1361.makerspace.model.User;
-import com.github.pooya1361.makerspace.repository.LessonUserRepository;
+import com.github.pooya1361.makerspace.model.enums.EmailOutboxStatus;
+import com.github.pooya1361.makerspace.repository.EmailOutboxRepository;
 import com.github.pooya1361.makerspace.repository.ProposedTimeSlotRepository;
 import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -18,12 +18,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -46,10 +45,13 @@ class ProposedTimeSlotServiceTest {
     private ScheduledLessonRepository scheduledLessonRepository;
 
     @Mock
-    private LessonUserRepository lessonUserRepository;
+    private EmailOutboxRepository emailOutboxRepository;
 
     @Mock
-    private EmailService emailService;
+    private NotificationThrottle notificationThrottle;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private ProposedTimeSlotService proposedTimeSlotService;
@@ -58,8 +60,6 @@ class ProposedTimeSlotServiceTest {
     private ScheduledLesson scheduledLesson;
     private ScheduledLesson newScheduledLesson;
     private Lesson lesson;
-    private User user1;
-    private User user2;
     private ProposedTimeSlotCreateDTO proposedTimeSlotCreateDTO;
     private ProposedTimeSlotResponseDTO proposedTimeSlotResponseDTO;
     private OffsetDateTime testDateTime;
@@ -67,9 +67,6 @@ class ProposedTimeSlotServiceTest {
 
     @BeforeEach
     void setUp() {
-        // Set the notification cooldown minutes using ReflectionTestUtils
-        ReflectionTestUtils.setField(proposedTimeSlotService, "notificationCooldownMinutes", 30);
-
         // Setup test times
         testDateTime = OffsetDateTime.of(2025, 8, 15, 14, 30, 0, 0, ZoneOffset.UTC);
         newTestDateTime = OffsetDateTime.of(2025, 8, 16, 16, 0, 0, 0, ZoneOffset.UTC);
@@ -98,17 +95,6 @@ class ProposedTimeSlotServiceTest {
         proposedTimeSlot.setProposedStartTime(testDateTime);
         proposedTimeSlot.setScheduledLesson(scheduledLesson);
 
-        // Setup Users
-        user1 = new User();
-        user1.setId(1L);
-        user1.setEmail("user1@example.com");
-        user1.setFirstName("John");
-
-        user2 = new User();
-        user2.setId(2L);
-        user2.setEmail("user2@example.com");
-        user2.setFirstName("Jane");
-
         // Setup DTOs
         proposedTimeSlotCreateDTO = new ProposedTimeSlotCreateDTO();
         proposedTimeSlotCreateDTO.setProposedStartTime(testDateTime);
@@ -124,18 +110,16 @@ class ProposedTimeSlotServiceTest {
     @Test
     void createProposedTimeSlot_WithEmailNotification_Success() {
         // given
-        List<User> interestedUsers = Arrays.asList(user1, user2);
-
         when(scheduledLessonRepository.findById(1L)).thenReturn(Optional.of(scheduledLesson));
         when(proposedTimeSlotRepository.save(any(ProposedTimeSlot.class))).thenReturn(proposedTimeSlot);
         when(proposedTimeSlotMapper.toDto(proposedTimeSlot)).thenReturn(proposedTimeSlotResponseDTO);
 
-        // Mock anti-spam check - no recent time slots
-        when(proposedTimeSlotRepository.existsByScheduledLessonIdAndCreatedAtAfter(eq(1L), any(OffsetDateTime.class)))
-                .thenReturn(false);
+        // Mock anti-spam check - not notified within the cooldown
+        when(notificationThrottle.tryAcquire(1L)).thenReturn(true);
 
-        // Mock interested users
-        when(lessonUserRepository.findUsersByLessonId(1L)).thenReturn(interestedUsers);
+        // Two interested users
+        when(emailOutboxRepository.enqueueForInterestedUsers(eq(1L), eq(1L), eq(1L), eq("Java Programming"),
+                eq(EmailOutboxStatus.PENDING), any(OffsetDateTime.class))).thenReturn(2);
 
         // when
         ProposedTimeSlotResponseDTO result = proposedTimeSlotService.createProposedTimeSlot(proposedTimeSlotCreateDTO);
@@ -144,9 +128,10 @@ class ProposedTimeSlotServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getProposedStartTime()).isEqualTo(testDateTime);
 
-        // Verify email notifications were sent
-        verify(emailService).sendNewScheduledLessonNotification(user1, scheduledLesson, proposedTimeSlot);
-        verify(emailService).sendNewScheduledLessonNotification(user2, scheduledLesson, proposedTimeSlot);
+        // Verify email notifications were queued, not sent on the request thread
+        verify(emailOutboxRepository).enqueueForInterestedUsers(eq(1L), eq(1L), eq(1L), eq("Java Programming"),
+                eq(EmailOutboxStatus.PENDING), any(OffsetDateTime.class));
+        verify(eventPublisher).publishEvent(new ScheduledLessonChangedEvent(1L));
     }
 
     @Test
@@ -161,19 +146,18 @@ class ProposedTimeSlotServiceTest {
 
         verify(scheduledLessonRepository).findById(1L);
         verify(proposedTimeSlotRepository, never()).save(any());
-        verify(emailService, never()).sendNewScheduledLessonNotification(any(), any(), any());
+        verifyNoInteractions(emailOutboxRepository);
     }
 
     @Test
-    void createProposedTimeSlot_WithRecentTimeSlots_SkipsEmailNotification() {
+    void createProposedTimeSlot_RecentlyNotified_SkipsEmailNotification() {
         // given
         when(scheduledLessonRepository.findById(1L)).thenReturn(Optional.of(scheduledLesson));
         when(proposedTimeSlotRepository.save(any(ProposedTimeSlot.class))).thenReturn(proposedTimeSlot);
         when(proposedTimeSlotMapper.toDto(proposedTimeSlot)).thenReturn(proposedTimeSlotResponseDTO);
 
-        // Mock anti-spam check - recent time slots exist (within 30 minutes)
-        when(proposedTimeSlotRepository.existsByScheduledLessonIdAndCreatedAtAfter(eq(1L), any(OffsetDateTime.class)))
-                .thenReturn(true);
+        // Mock anti-spam check - notified within the cooldown
+        when(notificationThrottle.tryAcquire(1L)).thenReturn(false);
 
         // when
         ProposedTimeSlotResponseDTO result = proposedTimeSlotService.createProposedTimeSlot(proposedTimeSlotCreateDTO);
@@ -181,9 +165,8 @@ class ProposedTimeSlotServiceTest {
         // then
         assertThat(result).isNotNull();
 
-        // Verify email notifications were NOT sent due to anti-spam
-        verify(lessonUserRepository, never()).findUsersByLessonId(any());
-        verify(emailService, never()).sendNewScheduledLessonNotification(any(), any(), any());
+        // Verify email notifications were NOT queued due to anti-spam
+        verifyNoInteractions(emailOutboxRepository);
     }
 
     @Test
@@ -193,12 +176,12 @@ class ProposedTimeSlotServiceTest {
         when(proposedTimeSlotRepository.save(any(ProposedTimeSlot.class))).thenReturn(proposedTimeSlot);
         when(proposedTimeSlotMapper.toDto(proposedTimeSlot)).thenReturn(proposedTimeSlotResponseDTO);
 
-        // Mock anti-spam check - no recent time slots
-        when(proposedTimeSlotRepository.existsByScheduledLessonIdAndCreatedAtAfter(eq(1L), any(OffsetDateTime.class)))
-                .thenReturn(false);
+        // Mock anti-spam check - not notified within the cooldown
+        when(notificationThrottle.tryAcquire(1L)).thenReturn(true);
 
         // Mock no interested users
-        when(lessonUserRepository.findUsersByLessonId(1L)).thenReturn(Collections.emptyList());
+        when(emailOutboxRepository.enqueueForInterestedUsers(eq(1L), eq(1L), eq(1L), eq("Java Programming"),
+                eq(EmailOutboxStatus.PENDING), any(OffsetDateTime.class))).thenReturn(0);
 
         // when
         ProposedTimeSlotResponseDTO result = proposedTimeSlotService.createProposedTimeSlot(proposedTimeSlotCreateDTO);
@@ -206,34 +189,8 @@ class ProposedTimeSlotServiceTest {
         // then
         assertThat(result).isNotNull();
 
-        verify(lessonUserRepository).findUsersByLessonId(1L);
-        verify(emailService, never()).sendNewScheduledLessonNotification(any(), any(), any());
-    }
-
-    @Test
-    void createProposedTimeSlot_EmailServiceThrowsException_ContinuesSuccessfully() {
-        // given
-        List<User> interestedUsers = Arrays.asList(user1);
-
-        when(scheduledLessonRepository.findById(1L)).thenReturn(Optional.of(scheduledLesson));
-        when(proposedTimeSlotRepository.save(any(ProposedTimeSlot.class))).thenReturn(proposedTimeSlot);
-        when(proposedTimeSlotMapper.toDto(proposedTimeSlot)).thenReturn(proposedTimeSlotResponseDTO);
-
-        when(proposedTimeSlotRepository.existsByScheduledLessonIdAndCreatedAtAfter(eq(1L), any(OffsetDateTime.class)))
-                .thenReturn(false);
-        when(lessonUserRepository.findUsersByLessonId(1L)).thenReturn(interestedUsers);
-
-        // Mock email service to throw exception
-        doThrow(new RuntimeException("Email service error"))
-                .when(emailService).sendNewScheduledLessonNotification(any(), any(), any());
-
-        // when
-        ProposedTimeSlotResponseDTO result = proposedTimeSlotService.createProposedTimeSlot(proposedTimeSlotCreateDTO);
-
-        // then - should complete successfully despite email error
-        assertThat(result).isNotNull();
-        verify(proposedTimeSlotRepository).save(any(ProposedTimeSlot.class));
-        verify(emailService).sendNewScheduledLessonNotification(user1, scheduledLesson, proposedTimeSlot);
+        verify(emailOutboxRepository).enqueueForInterestedUsers(eq(1L), eq(1L), eq(1L), eq("Java Programming"),
+                eq(EmailOutboxStatus.PENDING), any(OffsetDateTime.class));
     }
 
     // ==================== GET ALL PROPOSED TIME SLOTS TESTS ====================
@@ -245,7 +202,7 @@ class ProposedTimeSlotServiceTest {
         List<ProposedTimeSlotResponseDTO> expectedDtos = Arrays.asList(proposedTimeSlotResponseDTO);
 
         when(proposedTimeSlotRepository.findAll()).thenReturn(proposedTimeSlots);
-        when(proposedTimeSlotMapper.toDtoList(proposedTimeSlots)).thenReturn(expectedDtos);
+        when(proposedTimeSlotMapper.toDtoListWithoutVotes(proposedTimeSlots)).thenReturn(expectedDtos);
 
         // when
         List<ProposedTimeSlotResponseDTO> result = proposedTimeSlotService.getAllProposedTimeSlots();
@@ -255,7 +212,7 @@ class ProposedTimeSlotServiceTest {
         assertThat(result.get(0).getProposedStartTime()).isEqualTo(testDateTime);
 
         verify(proposedTimeSlotRepository).findAll();
-        verify(proposedTimeSlotMapper).toDtoList(proposedTimeSlots);
+        verify(proposedTimeSlotMapper).toDtoListWithoutVotes(proposedTimeSlots);
     }
 
     @Test
@@ -265,7 +222,7 @@ class ProposedTimeSlotServiceTest {
         List<ProposedTimeSlotResponseDTO> emptyDtos = Arrays.asList();
 
         when(proposedTimeSlotRepository.findAll()).thenReturn(emptyProposedTimeSlots);
-        when(proposedTimeSlotMapper.toDtoList(emptyProposedTimeSlots)).thenReturn(emptyDtos);
+        when(proposedTimeSlotMapper.toDtoListWithoutVotes(emptyProposedTimeSlots)).thenReturn(emptyDtos);
 
         // when
         List<ProposedTimeSlotResponseDTO> result = proposedTimeSlotService.getAllProposedTimeSlots();
@@ -273,7 +230,7 @@ class ProposedTimeSlotServiceTest {
         // then
         assertThat(result).isEmpty();
         verify(proposedTimeSlotRepository).findAll();
-        verify(proposedTimeSlotMapper).toDtoList(emptyProposedTimeSlots);
+        verify(proposedTimeSlotMapper).toDtoListWithoutVotes(emptyProposedTimeSlots);
     }
 
     // ==================== GET PROPOSED TIME SLOT BY ID TESTS ====================
@@ -341,27 +298,29 @@ class ProposedTimeSlotServiceTest {
     @Test
     void deleteProposedTimeSlot_Success() {
         // given
-        when(proposedTimeSlotRepository.existsById(1L)).thenReturn(true);
+        when(proposedTimeSlotRepository.findById(1L)).thenReturn(Optional.of(proposedTimeSlot));
 
         // when
         proposedTimeSlotService.deleteProposedTimeSlot(1L);
 
         // then
-        verify(proposedTimeSlotRepository).existsById(1L);
-        verify(proposedTimeSlotRepository).deleteById(1L);
+        verify(proposedTimeSlotRepository).findById(1L);
+        verify(proposedTimeSlotRepository).delete(proposedTimeSlot);
+        verify(eventPublisher).publishEvent(new ScheduledLessonChangedEvent(1L));
     }
 
     @Test
     void deleteProposedTimeSlot_NotFound_ThrowsException() {
         // given
-        when(proposedTimeSlotRepository.existsById(1L)).thenReturn(false);
+        when(proposedTimeSlotRepository.findById(1L)).thenReturn(Optional.empty());
 
         // when & then
         assertThatThrownBy(() -> proposedTimeSlotService.deleteProposedTimeSlot(1L))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("ProposedTimeSlot not found with ID: 1");
 
-        verify(proposedTimeSlotRepository).existsById(1L);
-        verify(proposedTimeSlotRepository, never()).deleteById(any());
+        verify(proposedTimeSlotRepository).findById(1L);
+        verify(proposedTimeSlotRepository, never()).delete(any());
+        verifyNoInteractions(eventPublisher);
     }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.github.pooya1361.makerspace.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentVoteFilterTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(10);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2030-01-01T10:00:00Z"));
+
+    @Test
+    void mightContain_AddedPairs_AlwaysFound() {
+        // given
+        RecentVoteFilter filter = new RecentVoteFilter(10_000, 0.01, WINDOW, clock);
+        for (long user = 1; user <= 100; user++) {
+            for (long slot = 1; slot <= 50; slot++) {
+                filter.add(user, slot);
+            }
+        }
+
+        // when & then
+        for (long user = 1; user <= 100; user++) {
+            for (long slot = 1; slot <= 50; slot++) {
+                assertThat(filter.mightContain(user, slot)).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void mightContain_UnknownPairs_RarelyFound() {
+        // given: filled to capacity
+        RecentVoteFilter filter = new RecentVoteFilter(10_000, 0.01, WINDOW, clock);
+        for (long i = 0; i < 10_000; i++) {
+            filter.add(i, i + 1);
+        }
+
+        // when
+        int falsePositives = 0;
+        for (long i = 0; i < 10_000; i++) {
+            if (filter.mightContain(i, i + 2)) {
+                falsePositives++;
+            }
+        }
+
+        // then: about 1%, with room for variance
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void mightContain_PairsOlderThanTwoWindows_Forgotten() {
+        // given
+        RecentVoteFilter filter = new RecentVoteFilter(1_000, 0.01, WINDOW, clock);
+        filter.add(1L, 1L);
+
+        // when: one window later the pair moves to the previous generation
+        clock.advance(WINDOW);
+        filter.add(2L, 2L);
+        boolean afterOneWindow = filter.mightContain(1L, 1L);
+
+        // and after another one it is dropped
+        clock.advance(WINDOW);
+        filter.add(3L, 3L);
+        boolean afterTwoWindows = filter.mightContain(1L, 1L);
+
+        // then
+        assertThat(afterOneWindow).isTrue();
+        assertThat(afterTwoWindows).isFalse();
+        assertThat(filter.mightContain(2L, 2L)).isTrue();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
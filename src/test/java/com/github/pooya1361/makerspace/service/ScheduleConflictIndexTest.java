@@ -0,0 +1,206 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.dto.response.ScheduleConflictDTO;
+import com.github.pooya1361.makerspace.model.Workshop;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepositoryCustom.BookedLesson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleConflictIndexTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2030, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private ScheduledLessonRepository scheduledLessonRepository;
+
+    private ScheduleConflictIndex index;
+    private Workshop workshop;
+
+    @BeforeEach
+    void setUp() {
+        index = new ScheduleConflictIndex(scheduledLessonRepository, 25, Clock.fixed(NOW.toInstant(), ZoneOffset.UTC));
+        workshop = new Workshop();
+        workshop.setId(3L);
+        workshop.setSize(50);   // room for two lessons at a time
+    }
+
+    @Test
+    void checkAvailable_InstructorTeachingAtThatTime_Rejected() {
+        // given
+        rebuildWith(booked(1L, 7L, NOW.plusHours(1), 60));
+
+        // when & then
+        assertThatThrownBy(() -> index.checkAvailable(null, 7L, null, NOW.plusMinutes(90), 60))
+                .isInstanceOf(ScheduleConflictException.class)
+                .satisfies(e -> assertThat(((ScheduleConflictException) e).getConflictingScheduledLessonIds())
+                        .containsExactly(1L));
+        assertThatCode(() -> index.checkAvailable(null, 7L, null, NOW.plusHours(2), 60)).doesNotThrowAnyException();
+        assertThatCode(() -> index.checkAvailable(null, 8L, null, NOW.plusMinutes(90), 60)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void checkAvailable_MovingALesson_IgnoresItsOwnBooking() {
+        // given
+        rebuildWith(booked(1L, 7L, NOW.plusHours(1), 60));
+
+        // when & then
+        assertThatCode(() -> index.checkAvailable(1L, 7L, workshop, NOW.plusMinutes(90), 60)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void checkAvailable_WorkshopFull_CountsOnlyLessonsRunningAtOnce() {
+        // given: two lessons in a row and one next to both; at most two run at once
+        rebuildWith(booked(1L, 1L, NOW.plusHours(1), 60), booked(2L, 2L, NOW.plusHours(2), 60),
+                booked(3L, 3L, NOW.plusHours(1), 120));
+
+        // when & then
+        assertThatThrownBy(() -> index.checkAvailable(null, 4L, workshop, NOW.plusMinutes(90), 60))
+                .isInstanceOf(ScheduleConflictException.class)
+                .hasMessageContaining("Workshop 3");
+        assertThatCode(() -> index.checkAvailable(null, 4L, workshop, NOW.plusHours(3), 60)).doesNotThrowAnyException();
+        workshop.setSize(80);
+        assertThatCode(() -> index.checkAvailable(null, 4L, workshop, NOW.plusMinutes(90), 60)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void onScheduledLessonChanged_MovesOrRemovesTheBooking() {
+        // given
+        rebuildWith(booked(1L, 7L, NOW.plusHours(1), 60));
+        when(scheduledLessonRepository.findBookedById(1L)).thenReturn(Optional.of(booked(1L, 7L, NOW.plusHours(5), 60)));
+
+        // when
+        index.onScheduledLessonChanged(new ScheduledLessonChangedEvent(1L));
+
+        // then
+        assertThatCode(() -> index.checkAvailable(null, 7L, null, NOW.plusHours(1), 60)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> index.checkAvailable(null, 7L, null, NOW.plusHours(5), 60))
+                .isInstanceOf(ScheduleConflictException.class);
+
+        // when: deleted or no longer booked
+        when(scheduledLessonRepository.findBookedById(1L)).thenReturn(Optional.empty());
+        index.onScheduledLessonChanged(new ScheduledLessonChangedEvent(1L));
+
+        // then
+        assertThatCode(() -> index.checkAvailable(null, 7L, null, NOW.plusHours(5), 60)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void rebuild_ChecksDuringTheLoad_AnswerFromTheCurrentIndex() {
+        // given
+        rebuildWith(booked(1L, 7L, NOW.plusHours(1), 60));
+        when(scheduledLessonRepository.findAllBooked()).thenAnswer(invocation -> {
+            // when: another request checks while the reload runs
+            CompletableFuture<Void> check = CompletableFuture.runAsync(
+                    () -> index.checkAvailable(null, 7L, null, NOW.plusHours(1), 60));
+
+            // then: it is not held up by the reload and still sees the lesson
+            assertThat(check).failsWithin(Duration.ofSeconds(5))
+                    .withThrowableOfType(ExecutionException.class)
+                    .withCauseInstanceOf(ScheduleConflictException.class);
+            return List.of(booked(1L, 7L, NOW.plusHours(1), 60));
+        });
+
+        index.rebuild();
+    }
+
+    @Test
+    void rebuild_LessonMovedDuringTheLoad_KeepsTheMove() {
+        // given: the reload read the lesson at its old time, and the move committed before the reload finished
+        rebuildWith(booked(1L, 7L, NOW.plusHours(1), 60));
+        when(scheduledLessonRepository.findBookedById(1L)).thenReturn(Optional.of(booked(1L, 7L, NOW.plusHours(5), 60)));
+        when(scheduledLessonRepository.findAllBooked()).thenAnswer(invocation -> {
+            List<BookedLesson> loaded = List.of(booked(1L, 7L, NOW.plusHours(1), 60));
+            index.onScheduledLessonChanged(new ScheduledLessonChangedEvent(1L));
+            return loaded;
+        });
+
+        // when
+        index.rebuild();
+
+        // then
+        assertThatCode(() -> index.checkAvailable(null, 7L, null, NOW.plusHours(1), 60)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> index.checkAvailable(null, 7L, null, NOW.plusHours(5), 60))
+                .isInstanceOf(ScheduleConflictException.class);
+    }
+
+    @Test
+    void rebuild_LoadFails_KeepsTheCurrentIndex() {
+        // given
+        rebuildWith(booked(1L, 7L, NOW.plusHours(1), 60));
+        when(scheduledLessonRepository.findAllBooked()).thenThrow(new IllegalStateException("database unavailable"));
+
+        // when
+        index.refresh();
+
+        // then
+        assertThatThrownBy(() -> index.checkAvailable(null, 7L, null, NOW.plusHours(1), 60))
+                .isInstanceOf(ScheduleConflictException.class);
+    }
+
+    @Test
+    void findConflicts_ReportsDoubleBookedInstructorsAndOverfullWorkshopsAhead() {
+        // given
+        rebuildWith(
+                booked(1L, 7L, NOW.plusHours(1), 60),
+                booked(2L, 7L, NOW.plusMinutes(90), 60),     // overlaps 1 for the same instructor
+                booked(3L, 8L, NOW.plusMinutes(100), 60),    // third lesson in the workshop at once
+                booked(4L, 7L, NOW.minusHours(3), 60),       // over, not reported
+                booked(5L, 7L, NOW.minusHours(3), 60));
+
+        // when
+        List<ScheduleConflictDTO> conflicts = index.findConflicts();
+
+        // then
+        assertThat(conflicts).hasSize(2);
+        assertThat(conflicts.get(0)).satisfies(conflict -> {
+            assertThat(conflict.getKind()).isEqualTo(ScheduleConflictDTO.ConflictKind.INSTRUCTOR_DOUBLE_BOOKED);
+            assertThat(conflict.getInstructorId()).isEqualTo(7L);
+            assertThat(conflict.getScheduledLessonIds()).containsExactly(1L, 2L);
+            assertThat(conflict.getFrom()).isEqualTo(NOW.plusMinutes(90));
+            assertThat(conflict.getTo()).isEqualTo(NOW.plusHours(2));
+        });
+        assertThat(conflicts.get(1)).satisfies(conflict -> {
+            assertThat(conflict.getKind()).isEqualTo(ScheduleConflictDTO.ConflictKind.WORKSHOP_OVER_CAPACITY);
+            assertThat(conflict.getWorkshopId()).isEqualTo(3L);
+            assertThat(conflict.getScheduledLessonIds()).containsExactly(1L, 2L, 3L);
+            assertThat(conflict.getFrom()).isEqualTo(NOW.plusMinutes(100));
+            assertThat(conflict.getTo()).isEqualTo(NOW.plusHours(2));
+        });
+    }
+
+    @Test
+    void capacity_OneLessonPerSquareMetersPerLessonAndAtLeastOne() {
+        workshop.setSize(80);
+        assertThat(index.capacity(workshop)).isEqualTo(3);
+        workshop.setSize(0);
+        assertThat(index.capacity(workshop)).isEqualTo(1);
+    }
+
+    private void rebuildWith(BookedLesson... booked) {
+        when(scheduledLessonRepository.findAllBooked()).thenReturn(List.of(booked));
+        index.rebuild();
+    }
+
+    private BookedLesson booked(Long id, Long instructorId, OffsetDateTime start, long minutes) {
+        return new BookedLesson(id, instructorId, workshop.getId(), workshop.getSize(), start, minutes);
+    }
+}
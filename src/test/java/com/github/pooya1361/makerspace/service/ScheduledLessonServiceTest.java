@@ -2,6 +2,7 @@
 package com.github.pooya1361.makerspace.service;
 
 import com.github.pooya1361.makerspace.dto.create.ScheduledLessonCreateDTO;
+import com.github.pooya1361.makerspace.dto.response.ScheduleConflictDTO;
 import com.github.pooya1361.makerspace.dto.response.ScheduledLessonResponseDTO;
 import com.github.pooya1361.makerspace.mapper.ScheduledLessonMapper;
 import com.github.pooya1361.makerspace.model.Lesson;
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
@@ -44,6 +46,15 @@ class ScheduledLessonServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ScheduleConflictIndex scheduleConflictIndex;
+
+    @Mock
+    private CalendarDayIndex calendarDayIndex;
+
     @InjectMocks
     private ScheduledLessonService scheduledLessonService;
 
@@ -122,6 +133,25 @@ class ScheduledLessonServiceTest {
         verify(scheduledLessonMapper).toDto(scheduledLesson);
     }
 
+    @Test
+    void createScheduledLesson_InstructorBusy_ThrowsAndDoesNotSave() {
+        // given
+        OffsetDateTime start = scheduledLessonCreateDTO.getStartTime().get();
+        when(lessonRepository.findById(1L)).thenReturn(Optional.of(lesson));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(instructor));
+        when(scheduledLessonMapper.toEntity(scheduledLessonCreateDTO)).thenReturn(scheduledLesson);
+        doThrow(new ScheduleConflictException("Instructor 1 already teaches scheduled lessons [5] at that time",
+                ScheduleConflictDTO.ConflictKind.INSTRUCTOR_DOUBLE_BOOKED, List.of(5L)))
+                .when(scheduleConflictIndex).checkAvailable(1L, 1L, null, start, 90L);
+
+        // when & then
+        assertThatThrownBy(() -> scheduledLessonService.createScheduledLesson(scheduledLessonCreateDTO))
+                .isInstanceOf(ScheduleConflictException.class)
+                .hasMessageContaining("[5]");
+        verify(scheduledLessonRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     void createScheduledLesson_LessonNotFound_ThrowsException() {
         // given
@@ -195,10 +225,54 @@ class ScheduledLessonServiceTest {
 
     // ==================== GET SCHEDULED LESSON BY ID TESTS ====================
 
+    @Test
+    void getScheduledLessonsBetween_WithinDayIndex_LoadsIndexedIdsInStartOrder() {
+        // given: the index lists lesson 2 first; lesson 3 has been moved out of the range meanwhile
+        OffsetDateTime from = OffsetDateTime.of(2025, 8, 11, 0, 0, 0, 0, ZoneOffset.UTC);
+        ScheduledLesson earlier = new ScheduledLesson();
+        earlier.setId(2L);
+        earlier.setStartTime(Optional.of(from.plusHours(9)));
+        ScheduledLesson moved = new ScheduledLesson();
+        moved.setId(3L);
+        moved.setStartTime(Optional.of(from.plusDays(30)));
+        when(calendarDayIndex.findStartingBetween(from, from.plusDays(7))).thenReturn(Optional.of(List.of(2L, 1L, 3L)));
+        when(scheduledLessonRepository.findWithDetailsByIdIn(List.of(2L, 1L, 3L))).thenReturn(List.of(scheduledLesson, moved, earlier));
+        when(scheduledLessonMapper.toDtoList(List.of(earlier, scheduledLesson))).thenReturn(List.of(scheduledLessonResponseDTO));
+
+        // when
+        List<ScheduledLessonResponseDTO> result = scheduledLessonService.getScheduledLessonsBetween(from, from.plusDays(7));
+
+        // then
+        assertThat(result).containsExactly(scheduledLessonResponseDTO);
+        verify(scheduledLessonRepository, never()).findWithDetailsStartingBetween(any(), any());
+    }
+
+    @Test
+    void getScheduledLessonsBetween_OutsideDayIndex_UsesRangeQuery() {
+        // given
+        OffsetDateTime from = OffsetDateTime.of(2025, 8, 11, 0, 0, 0, 0, ZoneOffset.UTC);
+        when(calendarDayIndex.findStartingBetween(from, from.plusDays(7))).thenReturn(Optional.empty());
+        when(scheduledLessonRepository.findWithDetailsStartingBetween(from, from.plusDays(7))).thenReturn(List.of(scheduledLesson));
+        when(scheduledLessonMapper.toDtoList(List.of(scheduledLesson))).thenReturn(List.of(scheduledLessonResponseDTO));
+
+        // when & then
+        assertThat(scheduledLessonService.getScheduledLessonsBetween(from, from.plusDays(7)))
+                .containsExactly(scheduledLessonResponseDTO);
+    }
+
+    @Test
+    void getScheduledLessonsBetween_RangeTooLong_ThrowsException() {
+        OffsetDateTime from = OffsetDateTime.of(2025, 8, 11, 0, 0, 0, 0, ZoneOffset.UTC);
+
+        assertThatThrownBy(() -> scheduledLessonService.getScheduledLessonsBetween(from, from.plusDays(60)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(calendarDayIndex, scheduledLessonRepository);
+    }
+
     @Test
     void getScheduledLessonById_Success() {
         // given
-        when(scheduledLessonRepository.findById(1L)).thenReturn(Optional.of(scheduledLesson));
+        when(scheduledLessonRepository.findWithDetailsById(1L)).thenReturn(Optional.of(scheduledLesson));
         when(scheduledLessonMapper.toDto(scheduledLesson)).thenReturn(scheduledLessonResponseDTO);
 
         // when
@@ -208,21 +282,21 @@ class ScheduledLessonServiceTest {
         assertThat(result).isPresent();
         assertThat(result.get().getDurationInMinutes()).isEqualTo(90L);
 
-        verify(scheduledLessonRepository).findById(1L);
+        verify(scheduledLessonRepository).findWithDetailsById(1L);
         verify(scheduledLessonMapper).toDto(scheduledLesson);
     }
 
     @Test
     void getScheduledLessonById_NotFound() {
         // given
-        when(scheduledLessonRepository.findById(1L)).thenReturn(Optional.empty());
+        when(scheduledLessonRepository.findWithDetailsById(1L)).thenReturn(Optional.empty());
 
         // when
         Optional<ScheduledLessonResponseDTO> result = scheduledLessonService.getScheduledLessonById(1L);
 
         // then
         assertThat(result).isEmpty();
-        verify(scheduledLessonRepository).findById(1L);
+        verify(scheduledLessonRepository).findWithDetailsById(1L);
         verify(scheduledLessonMapper, never()).toDto(any());
     }
 
@@ -348,6 +422,27 @@ class ScheduledLessonServiceTest {
         verify(scheduledLessonMapper).toDto(scheduledLesson);
     }
 
+    @Test
+    void updateScheduledLesson_ChecksNewTimeIgnoringOwnBooking() {
+        // given
+        OffsetDateTime newStart = OffsetDateTime.of(2025, 8, 16, 10, 0, 0, 0, ZoneOffset.UTC);
+        ScheduledLessonCreateDTO updateDTO = new ScheduledLessonCreateDTO();
+        updateDTO.setStartTime(Optional.of(newStart));
+        when(scheduledLessonRepository.findById(1L)).thenReturn(Optional.of(scheduledLesson));
+        doAnswer(invocation -> {
+            scheduledLesson.setStartTime(Optional.of(newStart));
+            return null;
+        }).when(scheduledLessonMapper).updateScheduledLessonFromDto(updateDTO, scheduledLesson);
+        when(scheduledLessonRepository.save(scheduledLesson)).thenReturn(scheduledLesson);
+        when(scheduledLessonMapper.toDto(scheduledLesson)).thenReturn(scheduledLessonResponseDTO);
+
+        // when
+        scheduledLessonService.updateScheduledLesson(1L, updateDTO);
+
+        // then
+        verify(scheduleConflictIndex).checkAvailable(1L, 1L, null, newStart, 90L);
+    }
+
     @Test
     void updateScheduledLesson_ScheduledLessonNotFound_ThrowsException() {
         // given
@@ -0,0 +1,257 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.dto.response.SlotScoreDTO;
+import com.github.pooya1361.makerspace.dto.response.SlotSelectionDTO;
+import com.github.pooya1361.makerspace.model.*;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepositoryCustom.BookedLesson;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlotSelectionServiceTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2030, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private ScheduledLessonRepository scheduledLessonRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ScheduleConflictIndex scheduleConflictIndex;
+    private SlotSelectionService slotSelectionService;
+    private User instructor;
+    private Workshop workshop;
+    private long nextSlotId = 100;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(NOW.toInstant(), ZoneOffset.UTC);
+        scheduleConflictIndex = new ScheduleConflictIndex(scheduledLessonRepository, 25, clock);
+        slotSelectionService = new SlotSelectionService(scheduledLessonRepository, eventPublisher, scheduleConflictIndex,
+                clock);
+        instructor = User.builder().id(7L).email("instructor@example.com").build();
+        workshop = new Workshop();
+        workshop.setId(3L);
+        workshop.setSize(20);   // room for one lesson at a time
+    }
+
+    @Test
+    void finalizeScheduledLesson_PicksMostVotedSlotTheInstructorIsFreeFor() {
+        // given: the most voted slot overlaps another lesson of the instructor
+        ScheduledLesson scheduledLesson = scheduledLesson(1L, slot(NOW.plusDays(1), 9), slot(NOW.plusDays(2), 4),
+                slot(NOW.plusDays(3), 4));
+        when(scheduledLessonRepository.findWithDetailsById(1L)).thenReturn(Optional.of(scheduledLesson));
+        when(scheduledLessonRepository.findMaxBookedDurationInMinutes()).thenReturn(Optional.of(120L));
+        when(scheduledLessonRepository.findBookedStartingBetween(NOW.plusDays(1).minusMinutes(120), NOW.plusDays(3).plusMinutes(60)))
+                .thenReturn(List.of(new BookedLesson(50L, 7L, null, null, NOW.plusDays(1).minusMinutes(30), 60L)));
+
+        // when
+        SlotSelectionDTO result = slotSelectionService.finalizeScheduledLesson(1L);
+
+        // then: the tie between the other two goes to the earlier one
+        assertThat(result.getStatus()).isEqualTo(SlotSelectionDTO.SelectionStatus.SCHEDULED);
+        assertThat(result.getStartTime()).isEqualTo(NOW.plusDays(2));
+        assertThat(result.getSlots()).extracting(SlotScoreDTO::getVotes).containsExactly(4L, 4L, 9L);
+        assertThat(result.getSlots().get(2).getConflicts()).containsExactly(SlotScoreDTO.Conflict.INSTRUCTOR_BUSY);
+        assertThat(result.getSlots().get(2).getConflictingScheduledLessonIds()).containsExactly(50L);
+        assertThat(scheduledLesson.getStartTime()).contains(NOW.plusDays(2));
+        verify(scheduledLessonRepository).save(scheduledLesson);
+        verify(eventPublisher).publishEvent(new ScheduledLessonChangedEvent(1L));
+    }
+
+    @Test
+    void finalizeScheduledLesson_WorkshopFullOrSlotInThePast_NoAvailableSlot() {
+        // given: another instructor's lesson takes the only room in the workshop
+        ScheduledLesson scheduledLesson = scheduledLesson(1L, slot(NOW.minusDays(1), 5), slot(NOW.plusDays(1), 1));
+        when(scheduledLessonRepository.findWithDetailsById(1L)).thenReturn(Optional.of(scheduledLesson));
+        when(scheduledLessonRepository.findMaxBookedDurationInMinutes()).thenReturn(Optional.of(60L));
+        when(scheduledLessonRepository.findBookedStartingBetween(any(), any()))
+                .thenReturn(List.of(new BookedLesson(50L, 8L, 3L, 20.0, NOW.plusDays(1).plusMinutes(30), 60L)));
+
+        // when
+        SlotSelectionDTO result = slotSelectionService.finalizeScheduledLesson(1L);
+
+        // then
+        assertThat(result.getStatus()).isEqualTo(SlotSelectionDTO.SelectionStatus.NO_AVAILABLE_SLOT);
+        assertThat(result.getSlots()).extracting(SlotScoreDTO::getConflicts).containsExactly(
+                List.of(SlotScoreDTO.Conflict.IN_THE_PAST), List.of(SlotScoreDTO.Conflict.WORKSHOP_FULL));
+        assertThat(scheduledLesson.getStartTime()).isEmpty();
+        verify(scheduledLessonRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void finalizeScheduledLesson_WorkshopLessonsOneAfterTheOther_NotFull() {
+        // given: room for two lessons at a time; two lessons overlap the slot, but not each other
+        workshop.setSize(50);
+        ScheduledLesson scheduledLesson = scheduledLesson(1L, slot(NOW.plusDays(1), 3));
+        when(scheduledLessonRepository.findWithDetailsById(1L)).thenReturn(Optional.of(scheduledLesson));
+        when(scheduledLessonRepository.findMaxBookedDurationInMinutes()).thenReturn(Optional.of(60L));
+        when(scheduledLessonRepository.findBookedStartingBetween(any(), any())).thenReturn(List.of(
+                new BookedLesson(50L, 8L, 3L, 50.0, NOW.plusDays(1).minusMinutes(30), 60L),
+                new BookedLesson(51L, 9L, 3L, 50.0, NOW.plusDays(1).plusMinutes(30), 60L)));
+
+        // when
+        SlotSelectionDTO result = slotSelectionService.finalizeScheduledLesson(1L);
+
+        // then
+        assertThat(result.getStatus()).isEqualTo(SlotSelectionDTO.SelectionStatus.SCHEDULED);
+        assertThat(result.getSlots().get(0).getConflicts()).isEmpty();
+        assertThat(scheduledLesson.getStartTime()).contains(NOW.plusDays(1));
+    }
+
+    @Test
+    void finalizeScheduledLesson_BestSlotBookedSinceRead_TakesTheNextOne() {
+        // given: the conflict index already holds a lesson of the instructor at the most voted slot
+        when(scheduledLessonRepository.findBookedById(50L))
+                .thenReturn(Optional.of(new BookedLesson(50L, 7L, null, null, NOW.plusDays(1), 60L)));
+        scheduleConflictIndex.onScheduledLessonChanged(new ScheduledLessonChangedEvent(50L));
+        ScheduledLesson scheduledLesson = scheduledLesson(1L, slot(NOW.plusDays(1), 9), slot(NOW.plusDays(2), 4));
+        when(scheduledLessonRepository.findWithDetailsById(1L)).thenReturn(Optional.of(scheduledLesson));
+        when(scheduledLessonRepository.findMaxBookedDurationInMinutes()).thenReturn(Optional.of(60L));
+        when(scheduledLessonRepository.findBookedStartingBetween(any(), any())).thenReturn(List.of());
+
+        // when
+        SlotSelectionDTO result = slotSelectionService.finalizeScheduledLesson(1L);
+
+        // then
+        assertThat(result.getStatus()).isEqualTo(SlotSelectionDTO.SelectionStatus.SCHEDULED);
+        assertThat(result.getStartTime()).isEqualTo(NOW.plusDays(2));
+        assertThat(result.getSlots().get(1).getConflicts()).containsExactly(SlotScoreDTO.Conflict.INSTRUCTOR_BUSY);
+        assertThat(result.getSlots().get(1).getConflictingScheduledLessonIds()).containsExactly(50L);
+        assertThat(scheduledLesson.getStartTime()).contains(NOW.plusDays(2));
+        verify(scheduledLessonRepository).save(scheduledLesson);
+    }
+
+    @Test
+    void finalizeScheduledLesson_EverySlotBookedSinceRead_NoAvailableSlot() {
+        // given: the conflict index holds another lesson filling the workshop at the only slot
+        when(scheduledLessonRepository.findBookedById(50L))
+                .thenReturn(Optional.of(new BookedLesson(50L, 8L, 3L, 20.0, NOW.plusDays(1), 60L)));
+        scheduleConflictIndex.onScheduledLessonChanged(new ScheduledLessonChangedEvent(50L));
+        ScheduledLesson scheduledLesson = scheduledLesson(1L, slot(NOW.plusDays(1), 9));
+        when(scheduledLessonRepository.findWithDetailsById(1L)).thenReturn(Optional.of(scheduledLesson));
+        when(scheduledLessonRepository.findMaxBookedDurationInMinutes()).thenReturn(Optional.of(60L));
+        when(scheduledLessonRepository.findBookedStartingBetween(any(), any())).thenReturn(List.of());
+
+        // when
+        SlotSelectionDTO result = slotSelectionService.finalizeScheduledLesson(1L);
+
+        // then
+        assertThat(result.getStatus()).isEqualTo(SlotSelectionDTO.SelectionStatus.NO_AVAILABLE_SLOT);
+        assertThat(result.getSlots().get(0).getConflicts()).containsExactly(SlotScoreDTO.Conflict.WORKSHOP_FULL);
+        assertThat(scheduledLesson.getStartTime()).isEmpty();
+        verify(scheduledLessonRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void finalizeScheduledLesson_NotFound_Throws() {
+        when(scheduledLessonRepository.findWithDetailsById(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> slotSelectionService.finalizeScheduledLesson(1L))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void finalizeScheduledLessons_LaterLessonsSeeEarlierBookings() {
+        // given: two lessons of the same instructor want the same time; the more popular one goes first
+        ScheduledLesson lessPopular = scheduledLesson(1L, slot(NOW.plusDays(1), 2), slot(NOW.plusDays(2), 1));
+        ScheduledLesson popular = scheduledLesson(2L, slot(NOW.plusDays(1), 6));
+        ScheduledLesson booked = scheduledLesson(3L);
+        booked.setStartTime(Optional.of(NOW.plusDays(5)));
+        when(scheduledLessonRepository.findWithDetailsByIdIn(List.of(1L, 2L, 3L, 4L)))
+                .thenReturn(List.of(lessPopular, popular, booked));
+        when(scheduledLessonRepository.findMaxBookedDurationInMinutes()).thenReturn(Optional.empty());
+        when(scheduledLessonRepository.findBookedStartingBetween(any(), any())).thenReturn(List.of());
+
+        // when
+        List<SlotSelectionDTO> results = slotSelectionService.finalizeScheduledLessons(List.of(1L, 2L, 3L, 4L));
+
+        // then: results come back in request order
+        assertThat(results).extracting(SlotSelectionDTO::getStatus).containsExactly(
+                SlotSelectionDTO.SelectionStatus.SCHEDULED, SlotSelectionDTO.SelectionStatus.SCHEDULED,
+                SlotSelectionDTO.SelectionStatus.ALREADY_SCHEDULED, SlotSelectionDTO.SelectionStatus.NOT_FOUND);
+        assertThat(popular.getStartTime()).contains(NOW.plusDays(1));
+        assertThat(lessPopular.getStartTime()).contains(NOW.plusDays(2));
+        assertThat(results.get(0).getSlots().get(1).getConflictingScheduledLessonIds()).containsExactly(2L);
+        verify(scheduledLessonRepository).findBookedStartingBetween(any(), any());
+    }
+
+    @Test
+    void finalizeScheduledLessons_NoIds_FinalizesEveryLessonAwaitingStartTime() {
+        // given
+        ScheduledLesson scheduledLesson = scheduledLesson(1L, slot(NOW.plusDays(1), 0));
+        when(scheduledLessonRepository.findIdsAwaitingStartTime()).thenReturn(List.of(1L));
+        when(scheduledLessonRepository.findWithDetailsByIdIn(List.of(1L))).thenReturn(List.of(scheduledLesson));
+        when(scheduledLessonRepository.findMaxBookedDurationInMinutes()).thenReturn(Optional.empty());
+
+        // when
+        List<SlotSelectionDTO> results = slotSelectionService.finalizeScheduledLessons(List.of());
+
+        // then
+        assertThat(results).singleElement().extracting(SlotSelectionDTO::getStatus)
+                .isEqualTo(SlotSelectionDTO.SelectionStatus.SCHEDULED);
+    }
+
+    @Test
+    void rankSlots_DoesNotBook() {
+        // given
+        ScheduledLesson scheduledLesson = scheduledLesson(1L, slot(NOW.plusDays(1), 1), slot(NOW.plusDays(2), 3));
+        when(scheduledLessonRepository.findWithDetailsById(1L)).thenReturn(Optional.of(scheduledLesson));
+        when(scheduledLessonRepository.findMaxBookedDurationInMinutes()).thenReturn(Optional.empty());
+
+        // when
+        Optional<List<SlotScoreDTO>> ranking = slotSelectionService.rankSlots(1L);
+
+        // then
+        assertThat(ranking).hasValueSatisfying(slots ->
+                assertThat(slots).extracting(SlotScoreDTO::getVotes).containsExactly(3L, 1L));
+        assertThat(scheduledLesson.getStartTime()).isEmpty();
+        verify(scheduledLessonRepository, never()).save(any());
+    }
+
+    private ScheduledLesson scheduledLesson(Long id, ProposedTimeSlot... slots) {
+        Activity activity = new Activity();
+        activity.setWorkshop(workshop);
+        Lesson lesson = new Lesson();
+        lesson.setActivity(activity);
+
+        ScheduledLesson scheduledLesson = new ScheduledLesson();
+        scheduledLesson.setId(id);
+        scheduledLesson.setStartTime(Optional.empty());
+        scheduledLesson.setDurationInMinutes(60L);
+        scheduledLesson.setLesson(lesson);
+        scheduledLesson.setInstructor(instructor);
+        for (ProposedTimeSlot slot : slots) {
+            slot.setScheduledLesson(scheduledLesson);
+            scheduledLesson.getProposedTimeSlots().add(slot);
+        }
+        return scheduledLesson;
+    }
+
+    private ProposedTimeSlot slot(OffsetDateTime start, long votes) {
+        ProposedTimeSlot slot = new ProposedTimeSlot();
+        slot.setId(nextSlotId++);
+        slot.setProposedStartTime(start);
+        slot.setVoteCount(votes);
+        return slot;
+    }
+}
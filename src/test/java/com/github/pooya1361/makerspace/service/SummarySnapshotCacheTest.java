@@ -0,0 +1,80 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.dto.response.SummaryResponseDTO;
+import com.github.pooya1361.makerspace.model.Workshop;
+import com.github.pooya1361.makerspace.repository.SummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SummarySnapshotCacheTest {
+
+    @Mock
+    private SummaryRepository summaryRepository;
+
+    @InjectMocks
+    private SummarySnapshotCache summarySnapshotCache;
+
+    @BeforeEach
+    void setUp() {
+        when(summaryRepository.countAll()).thenReturn(counts(3), counts(4));
+    }
+
+    @Test
+    void get_LoadsOnceAndServesFromMemory() {
+        SummaryResponseDTO first = summarySnapshotCache.get();
+        SummaryResponseDTO second = summarySnapshotCache.get();
+
+        assertThat(first.getTotalWorkshops()).isEqualTo(3);
+        assertThat(second).isSameAs(first);
+        verify(summaryRepository, times(1)).countAll();
+    }
+
+    @Test
+    void onSummaryChanged_NextGetReloads() {
+        summarySnapshotCache.get();
+
+        summarySnapshotCache.onSummaryChanged(new SummaryChangedEvent(Workshop.class));
+
+        assertThat(summarySnapshotCache.get().getTotalWorkshops()).isEqualTo(4);
+        verify(summaryRepository, times(2)).countAll();
+    }
+
+    @Test
+    void refresh_ReplacesSnapshotInBackground() {
+        summarySnapshotCache.get();
+
+        summarySnapshotCache.refresh();
+
+        assertThat(summarySnapshotCache.get().getTotalWorkshops()).isEqualTo(4);
+        verify(summaryRepository, times(2)).countAll();
+    }
+
+    @Test
+    void refresh_FailureKeepsPreviousSnapshot() {
+        summarySnapshotCache.get();
+        reset(summaryRepository);
+        when(summaryRepository.countAll()).thenThrow(new IllegalStateException("database down"));
+
+        summarySnapshotCache.refresh();
+
+        assertThat(summarySnapshotCache.get().getTotalWorkshops()).isEqualTo(3);
+    }
+
+    private static SummaryRepository.SummaryCounts counts(long workshops) {
+        return new SummaryRepository.SummaryCounts() {
+            public long getTotalWorkshops() { return workshops; }
+            public long getTotalActivities() { return 2; }
+            public long getTotalLessons() { return 5; }
+            public long getTotalScheduledLessons() { return 7; }
+            public long getTotalUsers() { return 11; }
+        };
+    }
+}
@@ -7,6 +7,7 @@ import com.github.pooya1361.makerspace.mapper.UserMapper;
 import com.github.pooya1361.makerspace.model.User;
 import com.github.pooya1361.makerspace.model.enums.UserType;
 import com.github.pooya1361.makerspace.repository.UserRepository;
+import com.github.pooya1361.makerspace.security.UserPrincipalCache;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Arrays;
@@ -38,6 +40,12 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserPrincipalCache userPrincipalCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -384,6 +392,8 @@ class UserServiceTest {
         verify(passwordEncoder).encode("newPlainPassword");
         verify(userRepository).save(user);
         verify(userMapper).toDto(user);
+        assertThat(user.getTokenVersion()).isEqualTo(1L);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(1L, "john.doe@example.com"));
     }
 
     @Test
@@ -543,6 +553,7 @@ class UserServiceTest {
         verify(passwordEncoder, never()).encode(anyString());
         verify(userRepository).save(user);
         verify(userMapper).toDto(user);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(1L, "john.doe@example.com"));
     }
 
     // ==================== DELETE USER TESTS ====================
@@ -550,28 +561,43 @@ class UserServiceTest {
     @Test
     void deleteUser_Success() {
         // given
-        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
 
         // when
         userService.deleteUser(1L);
 
         // then
-        verify(userRepository).existsById(1L);
-        verify(userRepository).deleteById(1L);
+        verify(userRepository).delete(user);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(1L, "john.doe@example.com"));
+    }
+
+    @Test
+    void rotateCalendarFeedToken_BumpsOnlyTheFeedTokenVersion() {
+        // given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        // when
+        User rotated = userService.rotateCalendarFeedToken(1L);
+
+        // then
+        assertThat(rotated.getCalendarFeedTokenVersion()).isEqualTo(1L);
+        assertThat(rotated.getTokenVersion()).isZero();
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void deleteUser_NotFound_ThrowsException() {
         // given
-        when(userRepository.existsById(1L)).thenReturn(false);
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
 
         // when & then
         assertThatThrownBy(() -> userService.deleteUser(1L))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("User not found with ID: 1");
 
-        verify(userRepository).existsById(1L);
-        verify(userRepository, never()).deleteById(any());
+        verify(userRepository, never()).delete(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     // ==================== EDGE CASE TESTS ====================
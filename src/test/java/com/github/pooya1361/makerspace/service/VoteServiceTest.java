@@ -1,14 +1,21 @@
 // src/test/java/com/github/pooya1361/makerspace/service/VoteServiceTest.java
 package com.github.pooya1361.makerspace.service;
 
+import com.github.pooya1361.makerspace.dto.create.VoteBatchCreateDTO;
 import com.github.pooya1361.makerspace.dto.create.VoteCreateDTO;
+import com.github.pooya1361.makerspace.dto.response.PageResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.VoteBatchItemDTO;
+import com.github.pooya1361.makerspace.dto.response.VoteBatchResponseDTO;
 import com.github.pooya1361.makerspace.dto.response.VoteResponseDTO;
+import com.github.pooya1361.makerspace.dto.response.VoteTallyDTO;
 import com.github.pooya1361.makerspace.mapper.VoteMapper;
 import com.github.pooya1361.makerspace.model.ProposedTimeSlot;
+import com.github.pooya1361.makerspace.model.ScheduledLesson;
 import com.github.pooya1361.makerspace.model.User;
 import com.github.pooya1361.makerspace.model.Vote;
 import com.github.pooya1361.makerspace.model.enums.UserType;
 import com.github.pooya1361.makerspace.repository.ProposedTimeSlotRepository;
+import com.github.pooya1361.makerspace.repository.ScheduledLessonRepository;
 import com.github.pooya1361.makerspace.repository.UserRepository;
 import com.github.pooya1361.makerspace.repository.VoteRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -18,16 +25,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,9 +58,18 @@ class VoteServiceTest {
     @Mock
     private ProposedTimeSlotRepository proposedTimeSlotRepository;
 
+    @Mock
+    private ScheduledLessonRepository scheduledLessonRepository;
+
     @Mock
     private VoteMapper voteMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RecentVoteFilter recentVoteFilter;
+
     @InjectMocks
     private VoteService voteService;
 
@@ -68,6 +93,9 @@ class VoteServiceTest {
         proposedTimeSlot = new ProposedTimeSlot();
         proposedTimeSlot.setId(1L);
         proposedTimeSlot.setProposedStartTime(OffsetDateTime.of(2025, 8, 15, 14, 30, 0, 0, ZoneOffset.UTC));
+        ScheduledLesson scheduledLesson = new ScheduledLesson();
+        scheduledLesson.setId(5L);
+        proposedTimeSlot.setScheduledLesson(scheduledLesson);
 
         // Setup Vote
         vote = new Vote();
@@ -93,22 +121,77 @@ class VoteServiceTest {
         // given
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(proposedTimeSlotRepository.findById(1L)).thenReturn(Optional.of(proposedTimeSlot));
-        when(voteMapper.toEntity(voteCreateDTO)).thenReturn(vote);
-        when(voteRepository.save(vote)).thenReturn(vote);
+        when(voteRepository.insertIfAbsent(1L, 1L)).thenReturn(Optional.of(1L));
         when(voteMapper.toDto(vote)).thenReturn(voteResponseDTO);
 
         // when
-        VoteResponseDTO result = voteService.createVote(voteCreateDTO);
+        VoteService.CastVote result = voteService.createVote(voteCreateDTO);
 
         // then
-        assertThat(result).isNotNull();
-        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(result.created()).isTrue();
+        assertThat(result.vote().getId()).isEqualTo(1L);
 
         verify(userRepository).findById(1L);
         verify(proposedTimeSlotRepository).findById(1L);
-        verify(voteMapper).toEntity(voteCreateDTO);
-        verify(voteRepository).save(vote);
+        verify(voteRepository).insertIfAbsent(1L, 1L);
+        verify(recentVoteFilter).add(1L, 1L);
         verify(voteMapper).toDto(vote);
+        verify(proposedTimeSlotRepository).adjustVoteCount(1L, 1);
+        verify(eventPublisher).publishEvent(new VoteChangedEvent(5L, 1L, 1));
+    }
+
+    @Test
+    void createVote_AlreadyVoted_ReturnsExistingVoteWithoutCounting() {
+        // given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(proposedTimeSlotRepository.findById(1L)).thenReturn(Optional.of(proposedTimeSlot));
+        when(voteRepository.insertIfAbsent(1L, 1L)).thenReturn(Optional.empty());
+        when(voteRepository.findByUserIdAndProposedTimeSlotId(1L, 1L)).thenReturn(Optional.of(vote));
+        when(voteMapper.toDto(vote)).thenReturn(voteResponseDTO);
+
+        // when
+        VoteService.CastVote result = voteService.createVote(voteCreateDTO);
+
+        // then
+        assertThat(result.created()).isFalse();
+        assertThat(result.vote()).isSameAs(voteResponseDTO);
+        verify(recentVoteFilter).add(1L, 1L);
+        verify(proposedTimeSlotRepository, never()).adjustVoteCount(any(), anyLong());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void createVote_RecentlyVoted_AnswersWithoutInsert() {
+        // given
+        when(recentVoteFilter.mightContain(1L, 1L)).thenReturn(true);
+        when(voteRepository.findByUserIdAndProposedTimeSlotId(1L, 1L)).thenReturn(Optional.of(vote));
+        when(voteMapper.toDto(vote)).thenReturn(voteResponseDTO);
+
+        // when
+        VoteService.CastVote result = voteService.createVote(voteCreateDTO);
+
+        // then
+        assertThat(result.created()).isFalse();
+        verify(voteRepository, never()).insertIfAbsent(any(), any());
+        verifyNoInteractions(userRepository, eventPublisher);
+    }
+
+    @Test
+    void createVote_FilterFalsePositive_StillInserts() {
+        // given
+        when(recentVoteFilter.mightContain(1L, 1L)).thenReturn(true);
+        when(voteRepository.findByUserIdAndProposedTimeSlotId(1L, 1L)).thenReturn(Optional.empty());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(proposedTimeSlotRepository.findById(1L)).thenReturn(Optional.of(proposedTimeSlot));
+        when(voteRepository.insertIfAbsent(1L, 1L)).thenReturn(Optional.of(1L));
+        when(voteMapper.toDto(vote)).thenReturn(voteResponseDTO);
+
+        // when
+        VoteService.CastVote result = voteService.createVote(voteCreateDTO);
+
+        // then
+        assertThat(result.created()).isTrue();
+        verify(proposedTimeSlotRepository).adjustVoteCount(1L, 1);
     }
 
     @Test
@@ -123,7 +206,8 @@ class VoteServiceTest {
 
         verify(userRepository).findById(1L);
         verify(proposedTimeSlotRepository, never()).findById(any());
-        verify(voteRepository, never()).save(any());
+        verify(voteRepository, never()).insertIfAbsent(any(), any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -139,7 +223,7 @@ class VoteServiceTest {
 
         verify(userRepository).findById(1L);
         verify(proposedTimeSlotRepository).findById(1L);
-        verify(voteRepository, never()).save(any());
+        verify(voteRepository, never()).insertIfAbsent(any(), any());
     }
 
     @Test
@@ -166,12 +250,11 @@ class VoteServiceTest {
 
         when(userRepository.findById(2L)).thenReturn(Optional.of(instructorUser));
         when(proposedTimeSlotRepository.findById(1L)).thenReturn(Optional.of(proposedTimeSlot));
-        when(voteMapper.toEntity(instructorVoteDTO)).thenReturn(instructorVote);
-        when(voteRepository.save(instructorVote)).thenReturn(instructorVote);
+        when(voteRepository.insertIfAbsent(2L, 1L)).thenReturn(Optional.of(2L));
         when(voteMapper.toDto(instructorVote)).thenReturn(instructorVoteResponse);
 
         // when
-        VoteResponseDTO result = voteService.createVote(instructorVoteDTO);
+        VoteResponseDTO result = voteService.createVote(instructorVoteDTO).vote();
 
         // then
         assertThat(result).isNotNull();
@@ -179,11 +262,117 @@ class VoteServiceTest {
 
         verify(userRepository).findById(2L);
         verify(proposedTimeSlotRepository).findById(1L);
-        verify(voteMapper).toEntity(instructorVoteDTO);
-        verify(voteRepository).save(instructorVote);
+        verify(voteRepository).insertIfAbsent(2L, 1L);
         verify(voteMapper).toDto(instructorVote);
     }
 
+    // ==================== BATCH VOTE TESTS ====================
+
+    @Test
+    void createVotes_ReportsCreatedDuplicateAndMissingSlotsInRequestOrder() {
+        // given: slot 1 is new, slot 2 was voted on before, slot 3 does not exist
+        ProposedTimeSlot votedSlot = new ProposedTimeSlot();
+        votedSlot.setId(2L);
+        votedSlot.setScheduledLesson(proposedTimeSlot.getScheduledLesson());
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(proposedTimeSlotRepository.findAllById(List.of(3L, 1L, 2L))).thenReturn(List.of(proposedTimeSlot, votedSlot));
+        when(voteRepository.findUserVotesOnSlots(eq(1L), anyCollection()))
+                .thenReturn(List.of(userVote(2L, 20L)))
+                .thenReturn(List.of(userVote(1L, 21L), userVote(2L, 20L)));
+        when(voteRepository.insertAllIfAbsent(1L, List.of(1L))).thenReturn(List.of(1L));
+        when(proposedTimeSlotRepository.findVoteTalliesByIdIn(anyCollection()))
+                .thenReturn(List.of(tally(1L, 1L), tally(2L, 4L)));
+
+        // when
+        VoteBatchResponseDTO result = voteService.createVotes(new VoteBatchCreateDTO(1L, List.of(3L, 1L, 2L, 1L)));
+
+        // then
+        assertThat(result.getResults()).containsExactly(
+                new VoteBatchItemDTO(3L, VoteBatchItemDTO.Status.NOT_FOUND, null),
+                new VoteBatchItemDTO(1L, VoteBatchItemDTO.Status.CREATED, 21L),
+                new VoteBatchItemDTO(2L, VoteBatchItemDTO.Status.DUPLICATE, 20L));
+        assertThat(result.getTallies()).containsExactly(new VoteTallyDTO(1L, 1L), new VoteTallyDTO(2L, 4L));
+        verify(proposedTimeSlotRepository).incrementVoteCounts(Set.of(1L));
+        verify(eventPublisher).publishEvent(new VoteChangedEvent(5L, 1L, 1));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void createVotes_NothingNew_DoesNotInsert() {
+        // given
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(proposedTimeSlotRepository.findAllById(List.of(1L))).thenReturn(List.of(proposedTimeSlot));
+        when(voteRepository.findUserVotesOnSlots(eq(1L), anyCollection())).thenReturn(List.of(userVote(1L, 20L)));
+        when(proposedTimeSlotRepository.findVoteTalliesByIdIn(anyCollection())).thenReturn(List.of(tally(1L, 3L)));
+
+        // when
+        VoteBatchResponseDTO result = voteService.createVotes(new VoteBatchCreateDTO(1L, List.of(1L)));
+
+        // then
+        assertThat(result.getResults()).containsExactly(new VoteBatchItemDTO(1L, VoteBatchItemDTO.Status.DUPLICATE, 20L));
+        verify(voteRepository, never()).insertAllIfAbsent(any(), any());
+        verify(proposedTimeSlotRepository, never()).incrementVoteCounts(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void createVotes_UserNotFound_ThrowsException() {
+        // given
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        // when & then
+        assertThatThrownBy(() -> voteService.createVotes(new VoteBatchCreateDTO(99L, List.of(1L))))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("User not found with ID: 99");
+        verifyNoInteractions(proposedTimeSlotRepository, voteRepository);
+    }
+
+    // ==================== VOTE TALLY TESTS ====================
+
+    @Test
+    void getVoteTallies_ReturnsCountersWithoutLoadingVotes() {
+        // given
+        when(scheduledLessonRepository.existsById(5L)).thenReturn(true);
+        when(proposedTimeSlotRepository.findVoteTalliesByScheduledLessonId(5L)).thenReturn(List.of(tally(1L, 3L)));
+
+        // when
+        List<VoteTallyDTO> result = voteService.getVoteTallies(5L);
+
+        // then
+        assertThat(result).containsExactly(new VoteTallyDTO(1L, 3L));
+        verifyNoInteractions(voteRepository);
+    }
+
+    @Test
+    void getVoteTallies_ScheduledLessonNotFound_ThrowsException() {
+        // given
+        when(scheduledLessonRepository.existsById(99L)).thenReturn(false);
+
+        // when & then
+        assertThatThrownBy(() -> voteService.getVoteTallies(99L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("ScheduledLesson not found with ID: 99");
+        verify(proposedTimeSlotRepository, never()).findVoteTalliesByScheduledLessonId(any());
+    }
+
+    @Test
+    void getVoteTally_ReadsSingleCounter() {
+        // given
+        when(proposedTimeSlotRepository.findVoteTalliesByIdIn(List.of(1L))).thenReturn(List.of(tally(1L, 3L)));
+
+        // when & then
+        assertThat(voteService.getVoteTally(1L)).contains(new VoteTallyDTO(1L, 3L));
+    }
+
+    @Test
+    void getVoteTally_SlotNotFound_ReturnsEmpty() {
+        // given
+        when(proposedTimeSlotRepository.findVoteTalliesByIdIn(List.of(99L))).thenReturn(List.of());
+
+        // when & then
+        assertThat(voteService.getVoteTally(99L)).isEmpty();
+    }
+
     // ==================== GET ALL VOTES TESTS ====================
 
     @Test
@@ -260,6 +449,77 @@ class VoteServiceTest {
         verify(voteMapper).toDtoList(votes);
     }
 
+    // ==================== PAGED GET TESTS ====================
+
+    @Test
+    void getVotes_OffsetPage_ReturnsContentAndTotal() {
+        // given
+        Pageable pageable = PageRequest.of(0, 10);
+        List<Vote> votes = List.of(vote);
+        // Without a requested sort, offset pages are ordered by id so consecutive pages do not overlap
+        when(voteRepository.findAll(PageRequest.of(0, 10, Sort.by("id")))).thenReturn(new PageImpl<>(votes, pageable, 25));
+        when(voteMapper.toDtoList(votes)).thenReturn(List.of(voteResponseDTO));
+
+        // when
+        PageResponseDTO<VoteResponseDTO> result = voteService.getVotes(pageable, null);
+
+        // then
+        assertThat(result.getContent()).containsExactly(voteResponseDTO);
+        assertThat(result.getTotalElements()).isEqualTo(25L);
+        assertThat(result.getNextCursor()).isNull();
+        verify(voteRepository, never()).findByIdGreaterThan(any(), any());
+    }
+
+    @Test
+    void getVotes_OffsetPageWithSort_KeepsRequestedSort() {
+        // given
+        Pageable pageable = PageRequest.of(1, 10, Sort.by("user"));
+        when(voteRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(vote), pageable, 11));
+        when(voteMapper.toDtoList(List.of(vote))).thenReturn(List.of(voteResponseDTO));
+
+        // when
+        PageResponseDTO<VoteResponseDTO> result = voteService.getVotes(pageable, null);
+
+        // then
+        assertThat(result.getTotalElements()).isEqualTo(11L);
+        verify(voteRepository).findAll(pageable);
+    }
+
+    @Test
+    void getVotes_KeysetFullPage_ReturnsCursorOfLastRow() {
+        // given
+        Vote vote2 = new Vote();
+        vote2.setId(7L);
+        List<Vote> votes = List.of(vote, vote2);
+        when(voteRepository.findByIdGreaterThan(eq(0L), any(Pageable.class))).thenReturn(votes);
+        when(voteMapper.toDtoList(votes)).thenReturn(List.of(voteResponseDTO, new VoteResponseDTO()));
+
+        // when
+        PageResponseDTO<VoteResponseDTO> result = voteService.getVotes(PageRequest.of(3, 2, Sort.by("user")), 0L);
+
+        // then
+        assertThat(result.getNextCursor()).isEqualTo(7L);
+        assertThat(result.getTotalElements()).isNull();
+        // keyset pages always start at offset 0 and are ordered by id, whatever page/sort was requested
+        verify(voteRepository).findByIdGreaterThan(0L, PageRequest.of(0, 2, Sort.by("id")));
+        verify(voteRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getVotes_KeysetLastPage_HasNoCursor() {
+        // given
+        List<Vote> votes = List.of(vote);
+        when(voteRepository.findByIdGreaterThan(eq(0L), any(Pageable.class))).thenReturn(votes);
+        when(voteMapper.toDtoList(votes)).thenReturn(List.of(voteResponseDTO));
+
+        // when
+        PageResponseDTO<VoteResponseDTO> result = voteService.getVotes(PageRequest.of(0, 5), 0L);
+
+        // then
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getNextCursor()).isNull();
+    }
+
     // ==================== GET VOTE BY ID TESTS ====================
 
     @Test
@@ -341,28 +601,35 @@ class VoteServiceTest {
     @Test
     void deleteVote_Success() {
         // given
-        when(voteRepository.existsById(1L)).thenReturn(true);
+        VoteRepository.VoteTarget target = mock(VoteRepository.VoteTarget.class);
+        when(target.getScheduledLessonId()).thenReturn(5L);
+        when(target.getProposedTimeSlotId()).thenReturn(1L);
+        when(voteRepository.findTargetById(1L)).thenReturn(Optional.of(target));
 
         // when
         voteService.deleteVote(1L);
 
         // then
-        verify(voteRepository).existsById(1L);
+        verify(voteRepository).findTargetById(1L);
         verify(voteRepository).deleteById(1L);
+        verify(proposedTimeSlotRepository).adjustVoteCount(1L, -1);
+        verify(eventPublisher).publishEvent(new VoteChangedEvent(5L, 1L, -1));
     }
 
     @Test
     void deleteVote_NotFound_ThrowsException() {
         // given
-        when(voteRepository.existsById(1L)).thenReturn(false);
+        when(voteRepository.findTargetById(1L)).thenReturn(Optional.empty());
 
         // when & then
         assertThatThrownBy(() -> voteService.deleteVote(1L))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Vote not found with ID: 1");
 
-        verify(voteRepository).existsById(1L);
+        verify(voteRepository).findTargetById(1L);
         verify(voteRepository, never()).deleteById(any());
+        verify(proposedTimeSlotRepository, never()).adjustVoteCount(any(), anyLong());
+        verifyNoInteractions(eventPublisher);
     }
 
     // ==================== EDGE CASE TESTS ====================
@@ -419,4 +686,18 @@ class VoteServiceTest {
         verify(userRepository, never()).findById(any());
         verify(proposedTimeSlotRepository, never()).findById(any());
     }
-}
\ No newline at end of file
+
+    private static VoteRepository.UserVote userVote(Long proposedTimeSlotId, Long voteId) {
+        return new VoteRepository.UserVote() {
+            public Long getProposedTimeSlotId() { return proposedTimeSlotId; }
+            public Long getVoteId() { return voteId; }
+        };
+    }
+
+    private static ProposedTimeSlotRepository.VoteTally tally(Long proposedTimeSlotId, long votes) {
+        return new ProposedTimeSlotRepository.VoteTally() {
+            public Long getProposedTimeSlotId() { return proposedTimeSlotId; }
+            public long getVotes() { return votes; }
+        };
+    }
+}
@@ -0,0 +1,230 @@
+package com.github.pooya1361.makerspace.service;
+
+import com.github.pooya1361.makerspace.dto.response.VoteTallyDTO;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+class VoteTallyBrokerTest {
+
+    @Mock
+    private VoteService voteService;
+
+    private VoteTallyBroker broker;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // Fan out on the calling thread, so the stream content can be asserted right after an event
+        broker = new VoteTallyBroker(voteService, 60_000, Runnable::run);
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(broker)).build();
+    }
+
+    @Test
+    void subscribe_SendsCurrentTallyFirst() throws Exception {
+        // given
+        givenScheduledLesson(1L, tally(10L, 2), tally(11L, 0));
+
+        // when
+        MvcResult result = subscribe(1L);
+
+        // then
+        assertThat(result.getResponse().getContentAsString())
+                .contains("event:tally")
+                .contains("{\"proposedTimeSlotId\":10,\"votes\":2}")
+                .contains("{\"proposedTimeSlotId\":11,\"votes\":0}");
+        assertThat(broker.subscriberCount(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_UnknownScheduledLesson_ThrowsAndRegistersNothing() {
+        // given
+        when(voteService.getVoteTallies(99L))
+                .thenThrow(new EntityNotFoundException("ScheduledLesson not found with ID: 99"));
+
+        // when & then
+        assertThatThrownBy(() -> broker.subscribe(99L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("ScheduledLesson not found with ID: 99");
+        assertThat(broker.subscriberCount(99L)).isZero();
+    }
+
+    @Test
+    void onVoteChanged_PushesDeltaToSubscribersOfThatScheduledLessonOnly() throws Exception {
+        // given
+        givenScheduledLesson(1L, tally(10L, 2));
+        givenScheduledLesson(2L, tally(20L, 0));
+        MvcResult first = subscribe(1L);
+        MvcResult second = subscribe(2L);
+
+        when(voteService.getVoteTally(10L)).thenReturn(Optional.of(tally(10L, 3)), Optional.of(tally(10L, 2)));
+
+        // when
+        broker.onVoteChanged(new VoteChangedEvent(1L, 10L, 1));
+        broker.onVoteChanged(new VoteChangedEvent(1L, 10L, -1));
+
+        // then
+        assertThat(first.getResponse().getContentAsString())
+                .contains("event:vote-delta\ndata:{\"proposedTimeSlotId\":10,\"delta\":1,\"votes\":3}")
+                .contains("event:vote-delta\ndata:{\"proposedTimeSlotId\":10,\"delta\":-1,\"votes\":2}");
+        assertThat(second.getResponse().getContentAsString()).doesNotContain("vote-delta");
+    }
+
+    @Test
+    void onVoteChanged_VoteAlreadyInTally_DeltaCarriesSameCount() throws Exception {
+        // given: the vote committed before the subscription read the tally, and its event is delivered after
+        givenScheduledLesson(1L, tally(10L, 3));
+        MvcResult result = subscribe(1L);
+        when(voteService.getVoteTally(10L)).thenReturn(Optional.of(tally(10L, 3)));
+
+        // when
+        broker.onVoteChanged(new VoteChangedEvent(1L, 10L, 1));
+
+        // then: a client showing the latest count stays at 3 instead of counting the vote twice
+        assertThat(result.getResponse().getContentAsString())
+                .contains("{\"proposedTimeSlotId\":10,\"votes\":3}")
+                .contains("{\"proposedTimeSlotId\":10,\"delta\":1,\"votes\":3}");
+    }
+
+    @Test
+    void onVoteChanged_CountUnreadable_EndsStreamsOfThatScheduledLesson() throws Exception {
+        // given
+        givenScheduledLesson(1L, tally(10L, 2));
+        subscribe(1L);
+        when(voteService.getVoteTally(10L)).thenThrow(new IllegalStateException("database unavailable"));
+
+        // when
+        broker.onVoteChanged(new VoteChangedEvent(1L, 10L, 1));
+
+        // then
+        assertThat(broker.subscriberCount(1L)).isZero();
+    }
+
+    @Test
+    void subscribe_VoteCommittedWhileReadingTally_SendsTallyReadAfterIt() throws Exception {
+        // given: a vote on the scheduled lesson commits while the subscription reads its tally
+        AtomicInteger reads = new AtomicInteger();
+        when(voteService.getVoteTallies(1L)).thenAnswer(invocation -> {
+            if (reads.getAndIncrement() == 0) {
+                broker.onVoteChanged(new VoteChangedEvent(1L, 10L, 1));
+                return List.of(tally(10L, 2));
+            }
+            return List.of(tally(10L, 3));
+        });
+
+        // when
+        MvcResult result = subscribe(1L);
+
+        // then: the possibly stale first read is dropped for one taken in order with the topic's deltas
+        assertThat(result.getResponse().getContentAsString())
+                .contains("{\"proposedTimeSlotId\":10,\"votes\":3}")
+                .doesNotContain("{\"proposedTimeSlotId\":10,\"votes\":2}");
+        assertThat(reads).hasValue(2);
+        assertThat(broker.subscriberCount(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void onVoteChanged_FanOutTasksRunOutOfOrder_StreamKeepsTallyThenDeltasInOrder() throws Exception {
+        // given: fan-out tasks are held back and then run newest first
+        Deque<Runnable> tasks = new ArrayDeque<>();
+        broker = new VoteTallyBroker(voteService, 60_000, tasks::push);
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(broker)).build();
+        givenScheduledLesson(1L, tally(10L, 2));
+        MvcResult result = subscribe(1L);
+        when(voteService.getVoteTally(10L)).thenReturn(Optional.of(tally(10L, 3)), Optional.of(tally(10L, 4)));
+
+        // when
+        broker.onVoteChanged(new VoteChangedEvent(1L, 10L, 1));
+        runAll(tasks);
+        broker.onVoteChanged(new VoteChangedEvent(1L, 10L, 1));
+        runAll(tasks);
+
+        // then
+        String stream = result.getResponse().getContentAsString();
+        int tally = stream.indexOf("{\"proposedTimeSlotId\":10,\"votes\":2}");
+        int first = stream.indexOf("{\"proposedTimeSlotId\":10,\"delta\":1,\"votes\":3}");
+        int second = stream.indexOf("{\"proposedTimeSlotId\":10,\"delta\":1,\"votes\":4}");
+        assertThat(tally).isNotNegative();
+        assertThat(first).isGreaterThan(tally);
+        assertThat(second).isGreaterThan(first);
+    }
+
+    @Test
+    void onVoteChanged_NoSubscribers_DoesNothing() {
+        broker.onVoteChanged(new VoteChangedEvent(1L, 10L, 1));
+
+        assertThat(broker.subscriberCount(1L)).isZero();
+    }
+
+    @Test
+    void shutdown_CompletesAndForgetsAllStreams() throws Exception {
+        // given
+        givenScheduledLesson(1L, tally(10L, 2));
+        subscribe(1L);
+        subscribe(1L);
+        assertThat(broker.subscriberCount(1L)).isEqualTo(2);
+
+        // when
+        broker.shutdown();
+
+        // then
+        assertThat(broker.subscriberCount(1L)).isZero();
+    }
+
+    private static void runAll(Deque<Runnable> tasks) {
+        while (!tasks.isEmpty()) {
+            tasks.pop().run();
+        }
+    }
+
+    private void givenScheduledLesson(Long id, VoteTallyDTO... tallies) {
+        when(voteService.getVoteTallies(id)).thenReturn(List.of(tallies));
+    }
+
+    private MvcResult subscribe(Long scheduledLessonId) throws Exception {
+        return mockMvc.perform(get("/stream/{id}", scheduledLessonId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static VoteTallyDTO tally(Long proposedTimeSlotId, long votes) {
+        return new VoteTallyDTO(proposedTimeSlotId, votes);
+    }
+
+    @RestController
+    static class StreamController {
+        private final VoteTallyBroker broker;
+
+        StreamController(VoteTallyBroker broker) {
+            this.broker = broker;
+        }
+
+        @GetMapping("/stream/{id}")
+        SseEmitter stream(@PathVariable Long id) {
+            return broker.subscribe(id);
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.*;
 
@@ -36,6 +37,9 @@ class WorkshopServiceTest {
     @Mock
     private ActivityRepository activityRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private WorkshopService workshopService;
 
@@ -175,6 +179,7 @@ class WorkshopServiceTest {
         verify(workshopMapper).toEntity(workshopCreateDTO);
         verify(workshopRepository).save(workshop);
         verify(workshopMapper).toDto(workshop);
+        verify(eventPublisher).publishEvent(new SummaryChangedEvent(Workshop.class));
     }
 
     // ==================== UPDATE WORKSHOP TESTS ====================
@@ -424,6 +429,7 @@ class WorkshopServiceTest {
         // then
         verify(workshopRepository).existsById(1L);
         verify(workshopRepository).deleteById(1L);
+        verify(eventPublisher).publishEvent(new SummaryChangedEvent(Workshop.class));
     }
 
     @Test
@@ -438,5 +444,6 @@ class WorkshopServiceTest {
 
         verify(workshopRepository).existsById(1L);
         verify(workshopRepository, never()).deleteById(any());
+        verifyNoInteractions(eventPublisher);
     }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+-- The schema ddl-auto=update created from the entities before the first migration script, for upgrade tests.
+-- Kept apart from V1__baseline.sql on purpose: V1 must not contain anything this does not.
+create table workshops (id bigint generated by default as identity, description varchar(255), name varchar(255) not null unique, size float(53) not null, primary key (id));
+create table activities (id bigint generated by default as identity, description varchar(255), name varchar(255) not null unique, workshop_id bigint, primary key (id));
+create table lessons (id bigint generated by default as identity, description varchar(255), name varchar(255) not null, activity_id bigint, primary key (id));
+create table users (id bigint generated by default as identity, email varchar(255) not null unique, first_name varchar(255), last_name varchar(255), password varchar(255) not null, user_type varchar(255) not null check (user_type in ('NORMAL','INSTRUCTOR','ADMIN','SUPERADMIN')), primary key (id));
+create table lessons_users (id bigint generated by default as identity, acquired boolean not null, lesson_id bigint not null, user_id bigint not null, primary key (id));
+create table scheduled_lessons (id bigint generated by default as identity, duration_in_minutes bigint not null, start_time timestamp(6) with time zone, instructor_id bigint, lesson_id bigint not null, primary key (id));
+create table proposed_time_slots (id bigint generated by default as identity, created_at timestamp(6) with time zone not null, proposed_start_time timestamp(6) with time zone not null, scheduled_lesson_id bigint not null, primary key (id));
+create table votes (id bigint generated by default as identity, time_slot_id bigint not null, user_id bigint not null, primary key (id), constraint UKvotes unique (user_id, time_slot_id));
+alter table if exists activities add constraint FKactivities_workshop foreign key (workshop_id) references workshops;
+alter table if exists lessons add constraint FKlessons_activity foreign key (activity_id) references activities;
+alter table if exists lessons_users add constraint FKlessons_users_lesson foreign key (lesson_id) references lessons;
+alter table if exists lessons_users add constraint FKlessons_users_user foreign key (user_id) references users;
+alter table if exists scheduled_lessons add constraint FKscheduled_lessons_instructor foreign key (instructor_id) references users;
+alter table if exists scheduled_lessons add constraint FKscheduled_lessons_lesson foreign key (lesson_id) references lessons;
+alter table if exists proposed_time_slots add constraint FKproposed_time_slots_scheduled_lesson foreign key (scheduled_lesson_id) references scheduled_lessons;
+alter table if exists votes add constraint FKvotes_time_slot foreign key (time_slot_id) references proposed_time_slots;
+alter table if exists votes add constraint FKvotes_user foreign key (user_id) references users;
@@ -1,173 +1,248 @@
 /* tslint:disable */
 /* eslint-disable */
-// Generated using typescript-generator version 3.2.1263 on 2025-08-25 09:28:39.
 
-export interface ActivityCreateDTO {
+export interface Activity {
+    description: string;
     id: number;
     name: string;
+    workshop: Workshop;
+}
+
+export interface ActivityCreateDTO {
     description: string;
+    id: number;
+    name: string;
     workshopId: number;
 }
 
-export interface LessonCreateDTO {
+export interface ActivityResponseDTO {
+    description: string;
     id: number;
     name: string;
-    description: string;
-    activityId: number;
+    workshop: WorkshopSummaryDTO;
 }
 
-export interface LessonUserCreateDTO {
+export interface ActivitySummaryDTO {
+    description: string;
     id: number;
-    lessonId: number;
-    userId: number;
-    acquired: boolean;
+    name: string;
 }
 
-export interface ProposedTimeSlotCreateDTO {
+export interface CalendarFeedTokenDTO {
+    token: string;
+    userFeedPath: string;
+}
+
+export interface EmailOutbox {
+    attempts: number;
+    createdAt: Date;
     id: number;
-    proposedStartTime: Date;
+    lastError: string;
+    lessonName: string;
+    nextAttemptAt: Date;
+    proposedTimeSlotId: number;
+    recipientEmail: string;
+    recipientName: string;
     scheduledLessonId: number;
+    sentAt: Date;
+    status: EmailOutboxStatus;
 }
 
-export interface ScheduledLessonCreateDTO {
-    id: number;
-    startTime?: Date;
-    durationInMinutes: number;
-    lessonId: number;
-    instructorUserId: number;
+export interface GrantedAuthority extends Serializable {
+    authority: string;
 }
 
-export interface UserCreateDTO {
+export interface Lesson {
+    activity: Activity;
+    description: string;
     id: number;
-    firstName: string;
-    lastName: string;
-    password: string;
-    email: string;
-    userType: UserType;
+    name: string;
 }
 
-export interface VoteCreateDTO {
+export interface LessonCreateDTO {
+    activityId: number;
+    description: string;
     id: number;
-    userId: number;
-    proposedTimeSlotId: number;
+    name: string;
 }
 
-export interface WorkshopCreateDTO {
+export interface LessonResponseDTO {
+    activity: ActivityResponseDTO;
+    description: string;
     id: number;
     name: string;
-    description: string;
-    size: number;
-    activityIds: number[];
 }
 
-export interface ActivityResponseDTO {
+export interface LessonUser {
+    acquired: boolean;
     id: number;
-    name: string;
-    description: string;
-    workshop: WorkshopSummaryDTO;
+    lesson: Lesson;
+    user: User;
 }
 
-export interface LessonResponseDTO {
+export interface LessonUserCreateDTO {
+    acquired: boolean;
     id: number;
-    name: string;
-    description: string;
-    activity: ActivityResponseDTO;
+    lessonId: number;
+    userId: number;
 }
 
 export interface LessonUserResponseDTO {
+    acquired: boolean;
     id: number;
     lesson: LessonResponseDTO;
     user: UserSummaryDTO;
-    acquired: boolean;
+}
+
+export interface PageResponseDTO<T> {
+    content: T[];
+    nextCursor: number;
+    totalElements: number;
+}
+
+export interface ProposedTimeSlot {
+    createdAt: Date;
+    id: number;
+    proposedStartTime: Date;
+    scheduledLesson: ScheduledLesson;
+    voteCount: number;
+}
+
+export interface ProposedTimeSlotCreateDTO {
+    id: number;
+    proposedStartTime: Date;
+    scheduledLessonId: number;
 }
 
 export interface ProposedTimeSlotResponseDTO {
     id: number;
     proposedStartTime: Date;
     scheduledLesson: ScheduledLessonSummaryDTO;
+    voteCount: number;
     votes: VoteSummaryDTO[];
 }
 
-export interface ScheduledLessonResponseDTO {
+export interface ProposedTimeSlotSummaryDTO {
     id: number;
-    startTime?: Date;
-    durationInMinutes: number;
-    lesson: LessonResponseDTO;
-    instructor: UserResponseDTO;
-    proposedTimeSlots: ProposedTimeSlotSummaryDTO[];
+    proposedStartTime: Date;
+    voteCount: number;
+    votes: VoteSummaryDTO[];
 }
 
-export interface SummaryResponseDTO {
-    totalWorkshops: number;
-    totalActivities: number;
-    totalLessons: number;
-    totalScheduledLessons: number;
-    totalUsers: number;
+export interface ScheduleConflictDTO {
+    from: Date;
+    instructorId: number;
+    kind: ConflictKind;
+    scheduledLessonIds: number[];
+    to: Date;
+    workshopId: number;
 }
 
-export interface UserResponseDTO {
+export interface ScheduledLesson {
+    durationInMinutes: number;
     id: number;
-    firstName: string;
-    lastName: string;
-    email: string;
-    userType: UserType;
+    instructor: User;
+    lastNotifiedAt: Date;
+    lesson: Lesson;
+    proposedTimeSlots: ProposedTimeSlot[];
+    startTime?: Date;
 }
 
-export interface VoteResponseDTO {
+export interface ScheduledLessonCreateDTO {
+    durationInMinutes: number;
     id: number;
-    proposedTimeSlot: ProposedTimeSlotSummaryDTO;
-    user: UserSummaryDTO;
+    instructorUserId: number;
+    lessonId: number;
+    startTime?: Date;
 }
 
-export interface WorkshopResponseDTO {
+export interface ScheduledLessonResponseDTO {
+    durationInMinutes: number;
     id: number;
-    name: string;
-    description: string;
-    size: number;
-    activities: ActivitySummaryDTO[];
+    instructor: UserResponseDTO;
+    lesson: LessonResponseDTO;
+    proposedTimeSlots: ProposedTimeSlotSummaryDTO[];
+    startTime?: Date;
 }
 
-export interface Activity {
+export interface ScheduledLessonSummaryDTO {
+    durationInMinutes: number;
     id: number;
-    name: string;
-    description: string;
-    workshop: Workshop;
+    instructor: UserSummaryDTO;
+    lesson: LessonResponseDTO;
+    startTime?: Date;
 }
 
-export interface Lesson {
-    id: number;
-    name: string;
-    description: string;
-    activity: Activity;
+export interface Serializable {
 }
 
-export interface LessonUser {
-    id: number;
-    lesson: Lesson;
-    user: User;
-    acquired: boolean;
+export interface SlotScoreDTO {
+    conflictingScheduledLessonIds: number[];
+    conflicts: Conflict[];
+    proposedStartTime: Date;
+    proposedTimeSlotId: number;
+    votes: number;
 }
 
-export interface ProposedTimeSlot {
+export interface SlotSelectionBatchDTO {
+    scheduledLessonIds: number[];
+}
+
+export interface SlotSelectionDTO {
+    proposedTimeSlotId: number;
+    scheduledLessonId: number;
+    slots: SlotScoreDTO[];
+    startTime: Date;
+    status: SelectionStatus;
+}
+
+export interface SummaryResponseDTO {
+    totalActivities: number;
+    totalLessons: number;
+    totalScheduledLessons: number;
+    totalUsers: number;
+    totalWorkshops: number;
+}
+
+export interface User extends UserDetails {
+    email: string;
+    firstName: string;
     id: number;
-    proposedStartTime: Date;
-    scheduledLesson: ScheduledLesson;
-    createdAt: Date;
+    lastName: string;
+    userType: UserType;
 }
 
-export interface ScheduledLesson {
+export interface UserCreateDTO {
+    email: string;
+    firstName: string;
     id: number;
-    startTime?: Date;
-    durationInMinutes: number;
-    lesson: Lesson;
-    instructor: User;
-    proposedTimeSlots: ProposedTimeSlot[];
+    lastName: string;
+    password: string;
+    userType: UserType;
 }
 
-export interface User extends UserDetails {
+export interface UserDetails extends Serializable {
+    accountNonExpired: boolean;
+    accountNonLocked: boolean;
+    authorities: GrantedAuthority[];
+    credentialsNonExpired: boolean;
+    enabled: boolean;
+    password: string;
+    username: string;
+}
+
+export interface UserResponseDTO {
+    email: string;
+    firstName: string;
     id: number;
+    lastName: string;
+    userType: UserType;
+}
+
+export interface UserSummaryDTO {
     email: string;
     firstName: string;
+    id: number;
     lastName: string;
     userType: UserType;
 }
@@ -178,35 +253,38 @@ export interface Vote {
     user: User;
 }
 
-export interface Workshop {
-    id: number;
-    name: string;
-    description: string;
-    size: number;
-    activities: Activity[];
+export interface VoteBatchCreateDTO {
+    proposedTimeSlotIds: number[];
+    userId: number;
 }
 
-export interface WorkshopSummaryDTO {
-    id: number;
-    name: string;
-    description: string;
-    size: number;
+export interface VoteBatchItemDTO {
+    proposedTimeSlotId: number;
+    status: Status;
+    voteId: number;
 }
 
-export interface UserSummaryDTO {
+export interface VoteBatchResponseDTO {
+    results: VoteBatchItemDTO[];
+    tallies: VoteTallyDTO[];
+}
+
+export interface VoteCreateDTO {
     id: number;
-    firstName: string;
-    lastName: string;
-    email: string;
-    userType: UserType;
+    proposedTimeSlotId: number;
+    userId: number;
 }
 
-export interface ScheduledLessonSummaryDTO {
+export interface VoteDeltaDTO {
+    delta: number;
+    proposedTimeSlotId: number;
+    votes: number;
+}
+
+export interface VoteResponseDTO {
     id: number;
-    startTime?: Date;
-    durationInMinutes: number;
-    lesson: LessonResponseDTO;
-    instructor: UserSummaryDTO;
+    proposedTimeSlot: ProposedTimeSlotSummaryDTO;
+    user: UserSummaryDTO;
 }
 
 export interface VoteSummaryDTO {
@@ -214,33 +292,50 @@ export interface VoteSummaryDTO {
     user: UserSummaryDTO;
 }
 
-export interface ProposedTimeSlotSummaryDTO {
-    id: number;
-    proposedStartTime: Date;
-    votes: VoteSummaryDTO[];
+export interface VoteTallyDTO {
+    proposedTimeSlotId: number;
+    votes: number;
 }
 
-export interface ActivitySummaryDTO {
+export interface Workshop {
+    activities: Activity[];
+    description: string;
     id: number;
     name: string;
-    description: string;
+    size: number;
 }
 
-export interface GrantedAuthority extends Serializable {
-    authority: string;
+export interface WorkshopCreateDTO {
+    activityIds: number[];
+    description: string;
+    id: number;
+    name: string;
+    size: number;
 }
 
-export interface UserDetails extends Serializable {
-    password: string;
-    enabled: boolean;
-    username: string;
-    authorities: GrantedAuthority[];
-    accountNonLocked: boolean;
-    accountNonExpired: boolean;
-    credentialsNonExpired: boolean;
+export interface WorkshopResponseDTO {
+    activities: ActivitySummaryDTO[];
+    description: string;
+    id: number;
+    name: string;
+    size: number;
 }
 
-export interface Serializable {
+export interface WorkshopSummaryDTO {
+    description: string;
+    id: number;
+    name: string;
+    size: number;
 }
 
+export type Conflict = "IN_THE_PAST" | "INSTRUCTOR_BUSY" | "WORKSHOP_FULL";
+
+export type ConflictKind = "INSTRUCTOR_DOUBLE_BOOKED" | "WORKSHOP_OVER_CAPACITY";
+
+export type EmailOutboxStatus = "PENDING" | "SENT" | "FAILED";
+
+export type SelectionStatus = "SCHEDULED" | "ALREADY_SCHEDULED" | "NO_PROPOSED_SLOTS" | "NO_AVAILABLE_SLOT" | "NOT_FOUND";
+
+export type Status = "CREATED" | "DUPLICATE" | "NOT_FOUND";
+
 export type UserType = "NORMAL" | "INSTRUCTOR" | "ADMIN" | "SUPERADMIN";